@@ -1,14 +1,37 @@
 package com.example.cashdocumentsservice.config;
 
+import com.example.cashdocumentsservice.service.PipelineStages;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
 public class WebClientConfig {
 
+    /**
+     * Binary Jackson format requested from cashreportingservice by default, see {@code cashreportingservice.service.accept}.
+     */
+    public static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    /**
+     * Calls are observed as {@code http.client.requests} and as the {@code exchange} and {@code decode}
+     * {@link PipelineStages} of the request they are made for.
+     */
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder webClientBuilder(PipelineStages stages, ObservationRegistry observationRegistry) {
+        // Same mapper configuration as the JSON one; the media types are passed explicitly as the mapper
+        // constructor of the decoder would default to JSON
+        Jackson2SmileDecoder smileDecoder = new Jackson2SmileDecoder(
+                JacksonConfig.configure(new ObjectMapper(new SmileFactory())),
+                SMILE, MediaType.valueOf("application/*+x-jackson-smile"));
+        return WebClient.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2SmileDecoder(smileDecoder))
+                .observationRegistry(observationRegistry)
+                .filter(stages.exchangeFilter());
     }
 }
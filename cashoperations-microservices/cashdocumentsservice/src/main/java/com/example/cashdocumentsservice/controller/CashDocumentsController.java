@@ -3,6 +3,7 @@ package com.example.cashdocumentsservice.controller;
 import com.example.cashdocumentsservice.dto.FileDto;
 import com.example.cashdocumentsservice.model.MyFile;
 import com.example.cashdocumentsservice.service.CashDocumentsClientService;
+import com.example.cashdocumentsservice.service.PipelineStages;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -11,8 +12,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -22,10 +25,12 @@ import java.util.Optional;
 public class CashDocumentsController {
 
     private CashDocumentsClientService cashDocumentsClientService;
+    private PipelineStages stages;
 
     @Autowired
-    public CashDocumentsController(CashDocumentsClientService cashDocumentsClientService) {
+    public CashDocumentsController(CashDocumentsClientService cashDocumentsClientService, PipelineStages stages) {
         this.cashDocumentsClientService = cashDocumentsClientService;
+        this.stages = stages;
     }
 
     //define endpoints for download and upload
@@ -36,9 +41,11 @@ public class CashDocumentsController {
      *
      * <p>Validation and behavior:
      * <ul>
-     *   <li>File size validation: Configured via Spring properties (default: 100KB max)</li>
+     *   <li>File size validation: Configured via Spring properties (default: 64MB per file, 256MB per request)</li>
      *   <li>Duplicate handling: Same fileName in same fileGroup replaces existing file</li>
      *   <li>Atomic operations: Each file is processed independently</li>
+     *   <li>Streaming: Files are stored in fixed-size chunks as they are read, with their size and SHA-256, see
+     *   {@link com.example.cashdocumentsservice.service.DocumentStore}</li>
      * </ul>
      *
      * <p>Request parameters:
@@ -54,6 +61,9 @@ public class CashDocumentsController {
      *   <li>Partial failures: Some files may succeed while others fail</li>
      * </ul>
      *
+     * <p>The files are saved on bounded elastic, not on the event loop that completes the daily summary call. The
+     * stages are observed as the {@code upload} pipeline, see {@link PipelineStages}.
+     *
      * @param fileGroup the name of the file group to organize uploaded files
      * @param files     array of multipart files to upload and store
      * @return ResponseEntity with status code indicating success or failure
@@ -74,29 +84,22 @@ public class CashDocumentsController {
         if (getAndSaveDailySummary.isPresent() && getAndSaveDailySummary.get().equalsIgnoreCase("yes")) {
             dailySummaryProcess = cashDocumentsClientService.processAndSaveDailySummary();
         }
-        return dailySummaryProcess
-                .then(Mono.fromCallable(() -> {
-                    // Your existing file upload logic here
+        Mono<ResponseEntity<Void>> upload = dailySummaryProcess
+                .then(stages.observe(PipelineStages.STORE, Mono.fromCallable(() -> {
                     for (MultipartFile file : files) {
-                        // Check if file already exists for this fileGroup
-                        MyFile existingFile = cashDocumentsClientService.findByFileGroupAndFileName(fileGroup, file.getOriginalFilename());
-
-                        if (existingFile != null) {
-                            // Update existing file
-                            existingFile.setFile(file.getBytes());
-                            cashDocumentsClientService.save(existingFile);
-                        } else {
-                            // Create new file entry
-                            MyFile newFile = new MyFile(fileGroup, file.getOriginalFilename(), file.getBytes());
-                            cashDocumentsClientService.save(newFile);
+                        // Read from the part Tomcat spooled to disk, a chunk at a time; replaces a file of the same name
+                        try (InputStream content = file.getInputStream()) {
+                            cashDocumentsClientService.storeFile(fileGroup, file.getOriginalFilename(), content);
                         }
                     }
                     return ResponseEntity.status(HttpStatus.CREATED).<Void>build();
-                }))
+                }).subscribeOn(Schedulers.boundedElastic())));
+        return stages.observe(PipelineStages.TOTAL, upload)
                 .onErrorResume(e -> {
                     System.err.println("Error in upload process: " + e.getMessage());
                     return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
-                });
+                })
+                .contextWrite(PipelineStages.pipeline("upload"));
     }
 
     /**
@@ -138,19 +141,21 @@ public class CashDocumentsController {
                 // Return single file
                 MyFile file = files.get(0);
 
+                byte[] content = cashDocumentsClientService.readContent(file);
+
                 // Save to project folder
-                String filename = cashDocumentsClientService.saveSingleFileToDisk(fileGroup, file);
+                String filename = cashDocumentsClientService.saveSingleFileToDisk(fileGroup, file, content);
                 System.out.println("File saved to: " + filename);
 
                 // Return file in response
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
                 headers.setContentDispositionFormData("attachment", file.getFileName());
-                headers.setContentLength(file.getFile().length);
+                headers.setContentLength(content.length);
 
                 return ResponseEntity.ok()
                         .headers(headers)
-                        .body(file.getFile());
+                        .body(content);
             } else {
                 // Handle multiple files - create zip
                 byte[] zipData = cashDocumentsClientService.createZipFile(files);
@@ -0,0 +1,94 @@
+package com.example.cashdocumentsservice.controller;
+
+import com.example.cashdocumentsservice.config.ReactorSchedulerMetrics;
+import com.example.cashdocumentsservice.service.PipelineStages;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Stage breakdown of the document pipelines and queues of the Reactor schedulers, from the timers of
+ * {@link PipelineStages} and {@link ReactorSchedulerMetrics}:
+ * <code>GET http://localhost:8082/cashdocumentsservice/actuator/pipelines</code>.
+ * <p>
+ * Counts and times are since the start of the service; the timers themselves, with percentiles, are on
+ * {@code /actuator/metrics}.
+ */
+@Component
+@Endpoint(id = "pipelines")
+public class PipelineStagesEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    public PipelineStagesEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Breakdown breakdown() {
+        Map<String, Map<String, Stage>> pipelines = new TreeMap<>();
+        meterRegistry.find(PipelineStages.OBSERVATION).timers().stream()
+                .collect(Collectors.groupingBy(timer -> timer.getId().getTag("pipeline"), TreeMap::new,
+                        Collectors.groupingBy(timer -> timer.getId().getTag("stage"), TreeMap::new,
+                                Collectors.toList())))
+                .forEach((pipeline, stages) -> stages.forEach((stage, timers) ->
+                        pipelines.computeIfAbsent(pipeline, p -> new TreeMap<>()).put(stage, stage(timers))));
+
+        Map<String, SchedulerQueue> schedulers = new TreeMap<>();
+        for (Timer running : meterRegistry.find(ReactorSchedulerMetrics.PREFIX + "executor").timers()) {
+            String name = running.getId().getTag("name");
+            Timer idle = meterRegistry.find(ReactorSchedulerMetrics.PREFIX + "executor.idle").tag("name", name).timer();
+            schedulers.put(name, new SchedulerQueue(
+                    gauge("workers", name), gauge("queued", name), gauge("active", name),
+                    running.count(), running.mean(TimeUnit.MILLISECONDS),
+                    idle != null ? idle.mean(TimeUnit.MILLISECONDS) : 0,
+                    idle != null ? idle.max(TimeUnit.MILLISECONDS) : 0));
+        }
+        return new Breakdown(pipelines, schedulers);
+    }
+
+    private static Stage stage(List<Timer> timers) {
+        long count = 0;
+        long errors = 0;
+        double totalMillis = 0;
+        double maxMillis = 0;
+        for (Timer timer : timers) {
+            count += timer.count();
+            if (!"none".equals(timer.getId().getTag("error"))) {
+                errors += timer.count();
+            }
+            totalMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+            maxMillis = Math.max(maxMillis, timer.max(TimeUnit.MILLISECONDS));
+        }
+        return new Stage(count, errors, count > 0 ? totalMillis / count : 0, maxMillis, totalMillis);
+    }
+
+    private double gauge(String metric, String name) {
+        Collection<Gauge> gauges = meterRegistry.find(ReactorSchedulerMetrics.PREFIX + "executor." + metric)
+                .tag("name", name).gauges();
+        return gauges.stream().mapToDouble(Gauge::value).sum();
+    }
+
+    public record Breakdown(Map<String, Map<String, Stage>> pipelines, Map<String, SchedulerQueue> schedulers) {
+    }
+
+    /**
+     * @param maxMillis longest recent run, decays over the distribution expiry of the registry
+     */
+    public record Stage(long count, long errors, double meanMillis, double maxMillis, double totalMillis) {
+    }
+
+    public record SchedulerQueue(double workers, double queued, double active, long tasks, double meanRunMillis,
+                                 double meanWaitMillis, double maxWaitMillis) {
+    }
+}
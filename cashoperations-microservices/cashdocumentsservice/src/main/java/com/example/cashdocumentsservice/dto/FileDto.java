@@ -9,4 +9,8 @@ public class FileDto {
     private String fileGroup;
 
     private String fileName;
+
+    private Long fileSize;
+
+    private String checksum;
 }
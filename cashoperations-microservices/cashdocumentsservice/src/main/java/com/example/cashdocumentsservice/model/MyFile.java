@@ -24,9 +24,16 @@ public class MyFile {
     @Column
     private String fileName;
 
-    @NonNull
+    // Content of files saved before uploads were chunked, see DocumentStore
     @Column
     @Lob
     private byte[] file;
+
+    @Column
+    private Long fileSize;
+
+    // SHA-256 of the content, hex
+    @Column
+    private String checksum;
 }
 
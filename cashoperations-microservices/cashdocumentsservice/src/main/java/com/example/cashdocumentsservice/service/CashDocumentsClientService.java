@@ -15,8 +15,10 @@ import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.OpenOption;
@@ -49,20 +51,28 @@ public class CashDocumentsClientService {
     private final String cashReportingServiceBaseUrl;
     private final String cashReportingServiceApiKey;
     private final MyFileRepository myFileRepository;
+    private final DocumentStore documentStore;
     private final RestTemplate restTemplate;
+    private final PipelineStages stages;
 
     public CashDocumentsClientService(MyFileRepository myFileRepository,
+                                      DocumentStore documentStore,
                                       RestTemplate restTemplate,
+                                      PipelineStages stages,
                                       WebClient.Builder webClientBuilder,
                                       @Value("${cashreportingservice.service.base-url}") String baseUrl,
-                                      @Value("${cashreportingservice.service.api-key}") String apiKey) {
+                                      @Value("${cashreportingservice.service.api-key}") String apiKey,
+                                      @Value("${cashreportingservice.service.accept}") String accept) {
         this.myFileRepository = myFileRepository;
+        this.documentStore = documentStore;
         this.restTemplate = restTemplate;
+        this.stages = stages;
         this.cashReportingServiceBaseUrl = baseUrl;
         this.cashReportingServiceApiKey = apiKey;
         this.webClient = webClientBuilder
                 .baseUrl(baseUrl)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .defaultHeader(HttpHeaders.ACCEPT, accept)
                 .defaultHeader("FIB-X-AUTH", apiKey)
                 .build();
     }
@@ -88,6 +98,7 @@ public class CashDocumentsClientService {
     /**
      * Creates a zip archive in memory from a list of XFile objects.
      * Uses ZipOutputStream with try-with-resources for automatic resource management.
+     * The content of every file is copied into its entry a chunk at a time.
      *
      * @param files list of XFile objects to include in the zip archive
      * @return byte array containing the zip file data
@@ -99,7 +110,7 @@ public class CashDocumentsClientService {
             for (MyFile file : files) {
                 ZipEntry entry = new ZipEntry(file.getFileName());
                 zos.putNextEntry(entry);
-                zos.write(file.getFile());
+                documentStore.copy(file, zos);
                 zos.closeEntry();
             }
         }
@@ -126,12 +137,13 @@ public class CashDocumentsClientService {
      * The implementation I provided is both efficient and elegant while maintaining all the original functionality.
      *
      * @param fileGroup the file group name for filename generation
-     * @param file      the XFile object containing data to persist
+     * @param file      the XFile object to persist
+     * @param content   the content of the file, see {@link #readContent(MyFile)}
      * @return String representing the full path where file was saved
      * @throws IOException if file write operation fails
      * @see java.nio.file.Files#write(Path, byte[], OpenOption...)
      */
-    public String saveSingleFileToDisk(String fileGroup, MyFile file) throws IOException {
+    public String saveSingleFileToDisk(String fileGroup, MyFile file, byte[] content) throws IOException {
         // Create downloads directory if it doesn't exist
         Path downloadPath = createDownloadDirectory(fileGroup);
 
@@ -143,7 +155,7 @@ public class CashDocumentsClientService {
         Path filePath = downloadPath.resolve(filename);
 
         // Elegant one-line file write - most efficient way
-        Files.write(filePath, file.getFile());
+        Files.write(filePath, content);
 
         return filePath.toString();
     }
@@ -195,6 +207,8 @@ public class CashDocumentsClientService {
         dto.setFileGroup(file.getFileGroup());
         dto.setFileName(file.getFileName());
         dto.setId(file.getId());
+        dto.setFileSize(file.getFileSize());
+        dto.setChecksum(file.getChecksum());
 
         return dto;
     }
@@ -207,6 +221,18 @@ public class CashDocumentsClientService {
         return myFileRepository.save(file);
     }
 
+    /**
+     * Stores the file read from {@code content}, replacing the file of that name in the group, see
+     * {@link DocumentStore}.
+     */
+    public MyFile storeFile(String fileGroup, String fileName, InputStream content) throws IOException {
+        return documentStore.store(fileGroup, fileName, content);
+    }
+
+    public byte[] readContent(MyFile file) throws IOException {
+        return documentStore.read(file);
+    }
+
     public List<MyFile> findByFileGroup(String fileGroup) {
         return myFileRepository.findByFileGroup(fileGroup);
     }
@@ -216,7 +242,7 @@ public class CashDocumentsClientService {
     }
 
     private Mono<Void> saveDailySummaryToFileAndDB(ResponseEntity<DailySummaryReport> response) {
-        return Mono.fromCallable(() -> {
+        return stages.observe(PipelineStages.ARCHIVE, Mono.fromCallable(() -> {
             try {
                 // Block and get the response (use with caution in reactive applications)
                 //ResponseEntity<DailySummaryReport> response = dailySummaryMono.block(Duration.ofSeconds(30));
@@ -234,17 +260,8 @@ public class CashDocumentsClientService {
                     Files.createDirectories(filePath.getParent()); // Create directory if it doesn't exist
                     Files.write(filePath, fileContent.getBytes(StandardCharsets.UTF_8));
 
-                    MyFile existingFile = myFileRepository.findByFileGroupAndFileName("reports", filename);
-
-                    if (existingFile != null) {
-                        // Update existing file
-                        existingFile.setFile(fileContent.getBytes());
-                        myFileRepository.save(existingFile);
-                    } else {
-                        // Create new file entry
-                        MyFile newFile = new MyFile("reports", filename, fileContent.getBytes());
-                        myFileRepository.save(newFile);
-                    }
+                    // Replaces the summary saved earlier today
+                    documentStore.store("reports", filename, new ByteArrayInputStream(fileContent.getBytes()));
 
                     System.out.println("Daily summary saved to: " + filePath.toAbsolutePath());
                 } else {
@@ -255,7 +272,7 @@ public class CashDocumentsClientService {
                 e.printStackTrace();
             }
             return null;
-        }).subscribeOn(Schedulers.boundedElastic()).then(); // Offload file I/O to bounded elastic scheduler
+        }).subscribeOn(Schedulers.boundedElastic())).then(); // Offload file I/O to bounded elastic scheduler
     }
 
     private String formatDailySummary(DailySummaryReport report) {
@@ -0,0 +1,108 @@
+package com.example.cashdocumentsservice.service;
+
+import com.example.cashdocumentsservice.model.MyFile;
+import com.example.cashdocumentsservice.repository.MyFileRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/**
+ * Content of the stored files, in {@code file_chunk} rows of {@value #CHUNK_SIZE} bytes. A file is stored as it is
+ * read, a chunk at a time, with its size and SHA-256 computed on the way, so storing holds one chunk in memory
+ * whatever the size of the file. Files saved before, with their content in {@link MyFile#getFile()}, are read as
+ * they are.
+ */
+@Service
+public class DocumentStore {
+
+    public static final int CHUNK_SIZE = 256 * 1024;
+
+    private final MyFileRepository myFileRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public DocumentStore(MyFileRepository myFileRepository, JdbcTemplate jdbcTemplate) {
+        this.myFileRepository = myFileRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stores {@code content} as {@code fileName} of {@code fileGroup}, replacing the file of that name.
+     */
+    @Transactional
+    public MyFile store(String fileGroup, String fileName, InputStream content) throws IOException {
+        MyFile file = myFileRepository.findByFileGroupAndFileName(fileGroup, fileName);
+        if (file == null) {
+            file = new MyFile(fileGroup, fileName);
+        }
+        file.setFile(null);
+        // Inserted first, the chunks need its id
+        file = myFileRepository.saveAndFlush(file);
+        jdbcTemplate.update("DELETE FROM file_chunk WHERE file_id = ?", file.getId());
+
+        MessageDigest digest = sha256();
+        byte[] chunk = new byte[CHUNK_SIZE];
+        long size = 0;
+        int seq = 0;
+        for (int read = content.readNBytes(chunk, 0, CHUNK_SIZE); read > 0;
+             read = content.readNBytes(chunk, 0, CHUNK_SIZE)) {
+            digest.update(chunk, 0, read);
+            jdbcTemplate.update("INSERT INTO file_chunk (file_id, seq, content) VALUES (?, ?, ?)", file.getId(), seq++,
+                    read == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, read));
+            size += read;
+        }
+        file.setFileSize(size);
+        file.setChecksum(HexFormat.of().formatHex(digest.digest()));
+        return myFileRepository.save(file);
+    }
+
+    /**
+     * Writes the content of {@code file} to {@code out}, a chunk at a time.
+     */
+    @Transactional(readOnly = true)
+    public void copy(MyFile file, OutputStream out) throws IOException {
+        if (file.getFile() != null) {
+            out.write(file.getFile());
+            return;
+        }
+        try {
+            jdbcTemplate.query("SELECT content FROM file_chunk WHERE file_id = ? ORDER BY seq", resultSet -> {
+                try {
+                    out.write(resultSet.getBytes(1));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, file.getId());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public byte[] read(MyFile file) throws IOException {
+        if (file.getFile() != null) {
+            return file.getFile();
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream(
+                file.getFileSize() != null ? Math.toIntExact(file.getFileSize()) : CHUNK_SIZE);
+        copy(file, content);
+        return content.toByteArray();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
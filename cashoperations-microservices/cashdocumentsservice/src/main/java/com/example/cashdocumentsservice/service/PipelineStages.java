@@ -0,0 +1,86 @@
+package com.example.cashdocumentsservice.service;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Micrometer observations of the stages of the document pipelines, so a slow upload can be put down to the call to
+ * cashreportingservice, the decoding of its response or the blocking file and JPA writes.
+ * <p>
+ * A stage is an observation {@code cashdocumentsservice.pipeline.stage} tagged with its {@code stage} and the
+ * {@code pipeline} it runs in, read from the subscriber context ({@link #pipeline(String)}, {@code background}
+ * otherwise). The meter handler records it as a timer of the same name with an {@code error} tag, and as an
+ * {@code .active} long task timer of the stages in flight. The breakdown per pipeline is on
+ * {@code /actuator/pipelines}.
+ */
+@Component
+public class PipelineStages {
+
+    public static final String OBSERVATION = "cashdocumentsservice.pipeline.stage";
+    public static final String BACKGROUND = "background";
+
+    /** The whole request, from subscription to response. */
+    public static final String TOTAL = "total";
+    /** A call to cashreportingservice until its response headers. */
+    public static final String EXCHANGE = "exchange";
+    /** Reading and decoding a response body. */
+    public static final String DECODE = "decode";
+    /** Writing the daily summary to its file and to the database, on bounded elastic. */
+    public static final String ARCHIVE = "archive";
+    /** Saving the uploaded files to the database, on bounded elastic. */
+    public static final String STORE = "store";
+
+    private static final String PIPELINE_KEY = PipelineStages.class.getName() + ".pipeline";
+
+    private final ObservationRegistry registry;
+
+    public PipelineStages(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Context naming the pipeline of the stages below it.
+     */
+    public static Context pipeline(String name) {
+        return Context.of(PIPELINE_KEY, name);
+    }
+
+    public <T> Mono<T> observe(String stage, Mono<T> source) {
+        return Mono.deferContextual(context -> {
+            Observation observation = start(stage, context);
+            return source.doOnError(observation::error)
+                    .doFinally(signal -> observation.stop());
+        });
+    }
+
+    public <T> Flux<T> observe(String stage, Flux<T> source) {
+        return Flux.deferContextual(context -> {
+            Observation observation = start(stage, context);
+            return source.doOnError(observation::error)
+                    .doFinally(signal -> observation.stop());
+        });
+    }
+
+    /**
+     * Observes the {@link #EXCHANGE} and {@link #DECODE} stages of every call of a {@code WebClient}.
+     */
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> observe(EXCHANGE, next.exchange(request))
+                .map(response -> response.mutate()
+                        .body(body -> observe(DECODE, body))
+                        .build());
+    }
+
+    private Observation start(String stage, ContextView context) {
+        return Observation.createNotStarted(OBSERVATION, registry)
+                .lowCardinalityKeyValue("pipeline", context.getOrDefault(PIPELINE_KEY, BACKGROUND))
+                .lowCardinalityKeyValue("stage", stage)
+                .start();
+    }
+}
@@ -1,3 +1,12 @@
+-- Content of the uploaded files, in chunks of DocumentStore.CHUNK_SIZE bytes
+CREATE TABLE IF NOT EXISTS file_chunk (
+    file_id bigint NOT NULL,
+    seq int NOT NULL,
+    -- A LOB, kept out of the rows, like MyFile.file
+    content blob NOT NULL,
+    PRIMARY KEY (file_id, seq)
+    );
+
 CREATE TABLE IF NOT EXISTS `accounts` (
     `customer_id` int NOT NULL,
     `account_number` int AUTO_INCREMENT  PRIMARY KEY,
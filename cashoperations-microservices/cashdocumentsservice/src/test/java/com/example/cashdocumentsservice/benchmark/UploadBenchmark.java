@@ -0,0 +1,168 @@
+package com.example.cashdocumentsservice.benchmark;
+
+import com.example.cashdocumentsservice.CashDocumentsServiceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent uploads of {@value #FILE_SIZE_MB} MB files to the uploader, four threads at a time, against the service
+ * booted in the benchmark JVM. The multipart bodies are generated as they are sent, so the heap the uploads take is
+ * the service's: it runs with a heap of 384 MB, which the four files would fill if they were read into memory, and
+ * an H2 database on disk under {@code target/jmh}. Each thread uploads to a file name of its own, replacing its
+ * previous upload.
+ * <p>
+ * Run with {@code main}, from the IDE or with
+ * {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath com.example.cashdocumentsservice.benchmark.UploadBenchmark"},
+ * to profile the allocations with {@link GCProfiler}, print the peak heap and write the results to
+ * {@code target/jmh/upload.json}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms384m", "-Xmx384m"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class UploadBenchmark {
+
+    private static final int FILE_SIZE_MB = 50;
+    private static final String BOUNDARY = "upload-benchmark";
+    private static final List<String> QUIET_LOGGERS = List.of("root", "com.example.cashdocumentsservice",
+            "org.hibernate.SQL", "org.hibernate.type.descriptor.sql", "org.hibernate.orm.jdbc.bind",
+            "org.springframework.data.jpa", "org.springframework.orm.jpa", "org.springframework.transaction",
+            "org.springframework.jdbc.core", "org.springframework.web.reactive.function.client", "com.h2database");
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI uploader;
+
+    @Setup
+    public void setup() {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.cloud.config.enabled=false",
+                "--spring.config.import=",
+                "--spring.cloud.bus.enabled=false",
+                "--build.version=benchmark",
+                "--management.health.rabbit.enabled=false",
+                "--spring.datasource.url=jdbc:h2:file:./target/jmh/uploads",
+                // On disk, H2 is not initialized as an embedded database
+                "--spring.sql.init.mode=always",
+                "--spring.jpa.show-sql=false",
+                "--spring.output.ansi.enabled=NEVER"));
+        for (String logger : QUIET_LOGGERS) {
+            arguments.add("--logging.level." + logger + "=WARN");
+        }
+        context = SpringApplication.run(CashDocumentsServiceApplication.class, arguments.toArray(String[]::new));
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        uploader = URI.create("http://localhost:" + port + "/cashdocumentsservice/api/v1/documents/uploader");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%nPeak heap: %d MB%n", peak >> 20);
+        context.close();
+    }
+
+    @Benchmark
+    public int upload(ThreadParams thread) throws IOException, InterruptedException {
+        String fileName = "upload-" + thread.getThreadIndex() + ".bin";
+        byte[] head = ("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"fileGroup\"\r\n\r\nbenchmark\r\n"
+                + "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        long length = head.length + ((long) FILE_SIZE_MB << 20) + tail.length;
+
+        HttpRequest request = HttpRequest.newBuilder(uploader)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(
+                        () -> new SequenceInputStream(new ByteArrayInputStream(head), new SequenceInputStream(
+                                new FileContent((long) FILE_SIZE_MB << 20), new ByteArrayInputStream(tail)))), length))
+                .build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 201) {
+            throw new IllegalStateException("Upload of " + fileName + " answered " + status);
+        }
+        return status;
+    }
+
+    /**
+     * {@code size} bytes of random content, repeating a block of 64 KB.
+     */
+    private static final class FileContent extends InputStream {
+        private static final byte[] BLOCK = new byte[64 * 1024];
+
+        static {
+            new SplittableRandom(42).nextBytes(BLOCK);
+        }
+
+        private long remaining;
+
+        private FileContent(long size) {
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            return remaining > 0 ? BLOCK[(int) (remaining-- % BLOCK.length)] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int offset = (int) (remaining % BLOCK.length);
+            int read = (int) Math.min(Math.min(len, remaining), BLOCK.length - offset);
+            System.arraycopy(BLOCK, offset, b, off, read);
+            remaining -= read;
+            return read;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        File results = new File("target/jmh/upload.json");
+        results.getParentFile().mkdirs();
+        Options options = new OptionsBuilder()
+                .include(UploadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.getPath())
+                .build();
+        new Runner(options).run();
+    }
+}
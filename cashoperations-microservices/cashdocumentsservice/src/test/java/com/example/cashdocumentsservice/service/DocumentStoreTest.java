@@ -0,0 +1,109 @@
+package com.example.cashdocumentsservice.service;
+
+import com.example.cashdocumentsservice.config.AuditAwareConfig;
+import com.example.cashdocumentsservice.model.MyFile;
+import com.example.cashdocumentsservice.repository.MyFileRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({DocumentStore.class, AuditAwareConfig.class})
+class DocumentStoreTest {
+
+    @Autowired
+    private DocumentStore documentStore;
+
+    @Autowired
+    private MyFileRepository myFileRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldStoreTheContentInChunksWithItsSizeAndChecksum() throws Exception {
+        byte[] content = content(DocumentStore.CHUNK_SIZE * 3 + 1234);
+        ReadSizes in = new ReadSizes(new ByteArrayInputStream(content));
+
+        MyFile file = documentStore.store("scans", "report.pdf", in);
+
+        assertEquals(content.length, file.getFileSize());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), file.getChecksum());
+        assertNull(file.getFile());
+        assertEquals(4, chunks(file));
+        assertTrue(in.largestRead <= DocumentStore.CHUNK_SIZE, "read " + in.largestRead + " bytes at once");
+        assertArrayEquals(content, documentStore.read(file));
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        documentStore.copy(file, copy);
+        assertArrayEquals(content, copy.toByteArray());
+    }
+
+    @Test
+    void shouldReplaceTheFileOfTheSameName() throws IOException {
+        MyFile first = documentStore.store("scans", "report.pdf", new ByteArrayInputStream(content(DocumentStore.CHUNK_SIZE * 2)));
+        byte[] replacement = content(10);
+
+        MyFile second = documentStore.store("scans", "report.pdf", new ByteArrayInputStream(replacement));
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(1, chunks(second));
+        assertEquals(10, second.getFileSize());
+        assertArrayEquals(replacement, documentStore.read(myFileRepository.findByFileGroupAndFileName("scans", "report.pdf")));
+        assertEquals(List.of(second.getId()), myFileRepository.findByFileGroup("scans").stream().map(MyFile::getId).toList());
+    }
+
+    @Test
+    void shouldReadFilesSavedWithTheirContentAndEmptyFiles() throws IOException {
+        MyFile saved = new MyFile("reports", "summary.txt");
+        saved.setFile(content(100));
+        saved = myFileRepository.save(saved);
+
+        MyFile empty = documentStore.store("reports", "empty.txt", new ByteArrayInputStream(new byte[0]));
+
+        assertArrayEquals(saved.getFile(), documentStore.read(saved));
+        assertEquals(0, empty.getFileSize());
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", empty.getChecksum());
+        assertArrayEquals(new byte[0], documentStore.read(empty));
+    }
+
+    private int chunks(MyFile file) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM file_chunk WHERE file_id = ?", Integer.class, file.getId());
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new SplittableRandom(size).nextBytes(content);
+        return content;
+    }
+
+    /**
+     * Records the largest read of the store.
+     */
+    private static final class ReadSizes extends FilterInputStream {
+        private int largestRead;
+
+        private ReadSizes(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            largestRead = Math.max(largestRead, len);
+            return super.read(b, off, len);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.cashoperations;
 
+import com.example.cashoperations.dto.AdmissionControlProperties;
 import com.example.cashoperations.dto.CashoperationsContactInfoDto;
+import com.example.cashoperations.dto.JournalProperties;
+import com.example.cashoperations.dto.OutboxProperties;
+import com.example.cashoperations.dto.PersistenceProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
-@EnableConfigurationProperties(value = {CashoperationsContactInfoDto.class})
+@EnableConfigurationProperties(value = {CashoperationsContactInfoDto.class, AdmissionControlProperties.class, JournalProperties.class, PersistenceProperties.class, OutboxProperties.class})
 @EnableJpaAuditing(auditorAwareRef = "auditAwareConfig")
 public class CashoperationsApplication {
 
@@ -0,0 +1,21 @@
+package com.example.cashoperations.config;
+
+import com.example.cashoperations.dto.OutboxProperties;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Declares the balance-events exchange on the broker (through Boot's {@code RabbitAdmin}). Consumers declare and
+ * bind their own queues, e.g. {@code deposit.#} or {@code *.*.EUR}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cashoperations.outbox", name = "publisher", havingValue = "amqp")
+public class BalanceEventsAmqpConfig {
+
+    @Bean
+    public TopicExchange balanceEventsExchange(OutboxProperties properties) {
+        return new TopicExchange(properties.getExchange(), true, false);
+    }
+}
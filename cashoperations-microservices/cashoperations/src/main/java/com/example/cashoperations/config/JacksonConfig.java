@@ -3,15 +3,60 @@ package com.example.cashoperations.config;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
+/**
+ * JSON mapper of the service plus Smile and CBOR variants with the same configuration. The binary formats are
+ * negotiated with the {@code Accept} header ({@code application/x-jackson-smile}, {@code application/cbor}) and are
+ * what cashreportingservice requests for cash balance lists; JSON stays the default, so browsers, Postman and JMeter
+ * are unaffected.
+ */
 @Configuration
 public class JacksonConfig {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final MediaType SMILE_SUFFIX = MediaType.valueOf("application/*+x-jackson-smile");
+
     @Bean
     public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
+        return configure(new ObjectMapper());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(configure(new ObjectMapper(new SmileFactory())));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(configure(new ObjectMapper(new CBORFactory())));
+    }
+
+    /**
+     * Smile for the reactive deployment (and Boot's {@code WebClient.Builder}). CBOR is servlet only: WebFlux
+     * consults custom codecs before JSON, so a CBOR encoder would answer requests without an {@code Accept} header.
+     */
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter) {
+        ObjectMapper smileMapper = smileHttpMessageConverter.getObjectMapper();
+        return configurer -> {
+            // The mapper constructors default to the JSON media types, so the Smile ones are passed explicitly
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE, SMILE_SUFFIX));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE, SMILE_SUFFIX));
+        };
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
         mapper.registerModule(new JavaTimeModule());
         // Allow unknown enum values to map to @JsonEnumDefaultValue constants (e.g., Currency.UNKNOWN)
         mapper.configure(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_USING_DEFAULT_VALUE, true);
@@ -21,4 +66,4 @@ public class JacksonConfig {
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         return mapper;
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,48 @@
 package com.example.cashoperations.config;
 
+import com.example.cashoperations.interceptor.AdaptiveConcurrencyInterceptor;
+import com.example.cashoperations.interceptor.AdmissionControlInterceptor;
 import com.example.cashoperations.interceptor.ApiKeyAuthenticationInterceptor;
+import com.example.cashoperations.resolver.CashOperationSlotsArgumentResolver;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WebConfig implements WebMvcConfigurer {
 
     private final ApiKeyAuthenticationInterceptor apiKeyAuthenticationInterceptor;
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final AdaptiveConcurrencyInterceptor adaptiveConcurrencyInterceptor;
+    private final CashOperationSlotsArgumentResolver cashOperationSlotsArgumentResolver;
 
-    public WebConfig(ApiKeyAuthenticationInterceptor apiKeyAuthenticationInterceptor) {
+    public WebConfig(ApiKeyAuthenticationInterceptor apiKeyAuthenticationInterceptor,
+                     AdmissionControlInterceptor admissionControlInterceptor,
+                     AdaptiveConcurrencyInterceptor adaptiveConcurrencyInterceptor,
+                     CashOperationSlotsArgumentResolver cashOperationSlotsArgumentResolver) {
         this.apiKeyAuthenticationInterceptor = apiKeyAuthenticationInterceptor;
+        this.admissionControlInterceptor = admissionControlInterceptor;
+        this.adaptiveConcurrencyInterceptor = adaptiveConcurrencyInterceptor;
+        this.cashOperationSlotsArgumentResolver = cashOperationSlotsArgumentResolver;
     }
 
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(apiKeyAuthenticationInterceptor);
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/api/v1/cash-operation", "/api/v1/cash-operation/**", "/api/v1/cash-balance",
+                        "/api/v1/cash-aggregates");
+        registry.addInterceptor(adaptiveConcurrencyInterceptor)
+                .addPathPatterns("/api/v1/cash-operation", "/api/v1/cash-operation/**");
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(cashOperationSlotsArgumentResolver);
     }
 }
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.example.cashoperations.controller;
 
+import com.example.cashoperations.dto.BalanceEventPage;
+import com.example.cashoperations.dto.CashAggregateResponse;
 import com.example.cashoperations.dto.CashBalanceResponse;
 import com.example.cashoperations.exception.ErrorResponseDto;
 import com.example.cashoperations.service.CashBalanceService;
@@ -12,6 +14,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +33,7 @@ import java.util.Optional;
         description = "Endpoint to retrieve cash balances per cashier and currency, filterable by date range and cashier name."
 )
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Transactional
 @Validated
 @SecurityRequirement(name = "fibAuth")
@@ -74,6 +78,12 @@ public class CashBalanceController {
                                     summary = "Missing or wrong FIB-X-AUTH header",
                                     value = "{\n  \"apiPath\": \"uri=/api/v1/cash-balance\",\n  \"errorCode\": \"UNAUTHORIZED\",\n  \"errorMessage\": \"Invalid API key.\",\n  \"errorTime\": [2025,8,24,20,44,37]\n}"))
             ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Too Many Requests - shed by admission control, retry after the Retry-After header (seconds)",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal Server Error",
@@ -90,4 +100,74 @@ public class CashBalanceController {
         List<CashBalanceResponse> balances = cashBalanceService.getCashBalances(dateFrom, dateTo, cashier);
         return ResponseEntity.ok(balances);
     }
+
+    @Operation(
+            summary = "Get cash aggregates",
+            description = "Returns totals computed from the current cash balances: the sum per currency and the deposit/withdrawal counts " +
+                    "of the selected cashiers, instead of their full denomination breakdown. Optional filters: dateFrom/dateTo " +
+                    "(format: yyyy-MM-dd'T'HH:mm:ss) as for /cash-balance, cashier and currency. perCashier=true adds the same aggregates per cashier."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Aggregates computed successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CashAggregateResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - dateFrom is after dateTo",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - missing or invalid API key",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Too Many Requests - shed by admission control, retry after the Retry-After header (seconds)",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @GetMapping("/cash-aggregates")
+    public ResponseEntity<CashAggregateResponse> getCashAggregates(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Optional<LocalDateTime> dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Optional<LocalDateTime> dateTo,
+            @RequestParam(required = false) Optional<String> cashier,
+            @RequestParam(required = false) Optional<String> currency,
+            @RequestParam(defaultValue = "false") boolean perCashier
+    ) {
+        return ResponseEntity.ok(cashBalanceService.getCashAggregates(dateFrom, dateTo, cashier, currency, perCashier));
+    }
+
+    @Operation(
+            summary = "Get balance-change events",
+            description = "Returns the retained balance-change events with a sequence id greater than since, oldest first, " +
+                    "at most limit (max 1000) per page. Consumers catch up with it before following the events published on the broker."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Events retrieved successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BalanceEventPage.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - missing or invalid API key",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @GetMapping("/balance-events")
+    public ResponseEntity<BalanceEventPage> getBalanceEvents(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        return ResponseEntity.ok(cashBalanceService.getBalanceEvents(since, limit));
+    }
 }
@@ -1,9 +1,21 @@
 package com.example.cashoperations.controller;
 
+import com.example.cashoperations.dto.AmountWithdrawalRequest;
 import com.example.cashoperations.dto.CashOperationRequest;
+import com.example.cashoperations.dto.CashOperationResult;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.dto.JournalProperties;
+import com.example.cashoperations.exception.DurabilityNotConfirmedException;
 import com.example.cashoperations.exception.ErrorResponseDto;
+import com.example.cashoperations.model.Denomination;
+import com.example.cashoperations.model.Durability;
+import com.example.cashoperations.service.AdmissionControlService;
 import com.example.cashoperations.service.CashDeskService;
+import com.example.cashoperations.utils.LocalDateTimeFormatter;
+import com.example.cashoperations.validators.CashOperationDecoder;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,29 +25,50 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Tag(
         name = "Cash Desk Operations",
         description = "Endpoint to perform cash deposit or withdrawal in BGN or EUR."
 )
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Transactional
 @Validated
 @SecurityRequirement(name = "fibAuth")
 @RequestMapping("/api/v1")
 public class CashDeskController {
 
+    static final String CASH_OPERATION_PATH = "uri=/api/v1/cash-operation";
+    static final String WITHDRAWAL_BY_AMOUNT_PATH = "uri=/api/v1/cash-operation/withdrawal-by-amount";
+    public static final String DURABILITY_HEADER = "X-Durability";
+
     private final CashDeskService cashService;
+    private final CashOperationDecoder cashOperationDecoder;
+    private final AdmissionControlService admissionControlService;
+    private final JournalProperties journalProperties;
 
-    public CashDeskController(@Qualifier("cashDeskServiceImpl") CashDeskService cashService) {
+    public CashDeskController(@Qualifier("cashDeskServiceImpl") CashDeskService cashService,
+                              CashOperationDecoder cashOperationDecoder,
+                              AdmissionControlService admissionControlService,
+                              JournalProperties journalProperties) {
         this.cashService = cashService;
+        this.cashOperationDecoder = cashOperationDecoder;
+        this.admissionControlService = admissionControlService;
+        this.journalProperties = journalProperties;
     }
 
     @Operation(
@@ -97,6 +130,12 @@ public class CashDeskController {
                                     summary = "Cashier name not present in repository",
                                     value = "{\n  \"apiPath\": \"uri=/api/v1/cash-operation\",\n  \"errorCode\": \"NOT_FOUND\",\n  \"errorMessage\": \"Cashier not found with the given input data name : 'John'\",\n  \"errorTime\": [2025,8,24,21,4,0]\n}"))
             ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Too Many Requests - shed by admission control, retry after the Retry-After header (seconds)",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal Server Error",
@@ -104,9 +143,155 @@ public class CashDeskController {
                             schema = @Schema(implementation = ErrorResponseDto.class))
             )
     })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CashOperationRequest.class)))
     @PostMapping("/cash-operation")
-    public ResponseEntity<String> performOperation(@Valid @RequestBody CashOperationRequest request) {
-        cashService.performOperation(request);
-        return ResponseEntity.ok("Operation successful");
+    public ResponseEntity<?> performOperation(@Parameter(hidden = true) CashOperationSlots operation) {
+        // Decoded and validated by CashOperationSlotsArgumentResolver, same contract as @Valid @RequestBody CashOperationRequest
+        CashOperationResult result;
+        try {
+            admissionControlService.admitCashier(operation.getCashierName());
+            result = cashService.performOperation(operation);
+        } finally {
+            cashOperationDecoder.release(operation);
+        }
+        return operationResponse(result);
+    }
+
+    @Operation(
+            summary = "Perform cash deposit or withdrawal with a durable acknowledgement",
+            description = "Same operation as without the " + DURABILITY_HEADER + " header, acknowledged once the transaction "
+                    + "reached the requested durability: MEMORY (balance updated), JOURNAL (written to the transaction "
+                    + "journal) or FSYNC (journal forced to disk, shared with concurrent requests). The request thread "
+                    + "is released while waiting."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Operation completed and durable at the requested level",
+                    content = @Content(mediaType = "text/plain",
+                            schema = @Schema(implementation = String.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - validation/business rule error or unknown durability level",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Service Unavailable - operation applied, but the durability level was not confirmed in time",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true,
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CashOperationRequest.class)))
+    @PostMapping(value = "/cash-operation", headers = DURABILITY_HEADER)
+    public DeferredResult<ResponseEntity<?>> performDurableOperation(
+            @Parameter(hidden = true) CashOperationSlots operation,
+            @Parameter(in = ParameterIn.HEADER, description = "MEMORY, JOURNAL or FSYNC")
+            @RequestHeader(DURABILITY_HEADER) Durability durability) {
+        CompletableFuture<CashOperationResult> result;
+        try {
+            admissionControlService.admitCashier(operation.getCashierName());
+            result = cashService.performOperation(operation, durability);
+        } finally {
+            cashOperationDecoder.release(operation);
+        }
+
+        long timeoutMillis = journalProperties.getAckTimeoutMillis();
+        DeferredResult<ResponseEntity<?>> response = new DeferredResult<>(timeoutMillis);
+        response.onTimeout(() -> response.setErrorResult(new DurabilityNotConfirmedException(durability, timeoutMillis)));
+        result.whenComplete((completed, failure) -> {
+            if (failure != null) {
+                response.setErrorResult(failure instanceof CompletionException ? failure.getCause() : failure);
+            } else {
+                response.setResult(operationResponse(completed));
+            }
+        });
+        return response;
+    }
+
+    static ResponseEntity<?> operationResponse(CashOperationResult result) {
+        return switch (result) {
+            case CashOperationResult.Completed completed -> ResponseEntity.ok("Operation successful");
+            case CashOperationResult.Rejected rejected -> rejection(rejected, CASH_OPERATION_PATH);
+        };
+    }
+
+    @Operation(
+            summary = "Withdraw an amount without specifying denominations",
+            description = "Plans the payout with the fewest banknotes that the cashier's current stock allows "
+                    + "and applies it atomically. Returns the banknotes to hand out."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Withdrawal completed successfully",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = Denomination[].class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Bad Request - validation/business rule error",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class),
+                            examples = {
+                                    @ExampleObject(name = "PayoutNotPossible",
+                                            summary = "No banknote combination in stock matches the amount",
+                                            value = "{\n  \"apiPath\": \"uri=/api/v1/cash-operation/withdrawal-by-amount\",\n  \"errorCode\": \"BAD_REQUEST\",\n  \"errorMessage\": \"Amount 15.00 EUR cannot be paid out with the cashier's available denominations.\",\n  \"errorTime\": [2025,8,24,21,4,0]\n}"),
+                                    @ExampleObject(name = "CurrencyNotSupported",
+                                            summary = "Cashier does not support the requested currency",
+                                            value = "{\n  \"apiPath\": \"uri=/api/v1/cash-operation/withdrawal-by-amount\",\n  \"errorCode\": \"BAD_REQUEST\",\n  \"errorMessage\": \"Currency EUR is not supported for this cashier.\",\n  \"errorTime\": [2025,8,24,21,4,0]\n}")
+                            })
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - missing or invalid API key",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Not Found - cashier not found",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "429",
+                    description = "Too Many Requests - shed by admission control, retry after the Retry-After header (seconds)",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal Server Error",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponseDto.class))
+            )
+    })
+    @PostMapping("/cash-operation/withdrawal-by-amount")
+    public ResponseEntity<?> withdrawAmount(@Valid @RequestBody AmountWithdrawalRequest request) {
+        admissionControlService.admitCashier(request.getCashierName());
+        return switch (cashService.withdrawAmount(request)) {
+            case CashOperationResult.Completed completed -> ResponseEntity.ok(completed.payout());
+            case CashOperationResult.Rejected rejected -> rejection(rejected, WITHDRAWAL_BY_AMOUNT_PATH);
+        };
+    }
+
+    /**
+     * Same payload GlobalExceptionHandler builds for the exception the rejection replaces.
+     */
+    static ResponseEntity<ErrorResponseDto> rejection(CashOperationResult.Rejected rejected, String apiPath) {
+        ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                apiPath,
+                rejected.status(),
+                rejected.errorMessage(),
+                LocalDateTime.parse(LocalDateTime.now().format(LocalDateTimeFormatter.TIMESTAMP_FORMATTER), LocalDateTimeFormatter.TIMESTAMP_FORMATTER)
+        );
+        return new ResponseEntity<>(errorResponseDto, rejected.status());
     }
-}
\ No newline at end of file
+}
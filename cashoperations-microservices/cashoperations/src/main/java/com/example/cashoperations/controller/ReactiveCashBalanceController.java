@@ -0,0 +1,61 @@
+package com.example.cashoperations.controller;
+
+import com.example.cashoperations.dto.BalanceEventPage;
+import com.example.cashoperations.dto.CashAggregateResponse;
+import com.example.cashoperations.dto.CashBalanceResponse;
+import com.example.cashoperations.service.ReactiveCashDeskService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link CashBalanceController} for the reactive deployment, same parameters and response body.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1")
+public class ReactiveCashBalanceController {
+
+    private final ReactiveCashDeskService cashService;
+
+    public ReactiveCashBalanceController(ReactiveCashDeskService cashService) {
+        this.cashService = cashService;
+    }
+
+    @GetMapping("/cash-balance")
+    public Mono<ResponseEntity<List<CashBalanceResponse>>> getTransactions(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Optional<LocalDateTime> dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Optional<LocalDateTime> dateTo,
+            @RequestParam(required = false) Optional<String> cashier
+    ) {
+        return cashService.getCashBalances(dateFrom, dateTo, cashier).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/cash-aggregates")
+    public Mono<ResponseEntity<CashAggregateResponse>> getCashAggregates(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Optional<LocalDateTime> dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss") Optional<LocalDateTime> dateTo,
+            @RequestParam(required = false) Optional<String> cashier,
+            @RequestParam(required = false) Optional<String> currency,
+            @RequestParam(defaultValue = "false") boolean perCashier
+    ) {
+        return cashService.getCashAggregates(dateFrom, dateTo, cashier, currency, perCashier).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/balance-events")
+    public Mono<ResponseEntity<BalanceEventPage>> getBalanceEvents(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "1000") int limit
+    ) {
+        return cashService.getBalanceEvents(since, limit).map(ResponseEntity::ok);
+    }
+}
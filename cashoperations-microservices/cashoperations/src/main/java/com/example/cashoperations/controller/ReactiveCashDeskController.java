@@ -0,0 +1,130 @@
+package com.example.cashoperations.controller;
+
+import com.example.cashoperations.dto.AmountWithdrawalRequest;
+import com.example.cashoperations.dto.CashOperationResult;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.dto.JournalProperties;
+import com.example.cashoperations.exception.DurabilityNotConfirmedException;
+import com.example.cashoperations.exception.RequestBodyTooLargeException;
+import com.example.cashoperations.model.Durability;
+import com.example.cashoperations.service.AdmissionControlService;
+import com.example.cashoperations.service.ReactiveCashDeskService;
+import com.example.cashoperations.validators.CashOperationDecoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.BindException;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+import static com.example.cashoperations.controller.CashDeskController.DURABILITY_HEADER;
+
+/**
+ * {@link CashDeskController} for the reactive deployment ({@code spring.main.web-application-type=reactive}).
+ * Same paths, request validation and response bodies; the body is decoded with {@link CashOperationDecoder} from the
+ * joined request buffers and the operation completes from the journal acknowledgement without blocking.
+ * Requests without the {@code X-Durability} header are acknowledged at the configured default durability.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/v1")
+public class ReactiveCashDeskController {
+
+    private final ReactiveCashDeskService cashService;
+    private final CashOperationDecoder cashOperationDecoder;
+    private final AdmissionControlService admissionControlService;
+    private final JournalProperties journalProperties;
+
+    public ReactiveCashDeskController(ReactiveCashDeskService cashService,
+                                      CashOperationDecoder cashOperationDecoder,
+                                      AdmissionControlService admissionControlService,
+                                      JournalProperties journalProperties) {
+        this.cashService = cashService;
+        this.cashOperationDecoder = cashOperationDecoder;
+        this.admissionControlService = admissionControlService;
+        this.journalProperties = journalProperties;
+    }
+
+    @PostMapping(value = "/cash-operation", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<?>> performOperation(ServerHttpRequest request,
+                                                    @RequestHeader(value = DURABILITY_HEADER, required = false) Durability durability) {
+        Mono<CashOperationResult> result = DataBufferUtils.join(request.getBody(), CashOperationDecoder.MAX_BODY_BYTES)
+                .onErrorMap(DataBufferLimitException.class, e -> new RequestBodyTooLargeException(CashOperationDecoder.MAX_BODY_BYTES))
+                .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Required request body is missing")))
+                .flatMap(this::decode)
+                .flatMap(operation -> {
+                    try {
+                        admissionControlService.admitCashier(operation.getCashierName());
+                    } catch (RuntimeException e) {
+                        cashOperationDecoder.release(operation);
+                        return Mono.error(e);
+                    }
+                    return cashService.performOperation(operation,
+                            durability != null ? durability : journalProperties.getDefaultDurability());
+                });
+        if (durability != null) {
+            long timeoutMillis = journalProperties.getAckTimeoutMillis();
+            result = result.timeout(Duration.ofMillis(timeoutMillis),
+                    Mono.error(() -> new DurabilityNotConfirmedException(durability, timeoutMillis)));
+        }
+        return result.map(CashDeskController::operationResponse);
+    }
+
+    @PostMapping("/cash-operation/withdrawal-by-amount")
+    public Mono<ResponseEntity<?>> withdrawAmount(@Valid @RequestBody Mono<AmountWithdrawalRequest> request) {
+        return request
+                .flatMap(withdrawal -> {
+                    admissionControlService.admitCashier(withdrawal.getCashierName());
+                    return cashService.withdrawAmount(withdrawal);
+                })
+                .<ResponseEntity<?>>map(result -> switch (result) {
+                    case CashOperationResult.Completed completed -> ResponseEntity.ok(completed.payout());
+                    case CashOperationResult.Rejected rejected ->
+                            CashDeskController.rejection(rejected, CashDeskController.WITHDRAWAL_BY_AMOUNT_PATH);
+                });
+    }
+
+    /**
+     * Same contract as {@code CashOperationSlotsArgumentResolver}: the slots are released on every failure.
+     */
+    private Mono<CashOperationSlots> decode(DataBuffer body) {
+        CashOperationSlots slots = cashOperationDecoder.acquire();
+        try (InputStream in = body.asInputStream(true)) {
+            int length = cashOperationDecoder.readBody(in, slots);
+            if (length == 0) {
+                cashOperationDecoder.release(slots);
+                return Mono.error(new ServerWebInputException("Required request body is missing"));
+            }
+            cashOperationDecoder.decode(slots, length);
+        } catch (JsonProcessingException e) {
+            cashOperationDecoder.release(slots);
+            return Mono.error(new ServerWebInputException("JSON parse error: " + e.getOriginalMessage(), null, e));
+        } catch (IOException | RuntimeException e) {
+            cashOperationDecoder.release(slots);
+            return Mono.error(e);
+        }
+
+        BindingResult bindingResult = cashOperationDecoder.validate(slots);
+        if (bindingResult != null) {
+            cashOperationDecoder.release(slots);
+            return Mono.error(new BindException(bindingResult));
+        }
+        return Mono.just(slots);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.cashoperations.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Admission control limits for the cash desk and cash balance endpoints. Rebound on {@code /actuator/refresh}
+ * and {@code /actuator/busrefresh}, so limits can be changed in the config server without a restart.
+ * A rate of 0 or less disables the corresponding limit.
+ */
+@ConfigurationProperties(prefix = "cashoperations.admission")
+@Getter
+@Setter
+public class AdmissionControlProperties {
+    private boolean enabled = true;
+    // Requests being processed at the same time across all clients
+    private int maxConcurrentRequests = 512;
+    // Per validated API key
+    private double clientRatePerSecond = 500;
+    private double clientBurst = 1000;
+    // Per cashier named in the request
+    private double cashierRatePerSecond = 200;
+    private double cashierBurst = 400;
+    // Upper bound of buckets kept per kind; beyond it idle (full) buckets are dropped, or new keys share one bucket
+    private int maxTrackedKeys = 10_000;
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * Adaptive concurrency limit for /api/v1/cash-operation, adjusted from the gradient between the long-term and
+     * the recent round-trip time (see {@code AdaptiveConcurrencyLimiter}).
+     */
+    @Getter
+    @Setter
+    public static class Adaptive {
+        private boolean enabled = true;
+        private int initialLimit = 50;
+        private int minLimit = 8;
+        private int maxLimit = 1000;
+        // Recent RTT may be this much above the long-term RTT before the limit is lowered
+        private double rttTolerance = 1.5;
+        // Weight of a new limit estimate, 0..1
+        private double smoothing = 0.2;
+        // Requests per recent RTT sample
+        private int sampleWindow = 20;
+        // Samples the long-term RTT average spans
+        private int longWindow = 300;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.cashoperations.dto;
+
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.validators.ValidCurrency;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.*;
+
+import java.math.BigDecimal;
+
+@Schema(
+        name = "AmountWithdrawalRequest",
+        description = "Request payload to withdraw an amount in BGN or EUR without specifying banknotes. " +
+                "The cash desk plans the payout with the fewest banknotes available in the cashier's current stock."
+)
+public class AmountWithdrawalRequest {
+    @Schema(description = "Name of the cashier performing the operation",
+            example = "LINDA",
+            minLength = 2,
+            maxLength = 20,
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotBlank(message = "Cashier's cannot be null and must have a value.")
+    @Size(min = 2, max = 20, message = "Cashier's name must have at least 2 and at most 20 letters long.")
+    private String cashierName;
+
+    @Schema(description = "Operation currency",
+            implementation = Currency.class,
+            allowableValues = {"BGN", "EUR"},
+            example = "EUR",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Currency cannot be null")
+    @ValidCurrency
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Currency currency;
+
+    @Schema(description = "Total amount to withdraw. Must be payable with banknotes of 5, 10, 20, 50 or 100. Minimum 10.00.",
+            example = "260.00",
+            requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Amount must not be null.")
+    @Positive(message = "Amount must be greater than zero.")
+    @DecimalMin(value = "10.00", message = "Amount must be at least 10.00.")
+    private BigDecimal amount;
+
+    public String getCashierName() {
+        return cashierName;
+    }
+
+    public void setCashierName(String cashierName) {
+        this.cashierName = cashierName;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public String toString() {
+        return "AmountWithdrawalRequest{" +
+                "cashierName='" + cashierName + '\'' +
+                ", currency=" + currency +
+                ", amount=" + amount +
+                '}';
+    }
+}
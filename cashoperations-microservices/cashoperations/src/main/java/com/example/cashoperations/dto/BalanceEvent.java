@@ -0,0 +1,19 @@
+package com.example.cashoperations.dto;
+
+import com.example.cashoperations.model.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Compact balance-change event, one per applied operation.
+ *
+ * @param id            outbox sequence, increasing in the order the operations were applied; 0 until written.
+ *                      Delivery is at-least-once, consumers deduplicate on it
+ * @param operationType DEPOSIT or WITHDRAWAL
+ * @param amount        amount of the operation
+ * @param notes         stock after the operation, quantity per {@link CashOperationSlots#SLOT_VALUES} slot
+ */
+public record BalanceEvent(long id, String cashier, Currency currency, String operationType, BigDecimal amount,
+                           int[] notes, LocalDateTime occurredAt) {
+}
@@ -0,0 +1,14 @@
+package com.example.cashoperations.dto;
+
+import java.util.List;
+
+/**
+ * Page of the balance event log, for consumers catching up from a sequence.
+ *
+ * @param events   events after the requested sequence, oldest first
+ * @param oldestId oldest retained event, 0 when the log is empty. Greater than {@code since + 1} means events the
+ *                 consumer has not seen were already purged
+ * @param latestId newest event, 0 when the log is empty. Lower than {@code since} means the log was reset
+ */
+public record BalanceEventPage(List<BalanceEvent> events, long oldestId, long latestId) {
+}
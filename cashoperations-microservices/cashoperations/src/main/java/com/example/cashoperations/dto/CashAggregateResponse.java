@@ -0,0 +1,34 @@
+package com.example.cashoperations.dto;
+
+import com.example.cashoperations.model.Currency;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Totals computed from the live balances, for consumers that only need sums (e.g. the reporting summaries) instead
+ * of every cashier's denomination breakdown.
+ *
+ * @param cashiers per cashier breakdown, only when requested
+ */
+@Schema(name = "CashAggregateResponse", description = "Cash totals per currency and deposit/withdrawal counts over the selected cashiers, optionally broken down per cashier.")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CashAggregateResponse(
+        @Schema(description = "Timestamp when the aggregates were computed (UTC)", example = "2025-08-24T20:38:00", type = "string", format = "date-time")
+        LocalDateTime timestamp,
+        @Schema(description = "Number of cashiers matching the cashier filter", example = "3")
+        int cashierCount,
+        @Schema(description = "Sum of the denomination amounts per currency", example = "{\"BGN\": 2300, \"EUR\": 1200}")
+        Map<Currency, Long> currencyTotals,
+        @Schema(description = "Deposits of the selected cashiers and currencies", example = "12")
+        long deposits,
+        @Schema(description = "Withdrawals of the selected cashiers and currencies", example = "7")
+        long withdrawals,
+        @Schema(description = "The same aggregates per cashier, present with perCashier=true")
+        Map<String, CashierAggregate> cashiers) {
+
+    public record CashierAggregate(Map<Currency, Long> currencyTotals, long deposits, long withdrawals) {
+    }
+}
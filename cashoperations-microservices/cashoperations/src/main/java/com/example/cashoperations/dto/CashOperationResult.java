@@ -0,0 +1,110 @@
+package com.example.cashoperations.dto;
+
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.model.Denomination;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Outcome of a cash operation.
+ * <p>
+ * Business rejections (insufficient stock, unknown banknote, amount mismatch, ...) are normal outcomes at the
+ * cash desk and are returned as {@link Rejected} instead of being thrown, so no stack trace is filled in for them.
+ * The error message of each rejection is identical to the message of the exception it replaces
+ * (e.g. {@code InsufficientDenominationException}); rejections without variable parts are preallocated.
+ */
+public sealed interface CashOperationResult permits CashOperationResult.Completed, CashOperationResult.Rejected {
+
+    Completed COMPLETED = new Completed(List.of());
+
+    static Completed completed(List<Denomination> payout) {
+        return new Completed(payout);
+    }
+
+    /**
+     * @param payout banknotes handed out, empty if the operation was given by denominations
+     */
+    record Completed(List<Denomination> payout) implements CashOperationResult {
+    }
+
+    record Rejected(Reason reason, String errorMessage) implements CashOperationResult {
+
+        public HttpStatus status() {
+            return reason.status;
+        }
+    }
+
+    enum Reason {
+        AMOUNT_MISMATCH(HttpStatus.BAD_REQUEST),
+        CURRENCY_NOT_SUPPORTED(HttpStatus.BAD_REQUEST),
+        DENOMINATION_NOT_FOUND(HttpStatus.BAD_REQUEST),
+        INSUFFICIENT_DENOMINATION(HttpStatus.BAD_REQUEST),
+        PAYOUT_NOT_POSSIBLE(HttpStatus.BAD_REQUEST);
+
+        private final HttpStatus status;
+        // Same prefix as ResponseStatusException#getMessage()
+        private final String messagePrefix;
+
+        Reason(HttpStatus status) {
+            this.status = status;
+            this.messagePrefix = status + " \"";
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+    }
+
+    static Rejected amountMismatch(BigDecimal amount, BigDecimal denominationsSum) {
+        return new Rejected(Reason.AMOUNT_MISMATCH, "Invalid deposit request. Amount " + amount
+                + " does not match overall denominations sum " + denominationsSum + ".");
+    }
+
+    static Rejected currencyNotSupported(Currency currency) {
+        return Preallocated.CURRENCY_NOT_SUPPORTED.get(currency);
+    }
+
+    static Rejected denominationNotFound(int value) {
+        return Preallocated.DENOMINATION_NOT_FOUND.computeIfAbsent(value, v -> statusRejection(Reason.DENOMINATION_NOT_FOUND,
+                "Denomination " + v + " not found in cashier's balance."));
+    }
+
+    static Rejected insufficientDenomination(int requestedQuantity, int value, int availableQuantity) {
+        return statusRejection(Reason.INSUFFICIENT_DENOMINATION, "Insufficient denominations: requested "
+                + requestedQuantity + "x" + value + ", but only " + availableQuantity + "x" + value + " available.");
+    }
+
+    static Rejected payoutNotPossible(BigDecimal amount, Currency currency) {
+        return statusRejection(Reason.PAYOUT_NOT_POSSIBLE, "Amount " + amount + " " + currency.name()
+                + " cannot be paid out with the cashier's available denominations.");
+    }
+
+    private static Rejected statusRejection(Reason reason, String message) {
+        return new Rejected(reason, reason.messagePrefix + message + "\"");
+    }
+
+    final class Preallocated {
+
+        private static final Map<Currency, Rejected> CURRENCY_NOT_SUPPORTED = new EnumMap<>(Currency.class);
+        // Bounded by the banknote values clients send, which are validated before any lookup
+        private static final Map<Integer, Rejected> DENOMINATION_NOT_FOUND = new ConcurrentHashMap<>();
+
+        static {
+            for (Currency currency : Currency.values()) {
+                CURRENCY_NOT_SUPPORTED.put(currency, statusRejection(Reason.CURRENCY_NOT_SUPPORTED,
+                        "Currency " + currency + " is not supported for this cashier."));
+            }
+            for (int value : CashOperationSlots.SLOT_VALUES) {
+                denominationNotFound(value);
+            }
+        }
+
+        private Preallocated() {
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.cashoperations.dto;
+
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.model.Denomination;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Primitive, reusable form of a {@link CashOperationRequest}.
+ * <p>
+ * Denomination entries are kept in request order as parallel int arrays, next to the running quantity per
+ * banknote slot ({@link #SLOT_VALUES}) and the amount as an unscaled long + scale (minor units for the usual
+ * scale of 2), so decoding and validating a request
+ * creates no {@link Denomination}, {@link BigDecimal} or collection instances on the success path.
+ * Instances are pooled by {@code CashOperationDecoder} and must not be retained after the request completes.
+ */
+public class CashOperationSlots {
+
+    public static final int[] SLOT_VALUES = {5, 10, 20, 50, 100};
+    public static final int SLOT_COUNT = SLOT_VALUES.length;
+    private static final int INITIAL_ENTRIES = 8;
+    private static final int INITIAL_BODY_BYTES = 1024;
+
+    private String cashierName;
+    private Currency currency;
+    private String operationType;
+    private boolean deposit;
+
+    private long amountUnscaled;
+    private int amountScale;
+    private BigDecimal amountOverflow; // only for amounts that do not fit an unscaled long
+    private boolean amountPresent;
+
+    private boolean denominationsPresent;
+    private int entryCount;
+    private int[] entryValues = new int[INITIAL_ENTRIES];
+    private int[] entryQuantities = new int[INITIAL_ENTRIES];
+    private final long[] slotQuantities = new long[SLOT_COUNT];
+    private long denominationsSum;
+    private int invalidEntries;
+
+    private byte[] body = new byte[INITIAL_BODY_BYTES];
+
+    /**
+     * Slot index of an allowed banknote value, or -1 if the value is not allowed.
+     */
+    public static int slotOf(int value) {
+        return switch (value) {
+            case 5 -> 0;
+            case 10 -> 1;
+            case 20 -> 2;
+            case 50 -> 3;
+            case 100 -> 4;
+            default -> -1;
+        };
+    }
+
+    public void reset() {
+        cashierName = null;
+        currency = null;
+        operationType = null;
+        deposit = false;
+        amountUnscaled = 0;
+        amountScale = 0;
+        amountOverflow = null;
+        amountPresent = false;
+        denominationsPresent = false;
+        entryCount = 0;
+        Arrays.fill(slotQuantities, 0);
+        denominationsSum = 0;
+        invalidEntries = 0;
+    }
+
+    public void addEntry(int quantity, int value) {
+        if (entryCount == entryValues.length) {
+            entryValues = Arrays.copyOf(entryValues, entryCount * 2);
+            entryQuantities = Arrays.copyOf(entryQuantities, entryCount * 2);
+        }
+        entryValues[entryCount] = value;
+        entryQuantities[entryCount] = quantity;
+        entryCount++;
+        int slot = slotOf(value);
+        if (slot >= 0) {
+            slotQuantities[slot] += quantity;
+        } else {
+            invalidEntries++;
+        }
+        denominationsSum += (long) value * quantity;
+    }
+
+    public void setAmount(long unscaled, int scale) {
+        this.amountUnscaled = unscaled;
+        this.amountScale = scale;
+        this.amountOverflow = null;
+        this.amountPresent = true;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amountOverflow = amount;
+        this.amountPresent = true;
+    }
+
+    /**
+     * Amount equals the sum of value * quantity over all entries, compared exactly as
+     * {@code amount.compareTo(new BigDecimal(sum)) == 0}.
+     */
+    public boolean amountMatchesDenominations() {
+        if (amountOverflow != null) {
+            return amountOverflow.compareTo(BigDecimal.valueOf(denominationsSum)) == 0;
+        }
+        long unscaled = amountUnscaled;
+        int scale = amountScale;
+        // Drop trailing zeros of the fraction, a remaining fraction can never equal an integer sum
+        while (scale > 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+        if (scale > 0) {
+            return false;
+        }
+        long sum = denominationsSum;
+        for (int i = scale; i < 0; i++) {
+            if (sum % 10 != 0) {
+                return false;
+            }
+            sum /= 10;
+        }
+        return unscaled == sum;
+    }
+
+    /**
+     * Signum of the amount (-1, 0, 1), without creating a {@link BigDecimal}.
+     */
+    public int amountSignum() {
+        return amountOverflow != null ? amountOverflow.signum() : Long.signum(amountUnscaled);
+    }
+
+    /**
+     * Amount as sent by the client, created on demand for messages and logging.
+     */
+    public BigDecimal getAmount() {
+        if (!amountPresent) {
+            return null;
+        }
+        return amountOverflow != null ? amountOverflow : BigDecimal.valueOf(amountUnscaled, amountScale);
+    }
+
+    /**
+     * Amount >= {@code minorUnits} / 100, e.g. {@code isAmountAtLeast(1000)} for "at least 10.00".
+     */
+    public boolean isAmountAtLeast(long minorUnits) {
+        if (amountOverflow == null) {
+            try {
+                int scale = Math.max(amountScale, 2);
+                long amount = Math.multiplyExact(amountUnscaled, pow10(scale - amountScale));
+                long minimum = Math.multiplyExact(minorUnits, pow10(scale - 2));
+                return amount >= minimum;
+            } catch (ArithmeticException e) {
+                // fall through to the BigDecimal comparison
+            }
+        }
+        return getAmount().compareTo(BigDecimal.valueOf(minorUnits, 2)) >= 0;
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = Math.multiplyExact(result, 10);
+        }
+        return result;
+    }
+
+    public List<Denomination> toDenominations() {
+        List<Denomination> denominations = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            denominations.add(new Denomination(entryQuantities[i], entryValues[i]));
+        }
+        return denominations;
+    }
+
+    public CashOperationRequest toRequest() {
+        CashOperationRequest request = new CashOperationRequest();
+        request.setCashierName(cashierName);
+        request.setCurrency(currency);
+        request.setOperationType(operationType);
+        request.setAmount(getAmount());
+        request.setDenominations(denominationsPresent ? toDenominations() : null);
+        return request;
+    }
+
+    public String getCashierName() {
+        return cashierName;
+    }
+
+    public void setCashierName(String cashierName) {
+        this.cashierName = cashierName;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(Currency currency) {
+        this.currency = currency;
+    }
+
+    public String getOperationType() {
+        return operationType;
+    }
+
+    public void setOperationType(String operationType) {
+        this.operationType = operationType;
+        this.deposit = "DEPOSIT".equalsIgnoreCase(operationType);
+    }
+
+    public boolean isDeposit() {
+        return deposit;
+    }
+
+    public boolean isAmountPresent() {
+        return amountPresent;
+    }
+
+    public boolean isDenominationsPresent() {
+        return denominationsPresent;
+    }
+
+    public void setDenominationsPresent(boolean denominationsPresent) {
+        this.denominationsPresent = denominationsPresent;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public int getEntryValue(int index) {
+        return entryValues[index];
+    }
+
+    public int getEntryQuantity(int index) {
+        return entryQuantities[index];
+    }
+
+    public long getSlotQuantity(int slot) {
+        return slotQuantities[slot];
+    }
+
+    public long getDenominationsSum() {
+        return denominationsSum;
+    }
+
+    /**
+     * Number of entries whose value is not one of {@link #SLOT_VALUES}.
+     */
+    public int getInvalidEntries() {
+        return invalidEntries;
+    }
+
+    /**
+     * Request body buffer, reused together with the slots.
+     */
+    public byte[] getBodyBuffer() {
+        return body;
+    }
+
+    public byte[] growBodyBuffer() {
+        body = Arrays.copyOf(body, body.length * 2);
+        return body;
+    }
+
+    /**
+     * Replaces a body buffer grown by a large request with one of the initial size.
+     */
+    public void trimBodyBuffer() {
+        if (body.length > INITIAL_BODY_BYTES) {
+            body = new byte[INITIAL_BODY_BYTES];
+        }
+    }
+
+    /**
+     * Same format as {@link CashOperationRequest#toString()} so transaction log lines do not change.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CashOperationRequest{")
+                .append("cashierName='").append(cashierName).append('\'')
+                .append(", currency=").append(currency)
+                .append(", operationType='").append(operationType).append('\'')
+                .append(", amount=").append(getAmount())
+                .append(", denominations=");
+        for (int i = 0; i < entryCount; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(entryQuantities[i]).append('x').append(entryValues[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.cashoperations.dto;
+
+import com.example.cashoperations.model.Durability;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Transaction journal ({@code transactions.txt}) settings.
+ */
+@ConfigurationProperties(prefix = "cashoperations.journal")
+@Getter
+@Setter
+public class JournalProperties {
+    // Used when a request does not send the X-Durability header
+    private Durability defaultDurability = Durability.JOURNAL;
+    // Entries written (and fsynced) together at most
+    private int maxBatch = 512;
+    // Acks not confirmed within this time are answered with 503, with or without the X-Durability header
+    private long ackTimeoutMillis = 5000;
+}
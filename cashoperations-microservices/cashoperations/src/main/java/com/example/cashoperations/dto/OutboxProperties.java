@@ -0,0 +1,28 @@
+package com.example.cashoperations.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Balance-change events: {@code balance_event_outbox} table and the relay that publishes it.
+ */
+@ConfigurationProperties(prefix = "cashoperations.outbox")
+@Getter
+@Setter
+public class OutboxProperties {
+    // Events are written with the balance flush, so they also need cashoperations.persistence.enabled
+    private boolean enabled = true;
+    // "amqp" publishes to RabbitMQ, "in-memory" to the in-process stand-in (local runs and tests)
+    private String publisher = "in-memory";
+    // Topic exchange, routing key <operation>.<cashier>.<currency>, e.g. deposit.LINDA.EUR
+    private String exchange = "cashoperations.balance-events";
+    // The relay publishes what is in the outbox at this interval
+    private long relayIntervalMillis = 200;
+    // Events per published batch, confirmed together
+    private int batchSize = 100;
+    // Max wait for the broker to confirm a batch before it is retried
+    private long confirmTimeoutMillis = 5000;
+    // Published events are kept this long for consumers catching up (GET /api/v1/balance-events)
+    private long retentionHours = 48;
+}
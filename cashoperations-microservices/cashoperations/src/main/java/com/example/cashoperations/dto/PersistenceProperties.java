@@ -0,0 +1,21 @@
+package com.example.cashoperations.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Write-behind persistence of the cashier balances ({@code cashier_balance} table).
+ */
+@ConfigurationProperties(prefix = "cashoperations.persistence")
+@Getter
+@Setter
+public class PersistenceProperties {
+    private boolean enabled = true;
+    // Dirty cashier/currency balances are upserted at this interval, the latest state only
+    private long flushIntervalMillis = 500;
+    // Rows per JDBC batch
+    private int batchSize = 500;
+    // Load the persisted balances over the seeded ones at startup; only meaningful with a non in-memory datasource
+    private boolean restoreOnStartup = false;
+}
@@ -0,0 +1,21 @@
+package com.example.cashoperations.exception;
+
+import com.example.cashoperations.model.Durability;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A durable acknowledgement did not arrive in time. The operation has been applied, only its durability is unknown.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DurabilityNotConfirmedException extends CashOperationException {
+    public DurabilityNotConfirmedException(Durability durability, long timeoutMillis) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Operation applied, but durability " + durability
+                + " was not confirmed within " + timeoutMillis + " ms.");
+    }
+
+    public DurabilityNotConfirmedException(Durability durability, String reason) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Operation applied, but durability " + durability
+                + " was not confirmed: " + reason + ".");
+    }
+}
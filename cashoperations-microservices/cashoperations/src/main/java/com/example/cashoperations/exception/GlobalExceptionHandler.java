@@ -1,6 +1,7 @@
 package com.example.cashoperations.exception;
 
 import com.example.cashoperations.utils.LocalDateTimeFormatter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -19,6 +20,7 @@ import java.util.List;
 import java.util.Map;
 
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     @Override
@@ -86,6 +88,24 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return buildErrorResponse(exception, webRequest, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(RequestBodyTooLargeException.class)
+    public ResponseEntity<ErrorResponseDto> handleRequestBodyTooLargeException(RequestBodyTooLargeException exception, WebRequest webRequest) {
+        return buildErrorResponse(exception, webRequest, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponseDto> handleTooManyRequestsException(TooManyRequestsException exception, WebRequest webRequest) {
+        ResponseEntity<ErrorResponseDto> response = buildErrorResponse(exception, webRequest, HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    @ExceptionHandler(DurabilityNotConfirmedException.class)
+    public ResponseEntity<ErrorResponseDto> handleDurabilityNotConfirmedException(DurabilityNotConfirmedException exception, WebRequest webRequest) {
+        return buildErrorResponse(exception, webRequest, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(LogBalancesException.class)
     public ResponseEntity<ErrorResponseDto> handleLogBalancesException(LogBalancesException exception, WebRequest webRequest) {
         return buildErrorResponse(exception, webRequest, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,107 @@
+package com.example.cashoperations.exception;
+
+import com.example.cashoperations.utils.LocalDateTimeFormatter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Error responses of the reactive deployment, identical to the ones {@link GlobalExceptionHandler} produces:
+ * <ul>
+ *     <li>exceptions of this package: {@link ErrorResponseDto} with the status of the exception (500 otherwise),</li>
+ *     <li>bean validation errors: a map of field to message,</li>
+ *     <li>other Spring web exceptions: their {@link ProblemDetail}.</li>
+ * </ul>
+ * A {@link WebExceptionHandler} rather than a controller advice, so errors raised by web filters (API key,
+ * admission control) are rendered the same way. Ordered before Spring Boot's error handler.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(-2)
+public class ReactiveExceptionHandler implements WebExceptionHandler {
+
+    private final ObjectMapper objectMapper;
+
+    public ReactiveExceptionHandler(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+
+        if (ex instanceof BindingResult bindingResult) {
+            Map<String, String> validationErrors = new HashMap<>();
+            bindingResult.getAllErrors().forEach(error ->
+                    validationErrors.put(((FieldError) error).getField(), error.getDefaultMessage()));
+            return write(response, HttpStatus.BAD_REQUEST, MediaType.APPLICATION_JSON, validationErrors);
+        }
+
+        if (ex.getClass().getPackageName().equals(ReactiveExceptionHandler.class.getPackageName()) || !(ex instanceof ErrorResponse)) {
+            HttpStatusCode status = statusOf(ex);
+            if (ex instanceof TooManyRequestsException tooManyRequests) {
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(tooManyRequests.getRetryAfterSeconds()));
+            }
+            ErrorResponseDto errorResponseDto = new ErrorResponseDto(
+                    "uri=" + exchange.getRequest().getPath().value(),
+                    HttpStatus.valueOf(status.value()),
+                    ex.getMessage(),
+                    LocalDateTime.parse(LocalDateTime.now().format(LocalDateTimeFormatter.TIMESTAMP_FORMATTER), LocalDateTimeFormatter.TIMESTAMP_FORMATTER)
+            );
+            return write(response, status, MediaType.APPLICATION_JSON, errorResponseDto);
+        }
+
+        ErrorResponse errorResponse = (ErrorResponse) ex;
+        ProblemDetail problemDetail = errorResponse.getBody();
+        if (problemDetail.getInstance() == null) {
+            problemDetail.setInstance(URI.create(exchange.getRequest().getPath().value()));
+        }
+        response.getHeaders().addAll(errorResponse.getHeaders());
+        return write(response, errorResponse.getStatusCode(), MediaType.APPLICATION_PROBLEM_JSON, problemDetail);
+    }
+
+    private static HttpStatusCode statusOf(Throwable ex) {
+        if (ex instanceof ResponseStatusException responseStatusException) {
+            return responseStatusException.getStatusCode();
+        }
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(ex.getClass(), ResponseStatus.class);
+        return responseStatus != null ? responseStatus.code() : HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, HttpStatusCode status, MediaType contentType, Object body) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(contentType);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+}
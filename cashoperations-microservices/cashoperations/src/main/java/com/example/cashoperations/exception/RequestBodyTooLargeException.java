@@ -0,0 +1,14 @@
+package com.example.cashoperations.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Cash operation body above the size the decoder reads, see {@code CashOperationDecoder#MAX_BODY_BYTES}.
+ */
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class RequestBodyTooLargeException extends RuntimeException {
+    public RequestBodyTooLargeException(int maxBytes) {
+        super("Request body exceeds " + maxBytes + " bytes.");
+    }
+}
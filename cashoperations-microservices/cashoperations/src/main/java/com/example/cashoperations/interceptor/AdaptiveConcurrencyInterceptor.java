@@ -0,0 +1,44 @@
+package com.example.cashoperations.interceptor;
+
+import com.example.cashoperations.service.AdaptiveConcurrencyLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Applies {@link AdaptiveConcurrencyLimiter} to cash operations, after {@link AdmissionControlInterceptor}.
+ * The round trip is measured from admission to completion, including async completion.
+ */
+@Component
+public class AdaptiveConcurrencyInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String STARTED = AdaptiveConcurrencyInterceptor.class.getName() + ".STARTED";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdaptiveConcurrencyInterceptor(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC) {
+            request.setAttribute(STARTED, limiter.acquire());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object started = request.getAttribute(STARTED);
+        if (started != null) {
+            request.removeAttribute(STARTED);
+            int status = response.getStatus();
+            boolean dropped = ex != null || status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value();
+            limiter.release((Long) started, dropped);
+        }
+    }
+}
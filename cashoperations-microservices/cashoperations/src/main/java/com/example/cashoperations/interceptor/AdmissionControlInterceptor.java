@@ -0,0 +1,53 @@
+package com.example.cashoperations.interceptor;
+
+import com.example.cashoperations.service.AdmissionControlService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Admission control in front of the cash desk and cash balance endpoints. Runs after
+ * {@link ApiKeyAuthenticationInterceptor}, so only authenticated requests consume tokens and the client limit is
+ * keyed by the validated API key, not by anything the caller can vary per request.
+ * <p>
+ * Cashier limits for operations are applied by the controller once the request body has been decoded;
+ * the cash balance query is limited by its {@code cashierName} parameter here.
+ */
+@Component
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    static final String API_KEY_HEADER = "FIB-X-AUTH";
+    private static final String ENTERED = AdmissionControlInterceptor.class.getName() + ".ENTERED";
+
+    private final AdmissionControlService admissionControlService;
+
+    public AdmissionControlInterceptor(AdmissionControlService admissionControlService) {
+        this.admissionControlService = admissionControlService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true; // admitted on the initial dispatch
+        }
+        admissionControlService.admitClient(request.getHeader(API_KEY_HEADER));
+        if ("GET".equals(request.getMethod())) {
+            admissionControlService.admitCashier(request.getParameter("cashierName"));
+        }
+        if (admissionControlService.enter()) {
+            request.setAttribute(ENTERED, Boolean.TRUE);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // Not called when async handling starts, the slot is returned after the async dispatch completes
+        if (request.getAttribute(ENTERED) != null) {
+            request.removeAttribute(ENTERED);
+            admissionControlService.exit();
+        }
+    }
+}
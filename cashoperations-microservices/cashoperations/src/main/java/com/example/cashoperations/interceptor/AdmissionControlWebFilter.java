@@ -0,0 +1,76 @@
+package com.example.cashoperations.interceptor;
+
+import com.example.cashoperations.service.AdaptiveConcurrencyLimiter;
+import com.example.cashoperations.service.AdmissionControlService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Reactive counterpart of {@link AdmissionControlInterceptor} and {@link AdaptiveConcurrencyInterceptor}, applied to
+ * the same paths and in the same order, after {@link ApiKeyAuthenticationWebFilter}. Slots are returned when the
+ * response completes, is cancelled or fails.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class AdmissionControlWebFilter implements WebFilter {
+
+    private static final String CASH_OPERATION_PATH = "/api/v1/cash-operation";
+    private static final String CASH_BALANCE_PATH = "/api/v1/cash-balance";
+    private static final String CASH_AGGREGATES_PATH = "/api/v1/cash-aggregates";
+
+    private final AdmissionControlService admissionControlService;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdmissionControlWebFilter(AdmissionControlService admissionControlService, AdaptiveConcurrencyLimiter limiter) {
+        this.admissionControlService = admissionControlService;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        boolean operation = path.equals(CASH_OPERATION_PATH) || path.startsWith(CASH_OPERATION_PATH + "/");
+        if (!operation && !path.equals(CASH_BALANCE_PATH) && !path.equals(CASH_AGGREGATES_PATH)) {
+            return chain.filter(exchange);
+        }
+
+        return Mono.defer(() -> {
+            admissionControlService.admitClient(request.getHeaders().getFirst(AdmissionControlInterceptor.API_KEY_HEADER));
+            if (HttpMethod.GET.equals(request.getMethod())) {
+                admissionControlService.admitCashier(request.getQueryParams().getFirst("cashierName"));
+            }
+            boolean entered = admissionControlService.enter();
+            long started;
+            try {
+                started = operation ? limiter.acquire() : AdaptiveConcurrencyLimiter.NOT_ACQUIRED;
+            } catch (RuntimeException e) {
+                if (entered) {
+                    admissionControlService.exit();
+                }
+                throw e;
+            }
+            return chain.filter(exchange).doFinally(signal -> {
+                if (entered) {
+                    admissionControlService.exit();
+                }
+                HttpStatusCode status = exchange.getResponse().getStatusCode();
+                boolean dropped = signal != SignalType.ON_COMPLETE || (status != null
+                        && (status.is5xxServerError() || status.value() == HttpStatus.TOO_MANY_REQUESTS.value()));
+                limiter.release(started, dropped);
+            });
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.cashoperations.interceptor;
+
+import com.example.cashoperations.exception.InvalidApiKeyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link ApiKeyAuthenticationInterceptor}. Web filters also see actuator, Swagger and
+ * static requests, so only the {@code /api} endpoints (the ones the interceptor checks) require the key.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ApiKeyAuthenticationWebFilter implements WebFilter {
+
+    private final String apiKey;
+
+    public ApiKeyAuthenticationWebFilter(@Value("${fib.auth.api-key}") String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith("/api/")) {
+            return chain.filter(exchange);
+        }
+        if (!apiKey.equals(exchange.getRequest().getHeaders().getFirst("FIB-X-AUTH"))) {
+            return Mono.error(new InvalidApiKeyException("Invalid API key."));
+        }
+        return chain.filter(exchange);
+    }
+}
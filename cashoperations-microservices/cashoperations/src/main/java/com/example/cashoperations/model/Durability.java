@@ -0,0 +1,19 @@
+package com.example.cashoperations.model;
+
+/**
+ * Point at which a cash operation is acknowledged to the client.
+ */
+public enum Durability {
+    /**
+     * After the cashier's balance was updated in memory; the journal entry is written in the background.
+     */
+    MEMORY,
+    /**
+     * After the journal entry was written to the transaction file (OS page cache, not yet on disk).
+     */
+    JOURNAL,
+    /**
+     * After the transaction file was forced to disk. Concurrent requests share one fsync.
+     */
+    FSYNC
+}
@@ -0,0 +1,160 @@
+package com.example.cashoperations.repository;
+
+import com.example.cashoperations.dto.BalanceEvent;
+import com.example.cashoperations.dto.BalanceEventPage;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.dto.OutboxProperties;
+import com.example.cashoperations.dto.PersistenceProperties;
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.model.Denomination;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Transactional outbox of balance-change events ({@code balance_event_outbox} table).
+ * <p>
+ * Operations append their event through {@link BalanceWriteBehind#recordOperation}, with their stock and under the
+ * same balance lock, so the events of a cashier/currency are queued in the order they were applied. The write-behind flush inserts the queued
+ * events in the transaction that upserts the balances: a persisted balance always has its events persisted, and
+ * neither is written without the other. {@code BalanceEventRelay} publishes the table and marks what the broker
+ * confirmed. Published events stay for {@code retentionHours}, so consumers can catch up from a sequence
+ * ({@link #fetchSince}).
+ */
+@Component
+public class BalanceEventOutbox {
+
+    private static final String INSERT = "INSERT INTO balance_event_outbox "
+            + "(cashier, currency, operation_type, amount, notes_5, notes_10, notes_20, notes_50, notes_100, occurred_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT = "SELECT id, cashier, currency, operation_type, amount, "
+            + "notes_5, notes_10, notes_20, notes_50, notes_100, occurred_at FROM balance_event_outbox ";
+    private static final String SELECT_UNPUBLISHED = SELECT + "WHERE published = FALSE ORDER BY id LIMIT ?";
+    private static final String SELECT_SINCE = SELECT + "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SELECT_ID_RANGE = "SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), 0) FROM balance_event_outbox";
+    private static final String MARK_PUBLISHED = "UPDATE balance_event_outbox SET published = TRUE WHERE id = ?";
+    private static final String PURGE = "DELETE FROM balance_event_outbox WHERE published = TRUE AND occurred_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Queue<BalanceEvent> pending = new ConcurrentLinkedQueue<>();
+    // Events of a failed flush, written before the pending ones by the next flush; flusher only
+    private List<BalanceEvent> requeued = List.of();
+
+    public BalanceEventOutbox(JdbcTemplate jdbcTemplate, OutboxProperties properties,
+                              PersistenceProperties persistenceProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = properties.isEnabled() && persistenceProperties.isEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the event of an applied operation for the next flush. Must be called under the balance lock of that
+     * cashier/currency, with its stock after the operation, see {@link BalanceWriteBehind#recordOperation}.
+     */
+    public void append(String cashier, Currency currency, String operationType, BigDecimal amount,
+                       List<Denomination> denominations) {
+        if (!enabled) {
+            return;
+        }
+        int[] notes = new int[CashOperationSlots.SLOT_COUNT];
+        for (Denomination denomination : denominations) {
+            int slot = CashOperationSlots.slotOf(denomination.getValue());
+            if (slot >= 0) {
+                notes[slot] += denomination.getQuantity();
+            }
+        }
+        pending.add(new BalanceEvent(0, cashier, currency, operationType, amount, notes, LocalDateTime.now()));
+    }
+
+    boolean hasPending() {
+        return !requeued.isEmpty() || !pending.isEmpty();
+    }
+
+    /**
+     * Takes the queued events, oldest first. Flusher only, see {@link #requeue}.
+     */
+    List<BalanceEvent> drain() {
+        List<BalanceEvent> events = new ArrayList<>(requeued);
+        requeued = List.of();
+        BalanceEvent event;
+        while ((event = pending.poll()) != null) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Puts back the events of a failed flush, ahead of anything queued since.
+     */
+    void requeue(List<BalanceEvent> events) {
+        requeued = events;
+    }
+
+    /**
+     * Inserts the events in the caller's transaction.
+     */
+    void insert(List<BalanceEvent> events, int batchSize) {
+        jdbcTemplate.batchUpdate(INSERT, events, batchSize, (ps, event) -> {
+            ps.setString(1, event.cashier());
+            ps.setString(2, event.currency().name());
+            ps.setString(3, event.operationType());
+            ps.setBigDecimal(4, event.amount());
+            for (int slot = 0; slot < CashOperationSlots.SLOT_COUNT; slot++) {
+                ps.setInt(5 + slot, event.notes()[slot]);
+            }
+            ps.setTimestamp(10, Timestamp.valueOf(event.occurredAt()));
+        });
+    }
+
+    /**
+     * Oldest persisted events not yet confirmed by the broker.
+     */
+    public List<BalanceEvent> fetchUnpublished(int limit) {
+        return jdbcTemplate.query(SELECT_UNPUBLISHED, BalanceEventOutbox::mapEvent, limit);
+    }
+
+    public void markPublished(List<BalanceEvent> events) {
+        jdbcTemplate.batchUpdate(MARK_PUBLISHED, events, events.size(), (ps, event) -> ps.setLong(1, event.id()));
+    }
+
+    /**
+     * Retained events after {@code since}, published or not, oldest first.
+     */
+    public BalanceEventPage fetchSince(long since, int limit) {
+        long[] range = jdbcTemplate.queryForObject(SELECT_ID_RANGE, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        List<BalanceEvent> events = jdbcTemplate.query(SELECT_SINCE, BalanceEventOutbox::mapEvent, since, limit);
+        return new BalanceEventPage(events, range[0], range[1]);
+    }
+
+    /**
+     * Deletes the published events that occurred before {@code before}.
+     *
+     * @return number of events deleted
+     */
+    public int purgePublished(LocalDateTime before) {
+        return jdbcTemplate.update(PURGE, Timestamp.valueOf(before));
+    }
+
+    private static BalanceEvent mapEvent(ResultSet rs, int rowNum) throws SQLException {
+        int[] notes = new int[CashOperationSlots.SLOT_COUNT];
+        for (int slot = 0; slot < CashOperationSlots.SLOT_COUNT; slot++) {
+            notes[slot] = rs.getInt("notes_" + CashOperationSlots.SLOT_VALUES[slot]);
+        }
+        return new BalanceEvent(rs.getLong("id"), rs.getString("cashier"), Currency.valueOf(rs.getString("currency")),
+                rs.getString("operation_type"), rs.getBigDecimal("amount"), notes,
+                rs.getTimestamp("occurred_at").toLocalDateTime());
+    }
+}
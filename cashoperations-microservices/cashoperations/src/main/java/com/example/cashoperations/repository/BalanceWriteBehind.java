@@ -0,0 +1,254 @@
+package com.example.cashoperations.repository;
+
+import com.example.cashoperations.dto.BalanceEvent;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.dto.PersistenceProperties;
+import com.example.cashoperations.model.Cashier;
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.model.Denomination;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind persistence of {@link CashierRepository#CASHIERS} balances to the {@code cashier_balance} table.
+ * <p>
+ * Operations only record the new stock of the cashier/currency they touched ({@link #markDirty}), which keeps the
+ * database off the request path. A single flusher thread upserts the dirty keys every {@code flushIntervalMillis}
+ * with JDBC batches; a key updated many times between two flushes is written once, with its latest stock. Rows that
+ * fail to write stay dirty for the next flush unless a newer stock replaced them in the meantime.
+ * <p>
+ * The queued {@link BalanceEventOutbox} events are inserted in the same transaction as the balances. An operation
+ * records its stock and its event under the shared side of {@code snapshotLock} ({@link #recordOperation}), and the
+ * flush takes the dirty stocks and the queued events under the exclusive side: a flush sees either both of an
+ * operation or neither, so a balance is never written ahead of its event.
+ */
+@Slf4j
+@Component
+public class BalanceWriteBehind {
+
+    static final String UPSERT = "MERGE INTO cashier_balance "
+            + "(cashier, currency, notes_5, notes_10, notes_20, notes_50, notes_100, updated_at) "
+            + "KEY (cashier, currency) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_ALL = "SELECT cashier, currency, notes_5, notes_10, notes_20, notes_50, notes_100 "
+            + "FROM cashier_balance";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final PersistenceProperties properties;
+    private final CashierRepository cashierRepository;
+    private final BalanceEventOutbox balanceEventOutbox;
+    private final Map<BalanceKey, int[]> dirty = new ConcurrentHashMap<>();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    // Shared by operations, which lock their balance for the write anyway, exclusive for the snapshots of a flush
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService flusher;
+
+    public BalanceWriteBehind(JdbcTemplate jdbcTemplate, TransactionOperations transactionOperations,
+                              PersistenceProperties properties, CashierRepository cashierRepository,
+                              BalanceEventOutbox balanceEventOutbox) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.properties = properties;
+        this.cashierRepository = cashierRepository;
+        this.balanceEventOutbox = balanceEventOutbox;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (properties.isRestoreOnStartup()) {
+            restore();
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("balance-write-behind").daemon().factory());
+        long interval = properties.getFlushIntervalMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the flusher and writes what is still dirty.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushQuietly();
+    }
+
+    /**
+     * Records the current stock of {@code cashier}'s {@code currency} for the next flush. Must be called under the
+     * balance lock of that cashier/currency, so the captured stock is consistent.
+     */
+    public void markDirty(String cashier, Currency currency, List<Denomination> denominations) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        snapshotLock.readLock().lock();
+        try {
+            dirty.put(new BalanceKey(cashier, currency), notes(denominations));
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Records the stock of {@code cashier}'s {@code currency} after an operation, like {@link #markDirty}, and queues
+     * the event of the operation in the {@link BalanceEventOutbox}, both in the same flush. Must be called under the
+     * balance lock of that cashier/currency.
+     */
+    public void recordOperation(String cashier, Currency currency, String operationType, BigDecimal amount,
+                                List<Denomination> denominations) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        snapshotLock.readLock().lock();
+        try {
+            dirty.put(new BalanceKey(cashier, currency), notes(denominations));
+            balanceEventOutbox.append(cashier, currency, operationType, amount, denominations);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Upserts the latest stock of every dirty key and inserts the queued events, in one transaction.
+     *
+     * @return number of balance rows written
+     */
+    public synchronized int flush() {
+        if (dirty.isEmpty() && !balanceEventOutbox.hasPending()) {
+            return 0;
+        }
+        List<BalanceEvent> events;
+        List<BalanceKey> keys = new ArrayList<>(dirty.size());
+        List<int[]> stocks = new ArrayList<>(dirty.size());
+        snapshotLock.writeLock().lock();
+        try {
+            events = balanceEventOutbox.drain();
+            for (BalanceKey key : dirty.keySet()) {
+                int[] notes = dirty.remove(key);
+                if (notes != null) {
+                    keys.add(key);
+                    stocks.add(notes);
+                }
+            }
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        Timestamp updatedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            int[] notes = stocks.get(i);
+            rows.add(new Object[]{keys.get(i).cashier(), keys.get(i).currency().name(),
+                    notes[0], notes[1], notes[2], notes[3], notes[4], updatedAt});
+        }
+
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT, rows, properties.getBatchSize(), (ps, row) -> {
+                        for (int column = 0; column < row.length; column++) {
+                            ps.setObject(column + 1, row[column]);
+                        }
+                    });
+                }
+                if (!events.isEmpty()) {
+                    balanceEventOutbox.insert(events, properties.getBatchSize());
+                }
+            });
+        } catch (RuntimeException e) {
+            // Data access or commit failure, nothing of the transaction was written
+            for (int i = 0; i < keys.size(); i++) {
+                dirty.putIfAbsent(keys.get(i), stocks.get(i));
+            }
+            balanceEventOutbox.requeue(events);
+            throw e;
+        }
+        flushes.incrementAndGet();
+        rowsWritten.addAndGet(rows.size());
+        return rows.size();
+    }
+
+    /**
+     * Number of flushes that wrote at least one row.
+     */
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    /**
+     * Number of rows upserted so far.
+     */
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keeps the schedule alive, the rows are retried with the next flush
+            log.error("Failed to persist {} cashier balances and their events", dirty.size(), e);
+        }
+    }
+
+    private static int[] notes(List<Denomination> denominations) {
+        int[] notes = new int[CashOperationSlots.SLOT_COUNT];
+        for (Denomination denomination : denominations) {
+            int slot = CashOperationSlots.slotOf(denomination.getValue());
+            if (slot >= 0) {
+                notes[slot] += denomination.getQuantity();
+            }
+        }
+        return notes;
+    }
+
+    private void restore() {
+        AtomicLong restored = new AtomicLong();
+        jdbcTemplate.query(SELECT_ALL, rs -> {
+            Cashier cashier = cashierRepository.getCashier(rs.getString("cashier"));
+            if (cashier == null) {
+                return;
+            }
+            List<Denomination> denominations = new ArrayList<>(CashOperationSlots.SLOT_COUNT);
+            for (int slot = 0; slot < CashOperationSlots.SLOT_COUNT; slot++) {
+                int value = CashOperationSlots.SLOT_VALUES[slot];
+                int quantity = rs.getInt("notes_" + value);
+                if (quantity != 0) {
+                    denominations.add(new Denomination(quantity, value));
+                }
+            }
+            cashier.addBalance(Currency.valueOf(rs.getString("currency")), denominations);
+            restored.incrementAndGet();
+        });
+        log.info("Restored {} persisted cashier balances", restored.get());
+    }
+
+    record BalanceKey(String cashier, Currency currency) {
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.cashoperations.repository;
+
+import com.example.cashoperations.dto.JournalProperties;
+import com.example.cashoperations.exception.DurabilityNotConfirmedException;
+import com.example.cashoperations.exception.LogTransactionException;
+import com.example.cashoperations.model.Durability;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only transaction journal ({@link CashierRepository#TRANSACTION_FILE}) with group commit.
+ * <p>
+ * Entries are queued by request threads and written by a single writer thread: every pass drains whatever is queued
+ * (up to {@code maxBatch} entries), writes it with one channel write and, if any of the entries asked for
+ * {@link Durability#FSYNC}, forces the file once for the whole batch. Requests that arrive while an fsync is running
+ * are picked up by the next pass, so under load many requests share one fsync.
+ * <p>
+ * On shutdown, entries the writer did not get to, and entries appended afterwards, are not written: their acks fail
+ * at once with {@link DurabilityNotConfirmedException} instead of waiting for the acknowledgement timeout.
+ * <p>
+ * A failed write fails the acks of its batch. Anything else the writer throws stops the journal: the acks of the
+ * batch, of the queued entries and of every later entry fail with {@link LogTransactionException}.
+ */
+@Slf4j
+@Component
+public class TransactionJournal {
+
+    private static final CompletableFuture<Void> ACKNOWLEDGED = CompletableFuture.completedFuture(null);
+    private static final Entry STOP = new Entry(new byte[0], Durability.MEMORY, null);
+    private static final String SHUTTING_DOWN = "the transaction journal is shutting down";
+
+    private final Path file;
+    private final int maxBatch;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong fsyncs = new AtomicLong();
+    private final ByteArrayOutputStream batchBytes = new ByteArrayOutputStream(8192);
+
+    private FileChannel channel;
+    private Thread writer;
+    private volatile boolean stopping;
+    private volatile boolean writerExited;
+    // Set when the writer stopped on a failure other than a failed write
+    private volatile LogTransactionException failure;
+
+    @Autowired
+    public TransactionJournal(JournalProperties properties) {
+        this(Paths.get(CashierRepository.TRANSACTION_FILE), properties.getMaxBatch());
+    }
+
+    TransactionJournal(Path file, int maxBatch) {
+        this.file = file;
+        this.maxBatch = Math.max(1, maxBatch);
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            start(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open transaction journal " + file, e);
+        }
+    }
+
+    void start(FileChannel channel) {
+        this.channel = channel;
+        // Never interrupted (an interrupt closes the channel), stopped with the STOP entry instead.
+        // Acks are completed on this thread, so callers must not run blocking work in their completion stages
+        writer = Thread.ofPlatform().name("transaction-journal").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        stopping = true;
+        queue.add(STOP);
+        if (writer != null) {
+            writer.join();
+        }
+        writerExited = true;
+        failPending();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Queues {@code line} and returns a future that completes once the entry reached {@code durability}, or completes
+     * exceptionally with {@link LogTransactionException}. {@link Durability#MEMORY} entries are acknowledged at once.
+     */
+    public CompletableFuture<Void> append(String line, Durability durability) {
+        LogTransactionException failed = failure;
+        if (failed != null) {
+            return durability == Durability.MEMORY ? ACKNOWLEDGED : CompletableFuture.failedFuture(failed);
+        }
+        if (stopping && durability != Durability.MEMORY) {
+            return CompletableFuture.failedFuture(new DurabilityNotConfirmedException(durability, SHUTTING_DOWN));
+        }
+        CompletableFuture<Void> ack = durability == Durability.MEMORY ? null : new CompletableFuture<>();
+        queue.add(new Entry(line.getBytes(StandardCharsets.UTF_8), durability, ack));
+        if (writerExited) {
+            // Raced with stop(), nobody else will take the entry
+            failPending();
+        }
+        return ack != null ? ack : ACKNOWLEDGED;
+    }
+
+    /**
+     * Number of fsyncs issued so far, each covering one batch of entries.
+     */
+    public long getFsyncCount() {
+        return fsyncs.get();
+    }
+
+    private void run() {
+        List<Entry> batch = new ArrayList<>(maxBatch);
+        boolean stopped = false;
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            stopped = batch.remove(STOP);
+            if (!batch.isEmpty()) {
+                try {
+                    flush(batch);
+                } catch (Throwable e) {
+                    fail(batch, e);
+                    return;
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stops the journal after the writer failed on {@code batch} with anything but a failed write, which would
+     * otherwise leave every later ack waiting on a writer that is gone.
+     */
+    private void fail(List<Entry> batch, Throwable cause) {
+        log.error("Transaction journal writer failed, the journal is stopped", cause);
+        failure = new LogTransactionException("Failed to log transaction.", "the transaction journal failed: " + cause);
+        writerExited = true;
+        failAcks(batch, failure);
+        failPending();
+    }
+
+    private void flush(List<Entry> batch) {
+        boolean fsync = false;
+        batchBytes.reset();
+        for (Entry entry : batch) {
+            batchBytes.writeBytes(entry.line());
+            fsync |= entry.durability() == Durability.FSYNC;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batchBytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            complete(batch, Durability.JOURNAL);
+            if (fsync) {
+                channel.force(false);
+                fsyncs.incrementAndGet();
+                complete(batch, Durability.FSYNC);
+            }
+        } catch (IOException e) {
+            log.error("Failed to log transaction", e);
+            failAcks(batch, new LogTransactionException("Failed to log transaction.", e.getMessage()));
+        }
+    }
+
+    /**
+     * Fails the acks of the entries left in the queue once the writer has exited.
+     */
+    private void failPending() {
+        List<Entry> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.remove(STOP);
+        if (pending.isEmpty()) {
+            return;
+        }
+        log.warn("Transaction journal stopped with {} entries not written", pending.size());
+        LogTransactionException failed = failure;
+        for (Entry entry : pending) {
+            if (entry.ack() != null) {
+                entry.ack().completeExceptionally(failed != null ? failed
+                        : new DurabilityNotConfirmedException(entry.durability(), SHUTTING_DOWN));
+            }
+        }
+    }
+
+    private static void failAcks(List<Entry> batch, RuntimeException failure) {
+        for (Entry entry : batch) {
+            if (entry.ack() != null) {
+                entry.ack().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static void complete(List<Entry> batch, Durability durability) {
+        for (Entry entry : batch) {
+            if (entry.durability() == durability) {
+                entry.ack().complete(null);
+            }
+        }
+    }
+
+    private record Entry(byte[] line, Durability durability, CompletableFuture<Void> ack) {
+    }
+}
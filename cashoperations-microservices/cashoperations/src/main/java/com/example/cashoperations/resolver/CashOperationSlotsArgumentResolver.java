@@ -0,0 +1,83 @@
+package com.example.cashoperations.resolver;
+
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.validators.CashOperationDecoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.List;
+
+/**
+ * Resolves {@link CashOperationSlots} controller parameters from a JSON body with {@link CashOperationDecoder}.
+ * <p>
+ * Mirrors {@code @Valid @RequestBody CashOperationRequest}: unsupported content types, missing or malformed bodies
+ * and validation errors raise the same exceptions Spring MVC raises, so {@code GlobalExceptionHandler} answers with
+ * the same status and payload. The controller has to hand the slots back with {@link CashOperationDecoder#release}.
+ */
+@Component
+public class CashOperationSlotsArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CashOperationDecoder decoder;
+
+    public CashOperationSlotsArgumentResolver(CashOperationDecoder decoder) {
+        this.decoder = decoder;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return CashOperationSlots.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+        HttpServletRequest servletRequest = webRequest.getNativeRequest(HttpServletRequest.class);
+        ServletServerHttpRequest inputMessage = new ServletServerHttpRequest(servletRequest);
+
+        MediaType contentType = inputMessage.getHeaders().getContentType();
+        if (contentType == null || !MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            throw new HttpMediaTypeNotSupportedException(contentType, List.of(MediaType.APPLICATION_JSON), HttpMethod.POST);
+        }
+
+        CashOperationSlots slots = decoder.acquire();
+        try {
+            int length = decoder.readBody(servletRequest.getInputStream(), slots);
+            if (length == 0) {
+                throw new HttpMessageNotReadableException("Required request body is missing: "
+                        + parameter.getExecutable().toGenericString(), inputMessage);
+            }
+            decoder.decode(slots, length);
+        } catch (InvalidDefinitionException e) {
+            decoder.release(slots);
+            throw new HttpMessageConversionException("Type definition error: " + e.getType(), e);
+        } catch (JsonProcessingException e) {
+            decoder.release(slots);
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        } catch (Exception e) {
+            decoder.release(slots);
+            throw e;
+        }
+
+        BindingResult bindingResult = decoder.validate(slots);
+        if (bindingResult != null) {
+            decoder.release(slots);
+            throw new MethodArgumentNotValidException(parameter, bindingResult);
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.dto.AdmissionControlProperties;
+import com.example.cashoperations.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit for cash operations that adapts to observed latency (gradient algorithm).
+ * <p>
+ * Completed requests are grouped into samples of {@code sampleWindow} round-trip times. Each sample's average RTT
+ * ("short") is compared with an exponential average over {@code longWindow} samples ("long"):
+ * {@code gradient = clamp(tolerance * long / short, 0.5, 1)}, {@code estimate = limit * gradient + sqrt(limit)}.
+ * While latency is stable the gradient is 1 and the limit grows by the sqrt(limit) queue allowance; once requests
+ * start queueing on ledger locks and log writers the short RTT rises and the limit shrinks. Requests above the limit
+ * are rejected before they reach the ledger.
+ * <p>
+ * Exposed as {@code cashoperations.concurrency.limit}, {@code .inflight} and {@code .rejected}.
+ */
+@Slf4j
+@Service
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Returned by {@link #acquire()} when the limiter is disabled; must still be passed to {@link #release}.
+     */
+    public static final long NOT_ACQUIRED = Long.MIN_VALUE;
+
+    private final AdmissionControlProperties properties;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    private volatile double limit;
+    private double longRttNanos;
+    private long windowRttSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(AdmissionControlProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.limit = properties.getAdaptive().getInitialLimit();
+        Gauge.builder("cashoperations.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for cash operations")
+                .register(meterRegistry);
+        Gauge.builder("cashoperations.concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Cash operations currently in flight")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("cashoperations.concurrency.rejected")
+                .description("Cash operations rejected by the adaptive concurrency limit")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request or throws {@link TooManyRequestsException}.
+     *
+     * @return the start time to pass to {@link #release}, or {@link #NOT_ACQUIRED} if the limiter is disabled
+     */
+    public long acquire() {
+        if (!properties.isEnabled() || !properties.getAdaptive().isEnabled()) {
+            return NOT_ACQUIRED;
+        }
+        if (inFlight.incrementAndGet() > (int) limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            throw new TooManyRequestsException("Too many requests. Cash operation concurrency limit reached.", 1);
+        }
+        return nanoClock.getAsLong();
+    }
+
+    /**
+     * @param dropped the request failed or was shed further down, its RTT says nothing about the ledger
+     */
+    public void release(long startNanos, boolean dropped) {
+        if (startNanos == NOT_ACQUIRED) {
+            return;
+        }
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        if (!dropped) {
+            onSample(nanoClock.getAsLong() - startNanos, inFlightAtRelease);
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public double getRejected() {
+        return rejected.count();
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtRelease) {
+        AdmissionControlProperties.Adaptive config = properties.getAdaptive();
+        windowRttSum += rttNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtRelease);
+        if (++windowCount < config.getSampleWindow()) {
+            return;
+        }
+        double shortRtt = Math.max(1, (double) windowRttSum / windowCount);
+        int maxInFlight = windowMaxInFlight;
+        windowRttSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+
+        if (longRttNanos == 0) {
+            longRttNanos = shortRtt;
+        } else {
+            longRttNanos += (shortRtt - longRttNanos) / config.getLongWindow();
+        }
+        // After a long overload the long-term RTT lags far behind, let it catch up with the recovered latency
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+        // Too little traffic to tell whether more concurrency would queue
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, config.getRttTolerance() * longRttNanos / shortRtt));
+        double estimate = current * gradient + Math.sqrt(current);
+        double next = current * (1 - config.getSmoothing()) + estimate * config.getSmoothing();
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), next));
+        if ((int) limit != (int) current) {
+            log.debug("Cash operation concurrency limit {} -> {} (short RTT {} us, long RTT {} us)",
+                    (int) current, (int) limit, (long) shortRtt / 1000, (long) longRttNanos / 1000);
+        }
+    }
+}
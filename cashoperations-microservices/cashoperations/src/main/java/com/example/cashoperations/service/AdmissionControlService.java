@@ -0,0 +1,137 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.dto.AdmissionControlProperties;
+import com.example.cashoperations.exception.TooManyRequestsException;
+import com.example.cashoperations.utils.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Sheds load before it queues on cashier locks and file I/O: token buckets per client and per cashier plus a
+ * global limit of requests in flight. Rejections are {@link TooManyRequestsException}s (429 with Retry-After).
+ * <p>
+ * Limits are read from {@link AdmissionControlProperties} on every call, so a config refresh applies immediately.
+ * <p>
+ * At most {@code maxTrackedKeys} buckets are kept per kind. Beyond that, the least recently used bucket is dropped
+ * if it is idle (full); otherwise new keys share one overflow bucket, so a stream of new keys can neither grow the
+ * table nor obtain fresh buckets.
+ */
+@Slf4j
+@Service
+public class AdmissionControlService {
+
+    private final AdmissionControlProperties properties;
+    private final LongSupplier nanoClock;
+    private final BucketTable clientBuckets = new BucketTable();
+    private final BucketTable cashierBuckets = new BucketTable();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Autowired
+    public AdmissionControlService(AdmissionControlProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    AdmissionControlService(AdmissionControlProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Limits the requests of an authenticated client, identified by its validated API key.
+     */
+    public void admitClient(String apiKey) {
+        if (!properties.isEnabled() || apiKey == null) {
+            return;
+        }
+        long waitNanos = acquire(clientBuckets, apiKey, properties.getClientRatePerSecond(), properties.getClientBurst());
+        if (waitNanos > 0) {
+            log.warn("Rate limit exceeded for client");
+            throw new TooManyRequestsException("Too many requests. Client rate limit exceeded.", retryAfterSeconds(waitNanos));
+        }
+    }
+
+    public void admitCashier(String cashierName) {
+        if (!properties.isEnabled() || cashierName == null) {
+            return;
+        }
+        long waitNanos = acquire(cashierBuckets, cashierName, properties.getCashierRatePerSecond(), properties.getCashierBurst());
+        if (waitNanos > 0) {
+            log.warn("Rate limit exceeded for cashier {}", cashierName);
+            throw new TooManyRequestsException("Too many requests for cashier " + cashierName + ".", retryAfterSeconds(waitNanos));
+        }
+    }
+
+    /**
+     * Takes a slot of the global concurrency limit.
+     *
+     * @return true if a slot was taken and must be returned with {@link #exit()}, false if the limit is disabled
+     */
+    public boolean enter() {
+        if (!properties.isEnabled() || properties.getMaxConcurrentRequests() <= 0) {
+            return false;
+        }
+        if (inFlight.incrementAndGet() > properties.getMaxConcurrentRequests()) {
+            inFlight.decrementAndGet();
+            log.warn("Concurrent request limit of {} reached", properties.getMaxConcurrentRequests());
+            throw new TooManyRequestsException("Too many requests. Server is at its concurrent request limit.", 1);
+        }
+        return true;
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private long acquire(BucketTable buckets, String key, double rate, double burst) {
+        if (rate <= 0) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        return buckets.bucket(key, rate, burst, now, properties.getMaxTrackedKeys()).tryAcquire(rate, burst, now);
+    }
+
+    private static long retryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    /**
+     * Buckets in least recently used order, bounded by the number of tracked keys.
+     */
+    private static final class BucketTable {
+        private final LinkedHashMap<String, TokenBucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+        private TokenBucket overflow;
+
+        synchronized TokenBucket bucket(String key, double rate, double burst, long now, int maxKeys) {
+            TokenBucket bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            Iterator<Map.Entry<String, TokenBucket>> eldest = buckets.entrySet().iterator();
+            while (buckets.size() >= maxKeys && eldest.hasNext() && eldest.next().getValue().isFull(rate, burst, now)) {
+                eldest.remove();
+            }
+            if (buckets.size() < maxKeys) {
+                bucket = new TokenBucket(burst, now);
+                buckets.put(key, bucket);
+                return bucket;
+            }
+            // Every tracked key is busy
+            if (overflow == null) {
+                overflow = new TokenBucket(burst, now);
+            }
+            return overflow;
+        }
+    }
+}
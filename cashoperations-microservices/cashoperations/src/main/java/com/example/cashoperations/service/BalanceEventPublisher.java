@@ -0,0 +1,18 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.dto.BalanceEvent;
+
+import java.util.List;
+
+/**
+ * Publishes balance-change events for {@link BalanceEventRelay}.
+ */
+public interface BalanceEventPublisher {
+
+    /**
+     * Publishes the batch and returns once the broker confirmed all of it.
+     *
+     * @throws RuntimeException if any event of the batch was not confirmed; the relay then retries the whole batch
+     */
+    void publish(List<BalanceEvent> batch);
+}
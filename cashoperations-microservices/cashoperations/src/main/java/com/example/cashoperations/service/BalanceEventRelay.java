@@ -0,0 +1,122 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.dto.BalanceEvent;
+import com.example.cashoperations.dto.OutboxProperties;
+import com.example.cashoperations.repository.BalanceEventOutbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays the {@link BalanceEventOutbox} to the {@link BalanceEventPublisher}.
+ * <p>
+ * Every {@code relayIntervalMillis} a single relay thread publishes the outbox oldest first, {@code batchSize} events
+ * per batch, and marks a batch published only once the broker confirmed it. An unconfirmed batch is published again,
+ * so delivery is at-least-once and in outbox order; consumers deduplicate on the event id. Published events older
+ * than {@code retentionHours} are purged about once a minute.
+ */
+@Slf4j
+@Component
+public class BalanceEventRelay {
+
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final BalanceEventOutbox balanceEventOutbox;
+    private final BalanceEventPublisher publisher;
+    private final OutboxProperties properties;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+
+    private ScheduledExecutorService relay;
+    private long nextPurgeNanos = System.nanoTime();
+
+    public BalanceEventRelay(BalanceEventOutbox balanceEventOutbox, BalanceEventPublisher publisher,
+                             OutboxProperties properties) {
+        this.balanceEventOutbox = balanceEventOutbox;
+        this.publisher = publisher;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!balanceEventOutbox.isEnabled()) {
+            return;
+        }
+        relay = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("balance-event-relay").daemon().factory());
+        long interval = properties.getRelayIntervalMillis();
+        relay.scheduleWithFixedDelay(this::relayQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (relay == null) {
+            return;
+        }
+        relay.shutdown();
+        relay.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Publishes the outbox until it is empty or a batch is not confirmed.
+     *
+     * @return number of events published
+     */
+    public synchronized int relay() {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        int relayed = 0;
+        List<BalanceEvent> batch;
+        do {
+            batch = balanceEventOutbox.fetchUnpublished(batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            publisher.publish(batch);
+            // A crash between the confirm and the update republishes the batch
+            balanceEventOutbox.markPublished(batch);
+            batches.incrementAndGet();
+            published.addAndGet(batch.size());
+            relayed += batch.size();
+        } while (batch.size() == batchSize);
+        return relayed;
+    }
+
+    /**
+     * Number of confirmed batches.
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    /**
+     * Number of confirmed events.
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+            if (System.nanoTime() - nextPurgeNanos >= 0) {
+                nextPurgeNanos = System.nanoTime() + PURGE_INTERVAL_NANOS;
+                int purged = balanceEventOutbox.purgePublished(LocalDateTime.now().minusHours(properties.getRetentionHours()));
+                if (purged > 0) {
+                    log.info("Purged {} published balance events", purged);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keeps the schedule alive, the unconfirmed batch is published again with the next run.
+            // No stack trace: while the broker is down this is logged on every run
+            log.error("Failed to publish balance events: {}", e.toString());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.cashoperations.service;
 
+import com.example.cashoperations.dto.BalanceEventPage;
+import com.example.cashoperations.dto.CashAggregateResponse;
 import com.example.cashoperations.dto.CashBalanceResponse;
 
 import java.time.LocalDateTime;
@@ -8,4 +10,9 @@ import java.util.Optional;
 
 public interface CashBalanceService {
     List<CashBalanceResponse> getCashBalances(Optional<LocalDateTime> dateFrom, Optional<LocalDateTime> dateTo, Optional<String> cashier);
+
+    CashAggregateResponse getCashAggregates(Optional<LocalDateTime> dateFrom, Optional<LocalDateTime> dateTo, Optional<String> cashier,
+                                            Optional<String> currency, boolean perCashier);
+
+    BalanceEventPage getBalanceEvents(long since, int limit);
 }
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.example.cashoperations.service;
 
+import com.example.cashoperations.dto.BalanceEventPage;
+import com.example.cashoperations.dto.CashAggregateResponse;
 import com.example.cashoperations.dto.CashBalanceResponse;
 import com.example.cashoperations.exception.InvalidDateRangeException;
 import com.example.cashoperations.model.Cashier;
 import com.example.cashoperations.model.Currency;
 import com.example.cashoperations.model.Denomination;
+import com.example.cashoperations.repository.BalanceEventOutbox;
 import com.example.cashoperations.repository.CashierRepository;
 import com.example.cashoperations.utils.StatisticsInfo;
 import lombok.extern.slf4j.Slf4j;
@@ -12,8 +15,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -22,6 +27,12 @@ import java.util.stream.Collectors;
 @Service
 public class CashBalanceServiceImpl implements CashBalanceService {
 
+    static final int MAX_EVENT_PAGE = 1000;
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    @Autowired
+    private BalanceEventOutbox balanceEventOutbox;
+
     @Override
     public List<CashBalanceResponse> getCashBalances(Optional<LocalDateTime> dateFrom, Optional<LocalDateTime> dateTo, Optional<String> cashier) {
         if (dateFrom.isPresent() && dateTo.isPresent() && dateFrom.get().isAfter(dateTo.get())) {
@@ -53,6 +64,104 @@ public class CashBalanceServiceImpl implements CashBalanceService {
         return cashBalanceResponses;
     }
 
+    @Override
+    public CashAggregateResponse getCashAggregates(Optional<LocalDateTime> dateFrom, Optional<LocalDateTime> dateTo,
+                                                   Optional<String> cashier, Optional<String> currency, boolean perCashier) {
+        if (dateFrom.isPresent() && dateTo.isPresent() && dateFrom.get().isAfter(dateTo.get())) {
+            throw new InvalidDateRangeException("DateFrom must be before dateTo");
+        }
+
+        // Sums per currency ordinal; a currency is reported once a cashier holds denominations of it in the range
+        long[] totals = new long[CURRENCIES.length];
+        boolean[] present = new boolean[CURRENCIES.length];
+        Map<String, long[]> cashierTotals = perCashier ? new TreeMap<>() : null;
+        Map<String, boolean[]> cashierPresent = perCashier ? new TreeMap<>() : null;
+        int cashierCount = 0;
+        for (Map.Entry<String, Cashier> entry : CashierRepository.CASHIERS.entrySet()) {
+            if (cashier.isPresent() && !entry.getKey().equalsIgnoreCase(cashier.get())) {
+                continue;
+            }
+            cashierCount++;
+            long[] ownTotals = new long[CURRENCIES.length];
+            boolean[] ownPresent = new boolean[CURRENCIES.length];
+            for (Map.Entry<Currency, List<Denomination>> balance : entry.getValue().getBalances().entrySet()) {
+                if (currency.isPresent() && !balance.getKey().name().equalsIgnoreCase(currency.get())) {
+                    continue;
+                }
+                long sum = 0;
+                boolean any = dateFrom.isEmpty() && dateTo.isEmpty();
+                for (Denomination denomination : balance.getValue()) {
+                    if (isWithinDateRange(denomination.getTimestamp(), dateFrom, dateTo)) {
+                        sum += denomination.getTotalAmount();
+                        any = true;
+                    }
+                }
+                if (any) {
+                    int ordinal = balance.getKey().ordinal();
+                    ownTotals[ordinal] += sum;
+                    ownPresent[ordinal] = true;
+                    totals[ordinal] += sum;
+                    present[ordinal] = true;
+                }
+            }
+            if (perCashier) {
+                cashierTotals.put(entry.getKey(), ownTotals);
+                cashierPresent.put(entry.getKey(), ownPresent);
+            }
+        }
+
+        // Operation counters are keyed TYPE|CASHIER|CURRENCY
+        long deposits = 0;
+        long withdrawals = 0;
+        Map<String, long[]> cashierCounts = perCashier ? new TreeMap<>() : null;
+        for (Map.Entry<String, Integer> counter : StatisticsInfo.operations.entrySet()) {
+            String[] key = counter.getKey().split("\\|");
+            if (key.length != 3
+                    || cashier.isPresent() && !key[1].equalsIgnoreCase(cashier.get())
+                    || currency.isPresent() && !key[2].equalsIgnoreCase(currency.get())) {
+                continue;
+            }
+            boolean deposit = "DEPOSIT".equals(key[0]);
+            if (deposit) {
+                deposits += counter.getValue();
+            } else if ("WITHDRAWAL".equals(key[0])) {
+                withdrawals += counter.getValue();
+            } else {
+                continue;
+            }
+            if (perCashier && cashierTotals.containsKey(key[1])) {
+                cashierCounts.computeIfAbsent(key[1], name -> new long[2])[deposit ? 0 : 1] += counter.getValue();
+            }
+        }
+
+        Map<String, CashAggregateResponse.CashierAggregate> cashiers = null;
+        if (perCashier) {
+            cashiers = new TreeMap<>();
+            for (Map.Entry<String, long[]> entry : cashierTotals.entrySet()) {
+                long[] counts = cashierCounts.getOrDefault(entry.getKey(), new long[2]);
+                cashiers.put(entry.getKey(), new CashAggregateResponse.CashierAggregate(
+                        toCurrencyMap(entry.getValue(), cashierPresent.get(entry.getKey())), counts[0], counts[1]));
+            }
+        }
+        return new CashAggregateResponse(LocalDateTime.now(), cashierCount, toCurrencyMap(totals, present),
+                deposits, withdrawals, cashiers);
+    }
+
+    private static Map<Currency, Long> toCurrencyMap(long[] totals, boolean[] present) {
+        Map<Currency, Long> map = new EnumMap<>(Currency.class);
+        for (int ordinal = 0; ordinal < totals.length; ordinal++) {
+            if (present[ordinal]) {
+                map.put(CURRENCIES[ordinal], totals[ordinal]);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public BalanceEventPage getBalanceEvents(long since, int limit) {
+        return balanceEventOutbox.fetchSince(since, Math.max(1, Math.min(limit, MAX_EVENT_PAGE)));
+    }
+
     private Map<Currency, List<Denomination>> filterBalancesByDate(
             Map<Currency, List<Denomination>> balances,
             Optional<LocalDateTime> dateFrom,
@@ -1,7 +1,36 @@
 package com.example.cashoperations.service;
 
+import com.example.cashoperations.dto.AmountWithdrawalRequest;
 import com.example.cashoperations.dto.CashOperationRequest;
+import com.example.cashoperations.dto.CashOperationResult;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.model.Durability;
+
+import java.util.concurrent.CompletableFuture;
 
 public interface CashDeskService {
-    void performOperation(CashOperationRequest request);
+    /**
+     * @return {@link CashOperationResult.Completed}, or {@link CashOperationResult.Rejected} for business rejections
+     */
+    CashOperationResult performOperation(CashOperationRequest request);
+
+    /**
+     * Performs an operation that was decoded into pooled slots. The slots must not be retained after returning.
+     */
+    default CashOperationResult performOperation(CashOperationSlots operation) {
+        return performOperation(operation.toRequest());
+    }
+
+    /**
+     * Performs an operation that was decoded into pooled slots and completes once the transaction reached
+     * {@code durability}; rejections complete immediately. The slots must not be retained after returning.
+     */
+    default CompletableFuture<CashOperationResult> performOperation(CashOperationSlots operation, Durability durability) {
+        return CompletableFuture.completedFuture(performOperation(operation));
+    }
+
+    /**
+     * @return {@link CashOperationResult.Completed} with the planned payout, or {@link CashOperationResult.Rejected}
+     */
+    CashOperationResult withdrawAmount(AmountWithdrawalRequest request);
 }
@@ -1,16 +1,24 @@
 package com.example.cashoperations.service;
 
+import com.example.cashoperations.dto.AmountWithdrawalRequest;
 import com.example.cashoperations.dto.CashOperationRequest;
+import com.example.cashoperations.dto.CashOperationResult;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.dto.JournalProperties;
 import com.example.cashoperations.exception.*;
 import com.example.cashoperations.model.Cashier;
 import com.example.cashoperations.model.Currency;
 import com.example.cashoperations.model.Denomination;
+import com.example.cashoperations.model.Durability;
+import com.example.cashoperations.repository.BalanceWriteBehind;
 import com.example.cashoperations.repository.CashierRepository;
+import com.example.cashoperations.repository.TransactionJournal;
 import com.example.cashoperations.utils.LocalDateTimeFormatter;
 import com.example.cashoperations.utils.StatisticsInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -23,6 +31,8 @@ import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -37,6 +47,18 @@ public class CashDeskServiceImpl implements CashDeskService {
     @Autowired
     private final StatisticsInfo statisticsInfo;
 
+    @Autowired
+    private final DenominationPlanner denominationPlanner;
+
+    @Autowired
+    private final TransactionJournal transactionJournal;
+
+    @Autowired
+    private final JournalProperties journalProperties;
+
+    @Autowired
+    private final BalanceWriteBehind balanceWriteBehind;
+
     // Fine-grained locks per cashier+currency to reduce contention versus synchronizing the whole service instance
     private final ConcurrentHashMap<String, ReentrantLock> balanceLocks = new ConcurrentHashMap<>();
 
@@ -46,24 +68,174 @@ public class CashDeskServiceImpl implements CashDeskService {
     }
 
     @Override
-    public void performOperation(CashOperationRequest request) {
+    public CashOperationResult performOperation(CashOperationRequest request) {
         Cashier cashier = cashierRepository.getCashier(request.getCashierName());
         if (cashier == null) {
             throw new ResourceNotFoundException("Cashier", "name", request.getCashierName());
         }
 
-        chechAmountValidity(request);
+        CashOperationResult result = chechAmountValidity(request);
+        if (result != null) {
+            return result;
+        }
 
         if ("DEPOSIT".equalsIgnoreCase(request.getOperationType())) {
-            deposit(cashier, request);
+            result = deposit(cashier, request);
         } else if ("WITHDRAWAL".equalsIgnoreCase(request.getOperationType())) {
-            withdraw(cashier, request);
+            result = withdraw(cashier, request);
+        } else {
+            result = CashOperationResult.COMPLETED;
         }
 
         cashierRepository.updateCashier(cashier);
+        return result;
+    }
+
+    /**
+     * Same operation as {@link #performOperation(CashOperationRequest)} on the decoded primitive form: balances are
+     * updated straight from the entry arrays, without streams or intermediate {@link Denomination} copies.
+     */
+    @Override
+    public CashOperationResult performOperation(CashOperationSlots operation) {
+        return awaitLogged(performOperation(operation, journalProperties.getDefaultDurability()));
+    }
+
+    /**
+     * Applies the operation on the calling thread and acknowledges it once its journal entry reached
+     * {@code durability}. Rejections and failures to apply are never deferred.
+     */
+    @Override
+    public CompletableFuture<CashOperationResult> performOperation(CashOperationSlots operation, Durability durability) {
+        Cashier cashier = cashierRepository.getCashier(operation.getCashierName());
+        if (cashier == null) {
+            throw new ResourceNotFoundException("Cashier", "name", operation.getCashierName());
+        }
+
+        if (!operation.amountMatchesDenominations()) {
+            return CompletableFuture.completedFuture(
+                    amountMismatch(operation.getAmount(), BigDecimal.valueOf(operation.getDenominationsSum())));
+        }
+
+        CashOperationResult result;
+        String operationType;
+        if (operation.isDeposit()) {
+            result = deposit(cashier, operation);
+            operationType = "DEPOSIT";
+        } else if ("WITHDRAWAL".equalsIgnoreCase(operation.getOperationType())) {
+            result = withdraw(cashier, operation);
+            operationType = "WITHDRAWAL";
+        } else {
+            result = CashOperationResult.COMPLETED;
+            operationType = null;
+        }
+
+        cashierRepository.updateCashier(cashier);
+        if (operationType == null || result instanceof CashOperationResult.Rejected) {
+            return CompletableFuture.completedFuture(result);
+        }
+        // The request line is rendered now, the pooled slots are released before the ack arrives
+        return logging(cashier, operation.toString(), operationType, durability).thenApply(logged -> result);
+    }
+
+    private CashOperationResult deposit(Cashier cashier, CashOperationSlots operation) {
+        if (operation.getEntryCount() == 0) {
+            log.error("Invalid deposit request. Cashier or denominations cannot be null/empty.");
+            throw new InvalidDepositException("Invalid deposit request. Deposit request must contain at least one valid denomination.");
+        }
+
+        Currency currency = operation.getCurrency();
+        ReentrantLock lock = getBalanceLock(cashier.getName(), currency);
+        lock.lock();
+        try {
+            List<Denomination> cashierDenominations =
+                    cashier.getBalances().computeIfAbsent(currency, k -> new ArrayList<>());
+            LocalDateTime now = LocalDateTime.parse(LocalDateTime.now().format(LocalDateTimeFormatter.TIMESTAMP_FORMATTER), LocalDateTimeFormatter.TIMESTAMP_FORMATTER);
+
+            for (int i = 0; i < operation.getEntryCount(); i++) {
+                int value = operation.getEntryValue(i);
+                int quantity = operation.getEntryQuantity(i);
+                Denomination existing = findByValue(cashierDenominations, value);
+                if (existing != null) {
+                    existing.setQuantity(existing.getQuantity() + quantity);
+                    existing.setTimestamp(now);
+                } else {
+                    cashierDenominations.add(new Denomination(quantity, value));
+                }
+            }
+            balanceWriteBehind.recordOperation(cashier.getName(), currency, "DEPOSIT", operation.getAmount(), cashierDenominations);
+        } finally {
+            lock.unlock();
+        }
+
+        StatisticsInfo.operations.merge("DEPOSIT" + "|" + cashier.getName() + "|" + currency.name(), 1, Integer::sum);
+        log.info("Deposit successful: {} {} deposit from cashier {}", operation.getAmount(), currency, cashier.getName());
+        return CashOperationResult.COMPLETED;
+    }
+
+    private CashOperationResult withdraw(Cashier cashier, CashOperationSlots operation) {
+        Currency currency = operation.getCurrency();
+        log.info("Processing withdrawal of {} {} for cashier {}", operation.getAmount(), currency, cashier.getName());
+
+        ReentrantLock lock = getBalanceLock(cashier.getName(), currency);
+        lock.lock();
+        try {
+            List<Denomination> cashierDenominations = cashier.getBalances().get(currency);
+            if (cashierDenominations == null) {
+                log.error("Currency {} not supported for cashier {}", currency, cashier.getName());
+                return CashOperationResult.currencyNotSupported(currency);
+            }
+
+            // Check every entry in request order before touching the balance, so a rejected withdrawal changes nothing
+            for (int i = 0; i < operation.getEntryCount(); i++) {
+                int value = operation.getEntryValue(i);
+                int quantity = operation.getEntryQuantity(i);
+                Denomination available = findByValue(cashierDenominations, value);
+                if (available == null) {
+                    log.error("Denomination {} not available for cashier {}", value, cashier.getName());
+                    return CashOperationResult.denominationNotFound(value);
+                }
+                int remaining = available.getQuantity();
+                for (int j = 0; j < i; j++) {
+                    if (operation.getEntryValue(j) == value) {
+                        remaining -= operation.getEntryQuantity(j);
+                    }
+                }
+                if (remaining < quantity) {
+                    log.error("Insufficient denominations: requested {}x{} but only {}x{} available", quantity, value, remaining, value);
+                    return CashOperationResult.insufficientDenomination(quantity, value, remaining);
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            for (Denomination cashierDenomination : cashierDenominations) {
+                int slot = CashOperationSlots.slotOf(cashierDenomination.getValue());
+                if (slot >= 0) {
+                    cashierDenomination.setQuantity((int) (cashierDenomination.getQuantity() - operation.getSlotQuantity(slot)));
+                }
+                cashierDenomination.setTimestamp(now);
+            }
+            // Remove zero-quantity denominations, as every withdrawal does
+            cashierDenominations.removeIf(d -> d.getQuantity() <= 0);
+            balanceWriteBehind.recordOperation(cashier.getName(), currency, "WITHDRAWAL", operation.getAmount(), cashierDenominations);
+        } finally {
+            lock.unlock();
+        }
+
+        StatisticsInfo.operations.merge("WITHDRAWAL" + "|" + cashier.getName() + "|" + currency.name(), 1, Integer::sum);
+        log.info("Withdrawal successful: {} {} withdrawn from cashier {}", operation.getAmount(), currency, cashier.getName());
+        return CashOperationResult.COMPLETED;
+    }
+
+    private static Denomination findByValue(List<Denomination> denominations, int value) {
+        for (Denomination denomination : denominations) {
+            if (denomination.getValue() == value) {
+                return denomination;
+            }
+        }
+        return null;
     }
 
-    private void deposit(Cashier cashier, CashOperationRequest request) {
+    private CashOperationResult deposit(Cashier cashier, CashOperationRequest request) {
         if (request == null) {
             log.error("Invalid deposit request. Cashier or denominations cannot be null/empty.");
             throw new InvalidDepositException("Invalid deposit request. Deposit request must be defined.");
@@ -107,6 +279,7 @@ public class CashDeskServiceImpl implements CashDeskService {
                     cashierDenominations.add(new Denomination(deposit.getQuantity(), deposit.getValue()));
                 }
             }
+            balanceWriteBehind.recordOperation(cashier.getName(), currency, "DEPOSIT", request.getAmount(), cashierDenominations);
         } finally {
             lock.unlock();
         }
@@ -115,11 +288,12 @@ public class CashDeskServiceImpl implements CashDeskService {
         log.info("Deposit successful: {} {} deposit from cashier {}", request.getAmount(), request.getCurrency(), cashier.getName());
         //new Thread(() -> logTransaction("DEPOSIT", cashier.getName(), request)).start();
         //new Thread(this::logBalances).start();
-        logging(cashier, request, "DEPOSIT");
+        logging(cashier, request.toString(), "DEPOSIT");
+        return CashOperationResult.COMPLETED;
     }
 
 
-    private void withdraw(Cashier cashier, CashOperationRequest request) {
+    private CashOperationResult withdraw(Cashier cashier, CashOperationRequest request) {
         log.info("Processing withdrawal of {} {} for cashier {}", request.getAmount(), request.getCurrency(), cashier.getName());
 
         Currency currency = request.getCurrency();
@@ -132,7 +306,7 @@ public class CashDeskServiceImpl implements CashDeskService {
 
             if (cashierDenominations == null) {
                 log.error("Currency {} not supported for cashier {}", currency, cashier.getName());
-                throw new CurrencyNotSupportedException(currency.toString());
+                return CashOperationResult.currencyNotSupported(currency);
             }
 
             // Create a copy of the cashier's denominations to avoid modifying the original list directly
@@ -152,11 +326,10 @@ public class CashDeskServiceImpl implements CashDeskService {
                             log.error("Insufficient denominations: requested {}x{} but only {}x{} available",
                                     requestedDenomination.getQuantity(), requestedDenomination.getValue(), cashierDenomination.getQuantity(),
                                     cashierDenomination.getValue());
-                            throw new InsufficientDenominationException(
+                            return CashOperationResult.insufficientDenomination(
                                     requestedDenomination.getQuantity(),
                                     requestedDenomination.getValue(),
-                                    cashierDenomination.getQuantity(),
-                                    cashierDenomination.getValue()
+                                    cashierDenomination.getQuantity()
                             );
                         }
                         // Subtract the requested quantity
@@ -168,13 +341,17 @@ public class CashDeskServiceImpl implements CashDeskService {
 
                 if (!found) {
                     log.error("Denomination {} not available for cashier {}", requestedDenomination.getValue(), cashier.getName());
-                    throw new DenominationNotFoundException(requestedDenomination.getValue());
+                    return CashOperationResult.denominationNotFound(requestedDenomination.getValue());
                 }
             }
 
+            // Remove zero-quantity denominations, as every withdrawal does
+            updatedDenominations.removeIf(d -> d.getQuantity() <= 0);
+
             // Update the cashier's balance
             balances.put(currency, updatedDenominations);
             cashier.setBalances(balances);
+            balanceWriteBehind.recordOperation(cashier.getName(), currency, "WITHDRAWAL", request.getAmount(), updatedDenominations);
         } finally {
             lock.unlock();
         }
@@ -183,28 +360,115 @@ public class CashDeskServiceImpl implements CashDeskService {
         log.info("Withdrawal successful: {} {} withdrawn from cashier {}", request.getAmount(), request.getCurrency(), cashier.getName());
         //new Thread(() -> logTransaction("WITHDRAW", cashier.getName(), request)).start();
         //new Thread(this::logBalances).start();
-        logging(cashier, request, "WITHDRAWAL");
+        logging(cashier, request.toString(), "WITHDRAWAL");
+        return CashOperationResult.COMPLETED;
     }
 
-    @Async("ioExecutor")
-    void logging(Cashier cashier, CashOperationRequest request, String operation) {
-        CompletableFuture<Void> transactionFuture = CompletableFuture.runAsync(() -> logTransaction(operation, cashier.getName(), request));
-        CompletableFuture<Void> balanceFuture = CompletableFuture.runAsync(this::logBalances);
+    @Override
+    public CashOperationResult withdrawAmount(AmountWithdrawalRequest request) {
+        Cashier cashier = cashierRepository.getCashier(request.getCashierName());
+        if (cashier == null) {
+            throw new ResourceNotFoundException("Cashier", "name", request.getCashierName());
+        }
+        log.info("Processing amount-only withdrawal of {} {} for cashier {}", request.getAmount(), request.getCurrency(), cashier.getName());
+
+        Currency currency = request.getCurrency();
+        List<Denomination> payout;
+
+        // Plan and apply under the same lock so the payout is computed against the stock it is taken from
+        ReentrantLock lock = getBalanceLock(cashier.getName(), currency);
+        lock.lock();
+        try {
+            List<Denomination> cashierDenominations = cashier.getBalances().get(currency);
+            if (cashierDenominations == null) {
+                log.error("Currency {} not supported for cashier {}", currency, cashier.getName());
+                return CashOperationResult.currencyNotSupported(currency);
+            }
+
+            Optional<List<Denomination>> planned = denominationPlanner.plan(cashierDenominations, request.getAmount());
+            if (planned.isEmpty()) {
+                log.error("No payout of {} {} possible from cashier {} stock {}", request.getAmount(), currency, cashier.getName(), cashierDenominations);
+                return CashOperationResult.payoutNotPossible(request.getAmount(), currency);
+            }
+            payout = planned.get();
+
+            LocalDateTime now = LocalDateTime.parse(LocalDateTime.now().format(LocalDateTimeFormatter.TIMESTAMP_FORMATTER), LocalDateTimeFormatter.TIMESTAMP_FORMATTER);
+            for (Denomination paid : payout) {
+                int remaining = paid.getQuantity();
+                for (Denomination cashierDenomination : cashierDenominations) {
+                    if (remaining == 0) {
+                        break;
+                    }
+                    if (cashierDenomination.getValue() == paid.getValue() && cashierDenomination.getQuantity() > 0) {
+                        int taken = Math.min(remaining, cashierDenomination.getQuantity());
+                        cashierDenomination.setQuantity(cashierDenomination.getQuantity() - taken);
+                        cashierDenomination.setTimestamp(now);
+                        remaining -= taken;
+                    }
+                }
+            }
+            // Remove zero-quantity denominations, as every withdrawal does
+            cashierDenominations.removeIf(d -> d.getQuantity() <= 0);
+            balanceWriteBehind.recordOperation(cashier.getName(), currency, "WITHDRAWAL", request.getAmount(), cashierDenominations);
+        } finally {
+            lock.unlock();
+        }
+        cashierRepository.updateCashier(cashier);
+
+        CashOperationRequest operation = new CashOperationRequest();
+        operation.setCashierName(cashier.getName());
+        operation.setCurrency(currency);
+        operation.setOperationType("WITHDRAWAL");
+        operation.setAmount(request.getAmount());
+        operation.setDenominations(payout);
+
+        StatisticsInfo.operations.merge("WITHDRAWAL" + "|" + cashier.getName() + "|" + currency.name(), 1, Integer::sum);
+        log.info("Withdrawal successful: {} {} paid out as {} from cashier {}", request.getAmount(), currency, payout, cashier.getName());
+        logging(cashier, operation.toString(), "WITHDRAWAL");
+        return CashOperationResult.completed(payout);
+    }
+
+    void logging(Cashier cashier, String request, String operation) {
+        awaitLogged(logging(cashier, request, operation, journalProperties.getDefaultDurability()));
+    }
+
+    /**
+     * Journals the transaction and refreshes the balances snapshot. The returned future tracks the journal entry only;
+     * the snapshot is derived from the cashiers' state and a failure to refresh it is only logged.
+     */
+    CompletableFuture<Void> logging(Cashier cashier, String request, String operation, Durability durability) {
+        CompletableFuture.runAsync(this::logBalances).whenComplete((ignored, failure) -> {
+            // Failed writes are logged by logBalances itself
+            if (failure != null && !(NestedExceptionUtils.getMostSpecificCause(failure) instanceof LogBalancesException)) {
+                log.error("Failed to refresh the balances snapshot", failure);
+            }
+        });
+        return logTransaction(operation, cashier.getName(), request, durability);
+    }
+
+    /**
+     * Waits for the acknowledgement at the default durability, at most as long as requests that ask for one.
+     */
+    private <T> T awaitLogged(CompletableFuture<T> logged) {
+        long timeoutMillis = journalProperties.getAckTimeoutMillis();
         try {
-            transactionFuture.join(); // This will throw CompletionException with the cause
-            balanceFuture.join(); // This will throw CompletionException with the cause
+            // This will throw CompletionException with the cause
+            return logged.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).join();
         } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new DurabilityNotConfirmedException(journalProperties.getDefaultDurability(), timeoutMillis);
+            }
             if (e.getCause() instanceof LogTransactionException logTransactionException) {
                 throw logTransactionException;
-            } else if (e.getCause() instanceof LogBalancesException logBalancesException) {
-                throw logBalancesException;
-            } else {
-                throw new LogTransactionException("Failed to log transaction.", e.getCause().getMessage());
             }
+            if (e.getCause() instanceof DurabilityNotConfirmedException durabilityNotConfirmedException) {
+                throw durabilityNotConfirmedException;
+            }
+            throw new LogTransactionException("Failed to log transaction.", e.getCause().getMessage());
         }
     }
 
-    private void chechAmountValidity(CashOperationRequest request) {
+    private CashOperationResult.Rejected chechAmountValidity(CashOperationRequest request) {
         BigDecimal amount = request.getAmount();
 
         int denominationsAmountSum = request.getDenominations().stream()
@@ -215,37 +479,19 @@ public class CashDeskServiceImpl implements CashDeskService {
         BigDecimal bigDecimalDenominationsAmountSum = new BigDecimal(denominationsAmountSum);
 
         if (amount.compareTo(bigDecimalDenominationsAmountSum) != 0) {
-            log.error("Invalid deposit request. Amount {} does not match overall denominations sum {}.", amount, bigDecimalDenominationsAmountSum);
-            throw new InvalidAmountException("Invalid deposit request. Amount "
-                    + amount
-                    + " does not match overall denominations sum "
-                    + bigDecimalDenominationsAmountSum + "."
-            );
+            return amountMismatch(amount, bigDecimalDenominationsAmountSum);
         }
+        return null;
     }
 
-    @Async("ioExecutor")
-    void logTransaction(String operation, String cashierName, CashOperationRequest request) {
-        String timestamp = LocalDateTime.now().format(LocalDateTimeFormatter.TIMESTAMP_FORMATTER);
-        CompletableFuture<Void> transactionLogFuture =
-                CompletableFuture
-                        .supplyAsync(() ->
-                                String.format("%s - %s: %s %s%n", timestamp, operation, cashierName, request)
-                        )
-                        .thenCompose(content ->
-                                CompletableFuture.runAsync(() -> {
-                                    try {
-                                        Files.write(Paths.get(CashierRepository.TRANSACTION_FILE), content.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-                                        //throw new IOException("Failed to log transaction."); // simulate transaction log error
-                                    } catch (Exception e) {
-                                        log.error("Failed to log transaction", e);
-                                        throw new LogTransactionException("Failed to log transaction.", e.getMessage());
-                                    }
-                                })
-                        );
+    private CashOperationResult.Rejected amountMismatch(BigDecimal amount, BigDecimal denominationsAmountSum) {
+        log.error("Invalid deposit request. Amount {} does not match overall denominations sum {}.", amount, denominationsAmountSum);
+        return CashOperationResult.amountMismatch(amount, denominationsAmountSum);
+    }
 
-        // Wait for completion and propagate any exception
-        transactionLogFuture.join();
+    CompletableFuture<Void> logTransaction(String operation, String cashierName, String request, Durability durability) {
+        String timestamp = LocalDateTime.now().format(LocalDateTimeFormatter.TIMESTAMP_FORMATTER);
+        return transactionJournal.append(String.format("%s - %s: %s %s%n", timestamp, operation, cashierName, request), durability);
     }
 
     @Async("ioExecutor")
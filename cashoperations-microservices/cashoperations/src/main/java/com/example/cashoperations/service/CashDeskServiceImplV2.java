@@ -1,6 +1,8 @@
 package com.example.cashoperations.service;
 
+import com.example.cashoperations.dto.AmountWithdrawalRequest;
 import com.example.cashoperations.dto.CashOperationRequest;
+import com.example.cashoperations.dto.CashOperationResult;
 import com.example.cashoperations.exception.*;
 import com.example.cashoperations.model.Cashier;
 import com.example.cashoperations.model.Currency;
@@ -60,6 +62,7 @@ import java.util.stream.Collectors;
 public class CashDeskServiceImplV2 implements CashDeskService {
 
     private final CashierRepository cashierRepository;
+    private final DenominationPlanner denominationPlanner;
 
     // Fine-grained locks per cashier+currency with timeout capability
     private final ConcurrentMap<String, ReentrantLock> balanceLocks = new ConcurrentHashMap<>();
@@ -71,27 +74,31 @@ public class CashDeskServiceImplV2 implements CashDeskService {
     }
 
     @Override
-    public void performOperation(CashOperationRequest request) {
+    public CashOperationResult performOperation(CashOperationRequest request) {
         Cashier cashier = cashierRepository.getCashier(request.getCashierName());
         if (cashier == null) {
             throw new ResourceNotFoundException("Cashier", "name", request.getCashierName());
         }
 
-        checkAmountValidity(request);
+        CashOperationResult.Rejected amountMismatch = checkAmountValidity(request);
+        if (amountMismatch != null) {
+            return amountMismatch;
+        }
 
         try {
             if ("DEPOSIT".equalsIgnoreCase(request.getOperationType())) {
-                deposit(cashier, request);
+                return deposit(cashier, request);
             } else if ("WITHDRAWAL".equalsIgnoreCase(request.getOperationType())) {
-                withdraw(cashier, request);
+                return withdraw(cashier, request);
             }
+            return CashOperationResult.COMPLETED;
         } finally {
             // Update outside of fine-grained locks to avoid holding locks during repository operations
             cashierRepository.updateCashier(cashier);
         }
     }
 
-    private void deposit(Cashier cashier, CashOperationRequest request) {
+    private CashOperationResult deposit(Cashier cashier, CashOperationRequest request) {
         validateDepositRequest(cashier, request);
 
         Currency currency = request.getCurrency();
@@ -165,9 +172,10 @@ public class CashDeskServiceImplV2 implements CashDeskService {
         }
 
         logSuccess(logEntry, logMessage);
+        return CashOperationResult.COMPLETED;
     }
 
-    private void withdraw(Cashier cashier, CashOperationRequest request) {
+    private CashOperationResult withdraw(Cashier cashier, CashOperationRequest request) {
         Currency currency = request.getCurrency();
         List<Denomination> requestedDenominations = request.getDenominations();
 
@@ -190,7 +198,7 @@ public class CashDeskServiceImplV2 implements CashDeskService {
             List<Denomination> cashierDenominations = balances.get(currency);
 
             if (cashierDenominations == null || cashierDenominations.isEmpty()) {
-                throw new CurrencyNotSupportedException(currency.toString());
+                return CashOperationResult.currencyNotSupported(currency);
             }
 
             // Create a copy for validation without modifying original
@@ -206,13 +214,11 @@ public class CashDeskServiceImplV2 implements CashDeskService {
                 Integer availableQty = availableQuantities.get(value);
 
                 if (availableQty == null) {
-                    throw new DenominationNotFoundException(requested.getValue());
+                    return CashOperationResult.denominationNotFound(requested.getValue());
                 }
                 if (availableQty < requested.getQuantity()) {
-                    throw new InsufficientDenominationException(
-                            requested.getQuantity(), requested.getValue(),
-                            availableQty, requested.getValue()
-                    );
+                    return CashOperationResult.insufficientDenomination(
+                            requested.getQuantity(), requested.getValue(), availableQty);
                 }
             }
 
@@ -240,6 +246,68 @@ public class CashDeskServiceImplV2 implements CashDeskService {
         }
 
         logSuccess(logEntry, logMessage);
+        return CashOperationResult.COMPLETED;
+    }
+
+    @Override
+    public CashOperationResult withdrawAmount(AmountWithdrawalRequest request) {
+        Cashier cashier = cashierRepository.getCashier(request.getCashierName());
+        if (cashier == null) {
+            throw new ResourceNotFoundException("Cashier", "name", request.getCashierName());
+        }
+
+        Currency currency = request.getCurrency();
+        ReentrantLock lock = getBalanceLock(cashier.getName(), currency);
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT_MS, java.util.concurrent.TimeUnit.MILLISECONDS)) {
+                throw new ConcurrentOperationException("Could not acquire lock for withdrawal operation");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentOperationException("Withdrawal operation interrupted while waiting for lock");
+        }
+
+        List<Denomination> payout;
+        String logEntry;
+        String logMessage;
+
+        try {
+            // CRITICAL SECTION START - plan and apply against the same stock
+            List<Denomination> cashierDenominations = cashier.getBalances().get(currency);
+            if (cashierDenominations == null || cashierDenominations.isEmpty()) {
+                return CashOperationResult.currencyNotSupported(currency);
+            }
+
+            Optional<List<Denomination>> planned = denominationPlanner.plan(cashierDenominations, request.getAmount());
+            if (planned.isEmpty()) {
+                return CashOperationResult.payoutNotPossible(request.getAmount(), currency);
+            }
+            payout = planned.get();
+
+            for (Denomination paid : payout) {
+                for (Denomination cashierDenom : cashierDenominations) {
+                    if (cashierDenom.getValue() == paid.getValue()) {
+                        cashierDenom.setQuantity(cashierDenom.getQuantity() - paid.getQuantity());
+                        break;
+                    }
+                }
+            }
+
+            // Remove zero-quantity denominations
+            cashierDenominations.removeIf(d -> d.getQuantity() <= 0);
+            String timestamp = LocalDateTime.now().format(LocalDateTimeFormatter.TIMESTAMP_FORMATTER);
+            logEntry = String.format("%s - %s: %s %s %s %s%n", timestamp, "WITHDRAWAL", cashier.getName(), request.getAmount(), currency, payout);
+            logMessage = String.format("%s successful: %s %s paid out as %s for cashier %s", "WITHDRAWAL", request.getAmount(),
+                    currency, payout, cashier.getName());
+            // CRITICAL SECTION END
+
+        } finally {
+            lock.unlock();
+        }
+
+        cashierRepository.updateCashier(cashier);
+        logSuccess(logEntry, logMessage);
+        return CashOperationResult.completed(payout);
     }
 
     private void validateDepositRequest(Cashier cashier, CashOperationRequest request) {
@@ -254,7 +322,7 @@ public class CashDeskServiceImplV2 implements CashDeskService {
         }
     }
 
-    private void checkAmountValidity(CashOperationRequest request) {
+    private CashOperationResult.Rejected checkAmountValidity(CashOperationRequest request) {
         BigDecimal amount = request.getAmount();
 
         int denominationsAmountSum = request.getDenominations().stream()
@@ -264,12 +332,9 @@ public class CashDeskServiceImplV2 implements CashDeskService {
         BigDecimal bigDecimalDenominationsAmountSum = new BigDecimal(denominationsAmountSum);
 
         if (amount.compareTo(bigDecimalDenominationsAmountSum) != 0) {
-            throw new InvalidAmountException("Invalid request. Amount "
-                    + amount
-                    + " does not match overall denominations sum "
-                    + bigDecimalDenominationsAmountSum + "."
-            );
+            return CashOperationResult.amountMismatch(amount, bigDecimalDenominationsAmountSum);
         }
+        return null;
     }
 
     private void logSuccess(String logEntry, String logMessage) {
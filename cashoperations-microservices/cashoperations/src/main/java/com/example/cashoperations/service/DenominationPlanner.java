@@ -0,0 +1,242 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.model.Denomination;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Computes a minimal-note payout for a withdrawal that is given by amount only.
+ * <p>
+ * The cashier's stock is a bounded set of banknotes, so a greedy "largest note first" payout can fail
+ * even though a valid mix exists (e.g. 60 from 1x50 + 3x20). The planner solves the bounded knapsack
+ * with one DP layer per banknote value (sliding-window minimum per residue class, O(values * amount)).
+ * <p>
+ * A solved table answers every amount up to the one it was built for, so tables are cached per stock state in
+ * least recently used order. The stock changes with every applied withdrawal and most entries go cold quickly, so
+ * the cache is bounded by the cells of all its tables ({@link #MAX_CACHED_CELLS}) rather than by their number.
+ * A table is built for at most {@link #MAX_TABLE_CELLS} cells: a larger amount is not planned, and is rejected as a
+ * payout that is not possible, rather than allocating a table in proportion to it under the cashier lock.
+ * The caller is responsible for holding the cashier/currency lock while planning and applying the payout.
+ */
+@Slf4j
+@Component
+public class DenominationPlanner {
+
+    // Table cells (ints) kept across all cached tables, about 16 MB
+    static final long MAX_CACHED_CELLS = 4_000_000;
+    // Table cells of a single plan, so that any table fits in the cache
+    static final long MAX_TABLE_CELLS = MAX_CACHED_CELLS;
+    private static final int INFEASIBLE = Integer.MAX_VALUE / 2;
+
+    // Guarded by itself, together with cachedCells
+    private final LinkedHashMap<StockKey, PlanTable> tables = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedCells;
+
+    /**
+     * Plans a payout of {@code amount} from {@code stock}.
+     *
+     * @return the banknotes to pay out (highest value first), or empty if no combination of the stock matches the amount.
+     */
+    public Optional<List<Denomination>> plan(List<Denomination> stock, BigDecimal amount) {
+        if (stock == null || stock.isEmpty() || amount == null || amount.signum() <= 0) {
+            return Optional.empty();
+        }
+        int target;
+        try {
+            target = amount.intValueExact();
+        } catch (ArithmeticException e) {
+            return Optional.empty(); // fractional or too large amount - banknotes only
+        }
+
+        StockKey key = StockKey.of(stock);
+        if (key.values.length == 0 || target % key.unit() != 0 || target > key.total()) {
+            return Optional.empty();
+        }
+
+        int targetUnits = target / key.unit();
+        if ((long) (key.values.length + 1) * (targetUnits + 1) > MAX_TABLE_CELLS) {
+            log.warn("Amount {} needs a payout table above {} cells, not planned", amount, MAX_TABLE_CELLS);
+            return Optional.empty();
+        }
+        // Tables only cover amounts up to the largest one planned so far for this stock, keeping the cold path
+        // (the stock changes after every applied withdrawal) proportional to the requested amount
+        PlanTable table;
+        synchronized (tables) {
+            table = tables.get(key);
+        }
+        if (table == null || table.maxUnits() < targetUnits) {
+            table = PlanTable.build(key, targetUnits);
+            cache(table);
+        }
+
+        int[] picked = table.reconstruct(targetUnits);
+        if (picked == null) {
+            return Optional.empty();
+        }
+
+        List<Denomination> payout = new ArrayList<>(picked.length);
+        for (int i = picked.length - 1; i >= 0; i--) {
+            if (picked[i] > 0) {
+                payout.add(new Denomination(picked[i], key.values[i]));
+            }
+        }
+        log.debug("Planned payout {} for amount {} from stock {}", payout, amount, stock);
+        return Optional.of(payout);
+    }
+
+    private void cache(PlanTable table) {
+        long cells = table.cells();
+        synchronized (tables) {
+            PlanTable replaced = tables.put(table.key(), table);
+            cachedCells += cells - (replaced != null ? replaced.cells() : 0);
+            Iterator<PlanTable> eldest = tables.values().iterator();
+            while (cachedCells > MAX_CACHED_CELLS) {
+                cachedCells -= eldest.next().cells();
+                eldest.remove();
+            }
+        }
+    }
+
+    int cachedTables() {
+        synchronized (tables) {
+            return tables.size();
+        }
+    }
+
+    long cachedCells() {
+        synchronized (tables) {
+            return cachedCells;
+        }
+    }
+
+    /**
+     * Normalized stock: distinct banknote values in ascending order with their available quantities.
+     */
+    record StockKey(int[] values, int[] counts) {
+
+        static StockKey of(List<Denomination> stock) {
+            TreeMap<Integer, Integer> merged = new TreeMap<>();
+            for (Denomination d : stock) {
+                if (d.getQuantity() > 0 && d.getValue() > 0) {
+                    merged.merge(d.getValue(), d.getQuantity(), Integer::sum);
+                }
+            }
+            int[] values = new int[merged.size()];
+            int[] counts = new int[merged.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> e : merged.entrySet()) {
+                values[i] = e.getKey();
+                counts[i++] = e.getValue();
+            }
+            return new StockKey(values, counts);
+        }
+
+        int unit() {
+            int gcd = 0;
+            for (int value : values) {
+                gcd = gcd(gcd, value);
+            }
+            return gcd;
+        }
+
+        long total() {
+            long total = 0;
+            for (int i = 0; i < values.length; i++) {
+                total += (long) values[i] * counts[i];
+            }
+            return total;
+        }
+
+        private static int gcd(int a, int b) {
+            return b == 0 ? a : gcd(b, a % b);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StockKey other
+                    && Arrays.equals(values, other.values)
+                    && Arrays.equals(counts, other.counts);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(values) + Arrays.hashCode(counts);
+        }
+    }
+
+    /**
+     * layers[i][t] = minimal number of notes using the first i values to pay t units (INFEASIBLE if impossible).
+     */
+    record PlanTable(StockKey key, int unit, int[][] layers) {
+
+        static PlanTable build(StockKey key, int maxUnits) {
+            int n = key.values().length;
+            int unit = key.unit();
+            int[][] layers = new int[n + 1][maxUnits + 1];
+            Arrays.fill(layers[0], INFEASIBLE);
+            layers[0][0] = 0;
+
+            int[] window = new int[maxUnits + 1];
+            for (int i = 0; i < n; i++) {
+                int step = key.values()[i] / unit;
+                int count = key.counts()[i];
+                int[] prev = layers[i];
+                int[] next = layers[i + 1];
+                for (int residue = 0; residue < step && residue <= maxUnits; residue++) {
+                    // Sliding-window minimum of prev[residue + j*step] - j over the last (count + 1) positions
+                    int head = 0;
+                    int tail = 0;
+                    for (int j = 0, t = residue; t <= maxUnits; j++, t += step) {
+                        if (prev[t] < INFEASIBLE) {
+                            while (tail > head && score(prev, window[tail - 1], residue, step) >= prev[t] - j) {
+                                tail--;
+                            }
+                            window[tail++] = j;
+                        }
+                        while (tail > head && window[head] < j - count) {
+                            head++;
+                        }
+                        next[t] = tail > head ? score(prev, window[head], residue, step) + j : INFEASIBLE;
+                    }
+                }
+            }
+            return new PlanTable(key, unit, layers);
+        }
+
+        private static int score(int[] prev, int j, int residue, int step) {
+            return prev[residue + j * step] - j;
+        }
+
+        int maxUnits() {
+            return layers[0].length - 1;
+        }
+
+        long cells() {
+            return (long) layers.length * layers[0].length;
+        }
+
+        int[] reconstruct(int targetUnits) {
+            int n = key.values().length;
+            if (targetUnits >= layers[n].length || layers[n][targetUnits] >= INFEASIBLE) {
+                return null;
+            }
+            int[] picked = new int[n];
+            int t = targetUnits;
+            for (int i = n; i > 0; i--) {
+                int step = key.values()[i - 1] / unit;
+                int max = Math.min(key.counts()[i - 1], t / step);
+                for (int k = 0; k <= max; k++) {
+                    if (layers[i - 1][t - k * step] + k == layers[i][t]) {
+                        picked[i - 1] = k;
+                        t -= k * step;
+                        break;
+                    }
+                }
+            }
+            return picked;
+        }
+    }
+}
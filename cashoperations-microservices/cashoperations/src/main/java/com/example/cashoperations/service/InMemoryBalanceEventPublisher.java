@@ -0,0 +1,63 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.dto.BalanceEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for the broker, used when no RabbitMQ is around (local runs, tests): a batch is "confirmed"
+ * once every subscriber received its events. The last delivered events are kept for inspection.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cashoperations.outbox", name = "publisher", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryBalanceEventPublisher implements BalanceEventPublisher {
+
+    // Bounded, a long local run must not grow the heap
+    private static final int RETAINED_EVENTS = 10_000;
+
+    private final List<Consumer<BalanceEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private final Deque<BalanceEvent> delivered = new ArrayDeque<>();
+    private long batches;
+    private long published;
+
+    /**
+     * Registers a consumer, called on the relay thread in outbox order. An exception nacks the batch.
+     */
+    public void subscribe(Consumer<BalanceEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public synchronized void publish(List<BalanceEvent> batch) {
+        for (BalanceEvent event : batch) {
+            for (Consumer<BalanceEvent> subscriber : subscribers) {
+                subscriber.accept(event);
+            }
+            if (delivered.size() == RETAINED_EVENTS) {
+                delivered.removeFirst();
+            }
+            delivered.addLast(event);
+        }
+        batches++;
+        published += batch.size();
+    }
+
+    public synchronized List<BalanceEvent> getDelivered() {
+        return new ArrayList<>(delivered);
+    }
+
+    public synchronized long getBatchCount() {
+        return batches;
+    }
+
+    public synchronized long getPublishedCount() {
+        return published;
+    }
+}
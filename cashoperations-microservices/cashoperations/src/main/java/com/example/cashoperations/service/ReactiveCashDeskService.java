@@ -0,0 +1,84 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.dto.AmountWithdrawalRequest;
+import com.example.cashoperations.dto.BalanceEventPage;
+import com.example.cashoperations.dto.CashAggregateResponse;
+import com.example.cashoperations.dto.CashBalanceResponse;
+import com.example.cashoperations.dto.CashOperationResult;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.model.Durability;
+import com.example.cashoperations.validators.CashOperationDecoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over {@link CashDeskService} and {@link CashBalanceService} for the reactive deployment.
+ * <p>
+ * Every call into the services runs on {@link Schedulers#boundedElastic()}: operations may wait for a contended
+ * per cashier lock and queue write-behind and outbox work, balance queries scan the cashier list, and neither may
+ * stall the event loop. Cash operations then complete from the journal acknowledgement, so no thread waits for the
+ * transaction file; amount-only withdrawals still wait for their journal write inside the service.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCashDeskService {
+
+    private final CashDeskService cashService;
+    private final CashBalanceService cashBalanceService;
+    private final CashOperationDecoder cashOperationDecoder;
+
+    public ReactiveCashDeskService(@Qualifier("cashDeskServiceImpl") CashDeskService cashService,
+                                   CashBalanceService cashBalanceService,
+                                   CashOperationDecoder cashOperationDecoder) {
+        this.cashService = cashService;
+        this.cashBalanceService = cashBalanceService;
+        this.cashOperationDecoder = cashOperationDecoder;
+    }
+
+    /**
+     * Performs the operation and releases {@code operation} to the decoder pool before the result is emitted.
+     */
+    public Mono<CashOperationResult> performOperation(CashOperationSlots operation, Durability durability) {
+        return Mono.defer(() -> {
+            CompletableFuture<CashOperationResult> result;
+            try {
+                result = cashService.performOperation(operation, durability);
+            } finally {
+                cashOperationDecoder.release(operation);
+            }
+            return Mono.fromFuture(result);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<CashOperationResult> withdrawAmount(AmountWithdrawalRequest request) {
+        return Mono.fromCallable(() -> cashService.withdrawAmount(request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<List<CashBalanceResponse>> getCashBalances(Optional<LocalDateTime> dateFrom, Optional<LocalDateTime> dateTo,
+                                                           Optional<String> cashier) {
+        return Mono.fromCallable(() -> cashBalanceService.getCashBalances(dateFrom, dateTo, cashier))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<CashAggregateResponse> getCashAggregates(Optional<LocalDateTime> dateFrom, Optional<LocalDateTime> dateTo,
+                                                         Optional<String> cashier, Optional<String> currency,
+                                                         boolean perCashier) {
+        return Mono.fromCallable(() -> cashBalanceService.getCashAggregates(dateFrom, dateTo, cashier, currency, perCashier))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<BalanceEventPage> getBalanceEvents(long since, int limit) {
+        // JDBC query, kept off the event loop
+        return Mono.fromCallable(() -> cashBalanceService.getBalanceEvents(since, limit))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
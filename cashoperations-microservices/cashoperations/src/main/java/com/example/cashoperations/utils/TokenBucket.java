@@ -0,0 +1,48 @@
+package com.example.cashoperations.utils;
+
+/**
+ * Token bucket refilled continuously at a rate that is passed on every call, so limits changed at runtime
+ * (e.g. after a config refresh) apply to existing buckets immediately.
+ */
+public class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double burst, long nowNanos) {
+        this.tokens = burst;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    public synchronized long tryAcquire(double ratePerSecond, double burst, long nowNanos) {
+        refill(ratePerSecond, burst, nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / ratePerSecond * NANOS_PER_SECOND);
+    }
+
+    /**
+     * A full bucket carries no state worth keeping and can be dropped.
+     */
+    public synchronized boolean isFull(double ratePerSecond, double burst, long nowNanos) {
+        refill(ratePerSecond, burst, nowNanos);
+        return tokens >= burst;
+    }
+
+    private void refill(double ratePerSecond, double burst, long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(burst, tokens + elapsed * ratePerSecond / NANOS_PER_SECOND);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
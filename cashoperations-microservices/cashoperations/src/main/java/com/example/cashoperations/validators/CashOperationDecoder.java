@@ -0,0 +1,394 @@
+package com.example.cashoperations.validators;
+
+import com.example.cashoperations.dto.CashOperationRequest;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.exception.RequestBodyTooLargeException;
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.model.Denomination;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Decodes a cash operation JSON body straight into a pooled {@link CashOperationSlots}.
+ * <p>
+ * The fast path walks the Jackson token stream once: banknote values are checked against the allowed slots,
+ * quantities are accumulated per slot and the denominations sum is built while the array is read, so the
+ * amount equality check afterwards is a constant-time comparison. Nothing is allocated for valid requests
+ * apart from the cashier name.
+ * <p>
+ * Anything outside the documented request shape (string numbers, timestamps, duplicate fields, ...) falls back
+ * to regular databinding, and every invalid request is re-validated with the bean validator on a
+ * {@link CashOperationRequest}, so responses and error messages are identical to the {@code @Valid @RequestBody} path.
+ */
+@Slf4j
+@Component
+public class CashOperationDecoder {
+
+    public static final String OBJECT_NAME = "cashOperationRequest";
+    // A request with every banknote listed many times over stays far below; larger bodies are not read
+    public static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int POOL_SIZE = 256;
+    private static final long MIN_AMOUNT_MINOR_UNITS = 1000; // @DecimalMin("10.00")
+    private static final int MAX_FAST_DIGITS = 18;
+
+    private static final int CASHIER_NAME = 1;
+    private static final int CURRENCY = 1 << 1;
+    private static final int OPERATION_TYPE = 1 << 2;
+    private static final int AMOUNT = 1 << 3;
+    private static final int DENOMINATIONS = 1 << 4;
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final SpringValidatorAdapter validator;
+    private final ArrayBlockingQueue<CashOperationSlots> pool = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    public CashOperationDecoder(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.validator = new SpringValidatorAdapter(validator);
+    }
+
+    public CashOperationSlots acquire() {
+        CashOperationSlots slots = pool.poll();
+        return slots != null ? slots : new CashOperationSlots();
+    }
+
+    public void release(CashOperationSlots slots) {
+        slots.reset();
+        // A pooled slot keeps its buffer for the life of the process, so one large body does not pin it
+        slots.trimBodyBuffer();
+        pool.offer(slots);
+    }
+
+    /**
+     * Reads the whole body into the buffer of {@code slots}.
+     *
+     * @return the number of bytes read
+     * @throws RequestBodyTooLargeException if the body is longer than {@link #MAX_BODY_BYTES}
+     */
+    public int readBody(InputStream in, CashOperationSlots slots) throws IOException {
+        byte[] buffer = slots.getBodyBuffer();
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                if (length >= MAX_BODY_BYTES) {
+                    if (in.read() == -1) {
+                        break;
+                    }
+                    throw new RequestBodyTooLargeException(MAX_BODY_BYTES);
+                }
+                buffer = slots.growBodyBuffer();
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Decodes {@code length} bytes of the body buffer into {@code slots}.
+     *
+     * @throws IOException if the body is not a readable {@link CashOperationRequest}, as thrown by Jackson
+     */
+    public void decode(CashOperationSlots slots, int length) throws IOException {
+        if (!decodeFast(slots, length)) {
+            log.debug("Cash operation request outside the fast decoding shape, falling back to databinding");
+            slots.reset();
+            CashOperationRequest request = objectMapper.readValue(slots.getBodyBuffer(), 0, length, CashOperationRequest.class);
+            fromRequest(request, slots);
+        }
+    }
+
+    /**
+     * Checks the same constraints as the annotations on {@link CashOperationRequest}. The fast check only accepts
+     * requests that are valid beyond doubt; everything else, e.g. names containing any kind of whitespace, is left
+     * to the bean validator, so both paths accept exactly the same requests.
+     *
+     * @return {@code null} if the request is valid, otherwise the binding result produced by the bean validator
+     */
+    public BindingResult validate(CashOperationSlots slots) {
+        if (isValid(slots)) {
+            return null;
+        }
+        CashOperationRequest request = slots.toRequest();
+        BindingResult bindingResult = new BeanPropertyBindingResult(request, OBJECT_NAME);
+        validator.validate(request, bindingResult);
+        return bindingResult.hasErrors() ? bindingResult : null;
+    }
+
+    private boolean isValid(CashOperationSlots slots) {
+        String cashierName = slots.getCashierName();
+        if (!isPlain(cashierName) || cashierName.length() < 2 || cashierName.length() > 20) {
+            return false;
+        }
+        Currency currency = slots.getCurrency();
+        if (currency != Currency.BGN && currency != Currency.EUR) {
+            return false;
+        }
+        String operationType = slots.getOperationType();
+        if (!("DEPOSIT".equalsIgnoreCase(operationType) || "WITHDRAWAL".equalsIgnoreCase(operationType))) {
+            return false;
+        }
+        if (!slots.isAmountPresent() || slots.amountSignum() <= 0 || !slots.isAmountAtLeast(MIN_AMOUNT_MINOR_UNITS)) {
+            return false;
+        }
+        if (!slots.isDenominationsPresent() || slots.getEntryCount() == 0) {
+            return false;
+        }
+        return slots.getInvalidEntries() == 0;
+    }
+
+    /**
+     * True if {@code value} has no whitespace, control or space character at all, so it is not blank whichever
+     * definition {@code @NotBlank} uses.
+     */
+    private static boolean isPlain(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c <= ' ' || Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean decodeFast(CashOperationSlots slots, int length) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(slots.getBodyBuffer(), 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            int seen = 0;
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                int bit = switch (field) {
+                    case "cashierName" -> CASHIER_NAME;
+                    case "currency" -> CURRENCY;
+                    case "operationType" -> OPERATION_TYPE;
+                    case "amount" -> AMOUNT;
+                    case "denominations" -> DENOMINATIONS;
+                    default -> 0;
+                };
+                if (bit == 0) {
+                    parser.skipChildren(); // unknown properties are ignored by the ObjectMapper as well
+                    continue;
+                }
+                if ((seen & bit) != 0) {
+                    return false;
+                }
+                seen |= bit;
+                boolean decoded = switch (bit) {
+                    case CASHIER_NAME -> decodeCashierName(parser, value, slots);
+                    case CURRENCY -> decodeCurrency(parser, value, slots);
+                    case OPERATION_TYPE -> decodeOperationType(parser, value, slots);
+                    case AMOUNT -> decodeAmount(parser, value, slots);
+                    default -> decodeDenominations(parser, value, slots);
+                };
+                if (!decoded) {
+                    return false;
+                }
+            }
+            return token == JsonToken.END_OBJECT;
+        }
+    }
+
+    private boolean decodeCashierName(JsonParser parser, JsonToken value, CashOperationSlots slots) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            slots.setCashierName(parser.getText());
+            return true;
+        }
+        return value == JsonToken.VALUE_NULL;
+    }
+
+    private boolean decodeCurrency(JsonParser parser, JsonToken value, CashOperationSlots slots) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return true;
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            return false;
+        }
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        for (Currency currency : Currency.values()) {
+            if (regionMatchesIgnoreCase(text, offset, length, currency.name())) {
+                slots.setCurrency(currency);
+                return true;
+            }
+        }
+        return false; // let Jackson resolve unknown values (@JsonEnumDefaultValue, trimming, indexes)
+    }
+
+    private boolean decodeOperationType(JsonParser parser, JsonToken value, CashOperationSlots slots) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return true;
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            return false;
+        }
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (regionEquals(text, offset, length, "DEPOSIT")) {
+            slots.setOperationType("DEPOSIT");
+        } else if (regionEquals(text, offset, length, "WITHDRAWAL")) {
+            slots.setOperationType("WITHDRAWAL");
+        } else {
+            slots.setOperationType(parser.getText());
+        }
+        return true;
+    }
+
+    private boolean decodeAmount(JsonParser parser, JsonToken value, CashOperationSlots slots) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return true;
+        }
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            JsonParser.NumberType type = parser.getNumberType();
+            if (type == JsonParser.NumberType.INT || type == JsonParser.NumberType.LONG) {
+                slots.setAmount(parser.getLongValue(), 0);
+            } else {
+                slots.setAmount(parser.getDecimalValue());
+            }
+            return true;
+        }
+        if (value != JsonToken.VALUE_NUMBER_FLOAT) {
+            return false;
+        }
+
+        // Plain decimal notation is parsed in place into unscaled + scale, exponents go through BigDecimal
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+        boolean negative = text[offset] == '-';
+        long unscaled = 0;
+        int scale = -1;
+        int digits = 0;
+        for (int i = negative ? offset + 1 : offset; i < end; i++) {
+            char c = text[i];
+            if (c == '.' && scale < 0) {
+                scale = 0;
+            } else if (c >= '0' && c <= '9' && digits < MAX_FAST_DIGITS) {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else {
+                slots.setAmount(parser.getDecimalValue());
+                return true;
+            }
+        }
+        slots.setAmount(negative ? -unscaled : unscaled, Math.max(scale, 0));
+        return true;
+    }
+
+    private boolean decodeDenominations(JsonParser parser, JsonToken value, CashOperationSlots slots) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return true;
+        }
+        if (value != JsonToken.START_ARRAY) {
+            return false;
+        }
+        slots.setDenominationsPresent(true);
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+            int quantity = 0;
+            int banknote = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken fieldValue = parser.nextToken();
+                switch (field) {
+                    case "quantity", "value", "totalAmount" -> {
+                        int number;
+                        if (fieldValue == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT) {
+                            number = parser.getIntValue();
+                        } else if (fieldValue == JsonToken.VALUE_NULL) {
+                            number = 0;
+                        } else {
+                            return false;
+                        }
+                        if ("quantity".equals(field)) {
+                            quantity = number;
+                        } else if ("value".equals(field)) {
+                            banknote = number;
+                        }
+                    }
+                    case "timestamp" -> {
+                        if (fieldValue != JsonToken.VALUE_NULL) {
+                            return false; // formatted by @JsonFormat, leave parsing (and its errors) to Jackson
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            slots.addEntry(quantity, banknote);
+        }
+        return token == JsonToken.END_ARRAY;
+    }
+
+    private static void fromRequest(CashOperationRequest request, CashOperationSlots slots) {
+        slots.setCashierName(request.getCashierName());
+        slots.setCurrency(request.getCurrency());
+        slots.setOperationType(request.getOperationType());
+        BigDecimal amount = request.getAmount();
+        if (amount != null) {
+            if (amount.unscaledValue().bitLength() < Long.SIZE && amount.scale() >= 0) {
+                slots.setAmount(amount.unscaledValue().longValue(), amount.scale());
+            } else {
+                slots.setAmount(amount);
+            }
+        }
+        if (request.getDenominations() != null) {
+            slots.setDenominationsPresent(true);
+            for (Denomination denomination : request.getDenominations()) {
+                if (denomination == null) {
+                    slots.addEntry(0, 0);
+                } else {
+                    slots.addEntry(denomination.getQuantity(), denomination.getValue());
+                }
+            }
+        }
+    }
+
+    private static boolean regionEquals(char[] text, int offset, int length, String expected) {
+        if (length != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (text[offset + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatchesIgnoreCase(char[] text, int offset, int length, String expected) {
+        if (length != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Character.toUpperCase(text[offset + i]) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -29,4 +29,32 @@ INSERT INTO `accounts` (`customer_id`, `account_type`, `branch_address`, `create
 INSERT INTO `accounts` (`customer_id`, `account_type`, `branch_address`, `created_at`, `created_by`, `updated_at`, `updated_by`) VALUES
   (1009, 'CHECKING', '5 Aspen Dr, Blüdhaven', DATE '2024-08-02', 'seed', DATE '2025-01-10', 'admin');
 INSERT INTO `accounts` (`customer_id`, `account_type`, `branch_address`, `created_at`, `created_by`, `updated_at`, `updated_by`) VALUES
-  (1010, 'SAVINGS', '390 Poplar St, National City', DATE '2024-09-21', 'system', NULL, NULL);
\ No newline at end of file
+  (1010, 'SAVINGS', '390 Poplar St, National City', DATE '2024-09-21', 'system', NULL, NULL);
+-- Latest denomination stock per cashier and currency, written behind the in-memory balances (BalanceWriteBehind)
+CREATE TABLE IF NOT EXISTS `cashier_balance` (
+    `cashier` varchar(50) NOT NULL,
+    `currency` varchar(3) NOT NULL,
+    `notes_5` int NOT NULL,
+    `notes_10` int NOT NULL,
+    `notes_20` int NOT NULL,
+    `notes_50` int NOT NULL,
+    `notes_100` int NOT NULL,
+    `updated_at` timestamp NOT NULL,
+    PRIMARY KEY (`cashier`, `currency`)
+    );
+-- Balance-change events written with cashier_balance (BalanceEventOutbox), kept for a while once published
+CREATE TABLE IF NOT EXISTS `balance_event_outbox` (
+    `id` bigint AUTO_INCREMENT PRIMARY KEY,
+    `cashier` varchar(50) NOT NULL,
+    `currency` varchar(3) NOT NULL,
+    `operation_type` varchar(20) NOT NULL,
+    `amount` decimal(19, 2) NOT NULL,
+    `notes_5` int NOT NULL,
+    `notes_10` int NOT NULL,
+    `notes_20` int NOT NULL,
+    `notes_50` int NOT NULL,
+    `notes_100` int NOT NULL,
+    `occurred_at` timestamp NOT NULL,
+    `published` boolean DEFAULT FALSE NOT NULL
+    );
+CREATE INDEX IF NOT EXISTS `idx_balance_event_outbox_published` ON `balance_event_outbox` (`published`, `id`);
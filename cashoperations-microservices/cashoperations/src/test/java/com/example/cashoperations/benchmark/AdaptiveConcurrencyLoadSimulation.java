@@ -0,0 +1,96 @@
+package com.example.cashoperations.benchmark;
+
+import com.example.cashoperations.dto.AdmissionControlProperties;
+import com.example.cashoperations.exception.TooManyRequestsException;
+import com.example.cashoperations.service.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Open-loop overload test of {@link AdaptiveConcurrencyLimiter} against a simulated ledger: every request holds a
+ * single cashier lock for {@code LOCK_HOLD_MICROS} (balance update + transaction log), so capacity is fixed while
+ * requests keep arriving at {@code OFFERED_PER_SECOND}. Prints p50/p99/max latency of accepted requests, measured
+ * from their scheduled arrival, with and without the limiter.
+ * <p>
+ * Run from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.cashoperations.benchmark.AdaptiveConcurrencyLoadSimulation}
+ */
+public class AdaptiveConcurrencyLoadSimulation {
+
+    private static final int LOCK_HOLD_MICROS = 1000;   // ~1,000 ops/s capacity
+    private static final int OFFERED_PER_SECOND = 3000; // 3x overload
+    private static final int DURATION_SECONDS = 4;
+
+    public static void main(String[] args) throws InterruptedException {
+        run(false); // warm-up
+        System.out.printf("%-12s %8s %8s %8s %10s %10s %10s %8s%n",
+                "mode", "offered", "accepted", "rejected", "p50 ms", "p99 ms", "max ms", "limit");
+        print("no limiter", run(false));
+        print("adaptive", run(true));
+    }
+
+    private static Result run(boolean limited) throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new AdmissionControlProperties(), new SimpleMeterRegistry());
+        ReentrantLock ledgerLock = new ReentrantLock();
+        int total = OFFERED_PER_SECOND * DURATION_SECONDS;
+        long[] latencies = new long[total];
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / OFFERED_PER_SECOND;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long begin = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                long arrival = begin + i * intervalNanos;
+                long wait = arrival - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.execute(() -> {
+                    long token = AdaptiveConcurrencyLimiter.NOT_ACQUIRED;
+                    if (limited) {
+                        try {
+                            token = limiter.acquire();
+                        } catch (TooManyRequestsException e) {
+                            rejected.incrementAndGet();
+                            return;
+                        }
+                    }
+                    ledgerLock.lock();
+                    try {
+                        // Parks like file I/O does, freeing the carrier thread for other requests
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(LOCK_HOLD_MICROS));
+                    } finally {
+                        ledgerLock.unlock();
+                    }
+                    limiter.release(token, false);
+                    latencies[accepted.getAndIncrement()] = System.nanoTime() - arrival;
+                });
+            }
+        }
+        return new Result(Arrays.copyOf(latencies, accepted.get()), rejected.get(), limiter.getLimit());
+    }
+
+    private static void print(String mode, Result result) {
+        long[] sorted = result.latencies().clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-12s %8d %8d %8d %10.1f %10.1f %10.1f %8s%n",
+                mode, OFFERED_PER_SECOND * DURATION_SECONDS, sorted.length, result.rejected(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6,
+                result.rejected() > 0 ? String.valueOf((int) result.limit()) : "-");
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Result(long[] latencies, int rejected, double limit) {
+    }
+}
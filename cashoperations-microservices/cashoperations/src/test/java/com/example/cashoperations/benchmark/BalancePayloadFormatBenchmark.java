@@ -0,0 +1,99 @@
+package com.example.cashoperations.benchmark;
+
+import com.example.cashoperations.config.JacksonConfig;
+import com.example.cashoperations.dto.CashBalanceResponse;
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.model.Denomination;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of the cash balance list that cashreportingservice pulls for every report, encoded by cashoperations
+ * and parsed on the reporting side, as JSON versus the binary Smile and CBOR formats (same mapper configuration,
+ * see {@link JacksonConfig}). The payload size per report is printed once per trial.
+ * <p>
+ * Run from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.cashoperations.benchmark.BalancePayloadFormatBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BalancePayloadFormatBenchmark {
+
+    private static final int[] NOTES = {5, 10, 20, 50, 100};
+
+    public enum Format { JSON, SMILE, CBOR }
+
+    @Param({"10", "1000"})
+    private int cashiers;
+
+    @Param
+    private Format format;
+
+    private ObjectMapper mapper;
+    private List<CashBalanceResponse> balances;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        JacksonConfig jacksonConfig = new JacksonConfig();
+        mapper = switch (format) {
+            case JSON -> jacksonConfig.objectMapper();
+            case SMILE -> jacksonConfig.smileHttpMessageConverter().getObjectMapper();
+            case CBOR -> jacksonConfig.cborHttpMessageConverter().getObjectMapper();
+        };
+
+        ConcurrentHashMap<String, Integer> operations = new ConcurrentHashMap<>(Map.of("DEPOSIT", 12, "WITHDRAWAL", 7));
+        LocalDateTime timestamp = LocalDateTime.of(2025, 8, 24, 20, 38);
+        balances = new ArrayList<>(cashiers);
+        for (int i = 0; i < cashiers; i++) {
+            Map<Currency, List<Denomination>> perCurrency = new EnumMap<>(Currency.class);
+            for (Currency currency : List.of(Currency.BGN, Currency.EUR)) {
+                List<Denomination> denominations = new ArrayList<>(NOTES.length);
+                for (int note : NOTES) {
+                    denominations.add(new Denomination(10 + i % 40, note, timestamp));
+                }
+                perCurrency.put(currency, denominations);
+            }
+            balances.add(new CashBalanceResponse(operations, timestamp, "CASHIER_" + i, perCurrency));
+        }
+
+        encoded = mapper.writeValueAsBytes(balances);
+        System.out.printf("%n%s, %d cashiers: %d bytes per report%n", format, cashiers, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(balances);
+    }
+
+    @Benchmark
+    public JsonNode decode() throws IOException {
+        return mapper.readTree(encoded);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BalancePayloadFormatBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
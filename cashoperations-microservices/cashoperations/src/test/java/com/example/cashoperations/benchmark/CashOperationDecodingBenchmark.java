@@ -0,0 +1,83 @@
+package com.example.cashoperations.benchmark;
+
+import com.example.cashoperations.config.JacksonConfig;
+import com.example.cashoperations.dto.CashOperationRequest;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.validators.CashOperationDecoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.validation.BindingResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding + validation cost of a cash operation body: databinding to {@link CashOperationRequest} with bean
+ * validation (the former {@code @Valid @RequestBody} path) versus {@link CashOperationDecoder}.
+ * <p>
+ * Runs with the GC profiler, compare {@code gc.alloc.rate.norm} (bytes per operation). Run from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.cashoperations.benchmark.CashOperationDecodingBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CashOperationDecodingBenchmark {
+
+    // Same body as the JMeter load test
+    private static final byte[] BODY = """
+            {"cashierName":"MARTINA","currency":"BGN","operationType":"DEPOSIT","amount":600.00,
+             "denominations":[{"quantity":10,"value":10},{"quantity":10,"value":50}]}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    private ObjectMapper objectMapper;
+    private Validator validator;
+    private CashOperationDecoder decoder;
+
+    @Setup
+    public void setup() {
+        objectMapper = new JacksonConfig().objectMapper();
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        decoder = new CashOperationDecoder(objectMapper, validator);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CashOperationRequest>> databindAndValidate() throws IOException {
+        CashOperationRequest request = objectMapper.readValue(new ByteArrayInputStream(BODY), CashOperationRequest.class);
+        return validator.validate(request);
+    }
+
+    @Benchmark
+    public long decodeSlots() throws IOException {
+        CashOperationSlots slots = decoder.acquire();
+        try {
+            int length = decoder.readBody(new ByteArrayInputStream(BODY), slots);
+            decoder.decode(slots, length);
+            BindingResult errors = decoder.validate(slots);
+            return errors == null && slots.amountMatchesDenominations() ? slots.getDenominationsSum() : -1;
+        } finally {
+            decoder.release(slots);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CashOperationDecodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.cashoperations.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.cashoperations.dto.CashOperationResult;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.dto.JournalProperties;
+import com.example.cashoperations.dto.OutboxProperties;
+import com.example.cashoperations.dto.PersistenceProperties;
+import com.example.cashoperations.exception.ErrorResponseDto;
+import com.example.cashoperations.exception.InsufficientDenominationException;
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.repository.BalanceEventOutbox;
+import com.example.cashoperations.repository.BalanceWriteBehind;
+import com.example.cashoperations.repository.CashierRepository;
+import com.example.cashoperations.repository.TransactionJournal;
+import com.example.cashoperations.service.CashDeskServiceImpl;
+import com.example.cashoperations.service.DenominationPlanner;
+import com.example.cashoperations.utils.StatisticsInfo;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a rejected withdrawal (21x50 EUR requested, 20x50 in stock) end to end through the service and the
+ * error payload, with the rejection returned as {@link CashOperationResult.Rejected} versus thrown as
+ * {@link InsufficientDenominationException} and mapped like {@code GlobalExceptionHandler} did before.
+ * <p>
+ * {@code frames} simulates the call depth below the service (Tomcat + Spring MVC is roughly 100 frames), which is
+ * what filling in the stack trace of the exception scales with. Service logging is switched off for both variants.
+ * <p>
+ * Run from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.cashoperations.benchmark.CashOperationRejectionBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CashOperationRejectionBenchmark {
+
+    private static final String API_PATH = "uri=/api/v1/cash-operation";
+
+    @Param({"20", "120"})
+    private int frames;
+
+    private CashDeskServiceImpl service;
+    private CashOperationSlots rejectedWithdrawal;
+
+    @Setup
+    public void setup() {
+        ((Logger) LoggerFactory.getLogger(CashDeskServiceImpl.class)).setLevel(Level.OFF);
+        CashierRepository cashierRepository = new CashierRepository();
+        cashierRepository.init();
+        JournalProperties journalProperties = new JournalProperties();
+        // Rejections never reach the journal or the balance table, so neither is started
+        BalanceEventOutbox outbox = new BalanceEventOutbox(null, new OutboxProperties(), new PersistenceProperties());
+        service = new CashDeskServiceImpl(cashierRepository, new StatisticsInfo(), new DenominationPlanner(),
+                new TransactionJournal(journalProperties), journalProperties,
+                new BalanceWriteBehind(null, null, new PersistenceProperties(), cashierRepository, outbox));
+
+        rejectedWithdrawal = new CashOperationSlots();
+        rejectedWithdrawal.setCashierName("LINDA");
+        rejectedWithdrawal.setCurrency(Currency.EUR);
+        rejectedWithdrawal.setOperationType("WITHDRAWAL");
+        rejectedWithdrawal.setAmount(105000, 2);
+        rejectedWithdrawal.setDenominationsPresent(true);
+        rejectedWithdrawal.addEntry(21, 50);
+    }
+
+    @Benchmark
+    public ErrorResponseDto resultRejection() {
+        CashOperationResult result = callAtDepth(frames, false);
+        return result instanceof CashOperationResult.Rejected rejected
+                ? errorResponse(rejected.status(), rejected.errorMessage())
+                : null;
+    }
+
+    @Benchmark
+    public ErrorResponseDto exceptionRejection() {
+        try {
+            callAtDepth(frames, true);
+            return null;
+        } catch (ResponseStatusException e) {
+            return errorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private CashOperationResult callAtDepth(int depth, boolean throwRejection) {
+        if (depth > 0) {
+            return callAtDepth(depth - 1, throwRejection);
+        }
+        CashOperationResult result = service.performOperation(rejectedWithdrawal);
+        if (throwRejection && result instanceof CashOperationResult.Rejected) {
+            // What the service did before rejections became results
+            throw new InsufficientDenominationException(21, 50, 20, 50);
+        }
+        return result;
+    }
+
+    private static ErrorResponseDto errorResponse(HttpStatus status, String message) {
+        return new ErrorResponseDto(API_PATH, status, message, LocalDateTime.now());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CashOperationRejectionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.cashoperations.benchmark;
+
+import com.example.cashoperations.model.Denomination;
+import com.example.cashoperations.service.DenominationPlanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planner latency for amount-only withdrawals at realistic cash desk stock sizes.
+ * <p>
+ * {@code cold} plans against a new stock state every time (table build + reconstruction),
+ * {@code cached} plans repeatedly against the same stock (reconstruction only).
+ * <p>
+ * Run from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.cashoperations.benchmark.DenominationPlannerBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DenominationPlannerBenchmark {
+
+    // Banknotes per denomination value in the drawer (the initial repository stock is 10-100)
+    @Param({"20", "200", "2000"})
+    private int notesPerValue;
+
+    private List<Denomination> stock;
+    private BigDecimal amount;
+    private DenominationPlanner planner;
+    private int variation;
+
+    @Setup
+    public void setup() {
+        planner = new DenominationPlanner();
+        stock = List.of(
+                new Denomination(notesPerValue, 5),
+                new Denomination(notesPerValue, 10),
+                new Denomination(notesPerValue, 20),
+                new Denomination(notesPerValue, 50),
+                new Denomination(notesPerValue, 100));
+        // Roughly a third of the drawer, forcing all values to be considered
+        amount = BigDecimal.valueOf(notesPerValue * 185L / 3 / 5 * 5);
+    }
+
+    @Benchmark
+    public Optional<List<Denomination>> cached() {
+        return planner.plan(stock, amount);
+    }
+
+    @Benchmark
+    public Optional<List<Denomination>> cold() {
+        // A different stock state per invocation, as after every applied withdrawal
+        variation = (variation + 1) % notesPerValue;
+        List<Denomination> changed = List.of(
+                new Denomination(notesPerValue - variation, 5),
+                new Denomination(notesPerValue, 10),
+                new Denomination(notesPerValue, 20),
+                new Denomination(notesPerValue, 50),
+                new Denomination(notesPerValue, 100));
+        return new DenominationPlanner().plan(changed, amount);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DenominationPlannerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
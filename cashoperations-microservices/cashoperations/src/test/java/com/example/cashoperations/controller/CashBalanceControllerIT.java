@@ -0,0 +1,148 @@
+package com.example.cashoperations.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Content negotiation of the cash balance payload: JSON by default, Smile and CBOR on request, all carrying the
+ * same data. The aggregates endpoint carries the sums of the same balances.
+ */
+@SpringBootTest
+class CashBalanceControllerIT {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    @Value("${fib.auth.api-key}")
+    private String apiKey;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @Test
+    void testCashBalance_ShouldDefaultToJson() throws Exception {
+        mockMvc.perform(get("/api/v1/cash-balance").header("FIB-X-AUTH", apiKey))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testCashBalance_ShouldServeSmileWithSameContent() throws Exception {
+        byte[] json = fetchBalances(MediaType.APPLICATION_JSON);
+        byte[] smile = fetchBalances(SMILE);
+
+        assertEquals(withoutTimestamps(objectMapper.readTree(json)),
+                withoutTimestamps(new ObjectMapper(new SmileFactory()).readTree(smile)));
+        assertTrue(smile.length < json.length, "Smile " + smile.length + " bytes, JSON " + json.length + " bytes");
+    }
+
+    @Test
+    void testCashBalance_ShouldServeCborWithSameContent() throws Exception {
+        byte[] json = fetchBalances(MediaType.APPLICATION_JSON);
+        byte[] cbor = fetchBalances(MediaType.APPLICATION_CBOR);
+
+        assertEquals(withoutTimestamps(objectMapper.readTree(json)),
+                withoutTimestamps(new ObjectMapper(new CBORFactory()).readTree(cbor)));
+        assertTrue(cbor.length < json.length, "CBOR " + cbor.length + " bytes, JSON " + json.length + " bytes");
+    }
+
+    @Test
+    void testCashAggregates_ShouldMatchTheSumsOfTheBalances() throws Exception {
+        byte[] balancesJson = fetchBalances(MediaType.APPLICATION_JSON);
+        JsonNode balances = objectMapper.readTree(balancesJson);
+        MvcResult result = mockMvc.perform(get("/api/v1/cash-aggregates")
+                        .param("perCashier", "true")
+                        .header("FIB-X-AUTH", apiKey))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode aggregates = objectMapper.readTree(result.getResponse().getContentAsByteArray());
+
+        Map<String, Long> expected = new TreeMap<>();
+        for (JsonNode balance : balances) {
+            Map<String, Long> ownExpected = new TreeMap<>();
+            balance.get("balances").properties().forEach(currency -> currency.getValue().forEach(denomination -> {
+                expected.merge(currency.getKey(), denomination.get("totalAmount").asLong(), Long::sum);
+                ownExpected.merge(currency.getKey(), denomination.get("totalAmount").asLong(), Long::sum);
+            }));
+            JsonNode own = aggregates.get("cashiers").get(balance.get("cashier").asText());
+            assertEquals(ownExpected, objectMapper.convertValue(own.get("currencyTotals"), new TypeReference<Map<String, Long>>() {}));
+        }
+        assertEquals(balances.size(), aggregates.get("cashierCount").asInt());
+        assertEquals(expected, objectMapper.convertValue(aggregates.get("currencyTotals"), new TypeReference<Map<String, Long>>() {}));
+        assertTrue(result.getResponse().getContentAsByteArray().length < balancesJson.length);
+
+        // Filtered to one cashier and currency, without the per cashier breakdown
+        mockMvc.perform(get("/api/v1/cash-aggregates")
+                        .param("cashier", "linda")
+                        .param("currency", "eur")
+                        .header("FIB-X-AUTH", apiKey))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cashierCount").value(1))
+                .andExpect(jsonPath("$.currencyTotals.EUR").exists())
+                .andExpect(jsonPath("$.currencyTotals.BGN").doesNotExist())
+                .andExpect(jsonPath("$.cashiers").doesNotExist());
+    }
+
+    @Test
+    void testCashAggregates_ShouldRejectAnInvertedDateRange() throws Exception {
+        mockMvc.perform(get("/api/v1/cash-aggregates")
+                        .param("dateFrom", "2025-08-25T00:00:00")
+                        .param("dateTo", "2025-08-24T00:00:00")
+                        .header("FIB-X-AUTH", apiKey))
+                .andExpect(status().isBadRequest());
+    }
+
+    private byte[] fetchBalances(MediaType mediaType) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/cash-balance")
+                        .header("FIB-X-AUTH", apiKey)
+                        .header(HttpHeaders.ACCEPT, mediaType.toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn();
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    /**
+     * Each call takes a new snapshot, the snapshot time is the only field expected to differ.
+     */
+    private static JsonNode withoutTimestamps(JsonNode balances) {
+        assertFalse(balances.isEmpty());
+        balances.forEach(balance -> ((ObjectNode) balance).remove("timestamp"));
+        return balances;
+    }
+}
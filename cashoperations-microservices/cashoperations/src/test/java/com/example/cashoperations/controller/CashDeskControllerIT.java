@@ -1,9 +1,15 @@
 package com.example.cashoperations.controller;
 
+import com.example.cashoperations.dto.AdmissionControlProperties;
+import com.example.cashoperations.dto.BalanceEvent;
 import com.example.cashoperations.dto.CashOperationRequest;
 import com.example.cashoperations.model.Currency;
 import com.example.cashoperations.model.Denomination;
+import com.example.cashoperations.repository.BalanceWriteBehind;
 import com.example.cashoperations.repository.CashierRepository;
+import com.example.cashoperations.service.BalanceEventRelay;
+import com.example.cashoperations.service.InMemoryBalanceEventPublisher;
+import com.example.cashoperations.validators.CashOperationDecoder;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.*;
@@ -11,14 +17,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -38,6 +53,21 @@ class CashDeskControllerIT {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AdmissionControlProperties admissionControlProperties;
+
+    @Autowired
+    private BalanceWriteBehind balanceWriteBehind;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BalanceEventRelay balanceEventRelay;
+
+    @Autowired
+    private InMemoryBalanceEventPublisher inMemoryBalanceEventPublisher;
+
     private MockMvc mockMvc;
 
     @BeforeAll
@@ -70,6 +100,16 @@ class CashDeskControllerIT {
         mockMvcPostRequest(jsonRequest);
     }
 
+    @Test
+    void testWithdrawal_ShouldRemoveDenominationsWithdrawnCompletely() throws Exception {
+        String jsonRequest = getJsonRequestBodyString("WITHDRAWAL", "1000.00", "LINDA", List.of(new Denomination(20, 50)));
+
+        mockMvcPostRequest(jsonRequest);
+
+        assertTrue(cashierRepository.getCashier("LINDA").getBalances().get(Currency.EUR).stream()
+                .noneMatch(d -> d.getValue() == 50));
+    }
+
     @Test
     void testPerformOperation_ShouldThrowInsufficientDenominationException() throws Exception {
         String jsonRequest = getJsonRequestBodyString("WITHDRAWAL", "1050.00", "LINDA", List.of(new Denomination(21, 50)));
@@ -85,6 +125,202 @@ class CashDeskControllerIT {
                 .andExpect(jsonPath("$.errorTime").isArray()); // Ensure `errorTime` is an array
     }
 
+    @Test
+    void testPerformOperation_ShouldRejectBodyAboveTheMaximum() throws Exception {
+        mockMvc.perform(post("/api/v1/cash-operation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("FIB-X-AUTH", apiKey)
+                        .content("{\"cashierName\":\"" + "A".repeat(CashOperationDecoder.MAX_BODY_BYTES) + "\"}"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.errorMessage").value("Request body exceeds " + CashOperationDecoder.MAX_BODY_BYTES + " bytes."));
+    }
+
+    @Test
+    void testPerformOperation_ShouldReturnValidationErrorsPerField() throws Exception {
+        String jsonRequest = "{\"cashierName\":\"LINDA\",\"currency\":\"USD\",\"operationType\":\"DEPOSIT\","
+                + "\"amount\":30,\"denominations\":[{\"quantity\":1,\"value\":30}]}";
+
+        mockMvc.perform(post("/api/v1/cash-operation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("FIB-X-AUTH", apiKey)
+                        .content(jsonRequest))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.currency").value("Invalid currency. Allowed values: BGN, EUR"))
+                .andExpect(jsonPath("$.denominations").value("Invalid denominations: 30. Denominations only of 5, 10, 20, 50, 100 BGN/EUR are allowed."));
+    }
+
+    @Test
+    void testDurablePerformOperation_ShouldAcknowledgeAfterFsync() throws Exception {
+        String jsonRequest = getJsonRequestBodyString("DEPOSIT", "200.00", "LINDA", List.of(new Denomination(2, 100)));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/cash-operation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("FIB-X-AUTH", apiKey)
+                        .header(CashDeskController.DURABILITY_HEADER, "FSYNC")
+                        .content(jsonRequest))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Operation successful"));
+    }
+
+    @Test
+    void testDurablePerformOperation_ShouldRejectWithoutWaitingForJournal() throws Exception {
+        String jsonRequest = getJsonRequestBodyString("WITHDRAWAL", "1050.00", "LINDA", List.of(new Denomination(21, 50)));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/cash-operation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("FIB-X-AUTH", apiKey)
+                        .header(CashDeskController.DURABILITY_HEADER, "JOURNAL")
+                        .content(jsonRequest))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("400 BAD_REQUEST \"Insufficient denominations: requested 21x50, but only 20x50 available.\""));
+    }
+
+    @Test
+    void testDurablePerformOperation_ShouldRejectUnknownDurability() throws Exception {
+        String jsonRequest = getJsonRequestBodyString("DEPOSIT", "100.00", "LINDA", List.of(new Denomination(1, 100)));
+
+        mockMvc.perform(post("/api/v1/cash-operation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("FIB-X-AUTH", apiKey)
+                        .header(CashDeskController.DURABILITY_HEADER, "EVENTUALLY")
+                        .content(jsonRequest))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPerformOperation_ShouldShedLoadAboveCashierLimit() throws Exception {
+        double rate = admissionControlProperties.getCashierRatePerSecond();
+        double burst = admissionControlProperties.getCashierBurst();
+        // Limits are read on every request, as after a refresh from the config server
+        admissionControlProperties.setCashierRatePerSecond(0.1);
+        admissionControlProperties.setCashierBurst(1);
+        try {
+            String jsonRequest = getJsonRequestBodyString("DEPOSIT", "100.00", "PETER", List.of(new Denomination(1, 100)));
+            mockMvcPostRequest(jsonRequest);
+
+            mockMvc.perform(post("/api/v1/cash-operation")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("FIB-X-AUTH", apiKey)
+                            .content(jsonRequest))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "10"))
+                    .andExpect(jsonPath("$.errorCode").value("TOO_MANY_REQUESTS"))
+                    .andExpect(jsonPath("$.errorMessage").value("Too many requests for cashier PETER."));
+        } finally {
+            admissionControlProperties.setCashierRatePerSecond(rate);
+            admissionControlProperties.setCashierBurst(burst);
+        }
+    }
+
+    @Test
+    void testWithdrawAmountPlansPayoutWithFewestNotes() throws Exception {
+        String jsonRequest = "{\"cashierName\":\"LINDA\",\"currency\":\"EUR\",\"amount\":260.00}";
+
+        mockMvc.perform(post("/api/v1/cash-operation/withdrawal-by-amount")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("FIB-X-AUTH", apiKey)
+                        .content(jsonRequest))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].quantity").value(5))
+                .andExpect(jsonPath("$[0].value").value(50))
+                .andExpect(jsonPath("$[1].quantity").value(1))
+                .andExpect(jsonPath("$[1].value").value(10));
+    }
+
+    @Test
+    void testWithdrawAmount_ShouldRemoveDenominationsPaidOutCompletely() throws Exception {
+        int stock = cashierRepository.getCashier("LINDA").getBalances().get(Currency.EUR).stream()
+                .mapToInt(d -> d.getQuantity() * d.getValue()).sum();
+        String jsonRequest = "{\"cashierName\":\"LINDA\",\"currency\":\"EUR\",\"amount\":" + stock + "}";
+
+        mockMvc.perform(post("/api/v1/cash-operation/withdrawal-by-amount")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("FIB-X-AUTH", apiKey)
+                        .content(jsonRequest))
+                .andExpect(status().isOk());
+
+        assertTrue(cashierRepository.getCashier("LINDA").getBalances().get(Currency.EUR).isEmpty());
+    }
+
+    @Test
+    void testWithdrawAmount_ShouldRejectAmountThatCannotBePaidOut() throws Exception {
+        String jsonRequest = "{\"cashierName\":\"LINDA\",\"currency\":\"EUR\",\"amount\":15}";
+
+        mockMvc.perform(post("/api/v1/cash-operation/withdrawal-by-amount")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("FIB-X-AUTH", apiKey)
+                        .content(jsonRequest))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value("400 BAD_REQUEST \"Amount 15 EUR cannot be paid out with the cashier's available denominations.\""));
+    }
+
+    @Test
+    void testDeposit_ShouldPersistLatestBalanceBehindTheRequest() throws Exception {
+        String jsonRequest = getJsonRequestBodyString("DEPOSIT", "170.00", "LINDA", Arrays.asList(new Denomination(3, 50),
+                new Denomination(1, 20)));
+
+        mockMvcPostRequest(jsonRequest);
+        balanceWriteBehind.flush();
+
+        // The background flusher may hold the row at this point, so wait for its write as well
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Map<String, Object> row = Map.of();
+        while (System.nanoTime() < deadline) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT notes_10, notes_20, notes_50 FROM cashier_balance WHERE cashier = 'LINDA' AND currency = 'EUR'");
+            if (!rows.isEmpty() && Integer.valueOf(23).equals(rows.get(0).get("NOTES_50"))) {
+                row = rows.get(0);
+                break;
+            }
+            Thread.sleep(20);
+        }
+        assertEquals(100, row.get("NOTES_10"));
+        assertEquals(1, row.get("NOTES_20"));
+        assertEquals(23, row.get("NOTES_50"));
+    }
+
+    @Test
+    void testDeposit_ShouldPublishBalanceEvent() throws Exception {
+        String jsonRequest = getJsonRequestBodyString("DEPOSIT", "120.00", "PETER", Arrays.asList(new Denomination(2, 50),
+                new Denomination(1, 20)));
+
+        mockMvcPostRequest(jsonRequest);
+        // Both wait for a background run in progress, so the event is delivered once they return
+        balanceWriteBehind.flush();
+        balanceEventRelay.relay();
+
+        BalanceEvent event = inMemoryBalanceEventPublisher.getDelivered().stream()
+                .filter(e -> e.cashier().equals("PETER") && e.amount().compareTo(new BigDecimal("120.00")) == 0)
+                .reduce((first, second) -> second)
+                .orElseThrow();
+        assertEquals("DEPOSIT", event.operationType());
+        assertEquals(Currency.EUR, event.currency());
+        assertTrue(event.id() > 0);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM balance_event_outbox WHERE published = FALSE AND id <= ?", Integer.class, event.id()));
+
+        // Still served to consumers catching up from an earlier sequence
+        mockMvc.perform(get("/api/v1/balance-events")
+                        .header("FIB-X-AUTH", apiKey)
+                        .param("since", String.valueOf(event.id() - 1))
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events.length()").value(1))
+                .andExpect(jsonPath("$.events[0].id").value(event.id()))
+                .andExpect(jsonPath("$.events[0].cashier").value("PETER"))
+                .andExpect(jsonPath("$.events[0].operationType").value("DEPOSIT"))
+                .andExpect(jsonPath("$.latestId").value(greaterThanOrEqualTo((int) event.id())));
+    }
+
     private void mockMvcPostRequest(String jsonRequest) throws Exception {
         mockMvc.perform(post("/api/v1/cash-operation")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,186 @@
+package com.example.cashoperations.controller;
+
+import com.example.cashoperations.repository.CashierRepository;
+import com.example.cashoperations.service.CashBalanceService;
+import com.example.cashoperations.validators.CashOperationDecoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * The reactive deployment must answer with the same status codes and bodies as the servlet one
+ * (see {@link CashDeskControllerIT}).
+ */
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@AutoConfigureWebTestClient
+class ReactiveCashDeskControllerIT {
+
+    @Value("${fib.auth.api-key}")
+    private String apiKey;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CashierRepository cashierRepository;
+
+    @Autowired
+    private CashBalanceService cashBalanceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        CashierRepository.CASHIERS.clear();
+        cashierRepository.init();
+    }
+
+    @Test
+    void testDepositPerformOperation() {
+        postCashOperation("{\"cashierName\":\"LINDA\",\"currency\":\"EUR\",\"operationType\":\"DEPOSIT\","
+                + "\"amount\":200.00,\"denominations\":[{\"quantity\":2,\"value\":50},{\"quantity\":1,\"value\":100}]}")
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Operation successful");
+    }
+
+    @Test
+    void testDurablePerformOperation_ShouldAcknowledgeAfterFsync() {
+        webTestClient.post().uri("/api/v1/cash-operation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("FIB-X-AUTH", apiKey)
+                .header(CashDeskController.DURABILITY_HEADER, "FSYNC")
+                .bodyValue("{\"cashierName\":\"LINDA\",\"currency\":\"EUR\",\"operationType\":\"DEPOSIT\","
+                        + "\"amount\":100,\"denominations\":[{\"quantity\":1,\"value\":100}]}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Operation successful");
+    }
+
+    @Test
+    void testPerformOperation_ShouldRejectInsufficientDenomination() {
+        postCashOperation("{\"cashierName\":\"LINDA\",\"currency\":\"EUR\",\"operationType\":\"WITHDRAWAL\","
+                + "\"amount\":1050.00,\"denominations\":[{\"quantity\":21,\"value\":50}]}")
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.apiPath").isEqualTo("uri=/api/v1/cash-operation")
+                .jsonPath("$.errorCode").isEqualTo("BAD_REQUEST")
+                .jsonPath("$.errorMessage").isEqualTo("400 BAD_REQUEST \"Insufficient denominations: requested 21x50, but only 20x50 available.\"")
+                .jsonPath("$.errorTime").isArray();
+    }
+
+    @Test
+    void testPerformOperation_ShouldReturnValidationErrorsPerField() {
+        postCashOperation("{\"cashierName\":\"LINDA\",\"currency\":\"USD\",\"operationType\":\"DEPOSIT\","
+                + "\"amount\":30,\"denominations\":[{\"quantity\":1,\"value\":30}]}")
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.currency").isEqualTo("Invalid currency. Allowed values: BGN, EUR")
+                .jsonPath("$.denominations").isEqualTo("Invalid denominations: 30. Denominations only of 5, 10, 20, 50, 100 BGN/EUR are allowed.");
+    }
+
+    @Test
+    void testPerformOperation_ShouldRejectBodyAboveTheMaximum() {
+        postCashOperation("{\"cashierName\":\"" + "A".repeat(CashOperationDecoder.MAX_BODY_BYTES) + "\"}")
+                .expectStatus().isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE)
+                .expectBody()
+                .jsonPath("$.errorMessage").isEqualTo("Request body exceeds " + CashOperationDecoder.MAX_BODY_BYTES + " bytes.");
+    }
+
+    @Test
+    void testPerformOperation_ShouldRejectUnknownCashier() {
+        postCashOperation("{\"cashierName\":\"JOHN\",\"currency\":\"EUR\",\"operationType\":\"DEPOSIT\","
+                + "\"amount\":100,\"denominations\":[{\"quantity\":1,\"value\":100}]}")
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.apiPath").isEqualTo("uri=/api/v1/cash-operation")
+                .jsonPath("$.errorCode").isEqualTo("NOT_FOUND")
+                .jsonPath("$.errorMessage").isEqualTo("Cashier not found with the given input data name : 'JOHN'");
+    }
+
+    @Test
+    void testPerformOperation_ShouldRequireApiKey() {
+        webTestClient.post().uri("/api/v1/cash-operation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("UNAUTHORIZED")
+                .jsonPath("$.errorMessage").isEqualTo("Invalid API key.");
+    }
+
+    @Test
+    void testWithdrawAmountPlansPayoutWithFewestNotes() {
+        webTestClient.post().uri("/api/v1/cash-operation/withdrawal-by-amount")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("FIB-X-AUTH", apiKey)
+                .bodyValue("{\"cashierName\":\"LINDA\",\"currency\":\"EUR\",\"amount\":260.00}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].quantity").isEqualTo(5)
+                .jsonPath("$[0].value").isEqualTo(50)
+                .jsonPath("$[1].quantity").isEqualTo(1)
+                .jsonPath("$[1].value").isEqualTo(10);
+    }
+
+    @Test
+    void testCashBalanceMatchesServletSerialization() throws Exception {
+        // The servlet variant writes the same list with the same ObjectMapper
+        JsonNode expected = objectMapper.valueToTree(
+                cashBalanceService.getCashBalances(Optional.empty(), Optional.empty(), Optional.of("LINDA")));
+
+        String body = webTestClient.get().uri("/api/v1/cash-balance?cashier=LINDA")
+                .header("FIB-X-AUTH", apiKey)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        JsonNode actual = objectMapper.readTree(body);
+        // Snapshot time of each response, the only field expected to differ
+        expected.forEach(balance -> ((ObjectNode) balance).remove("timestamp"));
+        actual.forEach(balance -> ((ObjectNode) balance).remove("timestamp"));
+        assertFalse(actual.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testCashBalanceNegotiatesSmile() throws Exception {
+        byte[] body = webTestClient.get().uri("/api/v1/cash-balance?cashier=LINDA")
+                .header("FIB-X-AUTH", apiKey)
+                .accept(MediaType.valueOf("application/x-jackson-smile"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith("application/x-jackson-smile")
+                .expectBody(byte[].class).returnResult().getResponseBody();
+
+        JsonNode balances = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertEquals(1, balances.size());
+        assertEquals("LINDA", balances.get(0).get("cashier").asText());
+    }
+
+    private WebTestClient.ResponseSpec postCashOperation(String jsonRequest) {
+        return webTestClient.post().uri("/api/v1/cash-operation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("FIB-X-AUTH", apiKey)
+                .bodyValue(jsonRequest)
+                .exchange();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.cashoperations.dto;
+
+import com.example.cashoperations.exception.*;
+import com.example.cashoperations.model.Currency;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashOperationResultTest {
+
+    @Test
+    void rejectionMessagesShouldMatchReplacedExceptions() {
+        assertEquals(new InsufficientDenominationException(21, 50, 20, 50).getMessage(),
+                CashOperationResult.insufficientDenomination(21, 50, 20).errorMessage());
+        assertEquals(new DenominationNotFoundException(200).getMessage(),
+                CashOperationResult.denominationNotFound(200).errorMessage());
+        assertEquals(new CurrencyNotSupportedException("EUR").getMessage(),
+                CashOperationResult.currencyNotSupported(Currency.EUR).errorMessage());
+        assertEquals("400 BAD_REQUEST \"Amount 15.00 EUR cannot be paid out with the cashier's available denominations.\"",
+                CashOperationResult.payoutNotPossible(new BigDecimal("15.00"), Currency.EUR).errorMessage());
+        assertEquals("Invalid deposit request. Amount 300 does not match overall denominations sum 200.",
+                CashOperationResult.amountMismatch(BigDecimal.valueOf(300), BigDecimal.valueOf(200)).errorMessage());
+    }
+
+    @Test
+    void fixedRejectionsShouldBePreallocated() {
+        assertSame(CashOperationResult.denominationNotFound(50), CashOperationResult.denominationNotFound(50));
+        assertSame(CashOperationResult.currencyNotSupported(Currency.BGN), CashOperationResult.currencyNotSupported(Currency.BGN));
+        assertEquals(HttpStatus.BAD_REQUEST, CashOperationResult.denominationNotFound(50).status());
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.cashoperations.repository;
+
+import com.example.cashoperations.dto.BalanceEvent;
+import com.example.cashoperations.dto.OutboxProperties;
+import com.example.cashoperations.dto.PersistenceProperties;
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.model.Denomination;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceWriteBehindTest {
+
+    private final CashierRepository cashierRepository = new CashierRepository();
+    private SimpleDriverDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private BalanceEventOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        outbox = new BalanceEventOutbox(jdbcTemplate, new OutboxProperties(), new PersistenceProperties());
+        CashierRepository.CASHIERS.clear();
+        cashierRepository.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("SHUTDOWN");
+        CashierRepository.CASHIERS.clear();
+        cashierRepository.init();
+    }
+
+    @Test
+    void shouldWriteOneRowPerKeyWithItsLatestStock() {
+        createSchema();
+        BalanceWriteBehind writeBehind = writeBehind(new PersistenceProperties());
+        // A hot cashier updated 1,000 times between two flushes
+        for (int i = 1; i <= 1000; i++) {
+            writeBehind.markDirty("LINDA", Currency.EUR, List.of(new Denomination(i, 50), new Denomination(10, 100)));
+        }
+        writeBehind.markDirty("PETER", Currency.BGN, List.of(new Denomination(7, 20)));
+
+        assertEquals(2, writeBehind.flush());
+        assertEquals(0, writeBehind.flush());
+        assertEquals(1, writeBehind.getFlushCount());
+        assertEquals(2, writeBehind.getRowsWritten());
+
+        Map<String, Object> linda = jdbcTemplate.queryForMap(
+                "SELECT notes_50, notes_100, notes_5 FROM cashier_balance WHERE cashier = 'LINDA' AND currency = 'EUR'");
+        assertEquals(1000, linda.get("NOTES_50"));
+        assertEquals(10, linda.get("NOTES_100"));
+        assertEquals(0, linda.get("NOTES_5"));
+        assertEquals(7, jdbcTemplate.queryForObject(
+                "SELECT notes_20 FROM cashier_balance WHERE cashier = 'PETER' AND currency = 'BGN'", Integer.class));
+
+        // The next flush updates the existing row instead of adding one
+        writeBehind.markDirty("LINDA", Currency.EUR, List.of(new Denomination(3, 50)));
+        assertEquals(1, writeBehind.flush());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cashier_balance", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT notes_50 FROM cashier_balance WHERE cashier = 'LINDA' AND currency = 'EUR'", Integer.class));
+    }
+
+    @Test
+    void shouldKeepRowsDirtyWhenTheWriteFails() {
+        BalanceWriteBehind writeBehind = writeBehind(new PersistenceProperties());
+        writeBehind.markDirty("LINDA", Currency.EUR, List.of(new Denomination(20, 50)));
+
+        // No table yet
+        assertThrows(DataAccessException.class, writeBehind::flush);
+
+        createSchema();
+        assertEquals(1, writeBehind.flush());
+        assertEquals(20, jdbcTemplate.queryForObject(
+                "SELECT notes_50 FROM cashier_balance WHERE cashier = 'LINDA' AND currency = 'EUR'", Integer.class));
+    }
+
+    @Test
+    void shouldRestorePersistedStockOverTheSeededOne() throws Exception {
+        createSchema();
+        jdbcTemplate.update(BalanceWriteBehind.UPSERT, "LINDA", "EUR", 0, 0, 0, 3, 4, Timestamp.valueOf("2025-08-24 18:45:00"));
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.setRestoreOnStartup(true);
+        BalanceWriteBehind writeBehind = writeBehind(properties);
+
+        writeBehind.start();
+        try {
+            List<Denomination> eur = cashierRepository.getCashier("LINDA").getBalances().get(Currency.EUR);
+            assertEquals(2, eur.size());
+            assertEquals(50, eur.get(0).getValue());
+            assertEquals(3, eur.get(0).getQuantity());
+            assertEquals(100, eur.get(1).getValue());
+            assertEquals(4, eur.get(1).getQuantity());
+            // Other cashiers and currencies keep their seeded stock
+            assertFalse(cashierRepository.getCashier("LINDA").getBalances().get(Currency.BGN).isEmpty());
+        } finally {
+            writeBehind.stop();
+        }
+    }
+
+    @Test
+    void shouldWriteEventsInTheTransactionOfTheBalances() {
+        createSchema();
+        BalanceWriteBehind writeBehind = writeBehind(new PersistenceProperties());
+        writeBehind.markDirty("LINDA", Currency.EUR, List.of(new Denomination(21, 50)));
+        outbox.append("LINDA", Currency.EUR, "DEPOSIT", new BigDecimal("50.00"), List.of(new Denomination(21, 50)));
+        writeBehind.markDirty("LINDA", Currency.EUR, List.of(new Denomination(20, 50)));
+        outbox.append("LINDA", Currency.EUR, "WITHDRAWAL", new BigDecimal("50.00"), List.of(new Denomination(20, 50)));
+
+        // Only the outbox insert fails, the balance upsert of the same flush is rolled back with it
+        jdbcTemplate.execute("DROP TABLE balance_event_outbox");
+        assertThrows(DataAccessException.class, writeBehind::flush);
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cashier_balance", Integer.class));
+
+        createSchema();
+        outbox.append("LINDA", Currency.EUR, "DEPOSIT", new BigDecimal("100.00"), List.of(new Denomination(22, 50)));
+        assertEquals(1, writeBehind.flush());
+
+        // Both events of the failed flush come first, in the order the operations were applied
+        List<BalanceEvent> events = outbox.fetchUnpublished(10);
+        assertEquals(List.of("DEPOSIT", "WITHDRAWAL", "DEPOSIT"), events.stream().map(BalanceEvent::operationType).toList());
+        assertEquals(List.of(21, 20, 22), events.stream().map(event -> event.notes()[3]).toList());
+        assertTrue(events.get(0).id() < events.get(1).id() && events.get(1).id() < events.get(2).id());
+        assertEquals(new BigDecimal("100.00"), events.get(2).amount());
+
+        // A flush without balance changes still writes queued events
+        outbox.append("PETER", Currency.BGN, "DEPOSIT", new BigDecimal("5.00"), List.of(new Denomination(1, 5)));
+        assertEquals(0, writeBehind.flush());
+        assertEquals(4, outbox.fetchUnpublished(10).size());
+    }
+
+    @Test
+    void shouldNotWriteABalanceWithoutTheEventOfAnOperationRecordedDuringTheFlush() throws Exception {
+        createSchema();
+        AtomicReference<BalanceWriteBehind> flushing = new AtomicReference<>();
+        AtomicReference<Thread> operation = new AtomicReference<>();
+        // An operation of another thread arrives while the flush takes its snapshots
+        BalanceEventOutbox racingOutbox = new BalanceEventOutbox(jdbcTemplate, new OutboxProperties(), new PersistenceProperties()) {
+            @Override
+            List<BalanceEvent> drain() {
+                List<BalanceEvent> events = super.drain();
+                if (operation.get() == null) {
+                    Thread thread = Thread.ofPlatform().start(() -> flushing.get().recordOperation("LINDA",
+                            Currency.EUR, "DEPOSIT", new BigDecimal("50.00"), List.of(new Denomination(22, 50))));
+                    operation.set(thread);
+                    awaitBlockedOrDone(thread);
+                }
+                return events;
+            }
+        };
+        BalanceWriteBehind writeBehind = new BalanceWriteBehind(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)), new PersistenceProperties(),
+                cashierRepository, racingOutbox);
+        flushing.set(writeBehind);
+        writeBehind.recordOperation("LINDA", Currency.EUR, "DEPOSIT", new BigDecimal("50.00"), List.of(new Denomination(21, 50)));
+
+        assertEquals(1, writeBehind.flush());
+        operation.get().join();
+
+        // The balance written is the one of the last event written
+        List<BalanceEvent> events = racingOutbox.fetchUnpublished(10);
+        assertEquals(List.of(21), events.stream().map(event -> event.notes()[3]).toList());
+        assertEquals(21, jdbcTemplate.queryForObject(
+                "SELECT notes_50 FROM cashier_balance WHERE cashier = 'LINDA' AND currency = 'EUR'", Integer.class));
+
+        // The operation of the other thread goes with the next flush
+        assertEquals(1, writeBehind.flush());
+        assertEquals(List.of(21, 22), racingOutbox.fetchUnpublished(10).stream().map(event -> event.notes()[3]).toList());
+        assertEquals(22, jdbcTemplate.queryForObject(
+                "SELECT notes_50 FROM cashier_balance WHERE cashier = 'LINDA' AND currency = 'EUR'", Integer.class));
+    }
+
+    private BalanceWriteBehind writeBehind(PersistenceProperties properties) {
+        return new BalanceWriteBehind(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                properties, cashierRepository, outbox);
+    }
+
+    /**
+     * Waits until {@code thread} is blocked on a lock or has finished.
+     */
+    private static void awaitBlockedOrDone(Thread thread) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED
+                && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void createSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+    }
+}
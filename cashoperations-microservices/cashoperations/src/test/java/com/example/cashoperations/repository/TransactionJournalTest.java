@@ -0,0 +1,131 @@
+package com.example.cashoperations.repository;
+
+import com.example.cashoperations.exception.DurabilityNotConfirmedException;
+import com.example.cashoperations.exception.LogTransactionException;
+import com.example.cashoperations.model.Durability;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldShareOneFsyncAcrossQueuedEntries() throws Exception {
+        Path file = dir.resolve("transactions.txt");
+        TransactionJournal journal = new TransactionJournal(file, 512);
+        List<CompletableFuture<Void>> acks = new ArrayList<>();
+        // Queued before the writer starts, as if they arrived while a previous fsync was running
+        for (int i = 0; i < 100; i++) {
+            acks.add(journal.append("entry " + i + "\n", Durability.FSYNC));
+        }
+        journal.start();
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            assertEquals(1, journal.getFsyncCount());
+            List<String> lines = Files.readAllLines(file);
+            assertEquals(100, lines.size());
+            assertEquals("entry 0", lines.get(0));
+            assertEquals("entry 99", lines.get(99));
+        } finally {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void shouldAcknowledgeMemoryAtOnceAndJournalAfterWriteWithoutFsync() throws Exception {
+        Path file = dir.resolve("transactions.txt");
+        TransactionJournal journal = new TransactionJournal(file, 512);
+        CompletableFuture<Void> memory = journal.append("memory\n", Durability.MEMORY);
+        CompletableFuture<Void> written = journal.append("journal\n", Durability.JOURNAL);
+        assertTrue(memory.isDone());
+        assertFalse(written.isDone());
+
+        journal.start();
+        try {
+            written.get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("memory", "journal"), Files.readAllLines(file));
+            assertEquals(0, journal.getFsyncCount());
+        } finally {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void shouldSplitBacklogIntoBatchesOfMaxBatch() throws Exception {
+        Path file = dir.resolve("transactions.txt");
+        TransactionJournal journal = new TransactionJournal(file, 10);
+        List<CompletableFuture<Void>> acks = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            acks.add(journal.append("entry " + i + "\n", Durability.FSYNC));
+        }
+        journal.start();
+        try {
+            CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            assertEquals(3, journal.getFsyncCount());
+            assertEquals(25, Files.readAllLines(file).size());
+        } finally {
+            journal.stop();
+        }
+    }
+
+    @Test
+    void shouldWriteQueuedEntriesWhenStopped() throws Exception {
+        Path file = dir.resolve("transactions.txt");
+        TransactionJournal journal = new TransactionJournal(file, 512);
+        journal.start();
+        for (int i = 0; i < 50; i++) {
+            journal.append("entry " + i + "\n", Durability.MEMORY);
+        }
+        journal.stop();
+
+        assertEquals(50, Files.readAllLines(file).size());
+    }
+
+    @Test
+    void shouldFailAcksOfEntriesNotWrittenBeforeStop() throws Exception {
+        Path file = dir.resolve("transactions.txt");
+        TransactionJournal journal = new TransactionJournal(file, 512);
+        // Never started: nothing will write these entries
+        CompletableFuture<Void> queued = journal.append("queued\n", Durability.FSYNC);
+        journal.stop();
+
+        ExecutionException notWritten = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(DurabilityNotConfirmedException.class, notWritten.getCause());
+        CompletableFuture<Void> late = journal.append("late\n", Durability.JOURNAL);
+        assertTrue(late.isCompletedExceptionally());
+        assertInstanceOf(DurabilityNotConfirmedException.class,
+                assertThrows(ExecutionException.class, late::get).getCause());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void shouldStopAndFailEveryAckWhenTheWriterFails() throws Exception {
+        Path file = Files.createFile(dir.resolve("transactions.txt"));
+        TransactionJournal journal = new TransactionJournal(file, 512);
+        // Writing to a read-only channel throws NonWritableChannelException, a RuntimeException
+        journal.start(FileChannel.open(file, StandardOpenOption.READ));
+        CompletableFuture<Void> first = journal.append("first\n", Durability.JOURNAL);
+
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(LogTransactionException.class, failed.getCause());
+        CompletableFuture<Void> later = journal.append("later\n", Durability.FSYNC);
+        assertTrue(later.isCompletedExceptionally());
+        assertSame(failed.getCause(), assertThrows(ExecutionException.class, later::get).getCause());
+        assertTrue(journal.append("memory\n", Durability.MEMORY).isDone());
+        journal.stop();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.dto.AdmissionControlProperties;
+import com.example.cashoperations.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AdmissionControlProperties properties = new AdmissionControlProperties();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry(), clock::get);
+
+    @Test
+    void shouldRejectAboveLimitAndExposeMetrics() {
+        properties.getAdaptive().setInitialLimit(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, registry, clock::get);
+
+        limiter.acquire();
+        limiter.acquire();
+        assertThrows(TooManyRequestsException.class, limiter::acquire);
+
+        assertEquals(2, registry.get("cashoperations.concurrency.limit").gauge().value());
+        assertEquals(2, registry.get("cashoperations.concurrency.inflight").gauge().value());
+        assertEquals(1, registry.get("cashoperations.concurrency.rejected").counter().count());
+    }
+
+    @Test
+    void shouldGrowWhileLatencyIsStable() {
+        runAtFullLoad(TimeUnit.MILLISECONDS.toNanos(2), 20);
+
+        assertTrue(limiter.getLimit() > 50, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void shouldShrinkWhenLatencyRises() {
+        runAtFullLoad(TimeUnit.MILLISECONDS.toNanos(2), 10);
+        double before = limiter.getLimit();
+
+        runAtFullLoad(TimeUnit.MILLISECONDS.toNanos(20), 20);
+
+        assertTrue(limiter.getLimit() < before, before + " -> " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= properties.getAdaptive().getMinLimit());
+    }
+
+    @Test
+    void shouldNotGrowWhenTrafficIsFarBelowLimit() {
+        for (int i = 0; i < 200; i++) {
+            long start = limiter.acquire();
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+            limiter.release(start, false);
+        }
+
+        assertEquals(50, limiter.getLimit());
+    }
+
+    @Test
+    void shouldIgnoreDisabledLimiter() {
+        properties.getAdaptive().setEnabled(false);
+
+        long token = limiter.acquire();
+        limiter.release(token, false);
+
+        assertEquals(AdaptiveConcurrencyLimiter.NOT_ACQUIRED, token);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    // Fills the current limit with concurrent requests that all take rttNanos, for the given number of sample windows
+    private void runAtFullLoad(long rttNanos, int windows) {
+        for (int w = 0; w < windows; w++) {
+            int batch = Math.max(properties.getAdaptive().getSampleWindow(), (int) limiter.getLimit());
+            long[] starts = new long[batch];
+            int admitted = 0;
+            for (int i = 0; i < batch; i++) {
+                try {
+                    starts[admitted] = limiter.acquire();
+                    admitted++;
+                } catch (TooManyRequestsException e) {
+                    break;
+                }
+            }
+            clock.addAndGet(rttNanos);
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(starts[i], false);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.dto.AdmissionControlProperties;
+import com.example.cashoperations.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlServiceTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AdmissionControlProperties properties = new AdmissionControlProperties();
+    private final AdmissionControlService admission = new AdmissionControlService(properties, clock::get);
+
+    @Test
+    void shouldRejectClientAboveBurstAndRefillAtRate() {
+        properties.setClientRatePerSecond(2);
+        properties.setClientBurst(3);
+
+        for (int i = 0; i < 3; i++) {
+            admission.admitClient("teller-app");
+        }
+        TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class, () -> admission.admitClient("teller-app"));
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        admission.admitClient("other-app"); // buckets are per client
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        admission.admitClient("teller-app");
+        assertThrows(TooManyRequestsException.class, () -> admission.admitClient("teller-app"));
+    }
+
+    @Test
+    void shouldReportRetryAfterForSlowRefill() {
+        properties.setCashierRatePerSecond(0.2);
+        properties.setCashierBurst(1);
+
+        admission.admitCashier("LINDA");
+
+        assertEquals(5, assertThrows(TooManyRequestsException.class, () -> admission.admitCashier("LINDA")).getRetryAfterSeconds());
+    }
+
+    @Test
+    void shouldApplyRefreshedLimitsToExistingBuckets() {
+        properties.setCashierRatePerSecond(1);
+        properties.setCashierBurst(1);
+        admission.admitCashier("PETER");
+        assertThrows(TooManyRequestsException.class, () -> admission.admitCashier("PETER"));
+
+        properties.setCashierRatePerSecond(0); // disabled
+        admission.admitCashier("PETER");
+    }
+
+    @Test
+    void shouldLimitRequestsInFlight() {
+        properties.setMaxConcurrentRequests(2);
+
+        assertTrue(admission.enter());
+        assertTrue(admission.enter());
+        assertThrows(TooManyRequestsException.class, admission::enter);
+        assertEquals(2, admission.getInFlight());
+
+        admission.exit();
+        assertTrue(admission.enter());
+    }
+
+    @Test
+    void shouldDropIdleBucketsBeyondTrackedKeys() {
+        properties.setMaxTrackedKeys(2);
+        properties.setClientRatePerSecond(1);
+        properties.setClientBurst(1);
+        admission.admitClient("a");
+        admission.admitClient("b");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        admission.admitClient("c");
+
+        admission.admitClient("a"); // "a" was refilled and dropped, so a fresh bucket is created
+    }
+
+    @Test
+    void shouldShareOneBucketForNewKeysWhileTrackedOnesAreBusy() {
+        properties.setMaxTrackedKeys(2);
+        properties.setCashierRatePerSecond(1);
+        properties.setCashierBurst(1);
+        admission.admitCashier("LINDA");
+        admission.admitCashier("PETER");
+
+        // Neither tracked bucket is idle, so new names draw from the same overflow bucket
+        admission.admitCashier("CASHIER_1");
+        assertThrows(TooManyRequestsException.class, () -> admission.admitCashier("CASHIER_2"));
+        assertThrows(TooManyRequestsException.class, () -> admission.admitCashier("LINDA"));
+
+        // The least recently used bucket, PETER, is idle again and makes room for a new name
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        admission.admitCashier("CASHIER_2");
+        assertThrows(TooManyRequestsException.class, () -> admission.admitCashier("CASHIER_2"));
+    }
+}
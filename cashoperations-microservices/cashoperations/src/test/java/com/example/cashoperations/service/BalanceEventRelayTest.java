@@ -0,0 +1,151 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.dto.BalanceEvent;
+import com.example.cashoperations.dto.BalanceEventPage;
+import com.example.cashoperations.dto.OutboxProperties;
+import com.example.cashoperations.dto.PersistenceProperties;
+import com.example.cashoperations.model.Currency;
+import com.example.cashoperations.model.Denomination;
+import com.example.cashoperations.repository.BalanceEventOutbox;
+import com.example.cashoperations.repository.BalanceWriteBehind;
+import com.example.cashoperations.repository.CashierRepository;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox relay against an H2 outbox and the in-process broker stand-in.
+ */
+class BalanceEventRelayTest {
+
+    private final OutboxProperties properties = new OutboxProperties();
+    private JdbcTemplate jdbcTemplate;
+    private BalanceEventOutbox outbox;
+    private BalanceWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource =
+                new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        PersistenceProperties persistenceProperties = new PersistenceProperties();
+        outbox = new BalanceEventOutbox(jdbcTemplate, properties, persistenceProperties);
+        writeBehind = new BalanceWriteBehind(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                persistenceProperties, new CashierRepository(), outbox);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shouldPublishTheOutboxInOrderInConfirmedBatches() {
+        appendDeposits(250);
+        writeBehind.flush();
+        InMemoryBalanceEventPublisher broker = new InMemoryBalanceEventPublisher();
+        List<BalanceEvent> received = new ArrayList<>();
+        broker.subscribe(received::add);
+        BalanceEventRelay relay = new BalanceEventRelay(outbox, broker, properties);
+
+        assertEquals(250, relay.relay());
+
+        assertEquals(3, broker.getBatchCount());
+        assertEquals(250, broker.getPublishedCount());
+        assertEquals(3, relay.getBatchCount());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i + 1, received.get(i).notes()[0]);
+            if (i > 0) {
+                assertTrue(received.get(i - 1).id() < received.get(i).id());
+            }
+        }
+        assertEquals(0, outboxSize());
+        assertEquals(0, relay.relay());
+    }
+
+    @Test
+    void shouldKeepAnUnconfirmedBatchInTheOutbox() {
+        appendDeposits(150);
+        writeBehind.flush();
+        InMemoryBalanceEventPublisher broker = new InMemoryBalanceEventPublisher();
+        AtomicInteger attempts = new AtomicInteger();
+        // The broker confirms the first batch and times out on the second one once
+        BalanceEventRelay relay = new BalanceEventRelay(outbox, batch -> {
+            if (attempts.incrementAndGet() == 2) {
+                throw new AmqpTimeoutException("No confirm within " + properties.getConfirmTimeoutMillis() + " ms");
+            }
+            broker.publish(batch);
+        }, properties);
+
+        assertThrows(AmqpTimeoutException.class, relay::relay);
+        assertEquals(50, outboxSize());
+        assertEquals(100, broker.getPublishedCount());
+
+        assertEquals(50, relay.relay());
+        assertEquals(0, outboxSize());
+        List<BalanceEvent> delivered = broker.getDelivered();
+        assertEquals(150, delivered.size());
+        assertEquals(150, delivered.get(149).notes()[0]);
+    }
+
+    @Test
+    void shouldKeepPublishedEventsForCatchUpUntilPurged() {
+        appendDeposits(30);
+        writeBehind.flush();
+        new BalanceEventRelay(outbox, new InMemoryBalanceEventPublisher(), properties).relay();
+
+        BalanceEventPage all = outbox.fetchSince(0, 1000);
+        assertEquals(30, all.events().size());
+        assertEquals(all.events().get(0).id(), all.oldestId());
+        assertEquals(all.events().get(29).id(), all.latestId());
+
+        BalanceEventPage page = outbox.fetchSince(all.events().get(9).id(), 5);
+        assertEquals(5, page.events().size());
+        assertEquals(11, page.events().get(0).notes()[0]);
+
+        assertEquals(0, outbox.purgePublished(LocalDateTime.now().minusHours(1)));
+        assertEquals(30, outbox.purgePublished(LocalDateTime.now().plusSeconds(1)));
+        assertEquals(new BalanceEventPage(List.of(), 0, 0), outbox.fetchSince(0, 1000));
+    }
+
+    @Test
+    void shouldNotQueueEventsWithoutPersistence() {
+        PersistenceProperties persistenceProperties = new PersistenceProperties();
+        persistenceProperties.setEnabled(false);
+        BalanceEventOutbox disabled = new BalanceEventOutbox(jdbcTemplate, properties, persistenceProperties);
+
+        disabled.append("LINDA", Currency.EUR, "DEPOSIT", BigDecimal.TEN, List.of(new Denomination(2, 5)));
+
+        assertFalse(disabled.isEnabled());
+        assertEquals(0, writeBehind.flush());
+        assertEquals(0, outboxSize());
+    }
+
+    private void appendDeposits(int count) {
+        for (int i = 1; i <= count; i++) {
+            outbox.append("LINDA", Currency.EUR, "DEPOSIT", new BigDecimal("5.00"), List.of(new Denomination(i, 5)));
+        }
+    }
+
+    private int outboxSize() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM balance_event_outbox WHERE published = FALSE", Integer.class);
+    }
+}
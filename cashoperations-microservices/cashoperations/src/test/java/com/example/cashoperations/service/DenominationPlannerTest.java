@@ -0,0 +1,92 @@
+package com.example.cashoperations.service;
+
+import com.example.cashoperations.model.Denomination;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DenominationPlannerTest {
+
+    private final DenominationPlanner planner = new DenominationPlanner();
+
+    @Test
+    void shouldPayOutWithFewestNotes() {
+        List<Denomination> stock = List.of(new Denomination(100, 10), new Denomination(20, 50));
+
+        List<Denomination> payout = planner.plan(stock, new BigDecimal("260.00")).orElseThrow();
+
+        assertEquals("[5x50, 1x10]", payout.toString());
+    }
+
+    @Test
+    void shouldFindPayoutWhereGreedyFails() {
+        // Greedy takes 1x50 and is left with 10 it cannot pay; 3x20 is the only valid mix
+        List<Denomination> stock = List.of(new Denomination(1, 50), new Denomination(3, 20));
+
+        List<Denomination> payout = planner.plan(stock, BigDecimal.valueOf(60)).orElseThrow();
+
+        assertEquals("[3x20]", payout.toString());
+    }
+
+    @Test
+    void shouldRespectAvailableQuantities() {
+        List<Denomination> stock = List.of(new Denomination(2, 100), new Denomination(10, 20), new Denomination(4, 5));
+
+        List<Denomination> payout = planner.plan(stock, BigDecimal.valueOf(320)).orElseThrow();
+
+        assertEquals("[2x100, 6x20]", payout.toString());
+        assertEquals(320, payout.stream().mapToInt(d -> d.getValue() * d.getQuantity()).sum());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenAmountCannotBePaid() {
+        List<Denomination> stock = List.of(new Denomination(10, 10), new Denomination(2, 50));
+
+        assertEquals(Optional.empty(), planner.plan(stock, BigDecimal.valueOf(15)));      // not a multiple of 10
+        assertEquals(Optional.empty(), planner.plan(stock, BigDecimal.valueOf(210)));     // more than the stock
+        assertEquals(Optional.empty(), planner.plan(stock, new BigDecimal("20.50")));     // fractional amount
+        assertEquals(Optional.empty(), planner.plan(List.of(), BigDecimal.valueOf(20)));
+    }
+
+    @Test
+    void shouldReuseCachedTableForSameStock() {
+        List<Denomination> stock = List.of(new Denomination(10, 20), new Denomination(10, 50));
+
+        planner.plan(stock, BigDecimal.valueOf(100));
+        planner.plan(List.of(new Denomination(10, 50), new Denomination(10, 20)), BigDecimal.valueOf(140));
+
+        assertEquals(1, planner.cachedTables());
+    }
+
+    @Test
+    void shouldBoundCacheByTableCells() {
+        // Each table covers 400,000 units of 5 with 5 values, i.e. 2.4M cells: two of them exceed the budget
+        List<Denomination> stock = List.of(new Denomination(20_000, 100), new Denomination(10, 50),
+                new Denomination(10, 20), new Denomination(10, 10), new Denomination(10, 5));
+        List<Denomination> changedStock = List.of(new Denomination(20_001, 100), new Denomination(10, 50),
+                new Denomination(10, 20), new Denomination(10, 10), new Denomination(10, 5));
+
+        planner.plan(stock, BigDecimal.valueOf(2_000_000));
+        assertEquals(1, planner.cachedTables());
+        planner.plan(changedStock, BigDecimal.valueOf(2_000_000));
+
+        assertEquals(1, planner.cachedTables());
+        assertTrue(planner.cachedCells() <= DenominationPlanner.MAX_CACHED_CELLS);
+    }
+
+    @Test
+    void shouldNotPlanAmountsAboveTheTableBound() {
+        // 900,000 units of 5 with 5 values would take a table of 5.4M cells
+        List<Denomination> largeStock = List.of(new Denomination(50_000, 100), new Denomination(10, 50),
+                new Denomination(10, 20), new Denomination(10, 10), new Denomination(10, 5));
+
+        assertTrue(planner.plan(largeStock, BigDecimal.valueOf(4_500_000)).isEmpty());
+        assertEquals(0, planner.cachedTables());
+        // Within the bound, the same stock is planned
+        assertTrue(planner.plan(largeStock, BigDecimal.valueOf(3_000_000)).isPresent());
+    }
+}
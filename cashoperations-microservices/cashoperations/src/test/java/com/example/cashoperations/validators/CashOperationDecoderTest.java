@@ -0,0 +1,146 @@
+package com.example.cashoperations.validators;
+
+import com.example.cashoperations.config.JacksonConfig;
+import com.example.cashoperations.dto.CashOperationRequest;
+import com.example.cashoperations.dto.CashOperationSlots;
+import com.example.cashoperations.exception.RequestBodyTooLargeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashOperationDecoderTest {
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final CashOperationDecoder decoder = new CashOperationDecoder(objectMapper, validator);
+
+    @Test
+    void shouldDecodeDocumentedRequestWithoutFallback() throws Exception {
+        CashOperationSlots slots = decode("""
+                {"cashierName":"MARTINA","currency":"BGN","operationType":"DEPOSIT","amount":600.00,
+                 "denominations":[{"quantity":10,"value":10},{"quantity":10,"value":50}]}""");
+
+        assertNull(decoder.validate(slots));
+        assertTrue(slots.isDeposit());
+        assertEquals(new BigDecimal("600.00"), slots.getAmount());
+        assertEquals(2, slots.getEntryCount());
+        assertEquals(10, slots.getSlotQuantity(CashOperationSlots.slotOf(50)));
+        assertEquals(600, slots.getDenominationsSum());
+        assertTrue(slots.amountMatchesDenominations());
+        assertEquals(objectMapper.readValue("""
+                        {"cashierName":"MARTINA","currency":"BGN","operationType":"DEPOSIT","amount":600.00,
+                         "denominations":[{"quantity":10,"value":10},{"quantity":10,"value":50}]}""",
+                CashOperationRequest.class).toString(), slots.toString());
+    }
+
+    @Test
+    void shouldFallBackToDatabindingForUnusualShapes() throws Exception {
+        CashOperationSlots slots = decode("""
+                {"cashierName":"PETER","currency":"eur","operationType":"withdrawal","amount":"1.2E2",
+                 "denominations":[{"quantity":6,"value":20,"timestamp":"2025-08-24T18:45:00"}]}""");
+
+        assertNull(decoder.validate(slots));
+        assertFalse(slots.isDeposit());
+        assertEquals(new BigDecimal("1.2E2"), slots.getAmount());
+        assertTrue(slots.amountMatchesDenominations());
+    }
+
+    @Test
+    void shouldCompareAmountWithDenominationsSumExactly() throws Exception {
+        assertFalse(decode("""
+                {"cashierName":"PETER","currency":"EUR","operationType":"DEPOSIT","amount":100.01,
+                 "denominations":[{"quantity":1,"value":100}]}""").amountMatchesDenominations());
+        assertTrue(decode("""
+                {"cashierName":"PETER","currency":"EUR","operationType":"DEPOSIT","amount":1E+2,
+                 "denominations":[{"quantity":1,"value":100}]}""").amountMatchesDenominations());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"currency\":\"BGN\",\"operationType\":\"DEPOSIT\",\"amount\":50,\"denominations\":[{\"quantity\":1,\"value\":50}]}",
+            "{\"cashierName\":\"   \",\"currency\":\"BGN\",\"operationType\":\"DEPOSIT\",\"amount\":50,\"denominations\":[{\"quantity\":1,\"value\":50}]}",
+            "{\"cashierName\":\"ABCDEFGHIJKLMNOPQRSTU\",\"currency\":\"BGN\",\"operationType\":\"DEPOSIT\",\"amount\":50,\"denominations\":[{\"quantity\":1,\"value\":50}]}",
+            "{\"cashierName\":\"LINDA\",\"currency\":\"USD\",\"operationType\":\"DEPOSIT\",\"amount\":50,\"denominations\":[{\"quantity\":1,\"value\":50}]}",
+            "{\"cashierName\":\"LINDA\",\"currency\":\"BGN\",\"operationType\":\"TRANSFER\",\"amount\":50,\"denominations\":[{\"quantity\":1,\"value\":50}]}",
+            "{\"cashierName\":\"LINDA\",\"currency\":\"BGN\",\"operationType\":\"DEPOSIT\",\"denominations\":[{\"quantity\":1,\"value\":50}]}",
+            "{\"cashierName\":\"LINDA\",\"currency\":\"BGN\",\"operationType\":\"DEPOSIT\",\"amount\":9.99,\"denominations\":[{\"quantity\":1,\"value\":5}]}",
+            "{\"cashierName\":\"LINDA\",\"currency\":\"BGN\",\"operationType\":\"DEPOSIT\",\"amount\":50}",
+            "{\"cashierName\":\"LINDA\",\"currency\":\"BGN\",\"operationType\":\"DEPOSIT\",\"amount\":50,\"denominations\":[]}",
+            "{\"cashierName\":\"LINDA\",\"currency\":\"BGN\",\"operationType\":\"DEPOSIT\",\"amount\":250,\"denominations\":[{\"quantity\":1,\"value\":200},{\"quantity\":1,\"value\":30},{\"quantity\":1,\"value\":20}]}",
+            "{\"cashierName\":\"L\",\"currency\":\"BGN\",\"operationType\":\"TRANSFER\",\"amount\":5.5,\"denominations\":[{\"quantity\":1,\"value\":7}]}"
+    })
+    void shouldReportSameErrorsAsBeanValidation(String json) throws Exception {
+        CashOperationRequest request = objectMapper.readValue(json, CashOperationRequest.class);
+        BindingResult expected = new BeanPropertyBindingResult(request, CashOperationDecoder.OBJECT_NAME);
+        new SpringValidatorAdapter(validator).validate(request, expected);
+
+        BindingResult actual = decoder.validate(decode(json));
+
+        assertTrue(expected.hasErrors());
+        assertNotNull(actual);
+        assertEquals(errors(expected), errors(actual));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\u2003\u2003", "\u2003", "\u00A0LINDA", "LINDA\u2003", "\u3000\u3000\u3000", "LINDA PETROVA", " \t "})
+    void shouldAcceptExactlyWhatBeanValidationAcceptsForWhitespaceNames(String cashierName) throws Exception {
+        String json = objectMapper.writeValueAsString(Map.of("cashierName", cashierName, "currency", "BGN",
+                "operationType", "DEPOSIT", "amount", 50, "denominations", List.of(Map.of("quantity", 1, "value", 50))));
+        CashOperationRequest request = objectMapper.readValue(json, CashOperationRequest.class);
+        BindingResult expected = new BeanPropertyBindingResult(request, CashOperationDecoder.OBJECT_NAME);
+        new SpringValidatorAdapter(validator).validate(request, expected);
+
+        BindingResult actual = decoder.validate(decode(json));
+
+        assertEquals(expected.hasErrors(), actual != null);
+        if (actual != null) {
+            assertEquals(errors(expected), errors(actual));
+        }
+    }
+
+    @Test
+    void shouldRejectBodiesAboveTheMaximumAndTrimGrownBuffers() throws Exception {
+        CashOperationSlots slots = decoder.acquire();
+        byte[] largest = new byte[CashOperationDecoder.MAX_BODY_BYTES];
+
+        assertEquals(largest.length, decoder.readBody(new ByteArrayInputStream(largest), slots));
+        assertThrows(RequestBodyTooLargeException.class,
+                () -> decoder.readBody(new ByteArrayInputStream(new byte[largest.length + 1]), slots));
+        assertEquals(largest.length, slots.getBodyBuffer().length);
+
+        decoder.release(slots);
+        assertSame(slots, decoder.acquire());
+        assertEquals(1024, slots.getBodyBuffer().length);
+    }
+
+    private CashOperationSlots decode(String json) throws Exception {
+        CashOperationSlots slots = decoder.acquire();
+        int length = decoder.readBody(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), slots);
+        decoder.decode(slots, length);
+        return slots;
+    }
+
+    private static Map<String, String> errors(BindingResult bindingResult) {
+        Map<String, String> errors = new HashMap<>();
+        for (FieldError error : bindingResult.getFieldErrors()) {
+            errors.put(error.getField(), error.getDefaultMessage());
+        }
+        return errors;
+    }
+}
@@ -1,13 +1,22 @@
 package com.example.cashreportingservice;
 
+import com.example.cashreportingservice.dto.AnalyticsProperties;
+import com.example.cashreportingservice.dto.CashBalanceCacheProperties;
+import com.example.cashreportingservice.dto.CashOperationsClientProperties;
 import com.example.cashreportingservice.dto.CashreportingserviceContactInfoDto;
+import com.example.cashreportingservice.dto.ExportProperties;
+import com.example.cashreportingservice.dto.HistoricalReportProperties;
+import com.example.cashreportingservice.dto.RangeSummaryProperties;
+import com.example.cashreportingservice.dto.ReportViewProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
-@EnableConfigurationProperties(value = {CashreportingserviceContactInfoDto.class})
+@EnableConfigurationProperties(value = {CashreportingserviceContactInfoDto.class, ReportViewProperties.class,
+        CashBalanceCacheProperties.class, CashOperationsClientProperties.class, HistoricalReportProperties.class,
+        RangeSummaryProperties.class, AnalyticsProperties.class, ExportProperties.class})
 @EnableJpaAuditing(auditorAwareRef = "auditAwareConfig")
 public class CashReportingServiceApplication {
 
@@ -0,0 +1,116 @@
+package com.example.cashreportingservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.internal.TimedScheduledExecutorService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Queue metrics of the Reactor schedulers, in place of the removed {@code Schedulers.enableMetrics()}.
+ * <p>
+ * Every executor a scheduler creates once this is started (the workers of bounded elastic included) is decorated:
+ * its tasks are timed as {@code reactor.scheduler.executor} while running and {@code reactor.scheduler.executor.idle}
+ * while waiting in the queue, tagged with the scheduler {@code name}. {@code reactor.scheduler.executor.queued},
+ * {@code .active} and {@code .workers} sum the queued tasks, running tasks and live executors of each scheduler;
+ * executors come and go with the bounded elastic workers, so they are not registered one by one.
+ */
+@Component
+public class ReactorSchedulerMetrics {
+
+    public static final String PREFIX = "reactor.scheduler.";
+
+    private static final String DECORATOR = ReactorSchedulerMetrics.class.getName();
+
+    private final MeterRegistry meterRegistry;
+    private final BiFunction<Scheduler, ScheduledExecutorService, ScheduledExecutorService> decorator = this::decorate;
+    // Weak, so executors of evicted workers are dropped
+    private final Map<String, Set<ThreadPoolExecutor>> executors = new ConcurrentHashMap<>();
+
+    public ReactorSchedulerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Replaces the decorator of an instance started earlier in the JVM, such as that of another application context.
+     */
+    @PostConstruct
+    public void start() {
+        Schedulers.removeExecutorServiceDecorator(DECORATOR);
+        Schedulers.addExecutorServiceDecorator(DECORATOR, decorator);
+    }
+
+    @PreDestroy
+    public void stop() {
+        var removed = Schedulers.removeExecutorServiceDecorator(DECORATOR);
+        if (removed != null && removed != decorator) {
+            Schedulers.addExecutorServiceDecorator(DECORATOR, removed);
+        }
+    }
+
+    ScheduledExecutorService decorate(Scheduler scheduler, ScheduledExecutorService executor) {
+        String name = name(scheduler);
+        if (executor instanceof ThreadPoolExecutor pool) {
+            Set<ThreadPoolExecutor> pools = executors.computeIfAbsent(name, this::register);
+            synchronized (pools) {
+                pools.add(pool);
+            }
+        }
+        return new TimedScheduledExecutorService(meterRegistry, executor, name, PREFIX, Tags.empty());
+    }
+
+    private Set<ThreadPoolExecutor> register(String name) {
+        Set<ThreadPoolExecutor> pools = Collections.newSetFromMap(new WeakHashMap<>());
+        gauge(name, "queued", "Tasks waiting in the queues of the scheduler", pools, pool -> pool.getQueue().size());
+        gauge(name, "active", "Tasks running on the scheduler", pools, ThreadPoolExecutor::getActiveCount);
+        gauge(name, "workers", "Live executors of the scheduler", pools, pool -> 1);
+        return pools;
+    }
+
+    private void gauge(String name, String metric, String description, Set<ThreadPoolExecutor> pools,
+                       ToIntFunction<ThreadPoolExecutor> value) {
+        Gauge.builder(PREFIX + "executor." + metric, pools, live -> {
+                    int sum = 0;
+                    synchronized (live) {
+                        for (ThreadPoolExecutor pool : live) {
+                            if (!pool.isShutdown()) {
+                                sum += value.applyAsInt(pool);
+                            }
+                        }
+                    }
+                    return sum;
+                })
+                .tag("name", name)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Thread name prefix the scheduler quotes in its description, e.g. {@code boundedElastic} in
+     * {@code boundedElastic("boundedElastic",maxThreads=10,...)}, otherwise the description up to its settings.
+     */
+    static String name(Scheduler scheduler) {
+        String description = scheduler.toString();
+        int open = description.indexOf('"');
+        int close = open >= 0 ? description.indexOf('"', open + 1) : -1;
+        if (close > open + 1) {
+            return description.substring(open + 1, close);
+        }
+        int settings = description.indexOf('(');
+        return settings > 0 ? description.substring(0, settings) : description;
+    }
+}
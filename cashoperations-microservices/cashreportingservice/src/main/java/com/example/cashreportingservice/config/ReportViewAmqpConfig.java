@@ -0,0 +1,34 @@
+package com.example.cashreportingservice.config;
+
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Durable queue of the report views, bound to every cashoperations balance event. Events published while the service
+ * is down wait in the queue; the duplicates of the startup catch-up are skipped by sequence.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cashreportingservice.views", name = "listen", havingValue = "true")
+public class ReportViewAmqpConfig {
+
+    @Bean
+    public TopicExchange balanceEventsExchange(ReportViewProperties properties) {
+        return new TopicExchange(properties.getExchange(), true, false);
+    }
+
+    @Bean
+    public Queue reportViewQueue(ReportViewProperties properties) {
+        return new Queue(properties.getQueue(), true);
+    }
+
+    @Bean
+    public Binding reportViewBinding(Queue reportViewQueue, TopicExchange balanceEventsExchange) {
+        return BindingBuilder.bind(reportViewQueue).to(balanceEventsExchange).with("#");
+    }
+}
@@ -1,14 +1,62 @@
 package com.example.cashreportingservice.config;
 
+import com.example.cashreportingservice.dto.CashOperationsClientProperties;
+import com.example.cashreportingservice.service.PipelineStages;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.observation.ObservationRegistry;
+import io.netty.channel.ChannelOption;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
 
+    /**
+     * Binary Jackson format requested from cashoperations by default, see {@code cashoperations.service.accept}.
+     */
+    public static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    /**
+     * Builder for the cashoperations client: bounded connection pool with Micrometer metrics
+     * ({@code reactor.netty.connection.provider.*}, e.g. {@code .pending.connections} for requests waiting for a
+     * connection), connect and response timeouts. Calls are observed as {@code http.client.requests} and as the
+     * {@code exchange} and {@code decode} {@link PipelineStages} of the report they are made for.
+     */
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder webClientBuilder(CashOperationsClientProperties properties, PipelineStages stages,
+                                              ObservationRegistry observationRegistry) {
+        CashOperationsClientProperties.Pool pool = properties.getPool();
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("cashoperations")
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(pool.getPendingAcquireTimeoutMillis()))
+                .maxIdleTime(Duration.ofMillis(pool.getMaxIdleTimeMillis()))
+                .maxLifeTime(Duration.ofMillis(pool.getMaxLifeTimeMillis()))
+                .evictInBackground(Duration.ofSeconds(30))
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeoutMillis())
+                .responseTimeout(Duration.ofMillis(properties.getResponseTimeoutMillis()));
+
+        // Same mapper configuration as the JSON one; the media types are passed explicitly as the mapper
+        // constructor of the decoder would default to JSON
+        Jackson2SmileDecoder smileDecoder = new Jackson2SmileDecoder(
+                JacksonConfig.configure(new ObjectMapper(new SmileFactory())),
+                SMILE, MediaType.valueOf("application/*+x-jackson-smile"));
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .observationRegistry(observationRegistry)
+                .filter(stages.exchangeFilter())
+                .codecs(codecs -> codecs.defaultCodecs().jackson2SmileDecoder(smileDecoder));
     }
 }
@@ -0,0 +1,90 @@
+package com.example.cashreportingservice.controller;
+
+import com.example.cashreportingservice.dto.ExportProperties;
+import com.example.cashreportingservice.service.BalanceExportService;
+import com.example.cashreportingservice.service.PipelineStages;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * <p>Test the endpoint:</p>
+ * <ul>
+ *   <li>
+ *     Balance Export (format csv or columnar, all cashiers without cashier):
+ *     <code>GET http://localhost:8081/cashreportingservice/api/v1/exports/balances?startDate=2025-09-21T00:00:00&endDate=2025-09-23T23:59:59&format=csv</code>
+ *   </li>
+ * </ul>
+ * <p>Once cashoperations answers, the export is written as its buffers arrive, at most {@code prefetch} of them ahead
+ * of the client, see {@link BalanceExportService}.</p>
+ */
+@RestController
+@RequestMapping("/api/v1/exports")
+public class ExportController {
+
+    private final BalanceExportService balanceExportService;
+    private final ExportProperties properties;
+
+    public ExportController(BalanceExportService balanceExportService, ExportProperties properties) {
+        this.balanceExportService = balanceExportService;
+        this.properties = properties;
+    }
+
+    @GetMapping("/balances")
+    public ResponseEntity<StreamingResponseBody> exportBalances(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cashier,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        BalanceExportService.Format exportFormat;
+        try {
+            exportFormat = BalanceExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or columnar");
+        }
+        Flux<DataBuffer> export = balanceExportService.export(exportFormat, startDate, endDate, cashier)
+                .contextWrite(PipelineStages.pipeline("export-balances"));
+        String filename = "balances-" + (cashier != null ? cashier : "all") + "." + exportFormat.extension();
+
+        Stream<DataBuffer> buffers = export.toStream(properties.getPrefetch());
+        Iterator<DataBuffer> iterator = buffers.iterator();
+        try {
+            // Waits for cashoperations, so its errors are answered before the export's headers are
+            iterator.hasNext();
+        } catch (RuntimeException e) {
+            buffers.close();
+            throw e;
+        }
+        StreamingResponseBody body = out -> {
+            // Closing the stream cancels the export when the client goes away
+            try (buffers) {
+                while (iterator.hasNext()) {
+                    try (InputStream in = iterator.next().asInputStream(true)) {
+                        in.transferTo(out);
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -2,19 +2,32 @@ package com.example.cashreportingservice.controller;
 
 import com.example.cashreportingservice.dto.CashBalanceResponse;
 import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.example.cashreportingservice.dto.OperationQuantilesReport;
+import com.example.cashreportingservice.dto.RangeSummaryReport;
+import com.example.cashreportingservice.dto.TopCashiersReport;
+import com.example.cashreportingservice.service.CashBalanceCache;
 import com.example.cashreportingservice.service.CashOperationsClientService;
-import com.example.cashreportingservice.service.SummaryReportService;
+import com.example.cashreportingservice.service.DailyReportService;
+import com.example.cashreportingservice.service.OperationAnalytics;
+import com.example.cashreportingservice.service.PipelineStages;
+import com.example.cashreportingservice.service.RangeReportService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * <p>Test the endpoints:</p>
@@ -28,21 +41,43 @@ import java.util.Map;
  *     <code>GET http://localhost:8081/cashreportingservice/api/v1/reports/currency-summary?date=2025-09-22</code>
  *   </li>
  *   <li>
+ *     Range Summary (groupBy day, week or cashier):
+ *     <code>GET http://localhost:8081/cashreportingservice/api/v1/reports/range-summary?from=2025-09-01&to=2025-09-30&groupBy=week</code>
+ *   </li>
+ *   <li>
+ *     Top Cashiers (by operations, or by volume of a currency):
+ *     <code>GET http://localhost:8081/cashreportingservice/api/v1/reports/top-cashiers?currency=EUR&limit=10</code>
+ *   </li>
+ *   <li>
+ *     Operation Quantiles:
+ *     <code>GET http://localhost:8081/cashreportingservice/api/v1/reports/operation-quantiles?currency=BGN&quantiles=0.5,0.95</code>
+ *   </li>
+ *   <li>
  *     Cashier Activity:
  *     <code>GET http://localhost:8081/cashreportingservice/api/v1/reports/cashier-activity?startDate=2025-09-21T00:00:00&endDate=2025-09-23T23:59:59&cashier=Linda</code>
  *   </li>
  * </ul>
+ * <p>The stages of the reactive endpoints are observed per endpoint, see {@link PipelineStages} and
+ * <code>GET http://localhost:8081/cashreportingservice/actuator/pipelines</code>.</p>
  */
 @RestController
 @RequestMapping("/api/v1/reports")
 public class ReportingController {
 
     private final CashOperationsClientService cashOperationsClient;
-    private final SummaryReportService summaryReportService;
+    private final DailyReportService dailyReportService;
+    private final RangeReportService rangeReportService;
+    private final OperationAnalytics operationAnalytics;
+    private final PipelineStages stages;
 
-    public ReportingController(CashOperationsClientService cashOperationsClient, SummaryReportService summaryReportService) {
+    public ReportingController(CashOperationsClientService cashOperationsClient, DailyReportService dailyReportService,
+                               RangeReportService rangeReportService, OperationAnalytics operationAnalytics,
+                               PipelineStages stages) {
         this.cashOperationsClient = cashOperationsClient;
-        this.summaryReportService = summaryReportService;
+        this.dailyReportService = dailyReportService;
+        this.rangeReportService = rangeReportService;
+        this.operationAnalytics = operationAnalytics;
+        this.stages = stages;
     }
 
     @GetMapping("/daily-summary")
@@ -50,13 +85,7 @@ public class ReportingController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
             @RequestParam(required = false) String cashier) {
 
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-
-        return cashOperationsClient.fetchCashBalances(startOfDay, endOfDay, cashier)
-                .map(balanceList -> summaryReportService.generateDailySummaryReport(balanceList, cashier))
-                .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build());
+        return respond("daily-summary", () -> dailyReportService.dailySummary(date, cashier));
     }
 
     @GetMapping("/cashier-activity")
@@ -65,21 +94,71 @@ public class ReportingController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam String cashier) {
 
-        return cashOperationsClient.fetchCashBalances(startDate, endDate, cashier)
-                .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build());
+        return respond("cashier-activity", () -> cashOperationsClient.fetchCashBalances(startDate, endDate, cashier));
     }
 
     @GetMapping("/currency-summary")
     public Mono<ResponseEntity<Map<String, BigDecimal>>> getCurrencySummary(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
 
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+        return respond("currency-summary", () -> dailyReportService.currencySummary(date));
+    }
+
+    @GetMapping("/range-summary")
+    public Mono<ResponseEntity<RangeSummaryReport>> getRangeSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "day") String groupBy) {
+
+        RangeReportService.GroupBy grouping;
+        try {
+            grouping = RangeReportService.GroupBy.valueOf(groupBy.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "groupBy must be day, week or cashier"));
+        }
+        return respond("range-summary", () -> rangeReportService.rangeSummary(from, to, grouping));
+    }
+
+    @GetMapping("/top-cashiers")
+    public ResponseEntity<TopCashiersReport> getTopCashiers(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String currency,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        LocalDate day = from != null ? from : LocalDate.now();
+        return ResponseEntity.ok(operationAnalytics.topCashiers(day, to != null ? to : day,
+                currency != null ? currency.toUpperCase(Locale.ROOT) : null, limit));
+    }
+
+    @GetMapping("/operation-quantiles")
+    public ResponseEntity<OperationQuantilesReport> getOperationQuantiles(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam String currency,
+            @RequestParam(defaultValue = "0.5,0.95,0.99") List<Double> quantiles) {
+
+        LocalDate day = from != null ? from : LocalDate.now();
+        return ResponseEntity.ok(operationAnalytics.quantiles(day, to != null ? to : day,
+                currency.toUpperCase(Locale.ROOT), quantiles));
+    }
 
-        return cashOperationsClient.fetchCashBalances(startOfDay, endOfDay, null)
-                .map(summaryReportService::generateCurrencySummary)
-                .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build());
+    /**
+     * 200 with the report, 404 if there is none. A report computed from the last good balances of a range (see
+     * {@link CashBalanceCache}) carries their age in {@code Age} (seconds) and a {@code Warning: 110} header.
+     * The report is assembled on subscription, so its store lookups are part of the {@code pipeline} stages.
+     */
+    private <T> Mono<ResponseEntity<T>> respond(String pipeline, Supplier<Mono<T>> report) {
+        CashBalanceCache.Staleness staleness = new CashBalanceCache.Staleness();
+        return stages.observe(PipelineStages.TOTAL, Mono.defer(report))
+                .map(body -> staleness.isStale()
+                        ? ResponseEntity.ok()
+                                .header(HttpHeaders.AGE, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(staleness.getAgeMillis())))
+                                .header(HttpHeaders.WARNING, "110 cashreportingservice \"Response is Stale\"")
+                                .body(body)
+                        : ResponseEntity.ok(body))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .contextWrite(Context.of(CashBalanceCache.Staleness.class, staleness))
+                .contextWrite(PipelineStages.pipeline(pipeline));
     }
 }
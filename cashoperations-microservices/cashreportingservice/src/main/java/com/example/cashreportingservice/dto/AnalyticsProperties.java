@@ -0,0 +1,21 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Streaming top-N and quantile analytics over the balance events, see {@code OperationAnalytics}.
+ */
+@ConfigurationProperties(prefix = "cashreportingservice.analytics")
+@Getter
+@Setter
+public class AnalyticsProperties {
+    private boolean enabled = true;
+    // Counters per Space-Saving summary: estimates are off by at most total / capacity
+    private int heavyHitterCapacity = 64;
+    // KLL accuracy parameter: 200 keeps about 600 amounts and a rank error of about 1.3%
+    private int quantileK = 200;
+    // Days of sketches kept in memory
+    private int retentionDays = 31;
+}
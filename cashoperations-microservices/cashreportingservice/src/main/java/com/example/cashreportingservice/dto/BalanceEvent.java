@@ -0,0 +1,27 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Balance-change event published by cashoperations, one per applied operation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceEvent {
+    // Sequence in the order the operations were applied; delivery is at-least-once, duplicates repeat the id
+    private long id;
+    private String cashier;
+    private String currency;
+    // DEPOSIT or WITHDRAWAL
+    private String operationType;
+    private BigDecimal amount;
+    // Stock after the operation, quantity per banknote of 5, 10, 20, 50 and 100
+    private int[] notes;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,19 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page of the cashoperations balance event log ({@code GET /api/v1/balance-events?since=}).
+ */
+@Data
+public class BalanceEventPage {
+    // Events after the requested sequence, oldest first
+    private List<BalanceEvent> events = new ArrayList<>();
+    // Oldest retained event, 0 when the log is empty
+    private long oldestId;
+    // Newest event, 0 when the log is empty
+    private long latestId;
+}
@@ -0,0 +1,29 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Totals computed by cashoperations from its live balances ({@code GET /api/v1/cash-aggregates}).
+ */
+@Data
+public class CashAggregateResponse {
+    private LocalDateTime timestamp;
+    // Cashiers matching the cashier filter, 0 when the cashier is unknown
+    private int cashierCount;
+    private Map<String, Long> currencyTotals = new HashMap<>();
+    private long deposits;
+    private long withdrawals;
+    // Only with perCashier=true
+    private Map<String, CashierAggregate> cashiers;
+
+    @Data
+    public static class CashierAggregate {
+        private Map<String, Long> currencyTotals = new HashMap<>();
+        private long deposits;
+        private long withdrawals;
+    }
+}
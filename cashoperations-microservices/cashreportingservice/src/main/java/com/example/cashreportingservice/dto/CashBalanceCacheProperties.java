@@ -0,0 +1,24 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cache of the cash balance lists fetched from cashoperations, see {@code CashBalanceCache}.
+ */
+@ConfigurationProperties(prefix = "cashreportingservice.balance-cache")
+@Getter
+@Setter
+public class CashBalanceCacheProperties {
+    private boolean enabled = true;
+    // Ranges reaching into today still change with every cash operation
+    private long ttlMillis = 2000;
+    // Ranges that ended before today no longer change
+    private long pastTtlMillis = 600_000;
+    // Ranges kept, and last good results; past it the expired ones go first, then the least recently used
+    private int maxEntries = 1000;
+    // Last good result served while a refresh is in flight, fails, or the circuit to cashoperations is open
+    private boolean staleWhileRevalidate = true;
+    private long maxStaleMillis = 600_000;
+}
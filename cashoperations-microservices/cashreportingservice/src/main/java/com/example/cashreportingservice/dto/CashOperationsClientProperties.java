@@ -0,0 +1,68 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Timeouts, retries, hedging, circuit breaker and connection pool of the calls to cashoperations, see
+ * {@code ResilientCallExecutor} and {@code CashOperationsCircuitBreaker}.
+ */
+@ConfigurationProperties(prefix = "cashoperations.service.client")
+@Getter
+@Setter
+public class CashOperationsClientProperties {
+    private long connectTimeoutMillis = 1000;
+    // No response bytes for this long fails the attempt
+    private long responseTimeoutMillis = 3000;
+    // Whole call including retries and hedges; for streamed balances, until the first one arrives
+    private long deadlineMillis = 5000;
+    private int maxRetries = 2;
+    private long retryBackoffMillis = 50;
+    // Retries and hedges may add at most this share of extra requests (plus the minimum below)
+    private double retryBudgetRatio = 0.1;
+    private int retryBudgetMinPerSecond = 5;
+    private Hedge hedge = new Hedge();
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private Pool pool = new Pool();
+
+    /**
+     * A second attempt is sent when the first has not answered after the observed latency percentile.
+     */
+    @Getter
+    @Setter
+    public static class Hedge {
+        private boolean enabled = true;
+        private double percentile = 0.95;
+        // Used until enough calls were timed
+        private long initialDelayMillis = 200;
+        private long minDelayMillis = 5;
+    }
+
+    /**
+     * Calls are rejected for {@code openMillis} once this share of the last calls failed.
+     */
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        private double failureRateThreshold = 0.5;
+        // Outcomes of the last calls the failure rate is taken from
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private long openMillis = 5000;
+        // Trial calls let through after openMillis, all must succeed to close again
+        private int halfOpenCalls = 2;
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private int maxConnections = 100;
+        // Requests waiting for a connection beyond this fail at once
+        private int pendingAcquireMaxCount = 500;
+        private long pendingAcquireTimeoutMillis = 2000;
+        private long maxIdleTimeMillis = 30000;
+        private long maxLifeTimeMillis = 300000;
+    }
+}
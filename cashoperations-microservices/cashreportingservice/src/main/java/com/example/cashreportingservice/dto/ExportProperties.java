@@ -0,0 +1,18 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Streaming balance exports, see {@code BalanceExportService}.
+ */
+@ConfigurationProperties(prefix = "cashreportingservice.export")
+@Getter
+@Setter
+public class ExportProperties {
+    // Rows of a block of the columnar format, the most an export holds in memory
+    private int blockRows = 1024;
+    // Encoded buffers requested ahead of the response writes
+    private int prefetch = 16;
+}
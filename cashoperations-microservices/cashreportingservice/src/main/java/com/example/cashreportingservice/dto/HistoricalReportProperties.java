@@ -0,0 +1,21 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Store of the finalized daily summaries of past days, see {@code DailyReportService}.
+ */
+@ConfigurationProperties(prefix = "cashreportingservice.history")
+@Getter
+@Setter
+public class HistoricalReportProperties {
+    private boolean enabled = true;
+    // A day is finalized this long after the following midnight, late operations have landed by then
+    private long finalizeDelayMillis = 300_000;
+    // Days before yesterday finalized by the scheduler if missing, older ones are backfilled on request
+    private int backfillDays = 7;
+    // How often the scheduler looks for days to finalize
+    private long checkIntervalMillis = 60_000;
+}
@@ -0,0 +1,24 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Operation amount quantiles of one currency over a day or range, from the KLL sketches of
+ * {@code OperationAnalytics}.
+ */
+@Data
+public class OperationQuantilesReport {
+    private String from;
+    private String to;
+    private String currency;
+    private long operations;
+    private BigDecimal min;
+    private BigDecimal max;
+    // Normalized rank error of each quantile, e.g. 0.013: p95 is between the true p93.7 and p96.3
+    private double rankError;
+    // Keyed by quantile, e.g. "0.95"
+    private Map<String, BigDecimal> quantiles;
+}
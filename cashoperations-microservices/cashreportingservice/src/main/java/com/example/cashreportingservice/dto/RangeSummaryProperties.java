@@ -0,0 +1,18 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Multi-day range reports, see {@code RangeReportService}.
+ */
+@ConfigurationProperties(prefix = "cashreportingservice.range-summary")
+@Getter
+@Setter
+public class RangeSummaryProperties {
+    // Longest range accepted, in days
+    private int maxDays = 366;
+    // Days fetched at the same time; finalized days are store lookups, the others calls to cashoperations
+    private int concurrency = 8;
+}
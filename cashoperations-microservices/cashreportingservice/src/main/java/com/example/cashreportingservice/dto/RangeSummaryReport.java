@@ -0,0 +1,37 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of a range of days, in total and per day, ISO week or cashier.
+ */
+@Data
+public class RangeSummaryReport {
+    private String from;
+    private String to;
+    private String groupBy;
+    // Null if no day of the range had cash balances
+    private Group total;
+    private List<Group> groups = new ArrayList<>();
+
+    /**
+     * Operations summed over the days of the group; stock value per currency at the end of its last day.
+     */
+    @Data
+    public static class Group {
+        // Day (2025-09-22), ISO week (2025-W39) or cashier
+        private String key;
+        // First and last day of the group with cash balances
+        private String firstDay;
+        private String lastDay;
+        private BigDecimal totalDeposits;
+        private BigDecimal totalWithdrawals;
+        private BigDecimal endOfPeriodBalance;
+        private Map<String, BigDecimal> currencyBreakdown;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Report views materialized from the cashoperations balance-change events.
+ */
+@ConfigurationProperties(prefix = "cashreportingservice.views")
+@Getter
+@Setter
+public class ReportViewProperties {
+    private boolean enabled = true;
+    // Follow the events on RabbitMQ; without it the views are kept current by the since-sequence poll alone
+    private boolean listen = false;
+    private String exchange = "cashoperations.balance-events";
+    private String queue = "cashreportingservice.balance-events";
+    // Since-sequence poll of cashoperations: catch-up at startup, then gap repair and freshness check
+    private long syncIntervalMillis = 1000;
+    // Views not synced for this long are stale, reports are then recomputed from the balances
+    private long staleAfterMillis = 10000;
+    // Changed view cells are written to the H2 checkpoint at this interval
+    private long checkpointIntervalMillis = 10000;
+    // Events per since-sequence request
+    private int pageSize = 1000;
+    // Days kept in the views; reports for older days are recomputed
+    private int retentionDays = 31;
+}
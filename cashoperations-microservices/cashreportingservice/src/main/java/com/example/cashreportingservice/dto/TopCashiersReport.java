@@ -0,0 +1,33 @@
+package com.example.cashreportingservice.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heaviest cashiers of a day or range, from the Space-Saving summaries of {@code OperationAnalytics}. Ranked by
+ * operation count, or by volume (sum of amounts) of one currency.
+ */
+@Data
+public class TopCashiersReport {
+    private String from;
+    private String to;
+    // "operations", or the currency the volume is summed in
+    private String rankedBy;
+    private BigDecimal total;
+    // No estimate is above the true value by more than this
+    private BigDecimal maxError;
+    private List<Entry> cashiers = new ArrayList<>();
+
+    @Data
+    public static class Entry {
+        private String cashier;
+        // Upper bound of the cashier's operations or volume
+        private BigDecimal estimate;
+        private BigDecimal lowerBound;
+        // Certainly among the top entries, whatever the error
+        private boolean guaranteed;
+    }
+}
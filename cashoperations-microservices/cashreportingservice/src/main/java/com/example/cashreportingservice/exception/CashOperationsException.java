@@ -0,0 +1,17 @@
+package com.example.cashreportingservice.exception;
+
+import lombok.Getter;
+
+/**
+ * Error answer of the cashoperations service.
+ */
+@Getter
+public class CashOperationsException extends RuntimeException {
+
+    private final int statusCode;
+
+    public CashOperationsException(int statusCode, String errorBody) {
+        super("Error from CashOperations service: " + errorBody);
+        this.statusCode = statusCode;
+    }
+}
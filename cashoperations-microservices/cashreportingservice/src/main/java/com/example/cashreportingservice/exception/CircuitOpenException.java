@@ -0,0 +1,11 @@
+package com.example.cashreportingservice.exception;
+
+/**
+ * Call to cashoperations rejected without being sent, the circuit breaker is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    public CircuitOpenException() {
+        super("CashOperations service unavailable, circuit breaker is open");
+    }
+}
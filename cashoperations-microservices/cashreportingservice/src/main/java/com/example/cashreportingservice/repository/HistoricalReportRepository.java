@@ -0,0 +1,114 @@
+package com.example.cashreportingservice.repository;
+
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * H2 store of the finalized daily summaries ({@code report_day_summary}), one row per day and cashier, the
+ * currency breakdown packed into one column. A report is read with a single primary key lookup.
+ */
+@Repository
+public class HistoricalReportRepository {
+
+    // Cashier key of the summaries over all cashiers
+    public static final String ALL = "ALL";
+
+    static final String UPSERT = "MERGE INTO report_day_summary "
+            + "(report_day, cashier, deposits, withdrawals, end_of_day_balance, currencies, finalized_at) "
+            + "KEY (report_day, cashier) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT = "SELECT cashier, deposits, withdrawals, end_of_day_balance, currencies "
+            + "FROM report_day_summary WHERE report_day = ?";
+    private static final String EXISTS = "SELECT COUNT(*) FROM report_day_summary WHERE report_day = ? AND cashier = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HistoricalReportRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The finalized summary of {@code day} for the upper-case {@code cashier} key, or {@link #ALL}.
+     */
+    public Optional<DailySummaryReport> find(LocalDate day, String cashier) {
+        return jdbcTemplate.query(SELECT + " AND cashier = ?", rowMapper(day), Date.valueOf(day), cashier)
+                .stream().findFirst();
+    }
+
+    /**
+     * All finalized summaries of {@code day}, {@link #ALL} first, then by cashier.
+     */
+    public List<DailySummaryReport> findDay(LocalDate day) {
+        return jdbcTemplate.query(SELECT + " ORDER BY CASE WHEN cashier = '" + ALL + "' THEN 0 ELSE 1 END, cashier",
+                rowMapper(day), Date.valueOf(day));
+    }
+
+    public boolean exists(LocalDate day, String cashier) {
+        Integer count = jdbcTemplate.queryForObject(EXISTS, Integer.class, Date.valueOf(day), cashier);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Stores the summaries of {@code day}, keyed by the upper-case cashier of each report.
+     */
+    public void saveAll(LocalDate day, List<DailySummaryReport> reports) {
+        Timestamp finalizedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT, reports, 500, (ps, report) -> {
+            ps.setDate(1, Date.valueOf(day));
+            ps.setString(2, report.getCashier().toUpperCase(Locale.ROOT));
+            ps.setLong(3, report.getTotalDeposits().longValueExact());
+            ps.setLong(4, report.getTotalWithdrawals().longValueExact());
+            ps.setLong(5, report.getEndOfDayBalance().longValueExact());
+            ps.setString(6, encode(report.getCurrencyBreakdown()));
+            ps.setTimestamp(7, finalizedAt);
+        });
+    }
+
+    private static RowMapper<DailySummaryReport> rowMapper(LocalDate day) {
+        return (rs, rowNum) -> {
+            DailySummaryReport report = new DailySummaryReport();
+            report.setCashier(rs.getString("cashier"));
+            report.setDate(day.toString());
+            report.setTotalDeposits(BigDecimal.valueOf(rs.getLong("deposits")));
+            report.setTotalWithdrawals(BigDecimal.valueOf(rs.getLong("withdrawals")));
+            report.setEndOfDayBalance(BigDecimal.valueOf(rs.getLong("end_of_day_balance")));
+            report.setCurrencyBreakdown(decode(rs.getString("currencies")));
+            return report;
+        };
+    }
+
+    static String encode(Map<String, BigDecimal> currencies) {
+        StringBuilder encoded = new StringBuilder();
+        new TreeMap<>(currencies).forEach((currency, total) -> {
+            if (!encoded.isEmpty()) {
+                encoded.append(';');
+            }
+            encoded.append(currency).append('=').append(total.toPlainString());
+        });
+        return encoded.toString();
+    }
+
+    static Map<String, BigDecimal> decode(String encoded) {
+        Map<String, BigDecimal> currencies = new TreeMap<>();
+        if (encoded.isEmpty()) {
+            return currencies;
+        }
+        for (String entry : encoded.split(";")) {
+            int separator = entry.indexOf('=');
+            currencies.put(entry.substring(0, separator), new BigDecimal(entry.substring(separator + 1)));
+        }
+        return currencies;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.cashreportingservice.repository;
+
+import com.example.cashreportingservice.service.ReportViews;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * H2 checkpoint of the {@link ReportViews}: the {@code report_view_cell} rows and the event sequence they include
+ * ({@code report_view_checkpoint}), written in one transaction so a restart resumes from a consistent state.
+ */
+@Repository
+public class ReportViewCheckpointRepository {
+
+    static final String UPSERT_CELL = "MERGE INTO report_view_cell "
+            + "(report_day, cashier, currency, deposits, withdrawals, balance) "
+            + "KEY (report_day, cashier, currency) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_CHECKPOINT = "MERGE INTO report_view_checkpoint "
+            + "(id, last_event_id, coverage_start, checkpointed_at) KEY (id) VALUES (1, ?, ?, ?)";
+    private static final String SELECT_CHECKPOINT = "SELECT last_event_id, coverage_start FROM report_view_checkpoint WHERE id = 1";
+    private static final String SELECT_CELLS = "SELECT report_day, cashier, currency, deposits, withdrawals, balance "
+            + "FROM report_view_cell WHERE report_day >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+
+    public ReportViewCheckpointRepository(JdbcTemplate jdbcTemplate, TransactionOperations transactionOperations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+    }
+
+    /**
+     * Writes the changed cells and the sequence, and drops the days before {@code cutoff}.
+     */
+    public void save(ReportViews.Checkpoint checkpoint, LocalDate cutoff) {
+        transactionOperations.executeWithoutResult(status -> {
+            if (checkpoint.reset()) {
+                jdbcTemplate.update("DELETE FROM report_view_cell");
+            }
+            jdbcTemplate.batchUpdate(UPSERT_CELL, checkpoint.rows(), 500, (ps, row) -> {
+                ps.setDate(1, Date.valueOf(row.day()));
+                ps.setString(2, row.cashier());
+                ps.setString(3, row.currency());
+                ps.setInt(4, row.deposits());
+                ps.setInt(5, row.withdrawals());
+                ps.setLong(6, row.balance());
+            });
+            jdbcTemplate.update("DELETE FROM report_view_cell WHERE report_day < ?", Date.valueOf(cutoff));
+            jdbcTemplate.update(UPSERT_CHECKPOINT, checkpoint.lastEventId(),
+                    checkpoint.coverageStart() == null ? null : Date.valueOf(checkpoint.coverageStart()),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        });
+    }
+
+    /**
+     * The last checkpoint, without the days before {@code cutoff}.
+     */
+    public Optional<ReportViews.Checkpoint> load(LocalDate cutoff) {
+        List<ReportViews.Checkpoint> checkpoints = jdbcTemplate.query(SELECT_CHECKPOINT, (rs, rowNum) -> {
+            Date coverageStart = rs.getDate("coverage_start");
+            return new ReportViews.Checkpoint(rs.getLong("last_event_id"),
+                    coverageStart == null ? null : coverageStart.toLocalDate(), false, List.of());
+        });
+        if (checkpoints.isEmpty()) {
+            return Optional.empty();
+        }
+        List<ReportViews.CellRow> rows = jdbcTemplate.query(SELECT_CELLS, (rs, rowNum) -> new ReportViews.CellRow(
+                rs.getDate("report_day").toLocalDate(), rs.getString("cashier"), rs.getString("currency"),
+                rs.getInt("deposits"), rs.getInt("withdrawals"), rs.getLong("balance")), Date.valueOf(cutoff));
+        ReportViews.Checkpoint checkpoint = checkpoints.get(0);
+        return Optional.of(new ReportViews.Checkpoint(checkpoint.lastEventId(), checkpoint.coverageStart(), false, rows));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.BalanceEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Follows the cashoperations balance events on RabbitMQ. Started by {@link ReportViewSynchronizer} once the views
+ * caught up with the event log; a single consumer keeps the queue order.
+ */
+@Component
+@ConditionalOnProperty(prefix = "cashreportingservice.views", name = "listen", havingValue = "true")
+public class BalanceEventListener {
+
+    private final ReportViewSynchronizer reportViewSynchronizer;
+    private final ObjectMapper objectMapper;
+
+    public BalanceEventListener(ReportViewSynchronizer reportViewSynchronizer, ObjectMapper objectMapper) {
+        this.reportViewSynchronizer = reportViewSynchronizer;
+        this.objectMapper = objectMapper;
+    }
+
+    @RabbitListener(id = ReportViewSynchronizer.LISTENER_ID, queues = "${cashreportingservice.views.queue}",
+            autoStartup = "false", concurrency = "1")
+    public void onMessage(Message message) {
+        try {
+            reportViewSynchronizer.onEvent(objectMapper.readValue(message.getBody(), BalanceEvent.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable balance event " + message.getMessageProperties().getMessageId(), e);
+        }
+    }
+}
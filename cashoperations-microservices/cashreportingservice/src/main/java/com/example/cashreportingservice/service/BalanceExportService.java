@@ -0,0 +1,70 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.dto.ExportProperties;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cash balances of a range as CSV or in the columnar format of {@link ColumnarBalanceCodec}, encoded while they are
+ * decoded from cashoperations. Demand flows back from the consumer of the buffers to the cashoperations response, so
+ * the memory an export needs does not grow with its size. Exports bypass {@link CashBalanceCache}, which holds whole
+ * results.
+ */
+@Service
+public class BalanceExportService {
+
+    public enum Format {
+        CSV(new MediaType("text", "csv"), "csv"),
+        COLUMNAR(MediaType.parseMediaType("application/vnd.cashreportingservice.balances"), "cbx");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final CashOperationsClientService cashOperationsClient;
+    private final ExportProperties properties;
+    private final PipelineStages stages;
+
+    public BalanceExportService(CashOperationsClientService cashOperationsClient, ExportProperties properties,
+                                PipelineStages stages) {
+        this.cashOperationsClient = cashOperationsClient;
+        this.properties = properties;
+        this.stages = stages;
+    }
+
+    public Flux<DataBuffer> export(Format format, LocalDateTime dateFrom, LocalDateTime dateTo, String cashier) {
+        // Nothing is encoded before cashoperations answers, so its errors come before the first buffer
+        Flux<DataBuffer> export = cashOperationsClient.streamCashBalances(dateFrom, dateTo, cashier)
+                .switchOnFirst((first, balances) -> first.isOnError()
+                        ? Flux.error(first.getThrowable())
+                        : encode(format, balances));
+        return stages.observe(PipelineStages.TOTAL, export);
+    }
+
+    private Flux<DataBuffer> encode(Format format, Flux<CashBalanceResponse> balances) {
+        return switch (format) {
+            case CSV -> CsvBalanceEncoder.encode(balances, DefaultDataBufferFactory.sharedInstance);
+            case COLUMNAR -> ColumnarBalanceCodec.encode(balances, properties.getBlockRows(),
+                    DefaultDataBufferFactory.sharedInstance);
+        };
+    }
+}
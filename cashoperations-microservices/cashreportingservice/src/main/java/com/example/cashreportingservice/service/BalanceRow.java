@@ -0,0 +1,33 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.dto.Denomination;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One denomination of a cash balance snapshot, a row of the balance exports.
+ */
+public record BalanceRow(LocalDateTime timestamp, String cashier, String currency, int value, int quantity,
+                         int totalAmount, LocalDateTime denominationTimestamp) {
+
+    /**
+     * The rows of a snapshot, in the order of its currencies and denominations.
+     */
+    public static List<BalanceRow> of(CashBalanceResponse snapshot) {
+        if (snapshot.getBalances() == null) {
+            return List.of();
+        }
+        List<BalanceRow> rows = new ArrayList<>();
+        snapshot.getBalances().forEach((currency, denominations) -> {
+            for (Denomination denomination : denominations) {
+                rows.add(new BalanceRow(snapshot.getTimestamp(), snapshot.getCashier(), currency,
+                        denomination.getValue(), denomination.getQuantity(), denomination.getTotalAmount(),
+                        denomination.getTimestamp()));
+            }
+        });
+        return rows;
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceCacheProperties;
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Single-flight TTL cache of the cash balance lists per (dateFrom, dateTo, cashier), and of the reports aggregated
+ * from them while streaming, per report and range.
+ * <p>
+ * Dashboards of several branches ask for the same report at the same moment; the first request of a range starts
+ * the call to cashoperations and every identical request arriving while it is in flight subscribes to the same
+ * {@link Mono} ("coalesced"). The result is then served for {@code ttlMillis}, or {@code pastTtlMillis} for ranges
+ * that ended before today. Failed calls are not cached: the waiting requests get the error, the next one retries.
+ * <p>
+ * With {@code staleWhileRevalidate}, the last good result of a range (up to {@code maxStaleMillis} old) is served
+ * instead of waiting while a refresh of the range is in flight, when the refresh fails, and while the
+ * {@link CashOperationsCircuitBreaker} is open, in which case the expired request starts a single refresh in the
+ * background. Stale results are reported to the {@link Staleness} in the subscriber context.
+ * <p>
+ * Both maps hold at most {@code maxEntries} ranges: past the bound, the expired entries and the last good results too
+ * old to be served are dropped, then the least recently used entries and the oldest last good results, down to nine
+ * tenths of the bound so the next misses do not sort the map again.
+ * <p>
+ * Exposed as {@code cashreportingservice.balance-cache.hits}, {@code .misses}, {@code .coalesced}, {@code .stale},
+ * {@code .size} and {@code .stale-ratio} (stale of all requests).
+ */
+@Component
+public class CashBalanceCache {
+
+    private final CashBalanceCacheProperties properties;
+    private final CashOperationsCircuitBreaker circuitBreaker;
+    private final LongSupplier nanoClock;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // Last good result of each range, outlives the entry for stale serving
+    private final Map<Key, LastGood> lastGood = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter stale;
+
+    @Autowired
+    public CashBalanceCache(CashBalanceCacheProperties properties, CashOperationsCircuitBreaker circuitBreaker,
+                            MeterRegistry meterRegistry) {
+        this(properties, circuitBreaker, meterRegistry, System::nanoTime);
+    }
+
+    CashBalanceCache(CashBalanceCacheProperties properties, CashOperationsCircuitBreaker circuitBreaker,
+                     MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.circuitBreaker = circuitBreaker;
+        this.nanoClock = nanoClock;
+        this.hits = Counter.builder("cashreportingservice.balance-cache.hits")
+                .description("Cash balance requests answered from a cached result")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cashreportingservice.balance-cache.misses")
+                .description("Cash balance requests that called cashoperations")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("cashreportingservice.balance-cache.coalesced")
+                .description("Cash balance requests that joined an identical call in flight")
+                .register(meterRegistry);
+        this.stale = Counter.builder("cashreportingservice.balance-cache.stale")
+                .description("Cash balance requests answered with the last good result of an expired range")
+                .register(meterRegistry);
+        Gauge.builder("cashreportingservice.balance-cache.size", entries, Map::size)
+                .description("Cash balance ranges currently cached or in flight")
+                .register(meterRegistry);
+        Gauge.builder("cashreportingservice.balance-cache.stale-ratio", this, CashBalanceCache::getStaleRatio)
+                .description("Share of the cash balance requests answered with a stale result")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cached or in-flight balances of the range, otherwise the ones {@code loader} fetches.
+     */
+    public Mono<List<CashBalanceResponse>> get(LocalDateTime dateFrom, LocalDateTime dateTo, String cashier,
+                                               Supplier<Mono<List<CashBalanceResponse>>> loader) {
+        return get("balances", dateFrom, dateTo, cashier, loader);
+    }
+
+    /**
+     * The cached or in-flight {@code view} of the range, otherwise the one {@code loader} computes.
+     *
+     * @param view what is computed from the balances of the range; one type of result per view
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> get(String view, LocalDateTime dateFrom, LocalDateTime dateTo, String cashier,
+                           Supplier<Mono<T>> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+        Key key = new Key(view, dateFrom, dateTo, cashier);
+        long now = nanoClock.getAsLong();
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.isExpired(now)) {
+            return joined(key, entry, now);
+        }
+
+        Mono<T> staleResult = circuitBreaker.isClosed() ? null : stale(key, now);
+        Entry created = new Entry(now);
+        created.result = Mono.defer(loader)
+                .doOnSuccess(result -> {
+                    long loadedAt = nanoClock.getAsLong();
+                    created.expiresAtNanos = loadedAt + TimeUnit.MILLISECONDS.toNanos(ttlMillis(dateTo));
+                    created.completed = true;
+                    if (result != null) {
+                        lastGood.put(key, new LastGood(result, loadedAt));
+                        if (lastGood.size() > properties.getMaxEntries()) {
+                            lastGood.values().removeIf(good -> isTooStale(good, loadedAt));
+                            evictOldest(lastGood, LastGood::loadedAtNanos);
+                        }
+                    }
+                })
+                .doOnError(e -> entries.remove(key, created))
+                .cache();
+        Entry current = entries.compute(key, (k, existing) ->
+                existing == null || existing.isExpired(now) ? created : existing);
+        if (current != created) {
+            // Another request created the entry in between
+            return joined(key, current, now);
+        }
+        misses.increment();
+        if (entries.size() > properties.getMaxEntries()) {
+            entries.values().removeIf(cached -> cached.isExpired(now));
+            evictOldest(entries, cached -> cached.lastUsedNanos);
+        }
+        if (staleResult != null) {
+            // Circuit open: answer now, the refresh runs in the background (and fails fast until it half-opens)
+            created.result.subscribe(result -> { }, error -> { });
+            return staleResult;
+        }
+        return withFallback(key, (Mono<T>) created.result);
+    }
+
+    /**
+     * Holder of the staleness of the results served to one subscriber, put in its context under this class.
+     */
+    public static class Staleness {
+        private volatile long maxAgeMillis = -1;
+
+        void record(long ageMillis) {
+            maxAgeMillis = Math.max(maxAgeMillis, ageMillis);
+        }
+
+        public boolean isStale() {
+            return maxAgeMillis >= 0;
+        }
+
+        /**
+         * Age of the oldest stale result served, -1 if none was stale.
+         */
+        public long getAgeMillis() {
+            return maxAgeMillis;
+        }
+    }
+
+    public double getHits() {
+        return hits.count();
+    }
+
+    public double getMisses() {
+        return misses.count();
+    }
+
+    public double getCoalesced() {
+        return coalesced.count();
+    }
+
+    public double getStale() {
+        return stale.count();
+    }
+
+    public int getSize() {
+        return entries.size();
+    }
+
+    public double getStaleRatio() {
+        double requests = hits.count() + misses.count() + coalesced.count() + stale.count();
+        return requests == 0 ? 0 : stale.count() / requests;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> joined(Key key, Entry entry, long now) {
+        entry.lastUsedNanos = now;
+        if (entry.completed) {
+            hits.increment();
+            return (Mono<T>) entry.result;
+        }
+        // A refresh is in flight: the last good result if there is one, otherwise wait for the refresh
+        Mono<T> staleResult = stale(key, now);
+        if (staleResult != null) {
+            return staleResult;
+        }
+        coalesced.increment();
+        return withFallback(key, (Mono<T>) entry.result);
+    }
+
+    private <T> Mono<T> withFallback(Key key, Mono<T> result) {
+        if (!properties.isStaleWhileRevalidate()) {
+            return result;
+        }
+        return result.onErrorResume(error -> {
+            Mono<T> staleResult = stale(key, nanoClock.getAsLong());
+            return staleResult != null ? staleResult : Mono.error(error);
+        });
+    }
+
+    /**
+     * The last good result of the range marked as stale, null if there is none young enough.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> stale(Key key, long now) {
+        LastGood good = properties.isStaleWhileRevalidate() ? lastGood.get(key) : null;
+        if (good == null || isTooStale(good, now)) {
+            return null;
+        }
+        stale.increment();
+        long ageMillis = TimeUnit.NANOSECONDS.toMillis(now - good.loadedAtNanos());
+        return Mono.deferContextual(context -> {
+            context.getOrEmpty(Staleness.class).ifPresent(staleness -> ((Staleness) staleness).record(ageMillis));
+            return Mono.just((T) good.result());
+        });
+    }
+
+    /**
+     * Drops the entries used longest ago while {@code map} holds more than nine tenths of {@code maxEntries}.
+     */
+    private <V> void evictOldest(Map<Key, V> map, ToLongFunction<V> usedAtNanos) {
+        int maxEntries = properties.getMaxEntries();
+        if (map.size() <= maxEntries) {
+            return;
+        }
+        map.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> usedAtNanos.applyAsLong(e.getValue())))
+                .limit(map.size() - (maxEntries - maxEntries / 10))
+                .toList()
+                .forEach(e -> map.remove(e.getKey(), e.getValue()));
+    }
+
+    private boolean isTooStale(LastGood good, long now) {
+        return now - good.loadedAtNanos() > TimeUnit.MILLISECONDS.toNanos(properties.getMaxStaleMillis());
+    }
+
+    private long ttlMillis(LocalDateTime dateTo) {
+        boolean past = dateTo != null && dateTo.isBefore(LocalDate.now().atStartOfDay());
+        return past ? properties.getPastTtlMillis() : properties.getTtlMillis();
+    }
+
+    private record Key(String view, LocalDateTime dateFrom, LocalDateTime dateTo, String cashier) {
+    }
+
+    private record LastGood(Object result, long loadedAtNanos) {
+    }
+
+    private static final class Entry {
+        private Mono<?> result;
+        // In flight until completed, expiry only counts from the result on
+        private volatile boolean completed;
+        private volatile long expiresAtNanos;
+        private volatile long lastUsedNanos;
+
+        private Entry(long createdAtNanos) {
+            this.lastUsedNanos = createdAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return completed && now - expiresAtNanos >= 0;
+        }
+    }
+}
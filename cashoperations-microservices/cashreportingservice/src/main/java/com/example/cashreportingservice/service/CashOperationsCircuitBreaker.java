@@ -0,0 +1,164 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashOperationsClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker of the calls to cashoperations, so an overloaded cashoperations is not kept busy by reports.
+ * <p>
+ * Closed, it records the outcome of every call; once {@code failureRateThreshold} of the last
+ * {@code slidingWindowSize} calls (and at least {@code minimumCalls}) failed, it opens and calls are rejected for
+ * {@code openMillis}. Then {@code halfOpenCalls} trial calls are let through: if all succeed it closes, a failure
+ * opens it again. Only failures that say cashoperations is unwell count (5xx, 429, connection failures, deadlines);
+ * a 4xx is a healthy answer.
+ * <p>
+ * Exposed as {@code cashreportingservice.cashoperations.circuit.state} (0 closed, 1 half-open, 2 open) and
+ * {@code cashreportingservice.cashoperations.circuit.transitions}, tagged with the state entered.
+ */
+@Slf4j
+@Component
+public class CashOperationsCircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final CashOperationsClientProperties.CircuitBreaker properties;
+    private final LongSupplier nanoClock;
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+    // Ring of the last outcomes, true for a failure
+    private final boolean[] outcomes;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAtNanos;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    @Autowired
+    public CashOperationsCircuitBreaker(CashOperationsClientProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    CashOperationsCircuitBreaker(CashOperationsClientProperties properties, MeterRegistry meterRegistry,
+                                 LongSupplier nanoClock) {
+        this.properties = properties.getCircuitBreaker();
+        this.nanoClock = nanoClock;
+        this.outcomes = new boolean[Math.max(1, this.properties.getSlidingWindowSize())];
+        for (State entered : State.values()) {
+            transitions.put(entered, Counter.builder("cashreportingservice.cashoperations.circuit.transitions")
+                    .description("Circuit breaker transitions of the calls to cashoperations")
+                    .tag("state", entered.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("cashreportingservice.cashoperations.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("Circuit breaker of the calls to cashoperations: 0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a call may be sent now; every permitted call must end with {@link #onSuccess}, {@link #onFailure}
+     * or {@link #onCancel}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(properties.getOpenMillis())) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsInFlight >= properties.getHalfOpenCalls()) {
+                return false;
+            }
+            trialsInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+            if (++trialSuccesses >= properties.getHalfOpenCalls()) {
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transition(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= properties.getMinimumCalls()
+                    && failures >= properties.getFailureRateThreshold() * recorded) {
+                transition(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * The caller lost interest before an outcome, only frees the trial slot.
+     */
+    public synchronized void onCancel() {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Calls are let through normally; false while open or half-open.
+     */
+    public boolean isClosed() {
+        return getState() == State.CLOSED;
+    }
+
+    public double getTransitions(State entered) {
+        return transitions.get(entered).count();
+    }
+
+    private void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            failures -= outcomes[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        failures += failure ? 1 : 0;
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void transition(State entered) {
+        log.info("Circuit breaker of the calls to cashoperations {} -> {}", state, entered);
+        state = entered;
+        transitions.get(entered).increment();
+        if (entered == State.OPEN) {
+            openedAtNanos = nanoClock.getAsLong();
+        }
+        // Each state starts with a fresh window and trial count
+        recorded = 0;
+        next = 0;
+        failures = 0;
+        trialsInFlight = 0;
+        trialSuccesses = 0;
+    }
+}
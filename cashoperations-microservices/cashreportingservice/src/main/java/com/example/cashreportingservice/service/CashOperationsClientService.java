@@ -1,18 +1,24 @@
 package com.example.cashreportingservice.service;
 
+import com.example.cashreportingservice.dto.BalanceEventPage;
+import com.example.cashreportingservice.dto.CashAggregateResponse;
 import com.example.cashreportingservice.dto.CashBalanceResponse;
 import com.example.cashreportingservice.dto.CashOperationResponse;
+import com.example.cashreportingservice.exception.CashOperationsException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 public class CashOperationsClientService {
@@ -20,22 +26,58 @@ public class CashOperationsClientService {
     private final WebClient webClient;
     private final String cashOperationsBaseUrl;
     private final String cashOperationsApiKey;
+    private final CashBalanceCache cashBalanceCache;
+    private final ResilientCallExecutor resilientCallExecutor;
 
+    @Autowired
     public CashOperationsClientService(WebClient.Builder webClientBuilder,
                                        @Value("${cashoperations.service.base-url}") String baseUrl,
-                                       @Value("${cashoperations.service.api-key}") String apiKey) {
+                                       @Value("${cashoperations.service.api-key}") String apiKey,
+                                       @Value("${cashoperations.service.accept}") String accept,
+                                       CashBalanceCache cashBalanceCache,
+                                       ResilientCallExecutor resilientCallExecutor) {
         this.cashOperationsBaseUrl = baseUrl;
         this.cashOperationsApiKey = apiKey;
+        this.cashBalanceCache = cashBalanceCache;
+        this.resilientCallExecutor = resilientCallExecutor;
         this.webClient = webClientBuilder
                 .baseUrl(baseUrl)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .defaultHeader(HttpHeaders.ACCEPT, accept)
                 .defaultHeader("FIB-X-AUTH", apiKey)
                 .build();
     }
 
+    /**
+     * Cash balances of the range; identical concurrent requests share one call, see {@link CashBalanceCache}.
+     */
     public Mono<List<CashBalanceResponse>> fetchCashBalances(LocalDateTime dateFrom,
                                                              LocalDateTime dateTo,
                                                              String cashier) {
+        return cashBalanceCache.get(dateFrom, dateTo, cashier,
+                () -> streamCashBalances(dateFrom, dateTo, cashier).collectList());
+    }
+
+    /**
+     * {@code view} of the cash balances of the range, folded by {@code aggregator} while the balances are decoded,
+     * so they are never all held in memory. Identical concurrent requests share one call, see
+     * {@link CashBalanceCache}.
+     *
+     * @param view names what {@code aggregator} computes, part of the cache key
+     */
+    public <T> Mono<T> aggregateCashBalances(String view, LocalDateTime dateFrom, LocalDateTime dateTo, String cashier,
+                                             Function<Flux<CashBalanceResponse>, Mono<T>> aggregator) {
+        return cashBalanceCache.get(view, dateFrom, dateTo, cashier,
+                () -> aggregator.apply(streamCashBalances(dateFrom, dateTo, cashier)));
+    }
+
+    /**
+     * Cash balances of the range, emitted one by one as the response array is decoded. Retried and bounded by the
+     * deadline until the first balance arrives, see {@link ResilientCallExecutor}.
+     */
+    public Flux<CashBalanceResponse> streamCashBalances(LocalDateTime dateFrom,
+                                                        LocalDateTime dateTo,
+                                                        String cashier) {
 
         UriComponentsBuilder uriBuilder = UriComponentsBuilder
                 .fromPath("/api/v1/cash-balance")
@@ -43,28 +85,54 @@ public class CashOperationsClientService {
                 .queryParamIfPresent("dateTo", Optional.ofNullable(dateTo))
                 .queryParamIfPresent("cashier", Optional.ofNullable(cashier));
 
-        return webClient.get()
-                .uri(uriBuilder.build().toUriString())
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
-                        clientResponse -> clientResponse.bodyToMono(String.class)
-                                .flatMap(errorBody -> Mono.error(new RuntimeException(
-                                        "Error from CashOperations service: " + errorBody))))
-                .bodyToFlux(CashBalanceResponse.class)
-                .collectList();
+        String uri = uriBuilder.build().toUriString();
+        return resilientCallExecutor.stream(() -> retrieve(webClient.get().uri(uri))
+                .bodyToFlux(CashBalanceResponse.class));
+    }
+
+    /**
+     * Totals of the range computed by cashoperations, for reports that need no denomination breakdown. Cached like
+     * the balances.
+     *
+     * @param perCashier also return the totals of each cashier
+     */
+    public Mono<CashAggregateResponse> fetchCashAggregates(LocalDateTime dateFrom,
+                                                           LocalDateTime dateTo,
+                                                           String cashier,
+                                                           boolean perCashier) {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder
+                .fromPath("/api/v1/cash-aggregates")
+                .queryParamIfPresent("dateFrom", Optional.ofNullable(dateFrom))
+                .queryParamIfPresent("dateTo", Optional.ofNullable(dateTo))
+                .queryParamIfPresent("cashier", Optional.ofNullable(cashier))
+                .queryParam("perCashier", perCashier);
+        String uri = uriBuilder.build().toUriString();
+
+        return cashBalanceCache.get(perCashier ? "aggregates-per-cashier" : "aggregates", dateFrom, dateTo, cashier,
+                () -> resilientCallExecutor.call(() -> retrieve(webClient.get().uri(uri))
+                        .bodyToMono(CashAggregateResponse.class)));
     }
 
     public Mono<CashBalanceResponse> fetchLatestCashBalance(String cashier) {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
 
-        return fetchCashBalances(startOfDay, now, cashier)
-                .flatMap(balances -> {
-                    if (balances.isEmpty()) {
-                        return Mono.empty();
-                    }
-                    return Mono.just(balances.get(balances.size() - 1));
-                });
+        // Ends now, so no two calls share a range: bypasses the cache, and only the last balance is kept
+        return streamCashBalances(startOfDay, now, cashier)
+                .takeLast(1)
+                .next();
+    }
+
+    /**
+     * Balance-change events with a sequence above {@code since}, oldest first.
+     */
+    public Mono<BalanceEventPage> fetchBalanceEvents(long since, int limit) {
+        return resilientCallExecutor.call(() -> retrieve(webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/balance-events")
+                        .queryParam("since", since)
+                        .queryParam("limit", limit)
+                        .build()))
+                .bodyToMono(BalanceEventPage.class));
     }
 
     public Mono<List<CashOperationResponse>> fetchCashOperations(LocalDateTime dateFrom,
@@ -79,15 +147,20 @@ public class CashOperationsClientService {
                 .queryParamIfPresent("cashier", Optional.ofNullable(cashier))
                 .queryParamIfPresent("operationType", Optional.ofNullable(operationType));
 
-        return webClient.get()
-                .uri(uriBuilder.build().toUriString())
-                .header("FIB-X-AUTH", cashOperationsApiKey)
-                .retrieve()
+        String uri = uriBuilder.build().toUriString();
+        return resilientCallExecutor.call(() -> retrieve(webClient.get()
+                .uri(uri)
+                .header("FIB-X-AUTH", cashOperationsApiKey))
+                .bodyToFlux(CashOperationResponse.class)
+                .collectList());
+    }
+
+    private WebClient.ResponseSpec retrieve(WebClient.RequestHeadersSpec<?> request) {
+        return request.retrieve()
                 .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
                         clientResponse -> clientResponse.bodyToMono(String.class)
-                                .flatMap(errorBody -> Mono.error(new RuntimeException(
-                                        "Error from CashOperations service: " + errorBody))))
-                .bodyToFlux(CashOperationResponse.class)
-                .collectList();
+                                .defaultIfEmpty("")
+                                .flatMap(errorBody -> Mono.error(new CashOperationsException(
+                                        clientResponse.statusCode().value(), errorBody))));
     }
 }
@@ -0,0 +1,253 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Compact column-oriented encoding of cash balances. The rows are cut into blocks of at most {@code blockRows}, each
+ * block written column after column, so the values of a column sit together and repeat little:
+ * <pre>
+ * export    := "CBX" 0x01 block* varint(0)
+ * block     := varint(rows) timestamp* cashier* currency* value* quantity* totalAmount* denominationTimestamp*
+ * timestamp := varint(0) for none, else varint(zigzag(seconds since the previous one of its column) + 1)
+ * cashier   := varint(0) for none, else varint(id); an id one above the last one is followed by the new value,
+ *              varint(length) and UTF-8 bytes
+ * value     := varint(zigzag(value))
+ * </pre>
+ * Varints are unsigned LEB128. Timestamps are UTC seconds, the first one of a column counts from the epoch; ids and
+ * previous timestamps run on across blocks, so an export is decoded from its start.
+ */
+public final class ColumnarBalanceCodec {
+
+    static final byte[] MAGIC = {'C', 'B', 'X', 1};
+
+    private ColumnarBalanceCodec() {
+    }
+
+    /**
+     * Encodes the balances a block at a time, holding at most {@code blockRows} rows.
+     */
+    public static Flux<DataBuffer> encode(Flux<CashBalanceResponse> balances, int blockRows, DataBufferFactory factory) {
+        return Flux.defer(() -> {
+            Encoder encoder = new Encoder();
+            return Flux.concat(
+                    Mono.fromSupplier(() -> factory.wrap(MAGIC.clone())),
+                    balances.concatMapIterable(BalanceRow::of)
+                            .buffer(blockRows)
+                            .map(rows -> factory.wrap(encoder.block(rows))),
+                    Mono.fromSupplier(() -> factory.wrap(new byte[]{0})));
+        });
+    }
+
+    /**
+     * Passes the rows of an export to {@code rows}, a block at a time.
+     */
+    public static void decode(InputStream in, Consumer<BalanceRow> rows) throws IOException {
+        byte[] magic = in.readNBytes(MAGIC.length);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a columnar balance export");
+        }
+        Decoder decoder = new Decoder(in);
+        for (List<BalanceRow> block = decoder.block(); block != null; block = decoder.block()) {
+            block.forEach(rows);
+        }
+    }
+
+    private static final class Encoder {
+        private final Map<String, Integer> cashiers = new HashMap<>();
+        private final Map<String, Integer> currencies = new HashMap<>();
+        private long previousTimestamp;
+        private long previousDenominationTimestamp;
+
+        private byte[] block(List<BalanceRow> rows) {
+            Output out = new Output(rows.size() * 16);
+            out.varint(rows.size());
+            for (BalanceRow row : rows) {
+                previousTimestamp = timestamp(out, row.timestamp(), previousTimestamp);
+            }
+            for (BalanceRow row : rows) {
+                string(out, row.cashier(), cashiers);
+            }
+            for (BalanceRow row : rows) {
+                string(out, row.currency(), currencies);
+            }
+            for (BalanceRow row : rows) {
+                out.varint(zigzag(row.value()));
+            }
+            for (BalanceRow row : rows) {
+                out.varint(zigzag(row.quantity()));
+            }
+            for (BalanceRow row : rows) {
+                out.varint(zigzag(row.totalAmount()));
+            }
+            for (BalanceRow row : rows) {
+                previousDenominationTimestamp = timestamp(out, row.denominationTimestamp(), previousDenominationTimestamp);
+            }
+            return out.toByteArray();
+        }
+
+        private static long timestamp(Output out, LocalDateTime timestamp, long previous) {
+            if (timestamp == null) {
+                out.varint(0);
+                return previous;
+            }
+            long seconds = timestamp.toEpochSecond(ZoneOffset.UTC);
+            out.varint(zigzag(seconds - previous) + 1);
+            return seconds;
+        }
+
+        private static void string(Output out, String value, Map<String, Integer> dictionary) {
+            if (value == null) {
+                out.varint(0);
+                return;
+            }
+            Integer id = dictionary.get(value);
+            if (id != null) {
+                out.varint(id);
+                return;
+            }
+            dictionary.put(value, dictionary.size() + 1);
+            out.varint(dictionary.size());
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.varint(bytes.length);
+            out.writeBytes(bytes);
+        }
+    }
+
+    private static final class Decoder {
+        private final InputStream in;
+        private final List<String> cashiers = new ArrayList<>();
+        private final List<String> currencies = new ArrayList<>();
+        private long previousTimestamp;
+        private long previousDenominationTimestamp;
+
+        private Decoder(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * The rows of the next block, {@code null} at the end of the export.
+         */
+        private List<BalanceRow> block() throws IOException {
+            int rows = Math.toIntExact(varint());
+            if (rows == 0) {
+                return null;
+            }
+            LocalDateTime[] timestamps = new LocalDateTime[rows];
+            for (int i = 0; i < rows; i++) {
+                timestamps[i] = timestamp(true);
+            }
+            String[] rowCashiers = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                rowCashiers[i] = string(cashiers);
+            }
+            String[] rowCurrencies = new String[rows];
+            for (int i = 0; i < rows; i++) {
+                rowCurrencies[i] = string(currencies);
+            }
+            int[][] numbers = new int[3][rows];
+            for (int[] column : numbers) {
+                for (int i = 0; i < rows; i++) {
+                    column[i] = Math.toIntExact(unzigzag(varint()));
+                }
+            }
+            List<BalanceRow> block = new ArrayList<>(rows);
+            // The denomination timestamps, the last column, are read as the rows are built
+            for (int i = 0; i < rows; i++) {
+                block.add(new BalanceRow(timestamps[i], rowCashiers[i], rowCurrencies[i], numbers[0][i], numbers[1][i],
+                        numbers[2][i], timestamp(false)));
+            }
+            return block;
+        }
+
+        private LocalDateTime timestamp(boolean snapshot) throws IOException {
+            long encoded = varint();
+            if (encoded == 0) {
+                return null;
+            }
+            long seconds = (snapshot ? previousTimestamp : previousDenominationTimestamp) + unzigzag(encoded - 1);
+            if (snapshot) {
+                previousTimestamp = seconds;
+            } else {
+                previousDenominationTimestamp = seconds;
+            }
+            return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+        }
+
+        private String string(List<String> dictionary) throws IOException {
+            int id = Math.toIntExact(varint());
+            if (id == 0) {
+                return null;
+            }
+            if (id <= dictionary.size()) {
+                return dictionary.get(id - 1);
+            }
+            if (id != dictionary.size() + 1) {
+                throw new IOException("Unknown dictionary id " + id);
+            }
+            int length = Math.toIntExact(varint());
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException();
+            }
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            dictionary.add(value);
+            return value;
+        }
+
+        private long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new EOFException();
+                }
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+
+        private Output(int size) {
+            super(size);
+        }
+
+        private void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static com.example.cashreportingservice.utils.LocalDateTimeFormatter.TIMESTAMP_FORMATTER;
+
+/**
+ * RFC 4180 CSV of cash balances: a header, then a row per denomination. Every snapshot is encoded into a buffer of its
+ * own as it is decoded, so no more than a snapshot is held in memory.
+ */
+public final class CsvBalanceEncoder {
+
+    static final String HEADER = "timestamp,cashier,currency,value,quantity,total_amount,denomination_timestamp\r\n";
+
+    private CsvBalanceEncoder() {
+    }
+
+    public static Flux<DataBuffer> encode(Flux<CashBalanceResponse> balances, DataBufferFactory factory) {
+        return Flux.concat(
+                Mono.fromSupplier(() -> factory.wrap(HEADER.getBytes(StandardCharsets.UTF_8))),
+                balances.map(CsvBalanceEncoder::rows)
+                        .filter(rows -> !rows.isEmpty())
+                        .map(rows -> factory.wrap(rows.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    static String rows(CashBalanceResponse snapshot) {
+        StringBuilder rows = new StringBuilder(128);
+        for (BalanceRow row : BalanceRow.of(snapshot)) {
+            timestamp(rows, row.timestamp()).append(',');
+            field(rows, row.cashier()).append(',');
+            field(rows, row.currency()).append(',');
+            rows.append(row.value()).append(',')
+                    .append(row.quantity()).append(',')
+                    .append(row.totalAmount()).append(',');
+            timestamp(rows, row.denominationTimestamp()).append("\r\n");
+        }
+        return rows.toString();
+    }
+
+    private static StringBuilder timestamp(StringBuilder rows, LocalDateTime timestamp) {
+        return timestamp == null ? rows : rows.append(TIMESTAMP_FORMATTER.format(timestamp));
+    }
+
+    private static StringBuilder field(StringBuilder rows, String value) {
+        if (value == null) {
+            return rows;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\r') < 0 && value.indexOf('\n') < 0) {
+            return rows.append(value);
+        }
+        return rows.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
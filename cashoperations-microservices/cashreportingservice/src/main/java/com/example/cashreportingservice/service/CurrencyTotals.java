@@ -0,0 +1,162 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.dto.Denomination;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Per-currency sums of the denomination amounts of cash balance snapshots, kept as {@code long}s.
+ * <p>
+ * The snapshots only carry whole banknote amounts, so the sums are exact integers and {@link BigDecimal}s are
+ * created once per currency when a report is built ({@link #toMap()}) instead of once per denomination. A report
+ * has a handful of currencies, so they are looked up by a linear scan of a small array rather than hashed.
+ * Inputs of more than {@link #PARALLEL_THRESHOLD} snapshots (many cashiers, long ranges) are split in halves and
+ * summed on the common fork/join pool. Streamed snapshots are folded into a new instance one by one with
+ * {@link #add}.
+ */
+public final class CurrencyTotals {
+
+    // Below this, splitting costs more than summing on the calling thread
+    static final int PARALLEL_THRESHOLD = 2048;
+
+    private String[] currencies = new String[4];
+    private long[] amounts = new long[4];
+    private int size;
+
+    /**
+     * Sums {@code balances}, in parallel above {@link #PARALLEL_THRESHOLD} snapshots.
+     */
+    public static CurrencyTotals of(List<CashBalanceResponse> balances) {
+        if (balances.size() <= PARALLEL_THRESHOLD) {
+            return sequential(balances);
+        }
+        List<CashBalanceResponse> indexed = balances instanceof RandomAccess ? balances : new ArrayList<>(balances);
+        return ForkJoinPool.commonPool().invoke(new SumTask(indexed, 0, indexed.size()));
+    }
+
+    /**
+     * Sums {@code balances} on the calling thread.
+     */
+    public static CurrencyTotals sequential(List<CashBalanceResponse> balances) {
+        CurrencyTotals totals = new CurrencyTotals();
+        for (CashBalanceResponse balance : balances) {
+            totals.add(balance);
+        }
+        return totals;
+    }
+
+    /**
+     * Adds the denominations of one snapshot.
+     *
+     * @return this
+     */
+    public CurrencyTotals add(CashBalanceResponse balance) {
+        Map<String, List<Denomination>> perCurrency = balance.getBalances();
+        if (perCurrency == null) {
+            return this;
+        }
+        for (Map.Entry<String, List<Denomination>> entry : perCurrency.entrySet()) {
+            long sum = 0;
+            for (Denomination denomination : entry.getValue()) {
+                sum += denomination.getTotalAmount();
+            }
+            // indexOf may grow the arrays, so it runs before amounts is read
+            int index = indexOf(entry.getKey());
+            amounts[index] += sum;
+        }
+        return this;
+    }
+
+    private void merge(CurrencyTotals other) {
+        for (int i = 0; i < other.size; i++) {
+            int index = indexOf(other.currencies[i]);
+            amounts[index] += other.amounts[i];
+        }
+    }
+
+    private int indexOf(String currency) {
+        for (int i = 0; i < size; i++) {
+            if (currencies[i].equals(currency)) {
+                return i;
+            }
+        }
+        if (size == currencies.length) {
+            currencies = Arrays.copyOf(currencies, size * 2);
+            amounts = Arrays.copyOf(amounts, size * 2);
+        }
+        currencies[size] = currency;
+        return size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Sum of one currency, 0 if it did not occur.
+     */
+    public long get(String currency) {
+        for (int i = 0; i < size; i++) {
+            if (currencies[i].equals(currency)) {
+                return amounts[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Sum over all currencies, as the reports state it.
+     */
+    public BigDecimal total() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += amounts[i];
+        }
+        return BigDecimal.valueOf(total);
+    }
+
+    /**
+     * The sums by currency code.
+     */
+    public Map<String, BigDecimal> toMap() {
+        Map<String, BigDecimal> map = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(currencies[i], BigDecimal.valueOf(amounts[i]));
+        }
+        return map;
+    }
+
+    private static final class SumTask extends RecursiveTask<CurrencyTotals> {
+        private final List<CashBalanceResponse> balances;
+        private final int from;
+        private final int to;
+
+        private SumTask(List<CashBalanceResponse> balances, int from, int to) {
+            this.balances = balances;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CurrencyTotals compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return sequential(balances.subList(from, to));
+            }
+            int middle = (from + to) >>> 1;
+            SumTask right = new SumTask(balances, middle, to);
+            right.fork();
+            CurrencyTotals totals = new SumTask(balances, from, middle).compute();
+            totals.merge(right.join());
+            return totals;
+        }
+    }
+}
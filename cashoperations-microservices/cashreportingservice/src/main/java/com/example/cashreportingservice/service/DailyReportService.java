@@ -0,0 +1,290 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashAggregateResponse;
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.example.cashreportingservice.dto.HistoricalReportProperties;
+import com.example.cashreportingservice.repository.HistoricalReportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Daily and currency summaries, from the cheapest source that can answer.
+ * <p>
+ * Past days never change once finalized ({@code finalizeDelayMillis} after their end): they are read from the
+ * {@link HistoricalReportRepository} with one primary key lookup. A finalized day missing from the store is computed
+ * once and written in the background (not if the result was stale). Other days are answered from the fresh
+ * {@link ReportViews}, otherwise from the totals cashoperations computes, or folded from the streamed balances when
+ * {@code cashoperations.service.aggregate-push-down} is off.
+ * <p>
+ * Exposed as {@code cashreportingservice.history.hits}, {@code .backfills} and {@code .finalized}; store lookups and
+ * reports computed from the totals are observed as the {@code history} and {@code compute} {@link PipelineStages}.
+ */
+@Slf4j
+@Service
+public class DailyReportService {
+
+    private static final Duration FINALIZE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final CashOperationsClientService cashOperationsClient;
+    private final SummaryReportService summaryReportService;
+    private final ReportViews reportViews;
+    private final HistoricalReportRepository historicalReports;
+    private final HistoricalReportProperties properties;
+    private final PipelineStages stages;
+    // Summaries from the totals cashoperations computes; off for cashoperations versions without /cash-aggregates
+    private final boolean aggregatePushDown;
+    private final Counter hits;
+    private final Counter backfills;
+    private final Counter finalized;
+
+    public DailyReportService(CashOperationsClientService cashOperationsClient, SummaryReportService summaryReportService,
+                              ReportViews reportViews, HistoricalReportRepository historicalReports,
+                              HistoricalReportProperties properties, PipelineStages stages, MeterRegistry meterRegistry,
+                              @Value("${cashoperations.service.aggregate-push-down:true}") boolean aggregatePushDown) {
+        this.cashOperationsClient = cashOperationsClient;
+        this.summaryReportService = summaryReportService;
+        this.reportViews = reportViews;
+        this.historicalReports = historicalReports;
+        this.properties = properties;
+        this.stages = stages;
+        this.aggregatePushDown = aggregatePushDown;
+        this.hits = Counter.builder("cashreportingservice.history.hits")
+                .description("Reports of past days answered from the historical report store")
+                .register(meterRegistry);
+        this.backfills = Counter.builder("cashreportingservice.history.backfills")
+                .description("Reports of past days computed on request because the store missed them")
+                .register(meterRegistry);
+        this.finalized = Counter.builder("cashreportingservice.history.finalized")
+                .description("Daily summaries finalized into the historical report store")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Daily summary of {@code cashier} (all cashiers if null) on {@code date}.
+     */
+    public Mono<DailySummaryReport> dailySummary(LocalDate date, String cashier) {
+        if (!isFinal(date)) {
+            return computeDailySummary(date, cashier);
+        }
+        return history(() -> historicalReports.find(date, key(cashier))).flatMap(stored -> {
+            if (stored.isPresent()) {
+                hits.increment();
+                stored.get().setCashier(cashier != null ? cashier : HistoricalReportRepository.ALL);
+                return Mono.just(stored.get());
+            }
+            return backfilled(date, computeDailySummary(date, cashier), List::of);
+        });
+    }
+
+    /**
+     * Stock value per currency at the end of {@code date}.
+     */
+    public Mono<Map<String, BigDecimal>> currencySummary(LocalDate date) {
+        if (!isFinal(date)) {
+            return computeCurrencySummary(date);
+        }
+        // The currency summary is the breakdown of the daily summary over all cashiers
+        return history(() -> historicalReports.find(date, HistoricalReportRepository.ALL)).flatMap(stored -> {
+            if (stored.isPresent()) {
+                hits.increment();
+                return Mono.just(stored.get().getCurrencyBreakdown());
+            }
+            return backfilled(date, computeDailySummary(date, null), List::of)
+                    .<Map<String, BigDecimal>>map(report -> report.getCurrencyBreakdown() != null
+                            ? report.getCurrencyBreakdown() : new TreeMap<>())
+                    .defaultIfEmpty(new TreeMap<>());
+        });
+    }
+
+    /**
+     * Whether {@code date} ended more than {@code finalizeDelayMillis} ago, so its reports no longer change.
+     */
+    public boolean isFinal(LocalDate date) {
+        return properties.isEnabled() && LocalDateTime.now().isAfter(
+                date.plusDays(1).atStartOfDay().plus(Duration.ofMillis(properties.getFinalizeDelayMillis())));
+    }
+
+    /**
+     * Daily summaries of {@code date} over all cashiers ({@code ALL}, first) and per cashier, the per-cashier ones
+     * only if the views or cashoperations can break the day down. Empty if the day had no cash balances.
+     */
+    public Mono<List<DailySummaryReport>> daySummaries(LocalDate date) {
+        if (!isFinal(date)) {
+            return computeDay(date);
+        }
+        return history(() -> historicalReports.findDay(date)).flatMap(stored -> {
+            if (!stored.isEmpty()) {
+                hits.increment();
+                return Mono.just(stored);
+            }
+            return backfilled(date, computeDay(date), reports -> reports);
+        });
+    }
+
+    /**
+     * Computes and stores the daily summaries of {@code date}, over all cashiers and per cashier. Blocks.
+     *
+     * @return number of summaries stored, 0 if the day had no cash balances
+     */
+    public int finalizeDay(LocalDate date) {
+        CashBalanceCache.Staleness staleness = new CashBalanceCache.Staleness();
+        List<DailySummaryReport> reports = computeDay(date)
+                .contextWrite(Context.of(CashBalanceCache.Staleness.class, staleness))
+                .blockOptional(FINALIZE_TIMEOUT)
+                .orElse(List.of());
+        if (staleness.isStale()) {
+            throw new IllegalStateException("Only stale cash balances for " + date + ", finalized later");
+        }
+        if (!reports.isEmpty()) {
+            historicalReports.saveAll(date, reports);
+            finalized.increment(reports.size());
+        }
+        return reports.size();
+    }
+
+    public double getHits() {
+        return hits.count();
+    }
+
+    public double getBackfills() {
+        return backfills.count();
+    }
+
+    private Mono<DailySummaryReport> computeDailySummary(LocalDate date, String cashier) {
+        // Answered from the event-sourced views while they are fresh, recomputed from the balances otherwise
+        Optional<DailySummaryReport> fromViews = reportViews.dailySummary(date, cashier);
+        if (fromViews.isPresent()) {
+            return Mono.just(fromViews.get());
+        }
+
+        LocalDateTime startOfDay = date.atStartOfDay();
+        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+
+        // Totals computed by cashoperations, or folded here while the balances stream in
+        return aggregatePushDown
+                ? cashOperationsClient.fetchCashAggregates(startOfDay, endOfDay, cashier, false)
+                        .transform(stages.map(PipelineStages.COMPUTE,
+                                aggregates -> summaryReportService.generateDailySummaryReport(aggregates, cashier)))
+                : cashOperationsClient.aggregateCashBalances("daily-summary", startOfDay, endOfDay, cashier,
+                        balances -> summaryReportService.aggregateDailySummaryReport(balances, cashier));
+    }
+
+    private Mono<Map<String, BigDecimal>> computeCurrencySummary(LocalDate date) {
+        Optional<Map<String, BigDecimal>> fromViews = reportViews.currencySummary(date);
+        if (fromViews.isPresent()) {
+            return Mono.just(fromViews.get());
+        }
+
+        LocalDateTime startOfDay = date.atStartOfDay();
+        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
+
+        return aggregatePushDown
+                ? cashOperationsClient.fetchCashAggregates(startOfDay, endOfDay, null, false)
+                        .transform(stages.map(PipelineStages.COMPUTE, summaryReportService::generateCurrencySummary))
+                : cashOperationsClient.aggregateCashBalances("currency-summary", startOfDay, endOfDay, null,
+                        summaryReportService::aggregateCurrencySummary);
+    }
+
+    private Mono<List<DailySummaryReport>> computeDay(LocalDate date) {
+        Mono<List<DailySummaryReport>> computed;
+        Optional<Set<String>> cashiers = reportViews.cashiers(date);
+        if (cashiers.isPresent()) {
+            List<DailySummaryReport> reports = new ArrayList<>();
+            reportViews.dailySummary(date, null).ifPresent(reports::add);
+            for (String cashier : cashiers.get()) {
+                reportViews.dailySummary(date, cashier).ifPresent(reports::add);
+            }
+            computed = Mono.just(reports);
+        } else if (aggregatePushDown) {
+            computed = cashOperationsClient.fetchCashAggregates(date.atStartOfDay(), date.atTime(LocalTime.MAX), null, true)
+                    .transform(stages.map(PipelineStages.COMPUTE, this::toDailySummaries));
+        } else {
+            computed = computeDailySummary(date, null).map(List::of);
+        }
+        // Days without cash balances have nothing to report
+        return computed.map(reports -> reports.stream().filter(report -> report.getDate() != null).toList())
+                .filter(reports -> !reports.isEmpty());
+    }
+
+    /**
+     * Stores the summaries computed for a finalized day without holding up the response. Summaries computed from
+     * stale balances are only passed on, with their staleness.
+     */
+    private <T> Mono<T> backfilled(LocalDate date, Mono<T> computed, Function<T, List<DailySummaryReport>> reportsOf) {
+        return Mono.deferContextual(context -> {
+            CashBalanceCache.Staleness staleness = new CashBalanceCache.Staleness();
+            return computed
+                    .contextWrite(Context.of(CashBalanceCache.Staleness.class, staleness))
+                    .doOnNext(result -> {
+                        List<DailySummaryReport> reports = reportsOf.apply(result).stream()
+                                .filter(report -> report.getDate() != null)
+                                .toList();
+                        if (staleness.isStale()) {
+                            context.<CashBalanceCache.Staleness>getOrEmpty(CashBalanceCache.Staleness.class)
+                                    .ifPresent(outer -> outer.record(staleness.getAgeMillis()));
+                        } else if (!reports.isEmpty()) {
+                            backfills.increment();
+                            Schedulers.boundedElastic().schedule(() -> store(date, reports));
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Store lookup, run on subscription by the subscribing thread: a request thread, or bounded elastic for ranges.
+     */
+    private <T> Mono<T> history(Supplier<T> lookup) {
+        return stages.observe(PipelineStages.HISTORY, Mono.fromSupplier(lookup));
+    }
+
+    private void store(LocalDate date, List<DailySummaryReport> reports) {
+        try {
+            historicalReports.saveAll(date, reports);
+        } catch (RuntimeException e) {
+            // Computed again with the next request of that day
+            log.warn("Failed to store {} daily summaries of {}: {}", reports.size(), date, e.toString());
+        }
+    }
+
+    private List<DailySummaryReport> toDailySummaries(CashAggregateResponse aggregates) {
+        List<DailySummaryReport> reports = new ArrayList<>();
+        reports.add(summaryReportService.generateDailySummaryReport(aggregates, null));
+        if (aggregates.getCashiers() != null) {
+            aggregates.getCashiers().forEach((cashier, totals) -> {
+                CashAggregateResponse ofCashier = new CashAggregateResponse();
+                ofCashier.setTimestamp(aggregates.getTimestamp());
+                ofCashier.setCashierCount(1);
+                ofCashier.setCurrencyTotals(totals.getCurrencyTotals());
+                ofCashier.setDeposits(totals.getDeposits());
+                ofCashier.setWithdrawals(totals.getWithdrawals());
+                reports.add(summaryReportService.generateDailySummaryReport(ofCashier, cashier));
+            });
+        }
+        return reports;
+    }
+
+    private static String key(String cashier) {
+        return cashier != null ? cashier.toUpperCase(Locale.ROOT) : HistoricalReportRepository.ALL;
+    }
+}
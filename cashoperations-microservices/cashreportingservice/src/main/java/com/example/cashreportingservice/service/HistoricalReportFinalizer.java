@@ -0,0 +1,91 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.HistoricalReportProperties;
+import com.example.cashreportingservice.repository.HistoricalReportRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finalizes the daily summaries of each day into the {@link HistoricalReportRepository} shortly after midnight.
+ * <p>
+ * Every {@code checkIntervalMillis} a single thread looks at yesterday and the {@code backfillDays} before it, and
+ * finalizes those that are final but not stored yet, so days missed while the service was down or cashoperations was
+ * unavailable are caught up. A day is tried again on the next check if it failed.
+ */
+@Slf4j
+@Component
+public class HistoricalReportFinalizer {
+
+    private final DailyReportService dailyReportService;
+    private final HistoricalReportRepository historicalReports;
+    private final HistoricalReportProperties properties;
+    // Days stored or found without cash balances, not looked at again
+    private final Set<LocalDate> settled = new HashSet<>();
+
+    private ScheduledExecutorService finalizer;
+
+    public HistoricalReportFinalizer(DailyReportService dailyReportService, HistoricalReportRepository historicalReports,
+                                     HistoricalReportProperties properties) {
+        this.dailyReportService = dailyReportService;
+        this.historicalReports = historicalReports;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        finalizer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("historical-report-finalizer").daemon().factory());
+        long interval = properties.getCheckIntervalMillis();
+        finalizer.scheduleWithFixedDelay(this::run, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (finalizer == null) {
+            return;
+        }
+        finalizer.shutdown();
+        finalizer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Finalizes the days of the window that are final and not stored yet.
+     *
+     * @return number of days finalized
+     */
+    synchronized int run() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate oldest = yesterday.minusDays(properties.getBackfillDays());
+        settled.removeIf(day -> day.isBefore(oldest));
+        int finalizedDays = 0;
+        for (LocalDate day = oldest; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            if (settled.contains(day) || !dailyReportService.isFinal(day)) {
+                continue;
+            }
+            try {
+                if (!historicalReports.exists(day, HistoricalReportRepository.ALL)) {
+                    int reports = dailyReportService.finalizeDay(day);
+                    log.info("Finalized {} daily summaries of {}", reports, day);
+                    finalizedDays++;
+                }
+                settled.add(day);
+            } catch (RuntimeException e) {
+                // Reports of the day are computed on request meanwhile, tried again with the next check
+                log.warn("Failed to finalize the daily summaries of {}: {}", day, e.toString());
+            }
+        }
+        return finalizedDays;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.cashreportingservice.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * KLL quantile sketch (Karnin, Lang, Liberty) of a stream of doubles.
+ * <p>
+ * Items are kept in levels of compactors; an item on level {@code h} stands for {@code 2^h} stream items. A full
+ * level is sorted and every other item, starting at a random offset, is promoted to the level above. Level
+ * capacities shrink by 2/3 from the top down, so the sketch holds about {@code 3k} items whatever the stream length,
+ * and the rank of a returned quantile is off by about {@link #rankError()} of the stream length. Sketches of the
+ * same {@code k} merge level by level.
+ * <p>
+ * Not thread-safe.
+ */
+public class KllSketch {
+
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 8;
+
+    private final int k;
+    private final SplittableRandom random;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public KllSketch(int k) {
+        this(k, new SplittableRandom());
+    }
+
+    KllSketch(int k, SplittableRandom random) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY);
+        }
+        this.k = k;
+        this.random = random;
+        this.levels[0] = new double[k];
+    }
+
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        count++;
+        append(0, value);
+        compress();
+    }
+
+    /**
+     * Adds {@code other} to this sketch.
+     */
+    public void merge(KllSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches of k " + k + " and " + other.k);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        compress();
+    }
+
+    public KllSketch copy() {
+        KllSketch copy = new KllSketch(k, random.split());
+        copy.merge(this);
+        return copy;
+    }
+
+    /**
+     * Value at normalized rank {@code q} (0 = minimum, 1 = maximum), NaN for an empty sketch.
+     */
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q <= 0) {
+            return min;
+        }
+        if (q >= 1) {
+            return max;
+        }
+        int retained = 0;
+        for (int size : sizes) {
+            retained += size;
+        }
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        int next = 0;
+        for (int level = 0; level < levels.length; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                values[next] = levels[level][i];
+                weights[next++] = 1L << level;
+            }
+        }
+        Integer[] order = new Integer[retained];
+        for (int i = 0; i < retained; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        double target = q * count;
+        long cumulative = 0;
+        for (int index : order) {
+            cumulative += weights[index];
+            if (cumulative >= target) {
+                return values[index];
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * Normalized rank error of a single quantile at 99% confidence, as fitted for KLL by Apache DataSketches.
+     */
+    public double rankError() {
+        return 2.296 / Math.pow(k, 0.9723);
+    }
+
+    private void append(int level, double value) {
+        if (level >= levels.length) {
+            // A merged sketch may skip levels that the other one has emptied
+            int height = levels.length;
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            for (int added = height; added <= level; added++) {
+                levels[added] = new double[capacity(added)];
+            }
+        }
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_CAPACITY, sizes[level] * 2));
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    private int capacity(int level) {
+        int depth = levels.length - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void compress() {
+        boolean compacted = true;
+        while (compacted) {
+            compacted = false;
+            for (int level = 0; level < levels.length; level++) {
+                if (sizes[level] >= capacity(level)) {
+                    compact(level);
+                    compacted = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        // An odd item out stays on this level
+        int paired = size - (size & 1);
+        int offset = random.nextInt(2);
+        int kept = size - paired;
+        double leftover = kept == 1 ? items[size - 1] : 0;
+        sizes[level] = 0;
+        for (int i = offset; i < paired; i += 2) {
+            append(level + 1, items[i]);
+        }
+        // append() may have replaced the levels array, not the level itself
+        if (kept == 1) {
+            levels[level][sizes[level]++] = leftover;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.AnalyticsProperties;
+import com.example.cashreportingservice.dto.BalanceEvent;
+import com.example.cashreportingservice.dto.OperationQuantilesReport;
+import com.example.cashreportingservice.dto.TopCashiersReport;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Top cashiers and operation amount quantiles, maintained from the balance events as they are applied to the
+ * {@link ReportViews} instead of sorting balance lists per request.
+ * <p>
+ * Every day keeps a {@link SpaceSavingSketch} of operations per cashier, one of volume per cashier and currency, and a
+ * {@link KllSketch} of amounts per currency. A query merges the sketches of its days, so it costs the same for a
+ * quiet or a busy day, and its answer carries the error bounds of the sketches. Sketches merge the same way across
+ * instances. They are in memory only and cover the events applied since the service started.
+ */
+@Component
+public class OperationAnalytics {
+
+    static final String OPERATIONS = "operations";
+
+    private final AnalyticsProperties properties;
+    private final Map<LocalDate, DaySketches> days = new HashMap<>();
+    private long lastEventId;
+
+    public OperationAnalytics(AnalyticsProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Adds an applied event; events at or below the last recorded id are duplicates and skipped.
+     */
+    public synchronized void record(BalanceEvent event) {
+        if (!properties.isEnabled() || event.getId() <= lastEventId || event.getOccurredAt() == null) {
+            return;
+        }
+        lastEventId = event.getId();
+        LocalDate day = event.getOccurredAt().toLocalDate();
+        LocalDate cutoff = LocalDate.now().minusDays(properties.getRetentionDays());
+        if (day.isBefore(cutoff)) {
+            return;
+        }
+        DaySketches sketches = days.get(day);
+        if (sketches == null) {
+            days.keySet().removeIf(retained -> retained.isBefore(cutoff));
+            sketches = new DaySketches();
+            days.put(day, sketches);
+        }
+        String cashier = event.getCashier().toUpperCase(Locale.ROOT);
+        sketches.operations.update(cashier, 1);
+        if (event.getAmount() != null && event.getCurrency() != null) {
+            double amount = event.getAmount().doubleValue();
+            sketches.volume.computeIfAbsent(event.getCurrency(), c -> new SpaceSavingSketch(properties.getHeavyHitterCapacity()))
+                    .update(cashier, amount);
+            sketches.amounts.computeIfAbsent(event.getCurrency(), c -> new KllSketch(properties.getQuantileK()))
+                    .update(amount);
+        }
+    }
+
+    /**
+     * Drops every sketch and the last recorded id, for an event log that restarted its ids: the events recorded so far
+     * belong to the previous log and the new ones would otherwise be skipped as duplicates.
+     */
+    public synchronized void reset() {
+        days.clear();
+        lastEventId = 0;
+    }
+
+    /**
+     * The {@code limit} cashiers with the most operations, or with the largest volume in {@code currency}.
+     */
+    public synchronized TopCashiersReport topCashiers(LocalDate from, LocalDate to, String currency, int limit) {
+        validate(from, to);
+        if (limit < 1 || limit > properties.getHeavyHitterCapacity()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + properties.getHeavyHitterCapacity());
+        }
+        SpaceSavingSketch merged = merge(from, to,
+                sketches -> currency == null ? sketches.operations : sketches.volume.get(currency),
+                SpaceSavingSketch::copy, SpaceSavingSketch::merge);
+        if (merged == null) {
+            merged = new SpaceSavingSketch(properties.getHeavyHitterCapacity());
+        }
+
+        TopCashiersReport report = new TopCashiersReport();
+        report.setFrom(from.toString());
+        report.setTo(to.toString());
+        report.setRankedBy(currency == null ? OPERATIONS : currency);
+        report.setTotal(decimal(merged.getTotalWeight()));
+        report.setMaxError(decimal(merged.maxError()));
+        for (SpaceSavingSketch.HeavyHitter hitter : merged.top(limit)) {
+            TopCashiersReport.Entry entry = new TopCashiersReport.Entry();
+            entry.setCashier(hitter.key());
+            entry.setEstimate(decimal(hitter.estimate()));
+            entry.setLowerBound(decimal(hitter.estimate() - hitter.error()));
+            entry.setGuaranteed(hitter.guaranteed());
+            report.getCashiers().add(entry);
+        }
+        return report;
+    }
+
+    /**
+     * Amount quantiles of the operations in {@code currency}.
+     */
+    public synchronized OperationQuantilesReport quantiles(LocalDate from, LocalDate to, String currency,
+                                                           List<Double> quantiles) {
+        validate(from, to);
+        for (double q : quantiles) {
+            if (!(q >= 0 && q <= 1)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Quantiles must be between 0 and 1");
+            }
+        }
+        KllSketch merged = merge(from, to, sketches -> sketches.amounts.get(currency), KllSketch::copy, KllSketch::merge);
+        if (merged == null) {
+            merged = new KllSketch(properties.getQuantileK());
+        }
+
+        OperationQuantilesReport report = new OperationQuantilesReport();
+        report.setFrom(from.toString());
+        report.setTo(to.toString());
+        report.setCurrency(currency);
+        report.setOperations(merged.getCount());
+        report.setRankError(merged.rankError());
+        Map<String, BigDecimal> values = new LinkedHashMap<>();
+        if (merged.getCount() > 0) {
+            report.setMin(decimal(merged.getMin()));
+            report.setMax(decimal(merged.getMax()));
+            for (double q : quantiles) {
+                values.put(Double.toString(q), decimal(merged.quantile(q)));
+            }
+        }
+        report.setQuantiles(values);
+        return report;
+    }
+
+    private <S> S merge(LocalDate from, LocalDate to, Function<DaySketches, S> sketch, Function<S, S> copy,
+                        Merger<S> merger) {
+        S merged = null;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DaySketches sketches = days.get(day);
+            S daySketch = sketches != null ? sketch.apply(sketches) : null;
+            if (daySketch == null) {
+                continue;
+            }
+            if (merged == null) {
+                merged = copy.apply(daySketch);
+            } else {
+                merger.merge(merged, daySketch);
+            }
+        }
+        return merged;
+    }
+
+    private void validate(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        if (from.isBefore(LocalDate.now().minusDays(properties.getRetentionDays()))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Analytics are kept for the last " + properties.getRetentionDays() + " days");
+        }
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private interface Merger<S> {
+        void merge(S into, S other);
+    }
+
+    private final class DaySketches {
+        private final SpaceSavingSketch operations = new SpaceSavingSketch(properties.getHeavyHitterCapacity());
+        private final Map<String, SpaceSavingSketch> volume = new HashMap<>();
+        private final Map<String, KllSketch> amounts = new HashMap<>();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.cashreportingservice.service;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.Function;
+
+/**
+ * Micrometer observations of the stages of the report pipelines, so a slow report can be put down to the store
+ * lookups, the call to cashoperations, the decoding of its response or the computation of the report.
+ * <p>
+ * A stage is an observation {@code cashreportingservice.pipeline.stage} tagged with its {@code stage} and the
+ * {@code pipeline} it runs in, read from the subscriber context ({@link #pipeline(String)}, {@code background} for
+ * the view synchronizer and the finalizer). The meter handler records it as a timer of the same name with an
+ * {@code error} tag, and as an {@code .active} long task timer of the stages in flight. The breakdown per pipeline is
+ * on {@code /actuator/pipelines}.
+ */
+@Component
+public class PipelineStages {
+
+    public static final String OBSERVATION = "cashreportingservice.pipeline.stage";
+    public static final String BACKGROUND = "background";
+
+    /** The whole request, from subscription to response. */
+    public static final String TOTAL = "total";
+    /** Lookups in the historical report store. */
+    public static final String HISTORY = "history";
+    /** A call to cashoperations until its response headers, per attempt. */
+    public static final String EXCHANGE = "exchange";
+    /** Reading and decoding a response body, and folding it when the balances are aggregated while streaming. */
+    public static final String DECODE = "decode";
+    /** Reports computed from the totals of cashoperations. */
+    public static final String COMPUTE = "compute";
+
+    private static final String PIPELINE_KEY = PipelineStages.class.getName() + ".pipeline";
+
+    private final ObservationRegistry registry;
+
+    public PipelineStages(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Context naming the pipeline of the stages below it.
+     */
+    public static Context pipeline(String name) {
+        return Context.of(PIPELINE_KEY, name);
+    }
+
+    public <T> Mono<T> observe(String stage, Mono<T> source) {
+        return Mono.deferContextual(context -> {
+            Observation observation = create(stage, context).start();
+            return source.doOnError(observation::error)
+                    .doFinally(signal -> observation.stop());
+        });
+    }
+
+    public <T> Flux<T> observe(String stage, Flux<T> source) {
+        return Flux.deferContextual(context -> {
+            Observation observation = create(stage, context).start();
+            return source.doOnError(observation::error)
+                    .doFinally(signal -> observation.stop());
+        });
+    }
+
+    /**
+     * {@link Mono#map} observed as {@code stage}, for use with {@link Mono#transform}.
+     */
+    public <T, R> Function<Mono<T>, Mono<R>> map(String stage, Function<? super T, ? extends R> mapper) {
+        return source -> source.transformDeferredContextual((mono, context) ->
+                mono.map(value -> create(stage, context).observe(() -> mapper.apply(value))));
+    }
+
+    /**
+     * Observes the {@link #EXCHANGE} and {@link #DECODE} stages of every call of a {@code WebClient}.
+     */
+    public ExchangeFilterFunction exchangeFilter() {
+        return (request, next) -> observe(EXCHANGE, next.exchange(request))
+                .map(response -> response.mutate()
+                        .body(body -> observe(DECODE, body))
+                        .build());
+    }
+
+    /**
+     * The observation of {@code stage}, not started yet: {@link Observation#observe} starts and stops it itself.
+     */
+    private Observation create(String stage, ContextView context) {
+        return Observation.createNotStarted(OBSERVATION, registry)
+                .lowCardinalityKeyValue("pipeline", context.getOrDefault(PIPELINE_KEY, BACKGROUND))
+                .lowCardinalityKeyValue("stage", stage);
+    }
+}
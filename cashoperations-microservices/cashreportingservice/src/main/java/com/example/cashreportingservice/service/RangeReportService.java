@@ -0,0 +1,95 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.example.cashreportingservice.dto.RangeSummaryProperties;
+import com.example.cashreportingservice.dto.RangeSummaryReport;
+import com.example.cashreportingservice.repository.HistoricalReportRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summaries of multi-day ranges, grouped per day, ISO week or cashier.
+ * <p>
+ * The range is split into days fetched through {@link DailyReportService}, at most {@code concurrency} at a time:
+ * finalized days are store lookups, the others go to cashoperations (and are cached there). Each day becomes one
+ * {@link RangeTotals} per group, merged into the groups as the days arrive.
+ */
+@Service
+public class RangeReportService {
+
+    public enum GroupBy { DAY, WEEK, CASHIER }
+
+    private final DailyReportService dailyReportService;
+    private final RangeSummaryProperties properties;
+
+    public RangeReportService(DailyReportService dailyReportService, RangeSummaryProperties properties) {
+        this.dailyReportService = dailyReportService;
+        this.properties = properties;
+    }
+
+    public Mono<RangeSummaryReport> rangeSummary(LocalDate from, LocalDate to, GroupBy groupBy) {
+        if (to.isBefore(from)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to"));
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= properties.getMaxDays()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range longer than " + properties.getMaxDays() + " days"));
+        }
+        // Store lookups block, so days are fetched off the event loop that completes the calls
+        return Flux.fromStream(from.datesUntil(to.plusDays(1)))
+                .flatMap(day -> Mono.defer(() -> partials(day, groupBy)).subscribeOn(Schedulers.boundedElastic()),
+                        properties.getConcurrency())
+                .reduceWith(TreeMap<String, RangeTotals>::new, (groups, partials) -> {
+                    partials.forEach((key, totals) -> groups.merge(key, totals, RangeTotals::merge));
+                    return groups;
+                })
+                .map(groups -> toReport(from, to, groupBy, groups));
+    }
+
+    private Mono<Map<String, RangeTotals>> partials(LocalDate day, GroupBy groupBy) {
+        if (groupBy != GroupBy.CASHIER) {
+            String key = groupBy == GroupBy.DAY ? day.toString() : isoWeek(day);
+            return dailyReportService.dailySummary(day, null)
+                    .filter(report -> report.getDate() != null)
+                    .map(report -> Map.of(key, RangeTotals.of(day, report)));
+        }
+        return dailyReportService.daySummaries(day).map(reports -> {
+            // The summary over all cashiers only when the day cannot be broken down
+            List<DailySummaryReport> perCashier = reports.size() > 1
+                    ? reports.stream().filter(report -> !HistoricalReportRepository.ALL.equals(report.getCashier())).toList()
+                    : reports;
+            Map<String, RangeTotals> partials = new TreeMap<>();
+            perCashier.forEach(report -> partials.merge(report.getCashier().toUpperCase(Locale.ROOT),
+                    RangeTotals.of(day, report), RangeTotals::merge));
+            return partials;
+        });
+    }
+
+    private static RangeSummaryReport toReport(LocalDate from, LocalDate to, GroupBy groupBy,
+                                               Map<String, RangeTotals> groups) {
+        RangeSummaryReport report = new RangeSummaryReport();
+        report.setFrom(from.toString());
+        report.setTo(to.toString());
+        report.setGroupBy(groupBy.name().toLowerCase(Locale.ROOT));
+        groups.forEach((key, totals) -> report.getGroups().add(totals.toGroup(key)));
+        groups.values().stream().reduce(RangeTotals::merge)
+                .ifPresent(total -> report.setTotal(total.toGroup("TOTAL")));
+        return report;
+    }
+
+    private static String isoWeek(LocalDate day) {
+        return String.format("%d-W%02d", day.get(IsoFields.WEEK_BASED_YEAR), day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+}
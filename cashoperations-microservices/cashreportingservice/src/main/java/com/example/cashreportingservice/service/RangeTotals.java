@@ -0,0 +1,67 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.example.cashreportingservice.dto.RangeSummaryReport;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Partial summary of some days of a range, merged associatively so days can be fetched in any order and combined as
+ * they arrive: operations are summed, the stock comes from the latest day (summed over the cashiers of that day).
+ */
+final class RangeTotals {
+
+    private final LocalDate firstDay;
+    private final LocalDate lastDay;
+    private final BigDecimal deposits;
+    private final BigDecimal withdrawals;
+    // Stock value per currency at the end of lastDay
+    private final Map<String, BigDecimal> closing;
+
+    private RangeTotals(LocalDate firstDay, LocalDate lastDay, BigDecimal deposits, BigDecimal withdrawals,
+                        Map<String, BigDecimal> closing) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.deposits = deposits;
+        this.withdrawals = withdrawals;
+        this.closing = closing;
+    }
+
+    static RangeTotals of(LocalDate day, DailySummaryReport report) {
+        Map<String, BigDecimal> closing = report.getCurrencyBreakdown() != null
+                ? new TreeMap<>(report.getCurrencyBreakdown()) : new TreeMap<>();
+        return new RangeTotals(day, day, report.getTotalDeposits(), report.getTotalWithdrawals(), closing);
+    }
+
+    RangeTotals merge(RangeTotals other) {
+        Map<String, BigDecimal> mergedClosing;
+        int order = lastDay.compareTo(other.lastDay);
+        if (order == 0) {
+            mergedClosing = new TreeMap<>(closing);
+            other.closing.forEach((currency, total) -> mergedClosing.merge(currency, total, BigDecimal::add));
+        } else {
+            mergedClosing = order > 0 ? closing : other.closing;
+        }
+        return new RangeTotals(
+                firstDay.isBefore(other.firstDay) ? firstDay : other.firstDay,
+                order > 0 ? lastDay : other.lastDay,
+                deposits.add(other.deposits),
+                withdrawals.add(other.withdrawals),
+                mergedClosing);
+    }
+
+    RangeSummaryReport.Group toGroup(String key) {
+        RangeSummaryReport.Group group = new RangeSummaryReport.Group();
+        group.setKey(key);
+        group.setFirstDay(firstDay.toString());
+        group.setLastDay(lastDay.toString());
+        group.setTotalDeposits(deposits);
+        group.setTotalWithdrawals(withdrawals);
+        group.setCurrencyBreakdown(closing);
+        group.setEndOfPeriodBalance(closing.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+        return group;
+    }
+}
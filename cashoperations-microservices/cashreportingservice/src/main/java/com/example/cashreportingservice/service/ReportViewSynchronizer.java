@@ -0,0 +1,209 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.BalanceEvent;
+import com.example.cashreportingservice.dto.BalanceEventPage;
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import com.example.cashreportingservice.repository.ReportViewCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the {@link ReportViews} in step with the cashoperations balance event log.
+ * <p>
+ * A single sync thread restores the H2 checkpoint, catches up with {@code GET /api/v1/balance-events?since=} and then
+ * repeats that query every {@code syncIntervalMillis}: it fills gaps and is the freshness signal of the views. With
+ * {@code listen} the events are also followed on RabbitMQ once the first catch-up is done; an event that does not
+ * directly follow the views triggers an immediate sync instead of being applied out of order.
+ * <p>
+ * Applied events are also recorded in the {@link OperationAnalytics}.
+ * <p>
+ * If the log no longer holds the events after the views' sequence (purged, or cashoperations restarted with an
+ * empty log) the views are rebuilt from what the log retains.
+ */
+@Slf4j
+@Component
+public class ReportViewSynchronizer {
+
+    static final String LISTENER_ID = "report-view-events";
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ReportViews reportViews;
+    private final OperationAnalytics operationAnalytics;
+    private final CashOperationsClientService cashOperationsClient;
+    private final ReportViewCheckpointRepository checkpointRepository;
+    private final ReportViewProperties properties;
+    private final ObjectProvider<RabbitListenerEndpointRegistry> listenerRegistry;
+    private final AtomicBoolean syncRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService synchronizer;
+    private boolean restored;
+    private boolean listening;
+    private long nextCheckpointNanos = System.nanoTime();
+
+    public ReportViewSynchronizer(ReportViews reportViews, OperationAnalytics operationAnalytics,
+                                  CashOperationsClientService cashOperationsClient,
+                                  ReportViewCheckpointRepository checkpointRepository, ReportViewProperties properties,
+                                  ObjectProvider<RabbitListenerEndpointRegistry> listenerRegistry) {
+        this.reportViews = reportViews;
+        this.operationAnalytics = operationAnalytics;
+        this.cashOperationsClient = cashOperationsClient;
+        this.checkpointRepository = checkpointRepository;
+        this.properties = properties;
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        synchronizer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("report-view-sync").daemon().factory());
+        synchronizer.scheduleWithFixedDelay(this::runQuietly, 0, properties.getSyncIntervalMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops syncing and checkpoints the views.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (synchronizer == null) {
+            return;
+        }
+        synchronizer.shutdown();
+        synchronizer.awaitTermination(10, TimeUnit.SECONDS);
+        if (restored) {
+            checkpointQuietly();
+        }
+    }
+
+    /**
+     * Live event from RabbitMQ.
+     */
+    public void onEvent(BalanceEvent event) {
+        if (reportViews.applyNext(event)) {
+            operationAnalytics.record(event);
+        } else if (synchronizer != null && syncRequested.compareAndSet(false, true)) {
+            synchronizer.execute(this::runQuietly);
+        }
+    }
+
+    /**
+     * Restores the checkpoint on the first run, catches up with the event log and checkpoints when due.
+     */
+    synchronized void run() {
+        LocalDate cutoff = LocalDate.now().minusDays(properties.getRetentionDays());
+        if (!restored) {
+            checkpointRepository.load(cutoff).ifPresent(checkpoint -> {
+                reportViews.restore(checkpoint);
+                log.info("Restored report views up to balance event {}", checkpoint.lastEventId());
+            });
+            restored = true;
+        }
+        syncRequested.set(false);
+        sync();
+        if (properties.isListen() && !listening) {
+            RabbitListenerEndpointRegistry registry = listenerRegistry.getIfAvailable();
+            if (registry != null && registry.getListenerContainer(LISTENER_ID) != null) {
+                registry.getListenerContainer(LISTENER_ID).start();
+                listening = true;
+            }
+        }
+        if (System.nanoTime() - nextCheckpointNanos >= 0) {
+            nextCheckpointNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getCheckpointIntervalMillis());
+            reportViews.evictBefore(cutoff);
+            checkpoint(cutoff);
+        }
+    }
+
+    private void sync() {
+        long since = reportViews.getLastEventId();
+        BalanceEventPage page = fetch(since);
+        boolean initial = reportViews.getCoverageStart() == null;
+        boolean logReset = page.getLatestId() < since;
+        if (initial || logReset || (since > 0 && page.getOldestId() > since + 1)) {
+            if (!initial) {
+                log.warn("Balance events after {} are no longer in the cashoperations log (oldest {}, latest {}), rebuilding the report views",
+                        since, page.getOldestId(), page.getLatestId());
+            }
+            page = since == 0 ? page : fetch(0);
+            reportViews.reset(coverageStart(page));
+            if (logReset) {
+                // Retained analytics past a purge gap stay, their ids are still those of the log
+                operationAnalytics.reset();
+            }
+        }
+        while (true) {
+            for (BalanceEvent event : page.getEvents()) {
+                reportViews.apply(event);
+                operationAnalytics.record(event);
+            }
+            if (page.getEvents().size() < properties.getPageSize()) {
+                break;
+            }
+            page = fetch(reportViews.getLastEventId());
+        }
+        reportViews.markSynced();
+    }
+
+    /**
+     * First day the events fully describe: all days if the log starts with the first event ever written, otherwise
+     * the day after the oldest retained event (earlier events of that day may be gone). An empty log says nothing
+     * about the past, so only today.
+     */
+    private static LocalDate coverageStart(BalanceEventPage page) {
+        if (page.getOldestId() == 1) {
+            return LocalDate.EPOCH;
+        }
+        if (page.getEvents().isEmpty()) {
+            return LocalDate.now();
+        }
+        return page.getEvents().get(0).getOccurredAt().toLocalDate().plusDays(1);
+    }
+
+    private BalanceEventPage fetch(long since) {
+        BalanceEventPage page = cashOperationsClient.fetchBalanceEvents(since, properties.getPageSize()).block(FETCH_TIMEOUT);
+        if (page == null) {
+            throw new IllegalStateException("Empty balance event page from cashoperations");
+        }
+        return page;
+    }
+
+    private void checkpoint(LocalDate cutoff) {
+        ReportViews.Checkpoint checkpoint = reportViews.takeCheckpoint();
+        try {
+            checkpointRepository.save(checkpoint, cutoff);
+        } catch (RuntimeException e) {
+            reportViews.checkpointFailed(checkpoint);
+            throw e;
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint(LocalDate.now().minusDays(properties.getRetentionDays()));
+        } catch (RuntimeException e) {
+            log.error("Failed to checkpoint the report views", e);
+        }
+    }
+
+    private void runQuietly() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            // Keeps the schedule alive; the views go stale and reports are recomputed until a sync succeeds
+            log.warn("Failed to sync the report views: {}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.BalanceEvent;
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily report views, materialized from the cashoperations balance-change events.
+ * <p>
+ * One cell per day, cashier and currency holds the operation counts of that day and the stock value after the
+ * cashier's last operation of the day. Day totals per currency are maintained with every event, so a report is read
+ * from at most one cell per currency instead of being recomputed from the balances.
+ * <p>
+ * Events are applied in sequence order and duplicates (id not above the last applied one) are skipped.
+ * {@link ReportViewSynchronizer} feeds the views and marks them synced; reports are only answered from views that
+ * were synced within {@code staleAfterMillis} and cover the requested day, otherwise the caller recomputes.
+ */
+@Component
+public class ReportViews {
+
+    // Banknote values of BalanceEvent#notes, in the order cashoperations sends them
+    static final int[] NOTE_VALUES = {5, 10, 20, 50, 100};
+
+    private final ReportViewProperties properties;
+    private final Map<LocalDate, DayView> days = new HashMap<>();
+    // Cells changed since the last checkpoint
+    private final Set<CellKey> dirty = new HashSet<>();
+
+    private long lastEventId;
+    // First day fully known from the events, null until the first sync
+    private LocalDate coverageStart;
+    private boolean resetPending;
+    private volatile long lastSyncNanos;
+    private volatile boolean synced;
+
+    public ReportViews(ReportViewProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Applies the next event of the ordered stream.
+     *
+     * @return false if the event was a duplicate
+     */
+    public synchronized boolean apply(BalanceEvent event) {
+        if (event.getId() <= lastEventId) {
+            return false;
+        }
+        LocalDate day = event.getOccurredAt().toLocalDate();
+        String cashier = event.getCashier().toUpperCase(Locale.ROOT);
+        DayView dayView = days.computeIfAbsent(day, d -> new DayView());
+        Cell cell = dayView.cashiers.computeIfAbsent(cashier, c -> new HashMap<>())
+                .computeIfAbsent(event.getCurrency(), c -> new Cell());
+
+        long balance = stockValue(event.getNotes());
+        dayView.currencyTotals.merge(event.getCurrency(), balance - cell.balance, Long::sum);
+        cell.balance = balance;
+        if ("DEPOSIT".equals(event.getOperationType())) {
+            cell.deposits++;
+            dayView.deposits++;
+        } else if ("WITHDRAWAL".equals(event.getOperationType())) {
+            cell.withdrawals++;
+            dayView.withdrawals++;
+        }
+        dirty.add(new CellKey(day, cashier, event.getCurrency()));
+        lastEventId = event.getId();
+        return true;
+    }
+
+    /**
+     * Applies a live event only if it directly follows the last applied one.
+     *
+     * @return false if the event is ahead of the views (events in between are missing), a sync must catch up
+     */
+    public synchronized boolean applyNext(BalanceEvent event) {
+        if (event.getId() > lastEventId + 1) {
+            return false;
+        }
+        apply(event);
+        return true;
+    }
+
+    public synchronized long getLastEventId() {
+        return lastEventId;
+    }
+
+    public synchronized LocalDate getCoverageStart() {
+        return coverageStart;
+    }
+
+    /**
+     * Drops everything, the views are rebuilt from the events from {@code coverageStart} on.
+     */
+    public synchronized void reset(LocalDate coverageStart) {
+        days.clear();
+        dirty.clear();
+        lastEventId = 0;
+        this.coverageStart = coverageStart;
+        resetPending = true;
+    }
+
+    public void markSynced() {
+        lastSyncNanos = System.nanoTime();
+        synced = true;
+    }
+
+    public boolean isFresh() {
+        return synced && System.nanoTime() - lastSyncNanos <= TimeUnit.MILLISECONDS.toNanos(properties.getStaleAfterMillis());
+    }
+
+    /**
+     * Daily summary of {@code cashier} (all cashiers if null): operation counts of the day, stock value per currency
+     * after the last operation of the day of each cashier that had one.
+     *
+     * @return empty if the views cannot answer for that day
+     */
+    public synchronized Optional<DailySummaryReport> dailySummary(LocalDate date, String cashier) {
+        if (!answers(date)) {
+            return Optional.empty();
+        }
+        DailySummaryReport report = new DailySummaryReport();
+        report.setCashier(cashier != null ? cashier : "ALL");
+        report.setDate(date.toString());
+        Map<String, BigDecimal> breakdown = new TreeMap<>();
+        DayView dayView = days.get(date);
+        if (dayView != null && cashier == null) {
+            dayView.currencyTotals.forEach((currency, total) -> breakdown.put(currency, BigDecimal.valueOf(total)));
+            report.setTotalDeposits(BigDecimal.valueOf(dayView.deposits));
+            report.setTotalWithdrawals(BigDecimal.valueOf(dayView.withdrawals));
+        } else if (dayView != null) {
+            int deposits = 0;
+            int withdrawals = 0;
+            for (Map.Entry<String, Cell> entry : dayView.cashiers.getOrDefault(cashier.toUpperCase(Locale.ROOT), Map.of()).entrySet()) {
+                breakdown.put(entry.getKey(), BigDecimal.valueOf(entry.getValue().balance));
+                deposits += entry.getValue().deposits;
+                withdrawals += entry.getValue().withdrawals;
+            }
+            report.setTotalDeposits(BigDecimal.valueOf(deposits));
+            report.setTotalWithdrawals(BigDecimal.valueOf(withdrawals));
+        }
+        report.setCurrencyBreakdown(breakdown);
+        report.setEndOfDayBalance(breakdown.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+        return Optional.of(report);
+    }
+
+    /**
+     * Stock value per currency at the end of {@code date}, over the cashiers that had operations that day.
+     *
+     * @return empty if the views cannot answer for that day
+     */
+    public synchronized Optional<Map<String, BigDecimal>> currencySummary(LocalDate date) {
+        if (!answers(date)) {
+            return Optional.empty();
+        }
+        Map<String, BigDecimal> summary = new TreeMap<>();
+        DayView dayView = days.get(date);
+        if (dayView != null) {
+            dayView.currencyTotals.forEach((currency, total) -> summary.put(currency, BigDecimal.valueOf(total)));
+        }
+        return Optional.of(summary);
+    }
+
+    /**
+     * Upper-case names of the cashiers with operations on {@code date}.
+     *
+     * @return empty if the views cannot answer for that day
+     */
+    public synchronized Optional<Set<String>> cashiers(LocalDate date) {
+        if (!answers(date)) {
+            return Optional.empty();
+        }
+        DayView dayView = days.get(date);
+        return Optional.of(dayView == null ? Set.of() : new TreeSet<>(dayView.cashiers.keySet()));
+    }
+
+    /**
+     * Drops the days before {@code cutoff}.
+     */
+    public synchronized void evictBefore(LocalDate cutoff) {
+        days.keySet().removeIf(day -> day.isBefore(cutoff));
+        dirty.removeIf(key -> key.day().isBefore(cutoff));
+    }
+
+    /**
+     * Takes the cells changed since the last checkpoint, with the sequence they are consistent with.
+     */
+    public synchronized Checkpoint takeCheckpoint() {
+        List<CellRow> rows = new ArrayList<>(dirty.size());
+        for (CellKey key : dirty) {
+            DayView dayView = days.get(key.day());
+            Cell cell = dayView == null ? null : dayView.cashiers.getOrDefault(key.cashier(), Map.of()).get(key.currency());
+            if (cell != null) {
+                rows.add(new CellRow(key.day(), key.cashier(), key.currency(), cell.deposits, cell.withdrawals, cell.balance));
+            }
+        }
+        Checkpoint checkpoint = new Checkpoint(lastEventId, coverageStart, resetPending, rows);
+        dirty.clear();
+        resetPending = false;
+        return checkpoint;
+    }
+
+    /**
+     * Marks the cells of a checkpoint that could not be written as changed again.
+     */
+    public synchronized void checkpointFailed(Checkpoint checkpoint) {
+        for (CellRow row : checkpoint.rows()) {
+            dirty.add(new CellKey(row.day(), row.cashier(), row.currency()));
+        }
+        resetPending |= checkpoint.reset();
+    }
+
+    /**
+     * Loads a checkpoint into empty views. They still need a sync before answering reports.
+     */
+    public synchronized void restore(Checkpoint checkpoint) {
+        days.clear();
+        dirty.clear();
+        for (CellRow row : checkpoint.rows()) {
+            DayView dayView = days.computeIfAbsent(row.day(), d -> new DayView());
+            Cell cell = new Cell();
+            cell.deposits = row.deposits();
+            cell.withdrawals = row.withdrawals();
+            cell.balance = row.balance();
+            dayView.cashiers.computeIfAbsent(row.cashier(), c -> new HashMap<>()).put(row.currency(), cell);
+            dayView.currencyTotals.merge(row.currency(), row.balance(), Long::sum);
+            dayView.deposits += row.deposits();
+            dayView.withdrawals += row.withdrawals();
+        }
+        lastEventId = checkpoint.lastEventId();
+        coverageStart = checkpoint.coverageStart();
+    }
+
+    private boolean answers(LocalDate date) {
+        return isFresh() && coverageStart != null && !date.isBefore(coverageStart)
+                && !date.isBefore(LocalDate.now().minusDays(properties.getRetentionDays()));
+    }
+
+    static long stockValue(int[] notes) {
+        long value = 0;
+        for (int slot = 0; slot < Math.min(notes.length, NOTE_VALUES.length); slot++) {
+            value += (long) notes[slot] * NOTE_VALUES[slot];
+        }
+        return value;
+    }
+
+    /**
+     * Changed cells of the views and the last event they include.
+     *
+     * @param reset the views were reset since the previous checkpoint, the stored cells are obsolete
+     */
+    public record Checkpoint(long lastEventId, LocalDate coverageStart, boolean reset, List<CellRow> rows) {
+    }
+
+    public record CellRow(LocalDate day, String cashier, String currency, int deposits, int withdrawals, long balance) {
+    }
+
+    private record CellKey(LocalDate day, String cashier, String currency) {
+    }
+
+    private static final class DayView {
+        private final Map<String, Map<String, Cell>> cashiers = new HashMap<>();
+        private final Map<String, Long> currencyTotals = new HashMap<>();
+        private int deposits;
+        private int withdrawals;
+    }
+
+    private static final class Cell {
+        private int deposits;
+        private int withdrawals;
+        private long balance;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashOperationsClientProperties;
+import com.example.cashreportingservice.exception.CashOperationsException;
+import com.example.cashreportingservice.exception.CircuitOpenException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Deadline, retries and hedging for the calls to cashoperations, so one stalled pod does not stall the reports.
+ * <p>
+ * A call fails after {@code deadlineMillis} whatever its attempts are doing. Connection failures, 429 and 5xx
+ * answers are retried with backoff, but only while the retry budget allows: every call deposits
+ * {@code retryBudgetRatio} of a token (plus {@code retryBudgetMinPerSecond} per second), every retry or hedge
+ * spends one, so during an outage the extra load stays a small share instead of multiplying the traffic.
+ * <p>
+ * When the first attempt has not answered after the observed latency percentile ({@code hedge.percentile} of
+ * {@code cashreportingservice.cashoperations.latency}), a second one is sent and the first answer wins; the other
+ * is cancelled. Exposed as {@code cashreportingservice.cashoperations.retries}, {@code .hedges} and
+ * {@code .budget-exhausted}.
+ * <p>
+ * Calls are rejected with a {@link CircuitOpenException} while the {@link CashOperationsCircuitBreaker} is open; the
+ * outcome of each call, after its retries, is recorded there.
+ */
+@Component
+public class ResilientCallExecutor {
+
+    // Calls timed before the percentile replaces the initial hedge delay
+    static final int MIN_SAMPLES = 20;
+
+    private final CashOperationsClientProperties properties;
+    private final CashOperationsCircuitBreaker circuitBreaker;
+    private final RetryBudget retryBudget;
+    private final Timer latency;
+    private final Counter retries;
+    private final Counter hedges;
+    private final Counter budgetExhausted;
+
+    public ResilientCallExecutor(CashOperationsClientProperties properties, CashOperationsCircuitBreaker circuitBreaker,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.circuitBreaker = circuitBreaker;
+        this.retryBudget = new RetryBudget(properties);
+        this.latency = Timer.builder("cashreportingservice.cashoperations.latency")
+                .description("Latency of the answered attempts of calls to cashoperations")
+                .publishPercentiles(properties.getHedge().getPercentile())
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .distributionStatisticBufferLength(2)
+                .register(meterRegistry);
+        this.retries = Counter.builder("cashreportingservice.cashoperations.retries")
+                .description("Retried calls to cashoperations")
+                .register(meterRegistry);
+        this.hedges = Counter.builder("cashreportingservice.cashoperations.hedges")
+                .description("Hedge requests sent to cashoperations")
+                .register(meterRegistry);
+        this.budgetExhausted = Counter.builder("cashreportingservice.cashoperations.budget-exhausted")
+                .description("Retries and hedges to cashoperations skipped for lack of retry budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a single-valued call; {@code attempt} is subscribed once per attempt, so it must be idempotent.
+     */
+    public <T> Mono<T> call(Supplier<Mono<T>> attempt) {
+        Duration deadline = Duration.ofMillis(properties.getDeadlineMillis());
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Mono.error(new CircuitOpenException());
+            }
+            retryBudget.deposit();
+            return hedged(attempt)
+                    .retryWhen(retrySpec(error -> true))
+                    .timeout(deadline, Mono.defer(() -> Mono.error(new TimeoutException(
+                            "No answer from CashOperations service within " + deadline.toMillis() + " ms"))))
+                    .doOnSuccess(value -> circuitBreaker.onSuccess())
+                    .doOnError(this::recordFailure)
+                    .doOnCancel(circuitBreaker::onCancel);
+        });
+    }
+
+    /**
+     * Runs a streamed call. It is retried only while nothing was emitted, and the deadline applies to the first
+     * element; once streaming, the response timeout of the connection catches a stalled pod.
+     */
+    public <T> Flux<T> stream(Supplier<Flux<T>> attempt) {
+        Duration deadline = Duration.ofMillis(properties.getDeadlineMillis());
+        return Flux.defer(() -> {
+            if (!circuitBreaker.tryAcquire()) {
+                return Flux.error(new CircuitOpenException());
+            }
+            retryBudget.deposit();
+            AtomicBoolean emitted = new AtomicBoolean();
+            return timed(Flux.defer(attempt).doOnNext(element -> emitted.set(true)))
+                    .retryWhen(retrySpec(error -> !emitted.get()))
+                    .timeout(Mono.delay(deadline).then(Mono.defer(() -> Mono.error(new TimeoutException(
+                                    "No answer from CashOperations service within " + deadline.toMillis() + " ms")))),
+                            element -> Mono.never())
+                    .doOnComplete(circuitBreaker::onSuccess)
+                    .doOnError(this::recordFailure)
+                    .doOnCancel(circuitBreaker::onCancel);
+        });
+    }
+
+    /**
+     * Delay after which a hedge is sent: the latency percentile once enough calls were timed.
+     */
+    public Duration hedgeDelay() {
+        CashOperationsClientProperties.Hedge hedge = properties.getHedge();
+        long delayMillis = hedge.getInitialDelayMillis();
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        if (snapshot.count() >= MIN_SAMPLES) {
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                if (value.percentile() == hedge.getPercentile()) {
+                    delayMillis = (long) value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        return Duration.ofMillis(Math.max(hedge.getMinDelayMillis(), delayMillis));
+    }
+
+    public double getRetries() {
+        return retries.count();
+    }
+
+    public double getHedges() {
+        return hedges.count();
+    }
+
+    public double getBudgetExhausted() {
+        return budgetExhausted.count();
+    }
+
+    private <T> Mono<T> hedged(Supplier<Mono<T>> attempt) {
+        if (!properties.getHedge().isEnabled()) {
+            return timed(Mono.defer(attempt));
+        }
+        return Mono.defer(() -> {
+            // A failed first attempt cancels the pending hedge, the call fails (or is retried) right away
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Sinks.One<Throwable> primaryFailed = Sinks.one();
+            Mono<T> primary = timed(Mono.defer(attempt))
+                    .doOnError(error -> {
+                        primaryError.set(error);
+                        primaryFailed.tryEmitValue(error);
+                    });
+            Mono<T> hedge = Mono.delay(hedgeDelay())
+                    .takeUntilOther(primaryFailed.asMono())
+                    .flatMap(tick -> {
+                        if (!spend()) {
+                            return Mono.<T>empty();
+                        }
+                        hedges.increment();
+                        return timed(Mono.defer(attempt));
+                    });
+            // First value wins and cancels the other; without one, the error of the first attempt is the answer
+            return Mono.firstWithValue(primary, hedge)
+                    .onErrorMap(NoSuchElementException.class,
+                            error -> primaryError.get() != null ? primaryError.get() : error);
+        });
+    }
+
+    private <T> Mono<T> timed(Mono<T> attempt) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return attempt.doOnSuccess(value -> latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private <T> Flux<T> timed(Flux<T> attempt) {
+        return Flux.defer(() -> {
+            long started = System.nanoTime();
+            AtomicBoolean first = new AtomicBoolean(true);
+            // Time to the first element, the rest depends on the size of the answer
+            return attempt.doOnNext(element -> {
+                if (first.compareAndSet(true, false)) {
+                    latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            });
+        });
+    }
+
+    private Retry retrySpec(Predicate<Throwable> retryNow) {
+        return Retry.backoff(properties.getMaxRetries(), Duration.ofMillis(properties.getRetryBackoffMillis()))
+                .filter(error -> isRetryable(error) && retryNow.test(error) && spend())
+                .doBeforeRetry(signal -> retries.increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private boolean spend() {
+        if (retryBudget.tryWithdraw()) {
+            return true;
+        }
+        budgetExhausted.increment();
+        return false;
+    }
+
+    private void recordFailure(Throwable error) {
+        if (isRetryable(error) || error instanceof TimeoutException) {
+            circuitBreaker.onFailure();
+        } else {
+            // Answered, e.g. a 4xx: cashoperations itself is fine
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof CashOperationsException e) {
+            return e.getStatusCode() == 429 || e.getStatusCode() >= 500;
+        }
+        // Connect failures, resets and response timeouts of an attempt
+        return error instanceof WebClientRequestException;
+    }
+
+    /**
+     * Token bucket refilled by calls and by time: the sustained rate of retries and hedges is
+     * {@code ratio * calls + minPerSecond}, bursts are capped at ten seconds' worth.
+     */
+    static final class RetryBudget {
+        private final CashOperationsClientProperties properties;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        RetryBudget(CashOperationsClientProperties properties) {
+            this.properties = properties;
+            this.tokens = properties.getRetryBudgetMinPerSecond();
+        }
+
+        synchronized void deposit() {
+            refill();
+            tokens = Math.min(capacity(), tokens + properties.getRetryBudgetRatio());
+        }
+
+        synchronized boolean tryWithdraw() {
+            refill();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity(),
+                    tokens + (now - lastRefillNanos) / 1e9 * properties.getRetryBudgetMinPerSecond());
+            lastRefillNanos = now;
+        }
+
+        private double capacity() {
+            return Math.max(1, 10.0 * properties.getRetryBudgetMinPerSecond() + 100 * properties.getRetryBudgetRatio());
+        }
+    }
+}
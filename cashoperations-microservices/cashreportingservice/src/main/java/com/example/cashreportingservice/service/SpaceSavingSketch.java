@@ -0,0 +1,147 @@
+package com.example.cashreportingservice.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Weighted Space-Saving summary of the heaviest keys of a stream, in at most {@code capacity} counters.
+ * <p>
+ * A key that is not tracked replaces the smallest counter and inherits its weight as error, so every estimate is an
+ * upper bound of the key's true weight and {@code estimate - error} a lower bound; the error never exceeds
+ * {@code totalWeight / capacity}. Summaries of the same capacity merge (Agarwal et al., "Mergeable Summaries"): a
+ * key missing from a full summary is counted with that summary's smallest counter, which keeps both bounds.
+ * <p>
+ * Not thread-safe.
+ */
+public class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private double totalWeight;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void update(String key, double weight) {
+        totalWeight += weight;
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(key, new Counter(weight, 0));
+            return;
+        }
+        // O(capacity) scan; capacities are a few dozen counters
+        Map.Entry<String, Counter> smallest = null;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            if (smallest == null || entry.getValue().count < smallest.getValue().count) {
+                smallest = entry;
+            }
+        }
+        double floor = smallest.getValue().count;
+        counters.remove(smallest.getKey());
+        counters.put(key, new Counter(floor + weight, floor));
+    }
+
+    /**
+     * Adds {@code other} to this summary.
+     */
+    public void merge(SpaceSavingSketch other) {
+        if (other.capacity != capacity) {
+            throw new IllegalArgumentException("Cannot merge summaries of capacity " + capacity + " and " + other.capacity);
+        }
+        double floor = floor();
+        double otherFloor = other.floor();
+        Set<String> keys = new HashSet<>(counters.keySet());
+        keys.addAll(other.counters.keySet());
+        List<Map.Entry<String, Counter>> merged = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Counter mine = counters.get(key);
+            Counter theirs = other.counters.get(key);
+            double count = (mine != null ? mine.count : floor) + (theirs != null ? theirs.count : otherFloor);
+            double error = (mine != null ? mine.error : floor) + (theirs != null ? theirs.error : otherFloor);
+            merged.add(Map.entry(key, new Counter(count, error)));
+        }
+        merged.sort(Comparator.comparingDouble((Map.Entry<String, Counter> entry) -> entry.getValue().count).reversed());
+        counters.clear();
+        for (Map.Entry<String, Counter> entry : merged.subList(0, Math.min(capacity, merged.size()))) {
+            counters.put(entry.getKey(), entry.getValue());
+        }
+        totalWeight += other.totalWeight;
+    }
+
+    public SpaceSavingSketch copy() {
+        SpaceSavingSketch copy = new SpaceSavingSketch(capacity);
+        counters.forEach((key, counter) -> copy.counters.put(key, new Counter(counter.count, counter.error)));
+        copy.totalWeight = totalWeight;
+        return copy;
+    }
+
+    /**
+     * The {@code limit} heaviest keys, heaviest first. An entry is {@code guaranteed} if its lower bound is above the
+     * upper bound of every key outside the returned ones, i.e. it certainly belongs to the top {@code limit}.
+     */
+    public List<HeavyHitter> top(int limit) {
+        List<Map.Entry<String, Counter>> sorted = new ArrayList<>(counters.entrySet());
+        sorted.sort(Comparator.comparingDouble((Map.Entry<String, Counter> entry) -> entry.getValue().count).reversed());
+        // Untracked keys weigh at most the smallest counter of a full summary
+        double outside = sorted.size() > limit ? sorted.get(limit).getValue().count : floor();
+        List<HeavyHitter> top = new ArrayList<>(Math.min(limit, sorted.size()));
+        for (Map.Entry<String, Counter> entry : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            Counter counter = entry.getValue();
+            top.add(new HeavyHitter(entry.getKey(), counter.count, counter.error, counter.count - counter.error >= outside));
+        }
+        return top;
+    }
+
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * Largest possible overestimate of any key, {@code totalWeight / capacity}.
+     */
+    public double maxError() {
+        return totalWeight / capacity;
+    }
+
+    private double floor() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        double floor = Double.MAX_VALUE;
+        for (Counter counter : counters.values()) {
+            floor = Math.min(floor, counter.count);
+        }
+        return floor;
+    }
+
+    /**
+     * @param estimate upper bound of the key's weight
+     * @param error    estimate minus the lower bound
+     */
+    public record HeavyHitter(String key, double estimate, double error, boolean guaranteed) {
+    }
+
+    private static final class Counter {
+        private double count;
+        private double error;
+
+        private Counter(double count, double error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
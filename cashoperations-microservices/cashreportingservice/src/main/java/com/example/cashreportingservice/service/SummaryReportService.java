@@ -1,29 +1,66 @@
 package com.example.cashreportingservice.service;
 
+import com.example.cashreportingservice.dto.CashAggregateResponse;
 import com.example.cashreportingservice.dto.CashBalanceResponse;
 import com.example.cashreportingservice.dto.DailySummaryReport;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.TreeMap;
 
 @Slf4j
 @Service
 public class SummaryReportService {
     public DailySummaryReport generateDailySummaryReport(List<CashBalanceResponse> balanceList, String cashier) {
-        DailySummaryReport report = new DailySummaryReport();
-
         if (balanceList.isEmpty()) {
-            return report;
+            return new DailySummaryReport();
+        }
+
+        return toDailySummaryReport(balanceList.get(0), CurrencyTotals.of(balanceList), cashier);
+    }
+
+    /**
+     * Daily summary folded from the balances as they are decoded, without holding more than the first one.
+     * The folding runs on the parallel scheduler, off the event loop that decodes the response.
+     */
+    public Mono<DailySummaryReport> aggregateDailySummaryReport(Flux<CashBalanceResponse> balances, String cashier) {
+        return balances.publishOn(Schedulers.parallel())
+                .reduceWith(DailyFold::new, DailyFold::add)
+                .map(fold -> fold.first == null
+                        ? new DailySummaryReport()
+                        : toDailySummaryReport(fold.first, fold.totals, cashier));
+    }
+
+    /**
+     * Daily summary from the totals cashoperations computed. The counts are those of the selected cashier.
+     */
+    public DailySummaryReport generateDailySummaryReport(CashAggregateResponse aggregates, String cashier) {
+        if (aggregates.getCashierCount() == 0) {
+            return new DailySummaryReport();
         }
+        DailySummaryReport report = new DailySummaryReport();
+        report.setCashier(cashier != null ? cashier : "ALL");
+        report.setDate(aggregates.getTimestamp().toLocalDate().toString());
+        Map<String, BigDecimal> breakdown = generateCurrencySummary(aggregates);
+        report.setCurrencyBreakdown(breakdown);
+        report.setTotalDeposits(BigDecimal.valueOf(aggregates.getDeposits()));
+        report.setTotalWithdrawals(BigDecimal.valueOf(aggregates.getWithdrawals()));
+        report.setEndOfDayBalance(BigDecimal.valueOf(
+                aggregates.getCurrencyTotals().values().stream().mapToLong(Long::longValue).sum()));
+        return report;
+    }
 
-        CashBalanceResponse firstBalance = balanceList.get(0);
-        CashBalanceResponse lastBalance = balanceList.get(balanceList.size() - 1);
+    private DailySummaryReport toDailySummaryReport(CashBalanceResponse firstBalance, CurrencyTotals currencyTotals,
+                                                    String cashier) {
+        DailySummaryReport report = new DailySummaryReport();
         if(Objects.nonNull(cashier)) {
             report.setCashier(cashier);
         } else {
@@ -31,20 +68,8 @@ public class SummaryReportService {
         }
         report.setDate(firstBalance.getTimestamp().toLocalDate().toString());
 
-        // Calculate totals from all balances
-        Map<String, BigDecimal> currencyTotals = new ConcurrentHashMap<>();
-
-        balanceList.forEach(balance -> {
-            balance.getBalances().forEach((currency, denominations) -> {
-                BigDecimal currencyTotal = denominations.stream()
-                        .map(denom -> BigDecimal.valueOf(denom.getTotalAmount()))
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                currencyTotals.merge(currency, currencyTotal, BigDecimal::add);
-            });
-        });
-
-        report.setCurrencyBreakdown(currencyTotals);
+        // Totals from all balances
+        report.setCurrencyBreakdown(currencyTotals.toMap());
         int totalDeposits = 0;
         int totalWithdrawals = 0;
         if(Objects.nonNull(firstBalance)) {
@@ -55,10 +80,7 @@ public class SummaryReportService {
         report.setTotalWithdrawals(BigDecimal.valueOf(totalWithdrawals));
 
         // For simplicity, assuming the last balance represents end of day
-        BigDecimal endOfDayTotal = currencyTotals.values().stream()
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        report.setEndOfDayBalance(endOfDayTotal);
+        report.setEndOfDayBalance(currencyTotals.total());
 
         return report;
     }
@@ -73,18 +95,34 @@ public class SummaryReportService {
     }
 
     public Map<String, BigDecimal> generateCurrencySummary(List<CashBalanceResponse> balanceList) {
-        Map<String, BigDecimal> currencySummary = new ConcurrentHashMap<>();
+        return CurrencyTotals.of(balanceList).toMap();
+    }
 
-        balanceList.forEach(balance -> {
-            balance.getBalances().forEach((currency, denominations) -> {
-                BigDecimal currencyTotal = denominations.stream()
-                        .map(denom -> BigDecimal.valueOf(denom.getTotalAmount()))
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public Map<String, BigDecimal> generateCurrencySummary(CashAggregateResponse aggregates) {
+        Map<String, BigDecimal> currencySummary = new TreeMap<>();
+        aggregates.getCurrencyTotals().forEach((currency, total) -> currencySummary.put(currency, BigDecimal.valueOf(total)));
+        return currencySummary;
+    }
 
-                currencySummary.merge(currency, currencyTotal, BigDecimal::add);
-            });
-        });
+    /**
+     * Currency summary folded from the balances as they are decoded, on the parallel scheduler.
+     */
+    public Mono<Map<String, BigDecimal>> aggregateCurrencySummary(Flux<CashBalanceResponse> balances) {
+        return balances.publishOn(Schedulers.parallel())
+                .reduceWith(CurrencyTotals::new, CurrencyTotals::add)
+                .map(CurrencyTotals::toMap);
+    }
 
-        return currencySummary;
+    private static final class DailyFold {
+        private final CurrencyTotals totals = new CurrencyTotals();
+        private CashBalanceResponse first;
+
+        private DailyFold add(CashBalanceResponse balance) {
+            if (first == null) {
+                first = balance;
+            }
+            totals.add(balance);
+            return this;
+        }
     }
 }
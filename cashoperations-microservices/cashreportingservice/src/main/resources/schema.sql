@@ -29,4 +29,32 @@ INSERT INTO `accounts` (`customer_id`, `account_type`, `branch_address`, `create
 INSERT INTO `accounts` (`customer_id`, `account_type`, `branch_address`, `created_at`, `created_by`, `updated_at`, `updated_by`) VALUES
   (1009, 'CHECKING', '5 Aspen Dr, Blüdhaven', DATE '2024-08-02', 'seed', DATE '2025-01-10', 'admin');
 INSERT INTO `accounts` (`customer_id`, `account_type`, `branch_address`, `created_at`, `created_by`, `updated_at`, `updated_by`) VALUES
-  (1010, 'SAVINGS', '390 Poplar St, National City', DATE '2024-09-21', 'system', NULL, NULL);
\ No newline at end of file
+  (1010, 'SAVINGS', '390 Poplar St, National City', DATE '2024-09-21', 'system', NULL, NULL);
+-- Checkpoint of the report views materialized from the cashoperations balance events (ReportViewCheckpointRepository)
+CREATE TABLE IF NOT EXISTS `report_view_cell` (
+    `report_day` date NOT NULL,
+    `cashier` varchar(50) NOT NULL,
+    `currency` varchar(3) NOT NULL,
+    `deposits` int NOT NULL,
+    `withdrawals` int NOT NULL,
+    `balance` bigint NOT NULL,
+    PRIMARY KEY (`report_day`, `cashier`, `currency`)
+    );
+CREATE TABLE IF NOT EXISTS `report_view_checkpoint` (
+    `id` int PRIMARY KEY,
+    `last_event_id` bigint NOT NULL,
+    `coverage_start` date,
+    `checkpointed_at` timestamp NOT NULL
+    );
+-- Finalized daily summaries of past days (HistoricalReportRepository), one row per day and cashier ('ALL' for all)
+CREATE TABLE IF NOT EXISTS `report_day_summary` (
+    `report_day` date NOT NULL,
+    `cashier` varchar(50) NOT NULL,
+    `deposits` bigint NOT NULL,
+    `withdrawals` bigint NOT NULL,
+    `end_of_day_balance` bigint NOT NULL,
+    -- Stock value per currency, e.g. BGN=1200;EUR=500
+    `currencies` varchar(500) NOT NULL,
+    `finalized_at` timestamp NOT NULL,
+    PRIMARY KEY (`report_day`, `cashier`)
+    );
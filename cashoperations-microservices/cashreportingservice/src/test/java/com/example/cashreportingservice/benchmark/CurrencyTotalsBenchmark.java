@@ -0,0 +1,98 @@
+package com.example.cashreportingservice.benchmark;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.dto.Denomination;
+import com.example.cashreportingservice.service.CurrencyTotals;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Currency summary of the cash balance snapshots a report fetches: the previous aggregation (a {@link BigDecimal}
+ * per denomination, merged into a {@link ConcurrentHashMap}) against {@link CurrencyTotals} on one thread and with
+ * its fork/join split, from 10 to 1M snapshots of two currencies with five banknotes each.
+ * <p>
+ * Run from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.cashreportingservice.benchmark.CurrencyTotalsBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// 1M snapshots take about 1 GB
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class CurrencyTotalsBenchmark {
+
+    private static final int[] NOTES = {5, 10, 20, 50, 100};
+
+    @Param({"10", "1000", "100000", "1000000"})
+    private int balances;
+
+    private List<CashBalanceResponse> snapshots;
+
+    @Setup
+    public void setup() {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 8, 24, 20, 38);
+        snapshots = new ArrayList<>(balances);
+        for (int i = 0; i < balances; i++) {
+            Map<String, List<Denomination>> perCurrency = new ConcurrentHashMap<>();
+            for (String currency : List.of("BGN", "EUR")) {
+                List<Denomination> denominations = new ArrayList<>(NOTES.length);
+                for (int note : NOTES) {
+                    Denomination denomination = new Denomination();
+                    denomination.setQuantity(10 + i % 40);
+                    denomination.setValue(note);
+                    denomination.setTotalAmount((10 + i % 40) * note);
+                    denomination.setTimestamp(timestamp);
+                    denominations.add(denomination);
+                }
+                perCurrency.put(currency, denominations);
+            }
+            CashBalanceResponse snapshot = new CashBalanceResponse();
+            snapshot.setCashier("CASHIER_" + i);
+            snapshot.setTimestamp(timestamp);
+            snapshot.setBalances(perCurrency);
+            snapshots.add(snapshot);
+        }
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> bigDecimalMerge() {
+        Map<String, BigDecimal> currencySummary = new ConcurrentHashMap<>();
+        snapshots.forEach(balance -> balance.getBalances().forEach((currency, denominations) -> {
+            BigDecimal currencyTotal = denominations.stream()
+                    .map(denom -> BigDecimal.valueOf(denom.getTotalAmount()))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            currencySummary.merge(currency, currencyTotal, BigDecimal::add);
+        }));
+        return currencySummary;
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> longSequential() {
+        return CurrencyTotals.sequential(snapshots).toMap();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> longForkJoin() {
+        return CurrencyTotals.of(snapshots).toMap();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CurrencyTotalsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
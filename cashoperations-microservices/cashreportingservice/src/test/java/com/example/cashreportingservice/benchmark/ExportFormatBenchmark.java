@@ -0,0 +1,122 @@
+package com.example.cashreportingservice.benchmark;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.service.ColumnarBalanceCodec;
+import com.example.cashreportingservice.service.CsvBalanceEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Size and write throughput of the balance exports against the JSON of {@code cashier-activity}, for the snapshots of
+ * {@link ReportHotPathBenchmark}: Jackson writing the snapshot list, {@link CsvBalanceEncoder} and
+ * {@link ColumnarBalanceCodec} encoding it into buffers. Every benchmark returns the bytes it wrote.
+ * <p>
+ * Run with {@code main}, from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.cashreportingservice.benchmark.ExportFormatBenchmark},
+ * to print the sizes, profile the allocations with {@link GCProfiler} and write the results to
+ * {@code target/jmh/export-format.json}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ExportFormatBenchmark {
+
+    private static final int BLOCK_ROWS = 1024;
+
+    @Param({"1000", "100000"})
+    private int cashiers;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private List<CashBalanceResponse> snapshots;
+
+    @Setup
+    public void setup() {
+        snapshots = snapshots(cashiers);
+    }
+
+    private static List<CashBalanceResponse> snapshots(int cashiers) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<CashBalanceResponse> snapshots = new ArrayList<>(cashiers);
+        for (int i = 0; i < cashiers; i++) {
+            snapshots.add(ReportHotPathBenchmark.snapshot("CASHIER_" + i, random));
+        }
+        return snapshots;
+    }
+
+    @Benchmark
+    public long json() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        objectMapper.writeValue(out, snapshots);
+        return out.count;
+    }
+
+    @Benchmark
+    public long csv() {
+        return count(CsvBalanceEncoder.encode(Flux.fromIterable(snapshots), DefaultDataBufferFactory.sharedInstance));
+    }
+
+    @Benchmark
+    public long columnar() {
+        return count(ColumnarBalanceCodec.encode(Flux.fromIterable(snapshots), BLOCK_ROWS,
+                DefaultDataBufferFactory.sharedInstance));
+    }
+
+    private static long count(Flux<DataBuffer> buffers) {
+        return buffers.map(DataBuffer::readableByteCount)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        for (int cashiers : new int[]{1000, 100000}) {
+            ExportFormatBenchmark benchmark = new ExportFormatBenchmark();
+            benchmark.snapshots = snapshots(cashiers);
+            System.out.printf("%d cashiers: JSON %d bytes, CSV %d bytes, columnar %d bytes%n", cashiers,
+                    benchmark.json(), benchmark.csv(), benchmark.columnar());
+        }
+        File results = new File("target/jmh/export-format.json");
+        results.getParentFile().mkdirs();
+        Options options = new OptionsBuilder()
+                .include(ExportFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.getPath())
+                .build();
+        new Runner(options).run();
+    }
+}
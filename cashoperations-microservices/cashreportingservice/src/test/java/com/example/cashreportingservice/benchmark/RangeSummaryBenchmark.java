@@ -0,0 +1,126 @@
+package com.example.cashreportingservice.benchmark;
+
+import com.example.cashreportingservice.dto.CashAggregateResponse;
+import com.example.cashreportingservice.dto.CashBalanceCacheProperties;
+import com.example.cashreportingservice.dto.CashOperationsClientProperties;
+import com.example.cashreportingservice.dto.HistoricalReportProperties;
+import com.example.cashreportingservice.dto.RangeSummaryProperties;
+import com.example.cashreportingservice.dto.RangeSummaryReport;
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import com.example.cashreportingservice.repository.HistoricalReportRepository;
+import com.example.cashreportingservice.service.CashBalanceCache;
+import com.example.cashreportingservice.service.CashOperationsCircuitBreaker;
+import com.example.cashreportingservice.service.CashOperationsClientService;
+import com.example.cashreportingservice.service.DailyReportService;
+import com.example.cashreportingservice.service.PipelineStages;
+import com.example.cashreportingservice.service.RangeReportService;
+import com.example.cashreportingservice.service.ResilientCallExecutor;
+import com.example.cashreportingservice.service.ReportViews;
+import com.example.cashreportingservice.service.SummaryReportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.h2.Driver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range summary of a whole year grouped per week, with 1 to 32 days in flight: every day answered by a
+ * cashoperations stub that takes {@code latencyMillis} ({@code LIVE}), or finalized beforehand and read from the
+ * H2 day summary store ({@code STORE}).
+ * <p>
+ * Run from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.cashreportingservice.benchmark.RangeSummaryBenchmark}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RangeSummaryBenchmark {
+
+    private static final LocalDate TO = LocalDate.of(2025, 8, 24);
+    private static final LocalDate FROM = TO.minusDays(364);
+
+    public enum Source { LIVE, STORE }
+
+    @Param({"1", "8", "32"})
+    private int concurrency;
+
+    @Param
+    private Source source;
+
+    @Param({"5"})
+    private int latencyMillis;
+
+    private RangeReportService rangeReportService;
+
+    @Setup
+    public void setup() {
+        SimpleDriverDataSource dataSource =
+                new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        CashOperationsClientProperties clientProperties = new CashOperationsClientProperties();
+        CashOperationsCircuitBreaker circuitBreaker = new CashOperationsCircuitBreaker(clientProperties, new SimpleMeterRegistry());
+        CashOperationsClientService client = new CashOperationsClientService(WebClient.builder(), "http://localhost:8080",
+                "api-key", "application/json",
+                new CashBalanceCache(new CashBalanceCacheProperties(), circuitBreaker, new SimpleMeterRegistry()),
+                new ResilientCallExecutor(clientProperties, circuitBreaker, new SimpleMeterRegistry())) {
+            @Override
+            public Mono<CashAggregateResponse> fetchCashAggregates(LocalDateTime dateFrom, LocalDateTime dateTo,
+                                                                   String cashier, boolean perCashier) {
+                return Mono.delay(Duration.ofMillis(latencyMillis)).map(tick -> aggregates(dateFrom.toLocalDate()));
+            }
+        };
+        HistoricalReportProperties historyProperties = new HistoricalReportProperties();
+        // Only STORE days are written to the store, LIVE ones are fetched on every run
+        historyProperties.setEnabled(source == Source.STORE);
+        DailyReportService dailyReportService = new DailyReportService(client, new SummaryReportService(),
+                new ReportViews(new ReportViewProperties()), new HistoricalReportRepository(new JdbcTemplate(dataSource)),
+                historyProperties, new PipelineStages(ObservationRegistry.NOOP), new SimpleMeterRegistry(), true);
+        if (source == Source.STORE) {
+            FROM.datesUntil(TO.plusDays(1)).forEach(dailyReportService::finalizeDay);
+        }
+        RangeSummaryProperties properties = new RangeSummaryProperties();
+        properties.setConcurrency(concurrency);
+        rangeReportService = new RangeReportService(dailyReportService, properties);
+    }
+
+    @Benchmark
+    public RangeSummaryReport yearPerWeek() {
+        return rangeReportService.rangeSummary(FROM, TO, RangeReportService.GroupBy.WEEK).block();
+    }
+
+    private static CashAggregateResponse aggregates(LocalDate day) {
+        CashAggregateResponse aggregates = new CashAggregateResponse();
+        aggregates.setTimestamp(day.atTime(20, 38));
+        aggregates.setCashierCount(3);
+        aggregates.setCurrencyTotals(Map.of("BGN", 1200L + day.getDayOfYear(), "EUR", 500L + day.getDayOfMonth()));
+        aggregates.setDeposits(day.getDayOfMonth());
+        aggregates.setWithdrawals(day.getDayOfWeek().getValue());
+        return aggregates;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RangeSummaryBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.cashreportingservice.benchmark;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.example.cashreportingservice.dto.Denomination;
+import com.example.cashreportingservice.service.SummaryReportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Baseline of the reporting hot path for the cash balance snapshots of 10 to 100k cashiers: the daily summary and
+ * currency summary of {@link SummaryReportService}, and the Jackson decoding of the snapshot list as cashoperations
+ * sends it, with the {@code ObjectMapper} Spring Boot configures.
+ * <p>
+ * The snapshots are generated from a fixed seed. A cashier holds BGN and, two times out of three, EUR, each with a
+ * drawer of the banknotes of that currency: many of the small ones, a few of the large ones, some notes missing.
+ * <p>
+ * Run with {@code main}, from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.cashreportingservice.benchmark.ReportHotPathBenchmark},
+ * to profile the allocations with {@link GCProfiler} and write the results to {@code target/jmh/report-hot-path.json}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// Decoding 100k snapshots allocates close to 1 GB
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ReportHotPathBenchmark {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2025, 8, 24, 20, 38);
+    // Banknotes in circulation, with how many of each a drawer holds at most
+    private static final Map<String, int[][]> DRAWERS = Map.of(
+            "BGN", new int[][]{{2, 60}, {5, 50}, {10, 80}, {20, 100}, {50, 40}, {100, 10}},
+            "EUR", new int[][]{{5, 40}, {10, 60}, {20, 80}, {50, 50}, {100, 10}, {200, 3}, {500, 1}});
+
+    @Param({"10", "1000", "100000"})
+    private int cashiers;
+
+    private final SummaryReportService summaryReportService = new SummaryReportService();
+    private List<CashBalanceResponse> snapshots;
+    private byte[] json;
+    private ObjectReader reader;
+
+    @Setup
+    public void setup() throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        snapshots = new ArrayList<>(cashiers);
+        for (int i = 0; i < cashiers; i++) {
+            snapshots.add(snapshot("CASHIER_" + i, random));
+        }
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        json = objectMapper.writeValueAsBytes(snapshots);
+        reader = objectMapper.readerForListOf(CashBalanceResponse.class);
+    }
+
+    static CashBalanceResponse snapshot(String cashier, SplittableRandom random) {
+        CashBalanceResponse snapshot = new CashBalanceResponse();
+        snapshot.setCashier(cashier);
+        snapshot.setTimestamp(TIMESTAMP);
+        Map<String, List<Denomination>> balances = new TreeMap<>();
+        DRAWERS.forEach((currency, drawer) -> {
+            if (currency.equals("EUR") && random.nextInt(3) == 0) {
+                return;
+            }
+            List<Denomination> denominations = new ArrayList<>(drawer.length);
+            for (int[] note : drawer) {
+                // Skewed towards an emptier drawer, and one note in five is out
+                int quantity = (int) (note[1] * Math.pow(random.nextDouble(), 2));
+                if (quantity == 0 || random.nextInt(5) == 0) {
+                    continue;
+                }
+                Denomination denomination = new Denomination();
+                denomination.setQuantity(quantity);
+                denomination.setValue(note[0]);
+                denomination.setTotalAmount(quantity * note[0]);
+                denomination.setTimestamp(TIMESTAMP.minusMinutes(random.nextInt(600)));
+                denominations.add(denomination);
+            }
+            balances.put(currency, denominations);
+            snapshot.getOperations().put("DEPOSIT|" + cashier + "|" + currency, 1 + random.nextInt(20));
+            snapshot.getOperations().put("WITHDRAWAL|" + cashier + "|" + currency, random.nextInt(10));
+        });
+        snapshot.setBalances(new ConcurrentHashMap<>(balances));
+        return snapshot;
+    }
+
+    @Benchmark
+    public DailySummaryReport dailySummary() {
+        return summaryReportService.generateDailySummaryReport(snapshots, null);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> currencySummary() {
+        return summaryReportService.generateCurrencySummary(snapshots);
+    }
+
+    @Benchmark
+    public List<CashBalanceResponse> decodeSnapshots() throws IOException {
+        return reader.readValue(json);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        File results = new File("target/jmh/report-hot-path.json");
+        results.getParentFile().mkdirs();
+        Options options = new OptionsBuilder()
+                .include(ReportHotPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results.getPath())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.dto.Denomination;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceExportTest {
+
+    private static final LocalDateTime TIMESTAMP = LocalDateTime.of(2025, 8, 24, 20, 38, 15);
+
+    @Test
+    void shouldWriteARowPerDenomination() {
+        CashBalanceResponse linda = snapshot("LINDA", TIMESTAMP, Map.of("BGN", List.of(
+                denomination(10, 10, TIMESTAMP.minusMinutes(5)), denomination(2, 50, null))));
+        CashBalanceResponse quoted = snapshot("PETER, \"JR\"", TIMESTAMP.withNano(500_000_000), Map.of("EUR", List.of(
+                denomination(1, 100, TIMESTAMP))));
+
+        String csv = join(CsvBalanceEncoder.encode(Flux.just(linda, snapshot("EMPTY", TIMESTAMP, Map.of()), quoted),
+                DefaultDataBufferFactory.sharedInstance));
+
+        assertEquals(CsvBalanceEncoder.HEADER
+                + "2025-08-24T20:38:15,LINDA,BGN,10,10,100,2025-08-24T20:33:15\r\n"
+                + "2025-08-24T20:38:15,LINDA,BGN,50,2,100,\r\n"
+                + "2025-08-24T20:38:15,\"PETER, \"\"JR\"\"\",EUR,100,1,100,2025-08-24T20:38:15\r\n", csv);
+    }
+
+    @Test
+    void shouldDecodeTheColumnarRowsItEncodes() throws IOException {
+        List<CashBalanceResponse> snapshots = new ArrayList<>();
+        List<BalanceRow> expected = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            Map<String, List<Denomination>> balances = new LinkedHashMap<>();
+            balances.put("BGN", List.of(denomination(i % 40, 20, TIMESTAMP.minusSeconds(i * 7L))));
+            balances.put("EUR", List.of(denomination(1, 500, i % 3 == 0 ? null : TIMESTAMP.plusDays(i)),
+                    denomination(-i, 5, TIMESTAMP)));
+            CashBalanceResponse snapshot = snapshot(i % 10 == 0 ? null : "CASHIER_" + (i % 17),
+                    i % 50 == 0 ? null : TIMESTAMP.minusHours(i), balances);
+            snapshots.add(snapshot);
+            expected.addAll(BalanceRow.of(snapshot));
+        }
+        byte[] export = bytes(ColumnarBalanceCodec.encode(Flux.fromIterable(snapshots), 1000,
+                DefaultDataBufferFactory.sharedInstance));
+
+        List<BalanceRow> decoded = new ArrayList<>();
+        ColumnarBalanceCodec.decode(new ByteArrayInputStream(export), decoded::add);
+
+        assertEquals(7500, decoded.size());
+        assertEquals(expected, decoded);
+        assertTrue(export.length < join(CsvBalanceEncoder.encode(Flux.fromIterable(snapshots),
+                DefaultDataBufferFactory.sharedInstance)).length() / 4, "columnar export of " + export.length + " bytes");
+    }
+
+    @Test
+    void shouldEncodeAnEmptyExport() throws IOException {
+        byte[] export = bytes(ColumnarBalanceCodec.encode(Flux.empty(), 1000, DefaultDataBufferFactory.sharedInstance));
+
+        List<BalanceRow> decoded = new ArrayList<>();
+        ColumnarBalanceCodec.decode(new ByteArrayInputStream(export), decoded::add);
+
+        assertEquals(5, export.length);
+        assertEquals(List.of(), decoded);
+        assertThrows(IOException.class, () -> ColumnarBalanceCodec.decode(
+                new ByteArrayInputStream(CsvBalanceEncoder.HEADER.getBytes(StandardCharsets.UTF_8)), decoded::add));
+    }
+
+    @Test
+    void shouldOnlyDecodeTheBalancesTheConsumerAsksFor() {
+        AtomicInteger csvDecoded = new AtomicInteger();
+        AtomicInteger columnarDecoded = new AtomicInteger();
+
+        StepVerifier.create(CsvBalanceEncoder.encode(balances(csvDecoded), DefaultDataBufferFactory.sharedInstance), 3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+        StepVerifier.create(ColumnarBalanceCodec.encode(balances(columnarDecoded), 100, DefaultDataBufferFactory.sharedInstance), 3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+
+        // Of a million, no more than the operator prefetches
+        assertTrue(csvDecoded.get() < 1000, csvDecoded + " balances decoded for the CSV");
+        assertTrue(columnarDecoded.get() < 1000, columnarDecoded + " balances decoded for the columnar format");
+    }
+
+    private static Flux<CashBalanceResponse> balances(AtomicInteger decoded) {
+        return Flux.range(0, 1_000_000)
+                .map(i -> snapshot("CASHIER_" + i, TIMESTAMP, Map.of("BGN", List.of(denomination(1, 10, TIMESTAMP)))))
+                .doOnNext(snapshot -> decoded.incrementAndGet());
+    }
+
+    private static String join(Flux<DataBuffer> buffers) {
+        return new String(bytes(buffers), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(Flux<DataBuffer> buffers) {
+        DataBuffer joined = DataBufferUtils.join(buffers).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        return bytes;
+    }
+
+    private static CashBalanceResponse snapshot(String cashier, LocalDateTime timestamp,
+                                                Map<String, List<Denomination>> balances) {
+        CashBalanceResponse snapshot = new CashBalanceResponse();
+        snapshot.setCashier(cashier);
+        snapshot.setTimestamp(timestamp);
+        snapshot.setBalances(balances);
+        return snapshot;
+    }
+
+    private static Denomination denomination(int quantity, int value, LocalDateTime timestamp) {
+        Denomination denomination = new Denomination();
+        denomination.setQuantity(quantity);
+        denomination.setValue(value);
+        denomination.setTotalAmount(quantity * value);
+        denomination.setTimestamp(timestamp);
+        return denomination;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.controller.ReportingController;
+import com.example.cashreportingservice.dto.AnalyticsProperties;
+import com.example.cashreportingservice.dto.CashAggregateResponse;
+import com.example.cashreportingservice.dto.HistoricalReportProperties;
+import com.example.cashreportingservice.dto.RangeSummaryProperties;
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import com.example.cashreportingservice.repository.HistoricalReportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The report pipelines under BlockHound, with cashoperations answering on a non-blocking thread as the event loop
+ * does: a blocking call there (store lookups, {@code block()}, sleeps) fails the pipeline with a
+ * {@link BlockingOperationError}. Needs a JVM flag, so only run with {@code mvn test -Pblockhound}.
+ */
+@EnabledIfSystemProperty(named = "blockhound", matches = "true")
+class BlockingCallsTest {
+
+    private static final LocalDate SUNDAY = LocalDate.of(2025, 9, 21);
+
+    private JdbcTemplate jdbcTemplate;
+    private DailyReportService dailyReportService;
+    private ReportingController controller;
+
+    @BeforeAll
+    static void installBlockHound() {
+        // Queries of the in-memory H2 store never wait, those of a real database do
+        String store = HistoricalReportRepository.class.getName();
+        BlockHound.install(builder -> builder
+                .markAsBlocking(store, "find", "(Ljava/time/LocalDate;Ljava/lang/String;)Ljava/util/Optional;")
+                .markAsBlocking(store, "findDay", "(Ljava/time/LocalDate;)Ljava/util/List;")
+                .markAsBlocking(store, "saveAll", "(Ljava/time/LocalDate;Ljava/util/List;)V"));
+    }
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource =
+                new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        CashOperationsClientService client = new TestCashOperationsClientService(WebClient.builder(),
+                "http://localhost:8080", "api-key", "application/json") {
+            @Override
+            public Mono<CashAggregateResponse> fetchCashAggregates(LocalDateTime dateFrom, LocalDateTime dateTo,
+                                                                   String cashier, boolean perCashier) {
+                // Emitted on the parallel scheduler, which BlockHound treats like an event loop, late enough for
+                // the next days of a range to be requested from there
+                return Mono.fromSupplier(() -> aggregates(dateFrom)).delayElement(Duration.ofMillis(20));
+            }
+        };
+        PipelineStages stages = new PipelineStages(ObservationRegistry.NOOP);
+        dailyReportService = new DailyReportService(client, new SummaryReportService(),
+                new ReportViews(new ReportViewProperties()), new HistoricalReportRepository(jdbcTemplate),
+                new HistoricalReportProperties(), stages, new SimpleMeterRegistry(), true);
+        controller = new ReportingController(client, dailyReportService,
+                new RangeReportService(dailyReportService, new RangeSummaryProperties()),
+                new OperationAnalytics(new AnalyticsProperties()), stages);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shouldDetectBlockingCallsOnNonBlockingThreads() {
+        StepVerifier.create(Mono.delay(Duration.ofMillis(1)).doOnNext(tick -> sleep()))
+                .expectError(BlockingOperationError.class)
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(Mono.delay(Duration.ofMillis(1)).flatMap(tick -> dailyReportService.daySummaries(SUNDAY)))
+                .expectError(BlockingOperationError.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldKeepTheReportPipelinesOffBlockingCalls() {
+        // Computed on the non-blocking thread, stored from bounded elastic
+        assertEquals(BigDecimal.valueOf(2100), controller.getDailySummary(SUNDAY, null).block().getBody()
+                .getEndOfDayBalance());
+        LocalDate today = LocalDate.now();
+        assertEquals(Map.of("EUR", BigDecimal.valueOf(100L * today.getDayOfMonth())),
+                controller.getCurrencySummary(today).block().getBody());
+
+        // Days beyond the first 8 (the concurrency) are looked up when earlier ones complete on the non-blocking thread
+        assertEquals(14, controller.getRangeSummary(SUNDAY.minusDays(13), SUNDAY, "day").block().getBody()
+                .getGroups().size());
+        assertEquals(14, controller.getRangeSummary(SUNDAY.minusDays(13), SUNDAY, "cashier").block().getBody()
+                .getTotal().getTotalDeposits().intValue());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static CashAggregateResponse aggregates(LocalDateTime dateFrom) {
+        CashAggregateResponse aggregates = new CashAggregateResponse();
+        aggregates.setTimestamp(dateFrom.plusHours(20));
+        aggregates.setCashierCount(1);
+        aggregates.setDeposits(1);
+        aggregates.setCurrencyTotals(Map.of("EUR", 100L * dateFrom.getDayOfMonth()));
+        return aggregates;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceCacheProperties;
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.dto.CashOperationsClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.context.Context;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CashBalanceCacheTest {
+
+    private static final LocalDateTime TODAY_START = LocalDate.now().atStartOfDay();
+    private static final LocalDateTime TODAY_END = LocalDate.now().atTime(LocalTime.MAX);
+
+    private final CashBalanceCacheProperties properties = new CashBalanceCacheProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final CashOperationsClientProperties clientProperties = new CashOperationsClientProperties();
+    private final CashOperationsCircuitBreaker circuitBreaker =
+            new CashOperationsCircuitBreaker(clientProperties, meterRegistry, clock::get);
+    private final CashBalanceCache cache = new CashBalanceCache(properties, circuitBreaker, meterRegistry, clock::get);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void shouldShareOneCallBetweenConcurrentIdenticalRequests() {
+        Sinks.One<List<CashBalanceResponse>> response = Sinks.one();
+        List<CashBalanceResponse> balances = List.of(balance("LINDA"));
+
+        List<Mono<List<CashBalanceResponse>>> requests = Flux.range(0, 10)
+                .map(i -> cache.get(TODAY_START, TODAY_END, "LINDA", () -> load(response.asMono())))
+                .collectList().block();
+        Flux<List<CashBalanceResponse>> all = Flux.merge(requests).cache();
+        all.subscribe();
+        assertEquals(1, calls.get());
+
+        response.tryEmitValue(balances);
+        assertEquals(10, all.count().block());
+        all.toIterable().forEach(result -> assertSame(balances, result));
+        assertEquals(1, cache.getMisses());
+        assertEquals(9, cache.getCoalesced());
+
+        // Answered from the result while it is fresh, another range is a separate call
+        assertSame(balances, cache.get(TODAY_START, TODAY_END, "LINDA", () -> load(Mono.just(List.of()))).block());
+        assertEquals(1, cache.getHits());
+        cache.get(TODAY_START, TODAY_END, "PETER", () -> load(Mono.just(List.of()))).block();
+        assertEquals(2, calls.get());
+        assertEquals(2.0, meterRegistry.get("cashreportingservice.balance-cache.misses").counter().count());
+        assertEquals(2.0, meterRegistry.get("cashreportingservice.balance-cache.size").gauge().value());
+    }
+
+    @Test
+    void shouldKeepPastRangesLongerThanRangesOfToday() {
+        LocalDateTime yesterdayStart = TODAY_START.minusDays(1);
+        LocalDateTime yesterdayEnd = TODAY_END.minusDays(1);
+        cache.get(TODAY_START, TODAY_END, null, () -> load(Mono.just(List.of()))).block();
+        cache.get(yesterdayStart, yesterdayEnd, null, () -> load(Mono.just(List.of()))).block();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(properties.getTtlMillis()));
+        cache.get(TODAY_START, TODAY_END, null, () -> load(Mono.just(List.of()))).block();
+        cache.get(yesterdayStart, yesterdayEnd, null, () -> load(Mono.just(List.of()))).block();
+        assertEquals(3, calls.get());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(properties.getPastTtlMillis()));
+        cache.get(yesterdayStart, yesterdayEnd, null, () -> load(Mono.just(List.of()))).block();
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+        Mono<List<CashBalanceResponse>> failed =
+                cache.get(TODAY_START, TODAY_END, null, () -> load(Mono.error(new RuntimeException("down"))));
+        assertThrows(RuntimeException.class, failed::block);
+        assertEquals(0, cache.getSize());
+
+        assertEquals(List.of(), cache.get(TODAY_START, TODAY_END, null, () -> load(Mono.just(List.of()))).block());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldServeTheLastGoodResultWhileRefreshingOrFailing() {
+        List<CashBalanceResponse> balances = List.of(balance("LINDA"));
+        cache.get(TODAY_START, TODAY_END, "LINDA", () -> load(Mono.just(balances))).block();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(properties.getTtlMillis() + 500));
+
+        // The first request after expiry refreshes, the others get the previous result meanwhile
+        Sinks.One<List<CashBalanceResponse>> refresh = Sinks.one();
+        Mono<List<CashBalanceResponse>> refreshing =
+                cache.get(TODAY_START, TODAY_END, "LINDA", () -> load(refresh.asMono())).cache();
+        refreshing.subscribe();
+        CashBalanceCache.Staleness staleness = new CashBalanceCache.Staleness();
+        assertSame(balances, cache.get(TODAY_START, TODAY_END, "LINDA", () -> load(Mono.just(List.of())))
+                .contextWrite(Context.of(CashBalanceCache.Staleness.class, staleness)).block());
+        assertEquals(properties.getTtlMillis() + 500, staleness.getAgeMillis());
+        assertEquals(2, calls.get());
+
+        // A failed refresh falls back to the previous result as well
+        refresh.tryEmitError(new RuntimeException("down"));
+        assertSame(balances, refreshing.block());
+        assertEquals(2, cache.getStale());
+        assertEquals(0.5, meterRegistry.get("cashreportingservice.balance-cache.stale-ratio").gauge().value());
+
+        // Too old to be served
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(properties.getMaxStaleMillis()));
+        assertThrows(RuntimeException.class, () -> cache.get(TODAY_START, TODAY_END, "LINDA",
+                () -> load(Mono.error(new RuntimeException("down")))).block());
+    }
+
+    @Test
+    void shouldServeStaleAndRefreshInTheBackgroundWhileTheCircuitIsOpen() {
+        List<CashBalanceResponse> balances = List.of(balance("LINDA"));
+        cache.get(TODAY_START, TODAY_END, "LINDA", () -> load(Mono.just(balances))).block();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(properties.getTtlMillis()));
+        for (int i = 0; i < clientProperties.getCircuitBreaker().getMinimumCalls(); i++) {
+            circuitBreaker.onFailure();
+        }
+        assertFalse(circuitBreaker.isClosed());
+
+        // Answered at once with the previous result, one refresh started
+        Sinks.One<List<CashBalanceResponse>> refresh = Sinks.one();
+        for (int i = 0; i < 3; i++) {
+            assertSame(balances, cache.get(TODAY_START, TODAY_END, "LINDA", () -> load(refresh.asMono())).block());
+        }
+        assertEquals(2, calls.get());
+
+        List<CashBalanceResponse> refreshed = List.of(balance("LINDA"), balance("PETER"));
+        refresh.tryEmitValue(refreshed);
+        assertSame(refreshed, cache.get(TODAY_START, TODAY_END, "LINDA", () -> load(Mono.just(List.of()))).block());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void shouldEvictTheLeastRecentlyUsedRangesPastMaxEntries() {
+        properties.setMaxEntries(10);
+        for (int day = 1; day <= 10; day++) {
+            cache.get(TODAY_START.minusDays(day), TODAY_END.minusDays(day), null, () -> load(Mono.just(List.of()))).block();
+            clock.incrementAndGet();
+        }
+        // Past ranges stay fresh for pastTtlMillis, none of them has expired
+        cache.get(TODAY_START.minusDays(1), TODAY_END.minusDays(1), null, () -> load(Mono.just(List.of()))).block();
+        assertEquals(10, cache.getSize());
+
+        cache.get(TODAY_START.minusDays(11), TODAY_END.minusDays(11), null, () -> load(Mono.just(List.of()))).block();
+        assertEquals(9, cache.getSize());
+        assertEquals(11, calls.get());
+
+        // The range used last is still cached, the two used longest ago are gone
+        cache.get(TODAY_START.minusDays(1), TODAY_END.minusDays(1), null, () -> load(Mono.just(List.of()))).block();
+        cache.get(TODAY_START.minusDays(4), TODAY_END.minusDays(4), null, () -> load(Mono.just(List.of()))).block();
+        assertEquals(11, calls.get());
+        cache.get(TODAY_START.minusDays(2), TODAY_END.minusDays(2), null, () -> load(Mono.just(List.of()))).block();
+        cache.get(TODAY_START.minusDays(3), TODAY_END.minusDays(3), null, () -> load(Mono.just(List.of()))).block();
+        assertEquals(13, calls.get());
+    }
+
+    @Test
+    void shouldBoundTheLastGoodResultsWithoutExpiredEntries() {
+        properties.setMaxEntries(10);
+        properties.setPastTtlMillis(properties.getTtlMillis());
+        for (int day = 1; day <= 30; day++) {
+            cache.get(TODAY_START.minusDays(day), TODAY_END.minusDays(day), null, () -> load(Mono.just(List.of()))).block();
+            // Each range expires before the next one is cached, the entries never exceed the bound
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(properties.getTtlMillis()));
+        }
+        assertTrue(cache.getSize() <= 10);
+
+        // Only the most recent results are still served stale
+        Mono<List<CashBalanceResponse>> failing = Mono.error(new RuntimeException("down"));
+        assertEquals(List.of(), cache.get(TODAY_START.minusDays(30), TODAY_END.minusDays(30), null, () -> load(failing)).block());
+        assertThrows(RuntimeException.class,
+                () -> cache.get(TODAY_START.minusDays(1), TODAY_END.minusDays(1), null, () -> load(failing)).block());
+    }
+
+    @Test
+    void shouldCallEveryTimeWhenDisabled() {
+        properties.setEnabled(false);
+        cache.get(TODAY_START, TODAY_END, null, () -> load(Mono.just(List.of()))).block();
+        cache.get(TODAY_START, TODAY_END, null, () -> load(Mono.just(List.of()))).block();
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.getSize());
+    }
+
+    private Mono<List<CashBalanceResponse>> load(Mono<List<CashBalanceResponse>> result) {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            return result;
+        });
+    }
+
+    private static CashBalanceResponse balance(String cashier) {
+        CashBalanceResponse balance = new CashBalanceResponse();
+        balance.setCashier(cashier);
+        return balance;
+    }
+}
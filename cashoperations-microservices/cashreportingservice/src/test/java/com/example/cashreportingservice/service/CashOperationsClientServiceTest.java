@@ -0,0 +1,151 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.config.WebClientConfig;
+import com.example.cashreportingservice.dto.CashAggregateResponse;
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.dto.CashOperationsClientProperties;
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CashOperationsClientServiceTest {
+
+    private static final String ACCEPT = "application/x-jackson-smile, application/json;q=0.9";
+
+    @Test
+    void fetchCashBalancesRequestsAndDecodesSmile() throws Exception {
+        // Shape of the cashoperations payload: snapshot time as an array, denomination time as a string
+        byte[] smileBody = new ObjectMapper(new SmileFactory()).writeValueAsBytes(List.of(Map.of(
+                "operations", Map.of("DEPOSIT", 2),
+                "timestamp", List.of(2025, 8, 24, 20, 38, 0),
+                "cashier", "LINDA",
+                "balances", Map.of("EUR", List.of(Map.of(
+                        "quantity", 10, "value", 50, "totalAmount", 500, "timestamp", "2025-08-24T18:45:00"))))));
+        AtomicReference<ClientRequest> sentRequest = new AtomicReference<>();
+
+        CashOperationsClientService client = new TestCashOperationsClientService(
+                webClientBuilder().exchangeFunction(request -> {
+                    sentRequest.set(request);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, WebClientConfig.SMILE.toString())
+                            .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(smileBody)))
+                            .build());
+                }),
+                "http://localhost:8080", "api-key", ACCEPT);
+
+        List<CashBalanceResponse> balances = client.fetchCashBalances(null, null, "LINDA").block();
+
+        assertEquals(ACCEPT, sentRequest.get().headers().getFirst(HttpHeaders.ACCEPT));
+        assertEquals(1, balances.size());
+        CashBalanceResponse balance = balances.get(0);
+        assertEquals("LINDA", balance.getCashier());
+        assertEquals(LocalDateTime.of(2025, 8, 24, 20, 38), balance.getTimestamp());
+        assertEquals(2, balance.getOperations().get("DEPOSIT"));
+        assertEquals(500, balance.getBalances().get("EUR").get(0).getTotalAmount());
+        assertEquals(LocalDateTime.of(2025, 8, 24, 18, 45), balance.getBalances().get("EUR").get(0).getTimestamp());
+    }
+
+    @Test
+    void aggregateCashBalancesFoldsTheStreamedArray() throws Exception {
+        List<Map<String, Object>> snapshots = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            snapshots.add(Map.of(
+                    "operations", Map.of("DEPOSIT", i),
+                    "timestamp", List.of(2025, 8, 24, 20, 38, 0),
+                    "cashier", "CASHIER_" + i,
+                    "balances", Map.of("EUR", List.of(Map.of("quantity", 1, "value", 50, "totalAmount", 50)),
+                            "BGN", List.of(Map.of("quantity", 2, "value", 5, "totalAmount", 10)))));
+        }
+        byte[] json = new ObjectMapper().writeValueAsBytes(snapshots);
+        // Delivered in network-sized chunks that split the array elements
+        List<DataBuffer> chunks = new ArrayList<>();
+        for (int offset = 0; offset < json.length; offset += 8192) {
+            chunks.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(json, offset, Math.min(offset + 8192, json.length))));
+        }
+        CashOperationsClientService client = new TestCashOperationsClientService(
+                webClientBuilder().exchangeFunction(request -> Mono.just(
+                        ClientResponse.create(HttpStatus.OK)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body(Flux.fromIterable(chunks))
+                                .build())),
+                "http://localhost:8080", "api-key", ACCEPT);
+        SummaryReportService summaryReportService = new SummaryReportService();
+
+        Map<String, BigDecimal> summary = client.aggregateCashBalances("currency-summary", null, null, null,
+                summaryReportService::aggregateCurrencySummary).block();
+        DailySummaryReport report = client.aggregateCashBalances("daily-summary", null, null, null,
+                balances -> summaryReportService.aggregateDailySummaryReport(balances, null)).block();
+
+        assertEquals(Map.of("BGN", BigDecimal.valueOf(20_000), "EUR", BigDecimal.valueOf(100_000)), summary);
+        assertEquals("ALL", report.getCashier());
+        assertEquals("2025-08-24", report.getDate());
+        // Operations of the first snapshot
+        assertEquals(BigDecimal.ZERO, report.getTotalDeposits());
+        assertEquals(BigDecimal.valueOf(120_000), report.getEndOfDayBalance());
+        assertEquals("CASHIER_1999", client.streamCashBalances(null, null, null).last().block().getCashier());
+    }
+
+    @Test
+    void fetchCashAggregatesRequestsTheTotalsOnly() throws Exception {
+        byte[] smileBody = new ObjectMapper(new SmileFactory()).writeValueAsBytes(Map.of(
+                "timestamp", List.of(2025, 8, 24, 20, 38, 0),
+                "cashierCount", 1,
+                "currencyTotals", Map.of("BGN", 2300, "EUR", 1200),
+                "deposits", 12,
+                "withdrawals", 7));
+        AtomicReference<ClientRequest> sentRequest = new AtomicReference<>();
+        CashOperationsClientService client = new TestCashOperationsClientService(
+                webClientBuilder().exchangeFunction(request -> {
+                    sentRequest.set(request);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, WebClientConfig.SMILE.toString())
+                            .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(smileBody)))
+                            .build());
+                }),
+                "http://localhost:8080", "api-key", ACCEPT);
+
+        CashAggregateResponse aggregates = client.fetchCashAggregates(null, null, "LINDA", false).block();
+
+        assertEquals("/api/v1/cash-aggregates", sentRequest.get().url().getPath());
+        assertEquals("cashier=LINDA&perCashier=false", sentRequest.get().url().getQuery());
+        DailySummaryReport report = new SummaryReportService().generateDailySummaryReport(aggregates, "Linda");
+        assertEquals("Linda", report.getCashier());
+        assertEquals("2025-08-24", report.getDate());
+        assertEquals(Map.of("BGN", BigDecimal.valueOf(2300), "EUR", BigDecimal.valueOf(1200)), report.getCurrencyBreakdown());
+        assertEquals(BigDecimal.valueOf(12), report.getTotalDeposits());
+        assertEquals(BigDecimal.valueOf(7), report.getTotalWithdrawals());
+        assertEquals(BigDecimal.valueOf(3500), report.getEndOfDayBalance());
+
+        aggregates.setCashierCount(0);
+        assertNull(new SummaryReportService().generateDailySummaryReport(aggregates, "NOBODY").getCashier());
+    }
+
+    private static WebClient.Builder webClientBuilder() {
+        return new WebClientConfig().webClientBuilder(new CashOperationsClientProperties(),
+                new PipelineStages(ObservationRegistry.NOOP), ObservationRegistry.NOOP);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceResponse;
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.example.cashreportingservice.dto.Denomination;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CurrencyTotalsTest {
+
+    private final SummaryReportService summaryReportService = new SummaryReportService();
+
+    @Test
+    void shouldSumEachCurrencyOverAllSnapshots() {
+        List<CashBalanceResponse> balances = List.of(
+                snapshot("LINDA", Map.of("BGN", List.of(denomination(10, 10), denomination(2, 50)), "EUR", List.of(denomination(1, 100)))),
+                snapshot("PETER", Map.of("EUR", List.of(denomination(3, 20)), "USD", List.of())));
+
+        CurrencyTotals totals = CurrencyTotals.of(balances);
+
+        assertEquals(Map.of("BGN", BigDecimal.valueOf(200), "EUR", BigDecimal.valueOf(160), "USD", BigDecimal.ZERO), totals.toMap());
+        assertEquals(160, totals.get("EUR"));
+        assertEquals(0, totals.get("CHF"));
+        assertEquals(BigDecimal.valueOf(360), totals.total());
+        assertTrue(CurrencyTotals.of(List.of()).isEmpty());
+    }
+
+    @Test
+    void shouldGiveTheSameTotalsInParallel() {
+        List<CashBalanceResponse> balances = new ArrayList<>();
+        long expectedUsd = 0;
+        for (int i = 0; i < CurrencyTotals.PARALLEL_THRESHOLD * 5 + 7; i++) {
+            // More currencies than the initial capacity, appearing in a different order per chunk
+            String currency = List.of("BGN", "CZK", "USD", "GBP", "CHF", "RON").get(i % 6);
+            balances.add(snapshot("CASHIER_" + i, Map.of(currency, List.of(denomination(i % 40, 50)), "EUR", List.of(denomination(1, 5)))));
+            expectedUsd += currency.equals("USD") ? (i % 40) * 50L : 0;
+        }
+
+        Map<String, BigDecimal> parallel = CurrencyTotals.of(balances).toMap();
+
+        assertEquals(CurrencyTotals.sequential(balances).toMap(), parallel);
+        assertEquals(7, parallel.size());
+        assertEquals(BigDecimal.valueOf(5L * balances.size()), parallel.get("EUR"));
+        assertEquals(BigDecimal.valueOf(expectedUsd), parallel.get("USD"));
+        assertEquals(parallel, CurrencyTotals.of(new LinkedList<>(balances)).toMap());
+    }
+
+    @Test
+    void shouldBuildTheDailySummaryFromTheTotals() {
+        CashBalanceResponse linda = snapshot("LINDA", Map.of("BGN", List.of(denomination(10, 10)), "EUR", List.of(denomination(2, 50))));
+        linda.getOperations().put("LINDA_DEPOSIT", 3);
+        linda.getOperations().put("LINDA_WITHDRAWAL", 1);
+        linda.getOperations().put("PETER_DEPOSIT", 5);
+
+        DailySummaryReport report = summaryReportService.generateDailySummaryReport(List.of(linda), "Linda");
+
+        assertEquals("Linda", report.getCashier());
+        assertEquals("2025-08-24", report.getDate());
+        assertEquals(Map.of("BGN", BigDecimal.valueOf(100), "EUR", BigDecimal.valueOf(100)), report.getCurrencyBreakdown());
+        assertEquals(BigDecimal.valueOf(3), report.getTotalDeposits());
+        assertEquals(BigDecimal.ONE, report.getTotalWithdrawals());
+        assertEquals(BigDecimal.valueOf(200), report.getEndOfDayBalance());
+        assertEquals(report.getCurrencyBreakdown(), summaryReportService.generateCurrencySummary(List.of(linda)));
+    }
+
+    private static CashBalanceResponse snapshot(String cashier, Map<String, List<Denomination>> balances) {
+        CashBalanceResponse snapshot = new CashBalanceResponse();
+        snapshot.setCashier(cashier);
+        snapshot.setTimestamp(LocalDateTime.of(2025, 8, 24, 20, 38));
+        snapshot.setBalances(balances);
+        return snapshot;
+    }
+
+    private static Denomination denomination(int quantity, int value) {
+        Denomination denomination = new Denomination();
+        denomination.setQuantity(quantity);
+        denomination.setValue(value);
+        denomination.setTotalAmount(quantity * value);
+        return denomination;
+    }
+}
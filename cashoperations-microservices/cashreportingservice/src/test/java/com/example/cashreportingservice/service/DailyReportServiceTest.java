@@ -0,0 +1,149 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashAggregateResponse;
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.example.cashreportingservice.dto.HistoricalReportProperties;
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import com.example.cashreportingservice.repository.HistoricalReportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Finalization and read-through of the historical report store against H2 and a stub of the cash-aggregates endpoint.
+ */
+class DailyReportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 22);
+
+    private final HistoricalReportProperties properties = new HistoricalReportProperties();
+    private final AtomicInteger requests = new AtomicInteger();
+    private JdbcTemplate jdbcTemplate;
+    private HistoricalReportRepository repository;
+    private DailyReportService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource =
+                new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        repository = new HistoricalReportRepository(jdbcTemplate);
+        CashOperationsClientService client = new TestCashOperationsClientService(WebClient.builder(),
+                "http://localhost:8080", "api-key", "application/json") {
+            @Override
+            public Mono<CashAggregateResponse> fetchCashAggregates(LocalDateTime dateFrom, LocalDateTime dateTo,
+                                                                   String cashier, boolean perCashier) {
+                requests.incrementAndGet();
+                return Mono.just(aggregates(cashier, perCashier));
+            }
+        };
+        service = new DailyReportService(client, new SummaryReportService(), new ReportViews(new ReportViewProperties()),
+                repository, properties, new PipelineStages(ObservationRegistry.NOOP), new SimpleMeterRegistry(), true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shouldServeFinalizedDaysFromTheStore() {
+        assertEquals(3, service.finalizeDay(DAY));
+        assertEquals(1, requests.get());
+
+        DailySummaryReport all = service.dailySummary(DAY, null).block();
+        assertEquals("ALL", all.getCashier());
+        assertEquals("2025-09-22", all.getDate());
+        assertEquals(BigDecimal.valueOf(5), all.getTotalDeposits());
+        assertEquals(BigDecimal.valueOf(1700), all.getEndOfDayBalance());
+        assertEquals(Map.of("BGN", BigDecimal.valueOf(1200), "EUR", BigDecimal.valueOf(500)), all.getCurrencyBreakdown());
+
+        DailySummaryReport linda = service.dailySummary(DAY, "Linda").block();
+        assertEquals("Linda", linda.getCashier());
+        assertEquals(BigDecimal.valueOf(3), linda.getTotalDeposits());
+        assertEquals(Map.of("EUR", BigDecimal.valueOf(500)), linda.getCurrencyBreakdown());
+        assertEquals(Map.of("BGN", BigDecimal.valueOf(1200), "EUR", BigDecimal.valueOf(500)),
+                service.currencySummary(DAY).block());
+
+        // Nothing fetched after the finalization
+        assertEquals(1, requests.get());
+        assertEquals(3, service.getHits());
+    }
+
+    @Test
+    void shouldBackfillMissingDaysOnRequest() throws InterruptedException {
+        DailySummaryReport peter = service.dailySummary(DAY, "peter").block();
+        assertEquals(BigDecimal.valueOf(1200), peter.getEndOfDayBalance());
+        assertEquals(1, requests.get());
+        assertEquals(1, service.getBackfills());
+
+        // Written in the background
+        for (int wait = 0; wait < 50 && !repository.exists(DAY, "PETER"); wait++) {
+            Thread.sleep(20);
+        }
+        assertEquals(BigDecimal.valueOf(1200), service.dailySummary(DAY, "Peter").block().getEndOfDayBalance());
+        assertEquals(1, requests.get());
+        assertEquals(1, service.getHits());
+    }
+
+    @Test
+    void shouldComputeDaysThatAreNotFinalYet() {
+        LocalDate today = LocalDate.now();
+        assertFalse(service.isFinal(today));
+        service.dailySummary(today, null).block();
+        service.dailySummary(today, null).block();
+        assertEquals(2, requests.get());
+        assertFalse(repository.exists(today, HistoricalReportRepository.ALL));
+
+        // The store is skipped when disabled
+        properties.setEnabled(false);
+        service.dailySummary(DAY, null).block();
+        assertFalse(repository.exists(DAY, HistoricalReportRepository.ALL));
+    }
+
+    private static CashAggregateResponse aggregates(String cashier, boolean perCashier) {
+        CashAggregateResponse.CashierAggregate linda = new CashAggregateResponse.CashierAggregate();
+        linda.setCurrencyTotals(Map.of("EUR", 500L));
+        linda.setDeposits(3);
+        linda.setWithdrawals(1);
+        CashAggregateResponse.CashierAggregate peter = new CashAggregateResponse.CashierAggregate();
+        peter.setCurrencyTotals(Map.of("BGN", 1200L));
+        peter.setDeposits(2);
+        Map<String, CashAggregateResponse.CashierAggregate> cashiers = Map.of("LINDA", linda, "PETER", peter);
+
+        CashAggregateResponse aggregates = new CashAggregateResponse();
+        aggregates.setTimestamp(DAY.atTime(20, 38));
+        List<CashAggregateResponse.CashierAggregate> selected = cashier == null
+                ? List.copyOf(cashiers.values()) : List.of(cashiers.get(cashier.toUpperCase()));
+        aggregates.setCashierCount(selected.size());
+        selected.forEach(totals -> {
+            totals.getCurrencyTotals().forEach((currency, total) -> aggregates.getCurrencyTotals().merge(currency, total, Long::sum));
+            aggregates.setDeposits(aggregates.getDeposits() + totals.getDeposits());
+            aggregates.setWithdrawals(aggregates.getWithdrawals() + totals.getWithdrawals());
+        });
+        if (perCashier) {
+            aggregates.setCashiers(cashiers);
+        }
+        return aggregates;
+    }
+}
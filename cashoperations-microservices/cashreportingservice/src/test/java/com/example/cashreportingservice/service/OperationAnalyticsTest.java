@@ -0,0 +1,179 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.AnalyticsProperties;
+import com.example.cashreportingservice.dto.BalanceEvent;
+import com.example.cashreportingservice.dto.OperationQuantilesReport;
+import com.example.cashreportingservice.dto.TopCashiersReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationAnalyticsTest {
+
+    private final AnalyticsProperties properties = new AnalyticsProperties();
+    private final OperationAnalytics analytics = new OperationAnalytics(properties);
+    private final LocalDate today = LocalDate.now();
+    private long nextId;
+
+    @Test
+    void shouldRankCashiersByOperationsAndVolumeWithBoundedError() {
+        // 200 cashiers with Zipf-like activity: CASHIER_0 is the busiest, far more than capacity 64 can track exactly
+        SplittableRandom random = new SplittableRandom(7);
+        Map<String, Double> exactVolume = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            String cashier = "CASHIER_" + (int) Math.floor(Math.pow(200, random.nextDouble()) - 1);
+            int amount = 10 * (1 + random.nextInt(50));
+            record(today, cashier, "EUR", amount);
+            exactVolume.merge(cashier, (double) amount, Double::sum);
+        }
+        record(today, "CASHIER_0", "EUR", 10);
+        assertEquals(50_001, analytics.topCashiers(today, today, null, 10).getTotal().intValue());
+
+        TopCashiersReport top = analytics.topCashiers(today, today, "EUR", 10);
+        List<Map.Entry<String, Double>> exact = new ArrayList<>(exactVolume.entrySet());
+        exact.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        assertEquals("EUR", top.getRankedBy());
+        assertEquals(10, top.getCashiers().size());
+        assertEquals(exact.get(0).getKey(), top.getCashiers().get(0).getCashier());
+        for (TopCashiersReport.Entry entry : top.getCashiers()) {
+            double truth = exactVolume.get(entry.getCashier()) + (entry.getCashier().equals("CASHIER_0") ? 10 : 0);
+            assertTrue(entry.getEstimate().doubleValue() >= truth - 0.01, entry.getCashier());
+            assertTrue(entry.getLowerBound().doubleValue() <= truth + 0.01, entry.getCashier());
+            assertTrue(entry.getEstimate().doubleValue() - truth <= top.getMaxError().doubleValue() + 0.01);
+        }
+        assertTrue(top.getCashiers().get(0).isGuaranteed());
+    }
+
+    @Test
+    void shouldAnswerAmountQuantilesWithinTheRankError() {
+        SplittableRandom random = new SplittableRandom(11);
+        double[] amounts = new double[100_000];
+        for (int i = 0; i < amounts.length; i++) {
+            // Mostly small operations with a long tail
+            amounts[i] = 5 * Math.ceil(Math.exp(random.nextDouble() * 8));
+            record(today, "CASHIER_" + (i % 30), "BGN", amounts[i]);
+        }
+        Arrays.sort(amounts);
+
+        OperationQuantilesReport report = analytics.quantiles(today, today, "BGN", List.of(0.5, 0.95, 0.99));
+
+        assertEquals(100_000, report.getOperations());
+        assertEquals(BigDecimal.valueOf(amounts[0]).setScale(2), report.getMin());
+        assertEquals(BigDecimal.valueOf(amounts[amounts.length - 1]).setScale(2), report.getMax());
+        for (double q : List.of(0.5, 0.95, 0.99)) {
+            double value = report.getQuantiles().get(Double.toString(q)).doubleValue();
+            // Normalized rank of the answer, compared with the requested one
+            double rankLow = lowerBound(amounts, value) / (double) amounts.length;
+            double rankHigh = upperBound(amounts, value) / (double) amounts.length;
+            assertTrue(rankHigh >= q - report.getRankError() && rankLow <= q + report.getRankError(),
+                    "p" + q + " = " + value + " has rank " + rankLow + ".." + rankHigh);
+        }
+    }
+
+    @Test
+    void shouldMergeDaysOfARange() {
+        LocalDate yesterday = today.minusDays(1);
+        record(yesterday, "LINDA", "EUR", 100);
+        record(yesterday, "PETER", "EUR", 40);
+        record(today, "PETER", "EUR", 80);
+        record(today, "PETER", "BGN", 1000);
+
+        TopCashiersReport volume = analytics.topCashiers(yesterday, today, "EUR", 2);
+        assertEquals(List.of("PETER", "LINDA"), volume.getCashiers().stream().map(TopCashiersReport.Entry::getCashier).toList());
+        assertEquals(new BigDecimal("120.00"), volume.getCashiers().get(0).getEstimate());
+        // 220 / 64 counters
+        assertEquals(new BigDecimal("3.44"), volume.getMaxError());
+        assertEquals(new BigDecimal("2.00"), analytics.topCashiers(today, today, null, 5).getCashiers().get(0).getEstimate());
+
+        OperationQuantilesReport quantiles = analytics.quantiles(yesterday, today, "EUR", List.of(0.5));
+        assertEquals(3, quantiles.getOperations());
+        assertEquals(new BigDecimal("80.00"), quantiles.getQuantiles().get("0.5"));
+    }
+
+    @Test
+    void shouldSkipDuplicatesAndRejectInvalidQueries() {
+        BalanceEvent event = new BalanceEvent(1, "linda", "EUR", "DEPOSIT", BigDecimal.TEN, new int[5], today.atTime(9, 0));
+        analytics.record(event);
+        analytics.record(event);
+        assertEquals(1, analytics.quantiles(today, today, "EUR", List.of(0.5)).getOperations());
+        assertEquals("LINDA", analytics.topCashiers(today, today, null, 1).getCashiers().get(0).getCashier());
+
+        assertThrows(ResponseStatusException.class, () -> analytics.topCashiers(today, today.minusDays(1), null, 10));
+        assertThrows(ResponseStatusException.class, () -> analytics.topCashiers(today, today, null, 65));
+        assertThrows(ResponseStatusException.class, () -> analytics.quantiles(today, today, "EUR", List.of(1.5)));
+        assertThrows(ResponseStatusException.class,
+                () -> analytics.quantiles(today.minusDays(properties.getRetentionDays() + 1), today, "EUR", List.of(0.5)));
+    }
+
+    @Test
+    void shouldRecordTheIdsOfARestartedLogAfterAReset() {
+        analytics.record(new BalanceEvent(5, "linda", "EUR", "DEPOSIT", BigDecimal.TEN, new int[5], today.atTime(9, 0)));
+        BalanceEvent restarted = new BalanceEvent(1, "peter", "BGN", "DEPOSIT", BigDecimal.ONE, new int[5], today.atTime(10, 0));
+        analytics.record(restarted);
+        assertEquals(0, analytics.quantiles(today, today, "BGN", List.of(0.5)).getOperations());
+
+        analytics.reset();
+        analytics.record(restarted);
+
+        assertEquals(1, analytics.quantiles(today, today, "BGN", List.of(0.5)).getOperations());
+        assertEquals(0, analytics.quantiles(today, today, "EUR", List.of(0.5)).getOperations());
+        assertEquals("PETER", analytics.topCashiers(today, today, null, 1).getCashiers().get(0).getCashier());
+        assertEquals(1, analytics.topCashiers(today, today, null, 1).getTotal().intValue());
+    }
+
+    @Test
+    void shouldMergeSketchesLikeOneSketchOfBothStreams() {
+        KllSketch left = new KllSketch(200, new SplittableRandom(1));
+        KllSketch right = new KllSketch(200, new SplittableRandom(2));
+        SpaceSavingSketch leftTop = new SpaceSavingSketch(16);
+        SpaceSavingSketch rightTop = new SpaceSavingSketch(16);
+        for (int i = 0; i < 20_000; i++) {
+            left.update(i);
+            right.update(20_000 + i);
+            leftTop.update("K" + (i % 40), i % 40 == 0 ? 50 : 1);
+            rightTop.update("K" + (i % 40), i % 40 == 1 ? 50 : 1);
+        }
+        left.merge(right);
+        leftTop.merge(rightTop);
+
+        assertEquals(40_000, left.getCount());
+        assertEquals(20_000, left.quantile(0.5), 40_000 * left.rankError());
+        assertEquals(List.of("K0", "K1"), leftTop.top(2).stream().map(SpaceSavingSketch.HeavyHitter::key).sorted().toList());
+        assertTrue(leftTop.top(2).stream().allMatch(SpaceSavingSketch.HeavyHitter::guaranteed));
+        assertEquals(20_000 + 49 * 500 + 20_000 + 49 * 500, leftTop.getTotalWeight());
+    }
+
+    private void record(LocalDate day, String cashier, String currency, double amount) {
+        analytics.record(new BalanceEvent(++nextId, cashier, currency, "DEPOSIT", BigDecimal.valueOf(amount), new int[5],
+                day.atTime(12, 0)));
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && sorted[index - 1] == value) {
+            index--;
+        }
+        return index;
+    }
+
+    private static int upperBound(double[] sorted, double value) {
+        int index = lowerBound(sorted, value);
+        while (index < sorted.length && sorted[index] == value) {
+            index++;
+        }
+        return index;
+    }
+}
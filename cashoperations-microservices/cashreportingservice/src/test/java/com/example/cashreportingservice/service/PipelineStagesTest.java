@@ -0,0 +1,171 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.config.ReactorSchedulerMetrics;
+import com.example.cashreportingservice.controller.PipelineStagesEndpoint;
+import com.example.cashreportingservice.controller.ReportingController;
+import com.example.cashreportingservice.dto.AnalyticsProperties;
+import com.example.cashreportingservice.dto.HistoricalReportProperties;
+import com.example.cashreportingservice.dto.RangeSummaryProperties;
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import com.example.cashreportingservice.repository.HistoricalReportRepository;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stage timers of the report pipelines, against H2 and a stub of the cash-aggregates endpoint.
+ */
+class PipelineStagesTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 22);
+    private static final String AGGREGATES = "{\"timestamp\":[2025,9,22,20,38],\"cashierCount\":1,"
+            + "\"deposits\":3,\"withdrawals\":1,\"currencyTotals\":{\"EUR\":500}}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PipelineStagesEndpoint endpoint = new PipelineStagesEndpoint(meterRegistry);
+    private final AtomicReference<HttpStatus> status = new AtomicReference<>(HttpStatus.OK);
+    private JdbcTemplate jdbcTemplate;
+    private DailyReportService dailyReportService;
+    private ReportingController controller;
+
+    @BeforeEach
+    void setUp() {
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        PipelineStages stages = new PipelineStages(observationRegistry);
+
+        SimpleDriverDataSource dataSource =
+                new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        CashOperationsClientService client = new TestCashOperationsClientService(WebClient.builder()
+                .exchangeFunction(request -> Mono.just(ClientResponse.create(status.get())
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(status.get() == HttpStatus.OK ? AGGREGATES : "{\"errorMessage\":\"stub\"}")
+                        .build()))
+                .filter(stages.exchangeFilter()),
+                "http://localhost:8080", "api-key", "application/json");
+        dailyReportService = new DailyReportService(client, new SummaryReportService(),
+                new ReportViews(new ReportViewProperties()), new HistoricalReportRepository(jdbcTemplate),
+                new HistoricalReportProperties(), stages, new SimpleMeterRegistry(), true);
+        controller = new ReportingController(client, dailyReportService,
+                new RangeReportService(dailyReportService, new RangeSummaryProperties()),
+                new OperationAnalytics(new AnalyticsProperties()), stages);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shouldTimeEveryStageOfAPipeline() {
+        // A finalized day missing from the store: looked up, fetched, decoded, computed
+        assertEquals(BigDecimal.valueOf(500), controller.getDailySummary(DAY, null).block().getBody().getEndOfDayBalance());
+
+        Map<String, PipelineStagesEndpoint.Stage> stages = endpoint.breakdown().pipelines().get("daily-summary");
+        assertEquals(Set.of(PipelineStages.TOTAL, PipelineStages.HISTORY, PipelineStages.EXCHANGE,
+                PipelineStages.DECODE, PipelineStages.COMPUTE), stages.keySet());
+        stages.values().forEach(stage -> {
+            assertEquals(1, stage.count());
+            assertEquals(0, stage.errors());
+        });
+        PipelineStagesEndpoint.Stage total = stages.get(PipelineStages.TOTAL);
+        assertTrue(total.totalMillis() >= stages.get(PipelineStages.EXCHANGE).totalMillis());
+        assertEquals(total.totalMillis(), total.meanMillis(), 1e-9);
+        // Every stage started was stopped once the pipeline completed
+        meterRegistry.get(PipelineStages.OBSERVATION + ".active").longTaskTimers()
+                .forEach(active -> assertEquals(0, active.activeTasks(), active.getId().toString()));
+        assertFalse(meterRegistry.get(PipelineStages.OBSERVATION + ".active").tag("stage", PipelineStages.COMPUTE)
+                .longTaskTimers().isEmpty());
+    }
+
+    @Test
+    void shouldAttributeStagesOutsideRequestsToTheBackgroundAndCountErrors() {
+        dailyReportService.dailySummary(LocalDate.now(), null).block();
+        assertEquals(1, endpoint.breakdown().pipelines().get(PipelineStages.BACKGROUND)
+                .get(PipelineStages.EXCHANGE).count());
+
+        status.set(HttpStatus.BAD_REQUEST);
+        LocalDateTime from = DAY.atStartOfDay();
+        assertThrows(RuntimeException.class, () -> controller.getCashierActivity(from, from.plusHours(1), "LINDA").block());
+        PipelineStagesEndpoint.Stage total = endpoint.breakdown().pipelines().get("cashier-activity").get(PipelineStages.TOTAL);
+        assertEquals(1, total.count());
+        assertEquals(1, total.errors());
+    }
+
+    @Test
+    void shouldMeterTheQueuesOfSchedulers() throws InterruptedException {
+        ReactorSchedulerMetrics metrics = new ReactorSchedulerMetrics(meterRegistry);
+        metrics.start();
+        Scheduler scheduler = Schedulers.newBoundedElastic(1, 100, "metered");
+        try {
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            scheduler.schedule(() -> {
+                running.countDown();
+                await(release);
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            // Waits behind the first task on the only thread
+            Mono<String> queued = Mono.fromCallable(() -> Thread.currentThread().getName()).subscribeOn(scheduler);
+            AtomicReference<String> ranOn = new AtomicReference<>();
+            queued.subscribe(ranOn::set);
+
+            PipelineStagesEndpoint.SchedulerQueue queue = endpoint.breakdown().schedulers().get("metered");
+            assertEquals(1, queue.workers());
+            assertEquals(1, queue.active());
+            assertEquals(1, queue.queued());
+
+            release.countDown();
+            // Timed once the task returns
+            for (int wait = 0; wait < 100 && endpoint.breakdown().schedulers().get("metered").tasks() < 2; wait++) {
+                Thread.sleep(10);
+            }
+            assertTrue(ranOn.get().startsWith("metered"));
+            queue = endpoint.breakdown().schedulers().get("metered");
+            assertEquals(2, queue.tasks());
+            assertEquals(0, queue.queued());
+            assertTrue(queue.maxWaitMillis() > 0);
+        } finally {
+            scheduler.dispose();
+            metrics.stop();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
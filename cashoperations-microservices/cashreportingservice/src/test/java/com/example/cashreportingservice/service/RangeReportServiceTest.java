@@ -0,0 +1,158 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashAggregateResponse;
+import com.example.cashreportingservice.dto.HistoricalReportProperties;
+import com.example.cashreportingservice.dto.RangeSummaryProperties;
+import com.example.cashreportingservice.dto.RangeSummaryReport;
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import com.example.cashreportingservice.repository.HistoricalReportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Range summaries over H2 and a stub of the cash-aggregates endpoint: LINDA deposits the day of month in EUR notes
+ * worth 100 per day of month, PETER holds BGN worth 10 per day of month.
+ */
+class RangeReportServiceTest {
+
+    private static final LocalDate SUNDAY = LocalDate.of(2025, 9, 21);
+
+    private final RangeSummaryProperties properties = new RangeSummaryProperties();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private JdbcTemplate jdbcTemplate;
+    private DailyReportService dailyReportService;
+    private RangeReportService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource =
+                new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        CashOperationsClientService client = new TestCashOperationsClientService(WebClient.builder(),
+                "http://localhost:8080", "api-key", "application/json") {
+            @Override
+            public Mono<CashAggregateResponse> fetchCashAggregates(LocalDateTime dateFrom, LocalDateTime dateTo,
+                                                                   String cashier, boolean perCashier) {
+                return Mono.defer(() -> {
+                    requests.incrementAndGet();
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    // Leaves the in-flight count before the answer lets the next day start
+                    return Mono.delay(Duration.ofMillis(10))
+                            .doOnNext(tick -> inFlight.decrementAndGet())
+                            .map(tick -> aggregates(dateFrom.toLocalDate(), perCashier));
+                });
+            }
+        };
+        dailyReportService = new DailyReportService(client, new SummaryReportService(),
+                new ReportViews(new ReportViewProperties()), new HistoricalReportRepository(jdbcTemplate),
+                new HistoricalReportProperties(), new PipelineStages(ObservationRegistry.NOOP), new SimpleMeterRegistry(), true);
+        service = new RangeReportService(dailyReportService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shouldSumOperationsAndKeepTheStockOfTheLastDay() {
+        // Sunday is finalized already, only Monday and Tuesday are fetched
+        dailyReportService.finalizeDay(SUNDAY);
+        requests.set(0);
+
+        RangeSummaryReport byDay = service.rangeSummary(SUNDAY, SUNDAY.plusDays(2), RangeReportService.GroupBy.DAY).block();
+        assertEquals(2, requests.get());
+        assertEquals(List.of("2025-09-21", "2025-09-22", "2025-09-23"),
+                byDay.getGroups().stream().map(RangeSummaryReport.Group::getKey).toList());
+        assertEquals(BigDecimal.valueOf(22), byDay.getGroups().get(1).getTotalDeposits());
+        RangeSummaryReport.Group total = byDay.getTotal();
+        assertEquals(BigDecimal.valueOf(21 + 22 + 23), total.getTotalDeposits());
+        assertEquals("2025-09-21", total.getFirstDay());
+        assertEquals("2025-09-23", total.getLastDay());
+        assertEquals(Map.of("EUR", BigDecimal.valueOf(2300), "BGN", BigDecimal.valueOf(230)), total.getCurrencyBreakdown());
+        assertEquals(BigDecimal.valueOf(2530), total.getEndOfPeriodBalance());
+
+        // Sunday closes ISO week 38
+        RangeSummaryReport byWeek = service.rangeSummary(SUNDAY, SUNDAY.plusDays(2), RangeReportService.GroupBy.WEEK).block();
+        assertEquals(List.of("2025-W38", "2025-W39"), byWeek.getGroups().stream().map(RangeSummaryReport.Group::getKey).toList());
+        assertEquals(BigDecimal.valueOf(22 + 23), byWeek.getGroups().get(1).getTotalDeposits());
+        assertEquals(total, byWeek.getTotal());
+    }
+
+    @Test
+    void shouldGroupPerCashier() {
+        RangeSummaryReport byCashier = service.rangeSummary(SUNDAY, SUNDAY.plusDays(1), RangeReportService.GroupBy.CASHIER).block();
+
+        assertEquals(List.of("LINDA", "PETER"), byCashier.getGroups().stream().map(RangeSummaryReport.Group::getKey).toList());
+        RangeSummaryReport.Group linda = byCashier.getGroups().get(0);
+        assertEquals(BigDecimal.valueOf(21 + 22), linda.getTotalDeposits());
+        assertEquals(Map.of("EUR", BigDecimal.valueOf(2200)), linda.getCurrencyBreakdown());
+        assertEquals(BigDecimal.ZERO, byCashier.getGroups().get(1).getTotalDeposits());
+        assertEquals(Map.of("EUR", BigDecimal.valueOf(2200), "BGN", BigDecimal.valueOf(220)),
+                byCashier.getTotal().getCurrencyBreakdown());
+    }
+
+    @Test
+    void shouldFetchAtMostConcurrencyDaysAtATime() {
+        properties.setConcurrency(4);
+        RangeSummaryReport year = service.rangeSummary(SUNDAY.minusDays(364), SUNDAY, RangeReportService.GroupBy.WEEK).block();
+
+        assertEquals(365, requests.get());
+        assertEquals(4, maxInFlight.get());
+        assertEquals(53, year.getGroups().size());
+        assertEquals(Map.of("EUR", BigDecimal.valueOf(2100), "BGN", BigDecimal.valueOf(210)),
+                year.getTotal().getCurrencyBreakdown());
+    }
+
+    @Test
+    void shouldRejectInvalidRanges() {
+        assertThrows(ResponseStatusException.class,
+                () -> service.rangeSummary(SUNDAY, SUNDAY.minusDays(1), RangeReportService.GroupBy.DAY).block());
+        assertThrows(ResponseStatusException.class,
+                () -> service.rangeSummary(SUNDAY.minusDays(properties.getMaxDays()), SUNDAY, RangeReportService.GroupBy.DAY).block());
+    }
+
+    private static CashAggregateResponse aggregates(LocalDate day, boolean perCashier) {
+        int dayOfMonth = day.getDayOfMonth();
+        CashAggregateResponse.CashierAggregate linda = new CashAggregateResponse.CashierAggregate();
+        linda.setCurrencyTotals(Map.of("EUR", 100L * dayOfMonth));
+        linda.setDeposits(dayOfMonth);
+        CashAggregateResponse.CashierAggregate peter = new CashAggregateResponse.CashierAggregate();
+        peter.setCurrencyTotals(Map.of("BGN", 10L * dayOfMonth));
+
+        CashAggregateResponse aggregates = new CashAggregateResponse();
+        aggregates.setTimestamp(day.atTime(20, 38));
+        aggregates.setCashierCount(2);
+        aggregates.setCurrencyTotals(Map.of("EUR", 100L * dayOfMonth, "BGN", 10L * dayOfMonth));
+        aggregates.setDeposits(dayOfMonth);
+        if (perCashier) {
+            aggregates.setCashiers(Map.of("LINDA", linda, "PETER", peter));
+        }
+        return aggregates;
+    }
+}
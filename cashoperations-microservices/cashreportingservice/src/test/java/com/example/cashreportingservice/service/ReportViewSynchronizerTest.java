@@ -0,0 +1,138 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.AnalyticsProperties;
+import com.example.cashreportingservice.dto.BalanceEvent;
+import com.example.cashreportingservice.dto.BalanceEventPage;
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import com.example.cashreportingservice.dto.TopCashiersReport;
+import com.example.cashreportingservice.repository.ReportViewCheckpointRepository;
+import org.h2.Driver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.cashreportingservice.service.ReportViewsTest.event;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Catch-up, checkpoint and rebuild against a stub of the cashoperations event log and an H2 checkpoint.
+ */
+class ReportViewSynchronizerTest {
+
+    private final ReportViewProperties properties = new ReportViewProperties();
+    private final List<BalanceEvent> eventLog = new ArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final OperationAnalytics analytics = new OperationAnalytics(new AnalyticsProperties());
+    private JdbcTemplate jdbcTemplate;
+    private ReportViewCheckpointRepository checkpointRepository;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource =
+                new SimpleDriverDataSource(new Driver(), "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        checkpointRepository = new ReportViewCheckpointRepository(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        properties.setPageSize(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shouldCatchUpInPagesAndResumeFromTheCheckpoint() {
+        for (int id = 1; id <= 5; id++) {
+            eventLog.add(event(id, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, id, 0));
+        }
+        ReportViews views = new ReportViews(properties);
+        synchronizer(views).run();
+
+        assertEquals(5, views.getLastEventId());
+        assertEquals(LocalDate.EPOCH, views.getCoverageStart());
+        assertEquals(BigDecimal.valueOf(250), views.currencySummary(LocalDate.now()).orElseThrow().get("EUR"));
+        // Pages of 2: 0-2, 2-4, 4-5
+        assertEquals(3, requests.get());
+
+        // Restart: the checkpoint is restored, only the new events are fetched
+        eventLog.add(event(6, "LINDA", "EUR", "WITHDRAWAL", 0, 0, 0, 4, 0));
+        requests.set(0);
+        ReportViews restarted = new ReportViews(properties);
+        synchronizer(restarted).run();
+
+        assertEquals(6, restarted.getLastEventId());
+        assertEquals(1, requests.get());
+        assertEquals(BigDecimal.valueOf(5), restarted.dailySummary(LocalDate.now(), "LINDA").orElseThrow().getTotalDeposits());
+        assertEquals(BigDecimal.valueOf(200), restarted.currencySummary(LocalDate.now()).orElseThrow().get("EUR"));
+    }
+
+    @Test
+    void shouldRebuildWhenTheEventLogWasReset() {
+        for (int id = 1; id <= 4; id++) {
+            eventLog.add(event(id, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, id, 0));
+        }
+        ReportViews views = new ReportViews(properties);
+        ReportViewSynchronizer synchronizer = synchronizer(views);
+        synchronizer.run();
+        assertEquals(4, views.getLastEventId());
+
+        // cashoperations restarted with an empty in-memory log and wrote one event since
+        eventLog.clear();
+        eventLog.add(event(1, "PETER", "BGN", "DEPOSIT", 2, 0, 0, 0, 0));
+        synchronizer.run();
+
+        assertEquals(1, views.getLastEventId());
+        assertEquals(java.util.Map.of("BGN", BigDecimal.TEN), views.currencySummary(LocalDate.now()).orElseThrow());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM report_view_cell", Integer.class));
+        // The analytics restart with the log as well, event 1 of the new log is not a duplicate
+        List<TopCashiersReport.Entry> top = analytics.topCashiers(LocalDate.now(), LocalDate.now(), null, 10).getCashiers();
+        assertEquals(List.of("PETER"), top.stream().map(TopCashiersReport.Entry::getCashier).toList());
+    }
+
+    @Test
+    void shouldOnlyCoverTheDaysAfterPurgedEvents() {
+        eventLog.add(event(42, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, 1, 0));
+        ReportViews views = new ReportViews(properties);
+        synchronizer(views).run();
+
+        assertEquals(LocalDate.now().plusDays(1), views.getCoverageStart());
+        assertTrue(views.currencySummary(LocalDate.now()).isEmpty());
+    }
+
+    private ReportViewSynchronizer synchronizer(ReportViews views) {
+        CashOperationsClientService client = new TestCashOperationsClientService(WebClient.builder(),
+                "http://localhost:8080", "api-key", "application/json") {
+            @Override
+            public Mono<BalanceEventPage> fetchBalanceEvents(long since, int limit) {
+                requests.incrementAndGet();
+                BalanceEventPage page = new BalanceEventPage();
+                page.setEvents(eventLog.stream().filter(e -> e.getId() > since).limit(limit).toList());
+                page.setOldestId(eventLog.isEmpty() ? 0 : eventLog.get(0).getId());
+                page.setLatestId(eventLog.isEmpty() ? 0 : eventLog.get(eventLog.size() - 1).getId());
+                return Mono.just(page);
+            }
+        };
+        return new ReportViewSynchronizer(views, analytics, client,
+                checkpointRepository, properties,
+                new StaticListableBeanFactory().getBeanProvider(RabbitListenerEndpointRegistry.class));
+    }
+}
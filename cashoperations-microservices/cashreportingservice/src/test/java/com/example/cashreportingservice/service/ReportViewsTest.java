@@ -0,0 +1,105 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.BalanceEvent;
+import com.example.cashreportingservice.dto.DailySummaryReport;
+import com.example.cashreportingservice.dto.ReportViewProperties;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportViewsTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final ReportViewProperties properties = new ReportViewProperties();
+    private final ReportViews views = new ReportViews(properties);
+
+    @Test
+    void shouldMaintainDailyAggregatesPerCashierAndCurrency() {
+        views.reset(LocalDate.EPOCH);
+        // LINDA EUR: 10x50 deposited, then 2x50 withdrawn; last stock 8x50 + 1x100
+        views.apply(event(1, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, 10, 1));
+        views.apply(event(2, "LINDA", "EUR", "WITHDRAWAL", 0, 0, 0, 8, 1));
+        views.apply(event(3, "LINDA", "BGN", "DEPOSIT", 4, 0, 0, 0, 0));
+        views.apply(event(4, "PETER", "EUR", "DEPOSIT", 0, 0, 5, 0, 0));
+        // Redelivered by the broker
+        assertFalse(views.apply(event(2, "LINDA", "EUR", "WITHDRAWAL", 0, 0, 0, 8, 1)));
+        views.markSynced();
+
+        DailySummaryReport all = views.dailySummary(TODAY, null).orElseThrow();
+        assertEquals("ALL", all.getCashier());
+        assertEquals(TODAY.toString(), all.getDate());
+        assertEquals(Map.of("BGN", BigDecimal.valueOf(20), "EUR", BigDecimal.valueOf(600)), all.getCurrencyBreakdown());
+        assertEquals(BigDecimal.valueOf(3), all.getTotalDeposits());
+        assertEquals(BigDecimal.ONE, all.getTotalWithdrawals());
+        assertEquals(BigDecimal.valueOf(620), all.getEndOfDayBalance());
+
+        DailySummaryReport linda = views.dailySummary(TODAY, "Linda").orElseThrow();
+        assertEquals("Linda", linda.getCashier());
+        assertEquals(Map.of("BGN", BigDecimal.valueOf(20), "EUR", BigDecimal.valueOf(500)), linda.getCurrencyBreakdown());
+        assertEquals(BigDecimal.valueOf(2), linda.getTotalDeposits());
+        assertEquals(BigDecimal.ONE, linda.getTotalWithdrawals());
+
+        assertEquals(Map.of("BGN", BigDecimal.valueOf(20), "EUR", BigDecimal.valueOf(600)), views.currencySummary(TODAY).orElseThrow());
+        // A covered day without operations
+        assertEquals(Map.of(), views.currencySummary(TODAY.minusDays(1)).orElseThrow());
+        assertEquals(BigDecimal.ZERO, views.dailySummary(TODAY, "NOBODY").orElseThrow().getEndOfDayBalance());
+    }
+
+    @Test
+    void shouldNotAnswerWhenStaleOrOutsideTheCoverage() {
+        views.reset(TODAY);
+        views.apply(event(1, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, 1, 0));
+        // Never synced
+        assertTrue(views.dailySummary(TODAY, null).isEmpty());
+
+        views.markSynced();
+        assertTrue(views.dailySummary(TODAY, null).isPresent());
+        assertTrue(views.currencySummary(TODAY.minusDays(1)).isEmpty());
+        assertTrue(views.currencySummary(TODAY.minusDays(properties.getRetentionDays() + 1)).isEmpty());
+
+        properties.setStaleAfterMillis(-1);
+        assertTrue(views.dailySummary(TODAY, null).isEmpty());
+    }
+
+    @Test
+    void shouldOnlyApplyLiveEventsThatFollowTheViews() {
+        views.reset(LocalDate.EPOCH);
+        views.apply(event(1, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, 1, 0));
+
+        assertFalse(views.applyNext(event(3, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, 3, 0)));
+        assertEquals(1, views.getLastEventId());
+        assertTrue(views.applyNext(event(2, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, 2, 0)));
+        assertTrue(views.applyNext(event(2, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, 2, 0)));
+        assertEquals(2, views.getLastEventId());
+    }
+
+    @Test
+    void shouldRestoreTheSameReportsFromACheckpoint() {
+        views.reset(LocalDate.EPOCH);
+        views.apply(event(1, "LINDA", "EUR", "DEPOSIT", 0, 0, 0, 10, 1));
+        views.apply(event(2, "PETER", "BGN", "WITHDRAWAL", 1, 1, 0, 0, 0));
+        ReportViews.Checkpoint checkpoint = views.takeCheckpoint();
+        assertTrue(checkpoint.reset());
+        assertEquals(2, checkpoint.rows().size());
+        assertTrue(views.takeCheckpoint().rows().isEmpty());
+
+        ReportViews restored = new ReportViews(properties);
+        restored.restore(checkpoint);
+        views.markSynced();
+        restored.markSynced();
+
+        assertEquals(2, restored.getLastEventId());
+        assertEquals(views.dailySummary(TODAY, null), restored.dailySummary(TODAY, null));
+        assertEquals(views.dailySummary(TODAY, "PETER"), restored.dailySummary(TODAY, "PETER"));
+    }
+
+    static BalanceEvent event(long id, String cashier, String currency, String type, int... notes) {
+        return new BalanceEvent(id, cashier, currency, type, BigDecimal.TEN, notes, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.config.WebClientConfig;
+import com.example.cashreportingservice.dto.BalanceEventPage;
+import com.example.cashreportingservice.dto.CashBalanceCacheProperties;
+import com.example.cashreportingservice.dto.CashOperationsClientProperties;
+import com.example.cashreportingservice.exception.CashOperationsException;
+import com.example.cashreportingservice.exception.CircuitOpenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the client against a local stub of cashoperations that answers with the injected latency and status.
+ */
+class ResilientCallExecutorTest {
+
+    private static final String PAGE = "{\"events\":[],\"oldestId\":1,\"latestId\":7}";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    // Latency and status of the next answers, the last one repeats
+    private final Deque<Answer> answers = new ArrayDeque<>();
+    private Answer lastAnswer;
+    private CashOperationsCircuitBreaker circuitBreaker;
+    private DisposableServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    @Test
+    void shouldHedgeASlowAttempt() {
+        CashOperationsClientProperties properties = properties();
+        properties.getHedge().setInitialDelayMillis(50);
+        ResilientCallExecutor executor = executor(properties);
+        answer(2000, 200);
+        answer(0, 200);
+
+        long started = System.nanoTime();
+        BalanceEventPage page = client(properties, executor).fetchBalanceEvents(0, 10).block();
+
+        assertEquals(7, page.getLatestId());
+        assertEquals(2, requests.get());
+        assertEquals(1, executor.getHedges());
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 1500);
+    }
+
+    @Test
+    void shouldFailAtTheDeadline() {
+        CashOperationsClientProperties properties = properties();
+        properties.setDeadlineMillis(300);
+        properties.getHedge().setEnabled(false);
+        ResilientCallExecutor executor = executor(properties);
+        answer(2000, 200);
+
+        long started = System.nanoTime();
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> client(properties, executor).fetchBalanceEvents(0, 10).block());
+
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).toMillis() < 1500);
+    }
+
+    @Test
+    void shouldRetryUnavailableButNotClientErrors() {
+        CashOperationsClientProperties properties = properties();
+        ResilientCallExecutor executor = executor(properties);
+        answer(0, 503);
+        answer(0, 503);
+        answer(0, 200);
+        CashOperationsClientService client = client(properties, executor);
+
+        assertEquals(7, client.fetchBalanceEvents(0, 10).block().getLatestId());
+        assertEquals(3, requests.get());
+        assertEquals(2, executor.getRetries());
+
+        answer(0, 400);
+        CashOperationsException error = assertThrows(CashOperationsException.class,
+                () -> client.fetchBalanceEvents(0, 10).block());
+        assertEquals(400, error.getStatusCode());
+        assertEquals(4, requests.get());
+    }
+
+    @Test
+    void shouldStopRetryingWhenTheBudgetIsSpent() {
+        CashOperationsClientProperties properties = properties();
+        properties.setMaxRetries(3);
+        properties.setRetryBudgetRatio(0);
+        properties.setRetryBudgetMinPerSecond(2);
+        ResilientCallExecutor executor = executor(properties);
+        answer(0, 503);
+        CashOperationsClientService client = client(properties, executor);
+
+        // The budget starts with 2 tokens, the outage gets 2 retries in total instead of 3 per call
+        for (int call = 0; call < 3; call++) {
+            CashOperationsException error = assertThrows(CashOperationsException.class,
+                    () -> client.fetchBalanceEvents(0, 10).block());
+            assertEquals(503, error.getStatusCode());
+        }
+        assertEquals(5, requests.get());
+        assertEquals(2, executor.getRetries());
+        assertTrue(executor.getBudgetExhausted() >= 2);
+    }
+
+    @Test
+    void shouldOpenTheCircuitWhenCashoperationsKeepsFailing() {
+        CashOperationsClientProperties properties = properties();
+        properties.setMaxRetries(0);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setOpenMillis(200);
+        properties.getCircuitBreaker().setHalfOpenCalls(1);
+        ResilientCallExecutor executor = executor(properties);
+        answer(0, 503);
+        CashOperationsClientService client = client(properties, executor);
+
+        for (int call = 0; call < 4; call++) {
+            assertThrows(CashOperationsException.class, () -> client.fetchBalanceEvents(0, 10).block());
+        }
+        assertEquals(CashOperationsCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        // Rejected without a request while open
+        assertThrows(CircuitOpenException.class, () -> client.fetchBalanceEvents(0, 10).block());
+        assertEquals(4, requests.get());
+
+        // One trial call after openMillis, its success closes the circuit
+        answer(0, 200);
+        Mono.delay(Duration.ofMillis(250)).block();
+        assertEquals(7, client.fetchBalanceEvents(0, 10).block().getLatestId());
+        assertEquals(CashOperationsCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getTransitions(CashOperationsCircuitBreaker.State.OPEN));
+        assertEquals(1, circuitBreaker.getTransitions(CashOperationsCircuitBreaker.State.HALF_OPEN));
+        assertEquals(1, circuitBreaker.getTransitions(CashOperationsCircuitBreaker.State.CLOSED));
+    }
+
+    private ResilientCallExecutor executor(CashOperationsClientProperties properties) {
+        circuitBreaker = new CashOperationsCircuitBreaker(properties, new SimpleMeterRegistry());
+        return new ResilientCallExecutor(properties, circuitBreaker, new SimpleMeterRegistry());
+    }
+
+    private CashOperationsClientProperties properties() {
+        CashOperationsClientProperties properties = new CashOperationsClientProperties();
+        properties.setRetryBackoffMillis(10);
+        properties.getHedge().setInitialDelayMillis(1000);
+        return properties;
+    }
+
+    private void answer(long latencyMillis, int status) {
+        synchronized (answers) {
+            answers.add(new Answer(latencyMillis, status));
+        }
+    }
+
+    private CashOperationsClientService client(CashOperationsClientProperties properties, ResilientCallExecutor executor) {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/api/v1/balance-events", (request, response) -> {
+                    requests.incrementAndGet();
+                    Answer answer;
+                    synchronized (answers) {
+                        if (!answers.isEmpty()) {
+                            lastAnswer = answers.poll();
+                        }
+                        answer = lastAnswer;
+                    }
+                    return Mono.delay(Duration.ofMillis(answer.latencyMillis()))
+                            .then(response.status(HttpResponseStatus.valueOf(answer.status()))
+                                    .header("Content-Type", "application/json")
+                                    .sendString(Mono.just(answer.status() == 200 ? PAGE : "{\"errorMessage\":\"stub\"}"))
+                                    .then());
+                }))
+                .bindNow();
+        WebClient.Builder webClientBuilder = new WebClientConfig().webClientBuilder(properties,
+                new PipelineStages(ObservationRegistry.NOOP), ObservationRegistry.NOOP);
+        return new CashOperationsClientService(webClientBuilder,
+                "http://localhost:" + server.port(), "test-key", "application/json",
+                new CashBalanceCache(new CashBalanceCacheProperties(), circuitBreaker, new SimpleMeterRegistry()),
+                executor);
+    }
+
+    private record Answer(long latencyMillis, int status) {
+    }
+}
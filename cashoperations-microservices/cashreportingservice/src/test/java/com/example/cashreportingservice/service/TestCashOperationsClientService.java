@@ -0,0 +1,25 @@
+package com.example.cashreportingservice.service;
+
+import com.example.cashreportingservice.dto.CashBalanceCacheProperties;
+import com.example.cashreportingservice.dto.CashOperationsClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * {@link CashOperationsClientService} built outside Spring, with a cache and a call executor of default properties
+ * that share one circuit breaker. Tests override the fetch methods they stub.
+ */
+class TestCashOperationsClientService extends CashOperationsClientService {
+
+    TestCashOperationsClientService(WebClient.Builder webClientBuilder, String baseUrl, String apiKey, String accept) {
+        this(webClientBuilder, baseUrl, apiKey, accept,
+                new CashOperationsCircuitBreaker(new CashOperationsClientProperties(), new SimpleMeterRegistry()));
+    }
+
+    private TestCashOperationsClientService(WebClient.Builder webClientBuilder, String baseUrl, String apiKey,
+                                            String accept, CashOperationsCircuitBreaker circuitBreaker) {
+        super(webClientBuilder, baseUrl, apiKey, accept,
+                new CashBalanceCache(new CashBalanceCacheProperties(), circuitBreaker, new SimpleMeterRegistry()),
+                new ResilientCallExecutor(new CashOperationsClientProperties(), circuitBreaker, new SimpleMeterRegistry()));
+    }
+}
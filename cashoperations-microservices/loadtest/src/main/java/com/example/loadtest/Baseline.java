@@ -0,0 +1,85 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Latencies and error rates of a scenario a run must stay within: a step fails when its p50 or p99 exceeds the
+ * baseline by more than {@code tolerance} (and by more than {@code slackMillis}, so sub-millisecond steps do not
+ * flap), or when its error rate exceeds the baseline by more than {@code errorRateAllowance}.
+ * <p>
+ * Baselines depend on the machine: record one with {@code --record-baseline} where the runs are compared.
+ *
+ * @param ratePerSecond the rate the baseline was recorded at, runs at another rate are not compared
+ */
+public record Baseline(String scenario, double ratePerSecond, double tolerance, double slackMillis,
+                       double errorRateAllowance, Map<String, StepBaseline> steps) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public record StepBaseline(double p50Millis, double p99Millis, double errorRate) {
+    }
+
+    public static Baseline of(OpenModelLoad.Result result, double tolerance, double slackMillis,
+                              double errorRateAllowance) {
+        Map<String, StepBaseline> steps = new LinkedHashMap<>();
+        for (OpenModelLoad.StepResult step : result.steps()) {
+            steps.put(step.name(), new StepBaseline(millis(step, 50), millis(step, 99), step.errorRate()));
+        }
+        return new Baseline(result.scenario(), result.ratePerSecond(), tolerance, slackMillis, errorRateAllowance, steps);
+    }
+
+    public static Baseline read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), Baseline.class);
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    /**
+     * The thresholds {@code result} exceeds, none when it passes.
+     */
+    public List<String> violations(OpenModelLoad.Result result) {
+        List<String> violations = new ArrayList<>();
+        if (!scenario.equals(result.scenario()) || ratePerSecond != result.ratePerSecond()) {
+            violations.add("baseline of " + scenario + " at " + ratePerSecond + "/s, run of " + result.scenario()
+                    + " at " + result.ratePerSecond() + "/s");
+            return violations;
+        }
+        for (OpenModelLoad.StepResult step : result.steps()) {
+            StepBaseline baseline = steps.get(step.name());
+            if (baseline == null) {
+                continue;
+            }
+            check(violations, step.name(), "p50", millis(step, 50), baseline.p50Millis());
+            check(violations, step.name(), "p99", millis(step, 99), baseline.p99Millis());
+            if (step.errorRate() > baseline.errorRate() + errorRateAllowance) {
+                violations.add(String.format("%s error rate %.2f%% > %.2f%% + %.2f%%", step.name(),
+                        step.errorRate() * 100, baseline.errorRate() * 100, errorRateAllowance * 100));
+            }
+        }
+        return violations;
+    }
+
+    private void check(List<String> violations, String step, String percentile, double measured, double baseline) {
+        double limit = Math.max(baseline * (1 + tolerance), baseline + slackMillis);
+        if (measured > limit) {
+            violations.add(String.format("%s %s %.2f ms > %.2f ms (baseline %.2f ms)", step, percentile, measured,
+                    limit, baseline));
+        }
+    }
+
+    static double millis(OpenModelLoad.StepResult step, double percentile) {
+        return step.latencies().getValueAtPercentile(percentile) / 1000.0;
+    }
+}
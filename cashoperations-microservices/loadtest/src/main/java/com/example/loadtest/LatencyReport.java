@@ -0,0 +1,40 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Summary table of a run, and the HdrHistogram percentile distribution of every step in {@code <step>.hgrm}
+ * (milliseconds, for the HdrHistogram plotter).
+ */
+public final class LatencyReport {
+
+    private LatencyReport() {
+    }
+
+    public static void print(OpenModelLoad.Result result, PrintStream out) {
+        out.printf("%s at %.0f/s for %ss%n", result.scenario(), result.ratePerSecond(), result.duration().toSeconds());
+        out.printf("%-18s %8s %8s %8s %9s %9s %9s %9s %9s  %s%n",
+                "step", "requests", "errors", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        for (OpenModelLoad.StepResult step : result.steps()) {
+            out.printf("%-18s %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    step.name(), step.requests(), step.errors(), step.dropped(),
+                    Baseline.millis(step, 50), Baseline.millis(step, 90), Baseline.millis(step, 99),
+                    Baseline.millis(step, 99.9), step.latencies().getMaxValue() / 1000.0, step.statuses());
+        }
+    }
+
+    public static void write(OpenModelLoad.Result result, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (OpenModelLoad.StepResult step : result.steps()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(step.name() + ".hgrm")))) {
+                step.latencies().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")))) {
+            print(result, out);
+        }
+    }
+}
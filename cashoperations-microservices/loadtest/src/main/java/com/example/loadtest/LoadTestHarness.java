@@ -0,0 +1,102 @@
+package com.example.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+/**
+ * Boots the services, drives a scenario at an open-model arrival rate, reports the latencies and compares them with
+ * the baseline of the scenario. Exits with 1 when a threshold is exceeded.
+ * <p>
+ * Options ({@code --name=value}, defaults in brackets):
+ * <ul>
+ *   <li>{@code mode}: {@code process}, {@code in-process} or {@code external} [process]</li>
+ *   <li>{@code services}: comma separated, the upstreams of a service that are left out are stubbed
+ *   [cashoperations,cashreportingservice,cashdocumentsservice]</li>
+ *   <li>{@code scenario}: {@code mixed}, {@code operations}, {@code reports} or {@code documents} [mixed]</li>
+ *   <li>{@code rate} requests per second [30], {@code warmup} and {@code duration} in seconds [10, 60],
+ *   {@code seed} of the arrivals and request mix [42], {@code max-in-flight} [2000]</li>
+ *   <li>{@code baseline} [baselines/&lt;scenario&gt;.json], {@code record-baseline} to overwrite it with this run
+ *   [false], {@code tolerance} [0.25], {@code slack-millis} [2] and {@code error-rate-allowance} [0.01] of a
+ *   recorded baseline</li>
+ *   <li>{@code modules} directory of the service modules [..], {@code out} directory of the reports and service
+ *   logs [target/loadtest], {@code stub-latency-millis} [5], {@code api-key} of cashoperations</li>
+ * </ul>
+ */
+public class LoadTestHarness {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = options(args);
+        LocalServices.Mode mode = LocalServices.Mode.valueOf(
+                options.getOrDefault("mode", "process").toUpperCase(Locale.ROOT).replace('-', '_'));
+        Set<Service> services = EnumSet.noneOf(Service.class);
+        Arrays.stream(options.getOrDefault("services", "cashoperations,cashreportingservice,cashdocumentsservice")
+                .split(",")).map(String::trim).map(Service::of).forEach(services::add);
+        String scenarioName = options.getOrDefault("scenario", "mixed");
+        double rate = Double.parseDouble(options.getOrDefault("rate", "30"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Path out = Path.of(options.getOrDefault("out", "target/loadtest"));
+        Path baselineFile = Path.of(options.getOrDefault("baseline", "baselines/" + scenarioName + ".json"));
+
+        OpenModelLoad.Result result;
+        try (LocalServices local = LocalServices.start(mode, services, Path.of(options.getOrDefault("modules", "..")),
+                out.resolve("services"), Long.parseLong(options.getOrDefault("stub-latency-millis", "5")));
+             HttpClient client = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            Scenario scenario = Scenario.of(scenarioName, local.targets().keySet(),
+                    options.getOrDefault("api-key", "f9Uie8nNf112hx8s"));
+            scenario.prepare(client, local.targets());
+            result = new OpenModelLoad(client, local.targets(), Integer.parseInt(options.getOrDefault("max-in-flight", "2000")))
+                    .run(scenario, rate, warmup, duration, Long.parseLong(options.getOrDefault("seed", "42")));
+        }
+
+        LatencyReport.print(result, System.out);
+        LatencyReport.write(result, out.resolve(scenarioName));
+        if (Boolean.parseBoolean(options.getOrDefault("record-baseline", "false"))) {
+            Baseline.of(result, Double.parseDouble(options.getOrDefault("tolerance", "0.25")),
+                    Double.parseDouble(options.getOrDefault("slack-millis", "2")),
+                    Double.parseDouble(options.getOrDefault("error-rate-allowance", "0.01"))).write(baselineFile);
+            System.out.println("Baseline recorded in " + baselineFile);
+            return;
+        }
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline in " + baselineFile + ", record one with --record-baseline=true");
+            return;
+        }
+        List<String> violations = Baseline.read(baselineFile).violations(result);
+        if (violations.isEmpty()) {
+            System.out.println("PASS against " + baselineFile);
+        } else {
+            System.out.println("FAIL against " + baselineFile);
+            violations.forEach(violation -> System.out.println("  " + violation));
+            System.exit(1);
+        }
+    }
+
+    static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            options.put(equals < 0 ? arg.substring(2) : arg.substring(2, equals),
+                    equals < 0 ? "true" : arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
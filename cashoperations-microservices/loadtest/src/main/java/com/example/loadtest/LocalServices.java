@@ -0,0 +1,317 @@
+package com.example.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * The services a load test runs against: booted from the jars {@code mvn package} built, as local processes or
+ * in this JVM, or already running ({@link Mode#EXTERNAL}). A booted service whose upstream is not booted calls an
+ * {@link UpstreamStub} instead; the config server and RabbitMQ are never needed.
+ * <p>
+ * Processes run in {@code workDir/<service>}, where they write their files (transaction logs, downloads). Services
+ * booted in this JVM get a class loader of their own over the unpacked jar, but share its working directory, system
+ * properties and the carriers of virtual threads: on a machine of one or two cores, a service blocking a carrier
+ * stalls the others, run them as processes there.
+ * Logs go to {@code workDir/<service>.log}. Services are shut down through their actuator.
+ */
+public final class LocalServices implements AutoCloseable {
+
+    public enum Mode {PROCESS, IN_PROCESS, EXTERNAL}
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final String CLASSES = "BOOT-INF/classes/";
+    private static final String LIBRARIES = "BOOT-INF/lib/";
+
+    private final Map<Service, URI> targets = new EnumMap<>(Service.class);
+    private final Deque<AutoCloseable> running = new ArrayDeque<>();
+    // Set when a booted service fails to start or exits
+    private final Map<Service, AtomicReference<Throwable>> failures = new EnumMap<>(Service.class);
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+
+    private LocalServices() {
+    }
+
+    public static LocalServices start(Mode mode, Set<Service> services, Path modules, Path workDir,
+                                      long stubLatencyMillis) throws IOException, InterruptedException {
+        LocalServices local = new LocalServices();
+        try {
+            Files.createDirectories(workDir);
+            // Upstreams first, their URLs are passed on
+            for (Service service : Service.values()) {
+                if (!services.contains(service)) {
+                    continue;
+                }
+                URI baseUri = service.baseUri(service.port());
+                if (mode != Mode.EXTERNAL) {
+                    URI upstream = null;
+                    if (service.upstream().isPresent()) {
+                        Service upstreamService = service.upstream().get();
+                        upstream = local.targets.get(upstreamService);
+                        if (upstream == null) {
+                            UpstreamStub stub = UpstreamStub.start(upstreamService, stubLatencyMillis);
+                            local.running.push(stub);
+                            upstream = stub.baseUri();
+                        }
+                    }
+                    List<String> arguments = service.arguments(service.port(), logConfig(service, workDir), upstream);
+                    local.running.push(mode == Mode.PROCESS
+                            ? local.process(service, modules, workDir, arguments)
+                            : local.inProcess(service, modules, workDir, arguments));
+                }
+                local.awaitReady(service, baseUri);
+                local.targets.put(service, baseUri);
+            }
+            return local;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            local.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Base URLs of the running services.
+     */
+    public Map<Service, URI> targets() {
+        return Collections.unmodifiableMap(targets);
+    }
+
+    private AutoCloseable process(Service service, Path modules, Path workDir, List<String> arguments)
+            throws IOException {
+        Path jar = requireJar(service, modules);
+        Path directory = Files.createDirectories(workDir.resolve(service.module()));
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-Xmx1g", "-jar",
+                jar.toAbsolutePath().toString()));
+        command.addAll(arguments);
+        Path out = workDir.resolve(service.module() + ".out");
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(out.toFile())
+                .start();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        process.onExit().thenAccept(exited ->
+                failure.set(new IllegalStateException("exited with " + exited.exitValue() + ", see " + out)));
+        failures.put(service, failure);
+        return () -> {
+            shutdown(service);
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        };
+    }
+
+    private AutoCloseable inProcess(Service service, Path modules, Path workDir, List<String> arguments)
+            throws IOException {
+        Path exploded = workDir.resolve(service.module()).resolve("exploded").toAbsolutePath().normalize();
+        String startClass = explode(requireJar(service, modules), exploded);
+        List<URL> classpath = new ArrayList<>();
+        classpath.add(exploded.resolve("classes").toUri().toURL());
+        try (BufferedReader index = Files.newBufferedReader(exploded.resolve("classpath.idx"))) {
+            for (String line = index.readLine(); line != null; line = index.readLine()) {
+                classpath.add(exploded.resolve(line).toUri().toURL());
+            }
+        }
+        URLClassLoader loader = new URLClassLoader(service.module(), classpath.toArray(URL[]::new),
+                ClassLoader.getPlatformClassLoader());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread main = Thread.ofPlatform().name(service.module() + "-main").unstarted(() -> {
+            try {
+                // Only one web server of the JVM may register its URL stream handler factory, none needs it
+                loader.loadClass("org.apache.catalina.webresources.TomcatURLStreamHandlerFactory")
+                        .getMethod("disable")
+                        .invoke(null);
+                loader.loadClass(startClass)
+                        .getMethod("main", String[].class)
+                        .invoke(null, (Object) arguments.toArray(String[]::new));
+            } catch (InvocationTargetException e) {
+                failure.set(e.getCause());
+            } catch (ReflectiveOperationException e) {
+                failure.set(e);
+            }
+        });
+        main.setContextClassLoader(loader);
+        main.start();
+        failures.put(service, failure);
+        return () -> {
+            shutdown(service);
+            // The context closes on a thread of its own, with classes still to load
+            awaitDown(service);
+            awaitThreads(loader);
+            // The loader is left open: daemon threads of the service (schedulers, event loops) may still log
+            // while they wind down
+        };
+    }
+
+    /**
+     * Unpacks the classes and libraries of an executable jar, in the order of its {@code classpath.idx}, so they
+     * load from plain files: the {@code nested:} URLs of the Spring Boot launcher need a handler on the system class
+     * path. Returns the application class.
+     */
+    private static String explode(Path jar, Path directory) throws IOException {
+        List<String> libraries = new ArrayList<>();
+        try (JarFile archive = new JarFile(jar.toFile())) {
+            Path classes = directory.resolve("classes");
+            for (JarEntry entry : Collections.list(archive.entries())) {
+                String name = entry.getName();
+                Path target;
+                if (name.startsWith(CLASSES)) {
+                    target = classes.resolve(name.substring(CLASSES.length()));
+                } else if (name.startsWith(LIBRARIES)) {
+                    target = directory.resolve("lib").resolve(name.substring(LIBRARIES.length()));
+                } else {
+                    continue;
+                }
+                if (entry.isDirectory() || !target.normalize().startsWith(directory)) {
+                    continue;
+                }
+                Files.createDirectories(target.getParent());
+                try (InputStream in = archive.getInputStream(entry)) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            JarEntry index = archive.getJarEntry("BOOT-INF/classpath.idx");
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(archive.getInputStream(index)))) {
+                // Lines like - "BOOT-INF/lib/spring-core-6.2.10.jar"
+                for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                    String library = line.substring(line.indexOf('"') + 1, line.lastIndexOf('"'));
+                    libraries.add("lib/" + library.substring(LIBRARIES.length()));
+                }
+            }
+            Files.write(directory.resolve("classpath.idx"), libraries);
+            return archive.getManifest().getMainAttributes().getValue("Start-Class");
+        }
+    }
+
+    private static Path requireJar(Service service, Path modules) {
+        Path jar = service.jar(modules);
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException(jar + " not found, run mvn package in " + service.module() + " first");
+        }
+        return jar;
+    }
+
+    private void awaitReady(Service service, URI baseUri) throws InterruptedException {
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(baseUri + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            AtomicReference<Throwable> failure = failures.get(service);
+            if (failure != null && failure.get() != null) {
+                throw new IllegalStateException(service.module() + " failed to start", failure.get());
+            }
+            try {
+                if (client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException(service.module() + " not ready at " + baseUri + " after " + STARTUP_TIMEOUT);
+    }
+
+    private void awaitDown(Service service) throws InterruptedException {
+        HttpRequest readiness = HttpRequest.newBuilder(
+                        URI.create(service.baseUri(service.port()) + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (System.nanoTime() < deadline) {
+            try {
+                client.send(readiness, HttpResponse.BodyHandlers.discarding());
+            } catch (IOException e) {
+                return;
+            }
+            Thread.sleep(200);
+        }
+    }
+
+    /**
+     * Waits for the non-daemon threads of a service booted in this JVM (the shutdown thread, the web server's) to
+     * finish.
+     */
+    private static void awaitThreads(ClassLoader loader) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread != Thread.currentThread() && !thread.isDaemon() && thread.getContextClassLoader() == loader) {
+                thread.join(Duration.ofNanos(Math.max(1, deadline - System.nanoTime())));
+            }
+        }
+    }
+
+    private void shutdown(Service service) {
+        try {
+            client.send(HttpRequest.newBuilder(URI.create(service.baseUri(service.port()) + "/actuator/shutdown"))
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .timeout(Duration.ofSeconds(10))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            // Already down
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Path logConfig(Service service, Path workDir) throws IOException {
+        Path log = workDir.resolve(service.module() + ".log").toAbsolutePath();
+        Path config = workDir.resolve(service.module() + "-logback.xml");
+        Files.writeString(config, """
+                <configuration>
+                    <appender name="FILE" class="ch.qos.logback.core.FileAppender">
+                        <file>%s</file>
+                        <append>false</append>
+                        <encoder>
+                            <pattern>%%d{HH:mm:ss.SSS} [%%thread] %%-5level %%logger{36} - %%msg%%n</pattern>
+                        </encoder>
+                    </appender>
+                    <logger name="com.example" level="INFO"/>
+                    <root level="WARN">
+                        <appender-ref ref="FILE"/>
+                    </root>
+                </configuration>
+                """.formatted(log));
+        return config.toAbsolutePath();
+    }
+
+    @Override
+    public void close() {
+        while (!running.isEmpty()) {
+            try {
+                running.pop().close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("Failed to stop: " + e.getMessage());
+            }
+        }
+    }
+}
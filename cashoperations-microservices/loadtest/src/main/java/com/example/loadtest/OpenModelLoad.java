@@ -0,0 +1,141 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests arrive at {@code ratePerSecond} on average, with exponential gaps (a Poisson process),
+ * whether or not earlier ones have been answered, each sent from a virtual thread of its own. Latency is measured
+ * from the scheduled arrival, so time a request waits for a busy client or server counts (no coordinated omission).
+ * <p>
+ * Requests arriving during the warm-up are sent but not recorded. Arrivals beyond {@code maxInFlight} outstanding
+ * requests are dropped and counted, so an overloaded service does not exhaust the load generator.
+ */
+public final class OpenModelLoad {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final HttpClient client;
+    private final Map<Service, URI> targets;
+    private final int maxInFlight;
+
+    public OpenModelLoad(HttpClient client, Map<Service, URI> targets, int maxInFlight) {
+        this.client = client;
+        this.targets = targets;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Latencies in microseconds, and outcomes, of the requests of one step.
+     */
+    public record StepResult(String name, Histogram latencies, long errors, long dropped, Map<Integer, Long> statuses) {
+
+        public long requests() {
+            return latencies.getTotalCount() + dropped;
+        }
+
+        public double errorRate() {
+            long requests = requests();
+            return requests == 0 ? 0 : (double) (errors + dropped) / requests;
+        }
+    }
+
+    public record Result(String scenario, double ratePerSecond, Duration duration, List<StepResult> steps) {
+    }
+
+    public Result run(Scenario scenario, double ratePerSecond, Duration warmup, Duration duration, long seed)
+            throws InterruptedException {
+        Map<String, Outcomes> outcomes = new LinkedHashMap<>();
+        scenario.steps().forEach(step -> outcomes.put(step.name(), new Outcomes()));
+        SplittableRandom random = new SplittableRandom(seed);
+        AtomicInteger inFlight = new AtomicInteger();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            long arrival = start;
+            while (arrival < end) {
+                long wait = arrival - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Scenario.Step step = scenario.pick(random);
+                Outcomes outcome = outcomes.get(step.name());
+                boolean recorded = arrival >= measureFrom;
+                if (inFlight.incrementAndGet() > maxInFlight) {
+                    inFlight.decrementAndGet();
+                    if (recorded) {
+                        outcome.dropped.increment();
+                    }
+                } else {
+                    HttpRequest request = scenario.request(step, targets, random);
+                    long scheduled = arrival;
+                    senders.execute(() -> {
+                        try {
+                            send(request, scheduled, recorded ? outcome : null);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                }
+                arrival += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            }
+            // Closing waits for the requests in flight, bounded by their timeout
+        }
+        return new Result(scenario.name(), ratePerSecond, duration, outcomes.entrySet().stream()
+                .map(entry -> entry.getValue().result(entry.getKey()))
+                .toList());
+    }
+
+    private void send(HttpRequest request, long scheduled, Outcomes outcome) {
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            // Timeouts and refused connections
+            status = 0;
+        }
+        if (outcome != null) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+            outcome.latencies.recordValue(Math.min(micros, HIGHEST_MICROS));
+            outcome.statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+            if (status < 200 || status >= 300) {
+                outcome.errors.increment();
+            }
+        }
+    }
+
+    private static final class Outcomes {
+        private final Recorder latencies = new Recorder(HIGHEST_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        private StepResult result(String name) {
+            Map<Integer, Long> counts = new LinkedHashMap<>();
+            statuses.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(entry -> counts.put(entry.getKey(), entry.getValue().sum()));
+            return new StepResult(name, latencies.getIntervalHistogram(), errors.sum(), dropped.sum(), counts);
+        }
+    }
+}
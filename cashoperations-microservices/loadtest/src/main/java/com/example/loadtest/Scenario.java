@@ -0,0 +1,180 @@
+package com.example.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Weighted mix of the requests of a load test. {@code mixed} takes the steps of every running service,
+ * {@code operations}, {@code reports} and {@code documents} those of cashoperations, cashreportingservice and
+ * cashdocumentsservice alone:
+ * <ul>
+ *   <li>cashoperations: deposits three times as often as withdrawals (so the drawers never run out) and balance
+ *   queries of the three cashiers</li>
+ *   <li>cashreportingservice: today's daily, currency and cashier activity reports, the range summary of the last
+ *   week</li>
+ *   <li>cashdocumentsservice: uploads and downloads of {@value #FILE_GROUPS} file groups of a {@value #FILE_BYTES}
+ *   byte receipt each, uploaded before the load starts</li>
+ * </ul>
+ */
+public final class Scenario {
+
+    static final int FILE_GROUPS = 20;
+    static final int FILE_BYTES = 16 * 1024;
+
+    private static final List<String> CASHIERS = List.of("LINDA", "MARTINA", "PETER");
+    private static final List<String> CURRENCIES = List.of("BGN", "EUR");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * A kind of request, {@code weight} times out of the total weight of the scenario.
+     */
+    public record Step(String name, Service service, int weight, RequestFactory factory) {
+    }
+
+    @FunctionalInterface
+    public interface RequestFactory {
+        HttpRequest.Builder create(URI baseUri, SplittableRandom random);
+    }
+
+    private final String name;
+    private final List<Step> steps;
+    private final int totalWeight;
+    private final String apiKey;
+    private final byte[] receipt;
+
+    private Scenario(String name, Set<Service> services, String apiKey) {
+        this.name = name;
+        this.apiKey = apiKey;
+        this.receipt = new byte[FILE_BYTES];
+        new SplittableRandom(FILE_BYTES).nextBytes(receipt);
+        this.steps = allSteps().stream().filter(step -> services.contains(step.service())).toList();
+        this.totalWeight = steps.stream().mapToInt(Step::weight).sum();
+    }
+
+    public static Scenario of(String name, Set<Service> running, String apiKey) {
+        Set<Service> services = switch (name) {
+            case "mixed" -> running;
+            case "operations" -> Set.of(Service.CASHOPERATIONS);
+            case "reports" -> Set.of(Service.CASHREPORTINGSERVICE);
+            case "documents" -> Set.of(Service.CASHDOCUMENTSSERVICE);
+            default -> throw new IllegalArgumentException("Unknown scenario " + name);
+        };
+        if (!running.containsAll(services)) {
+            throw new IllegalArgumentException("Scenario " + name + " needs " + services + " running");
+        }
+        return new Scenario(name, services, apiKey);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<Step> steps() {
+        return steps;
+    }
+
+    public Step pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Step step : steps) {
+            ticket -= step.weight();
+            if (ticket < 0) {
+                return step;
+            }
+        }
+        throw new IllegalStateException("Weights changed");
+    }
+
+    public HttpRequest request(Step step, Map<Service, URI> targets, SplittableRandom random) {
+        return step.factory().create(targets.get(step.service()), random).timeout(TIMEOUT).build();
+    }
+
+    /**
+     * Uploads the file groups the downloads read, when cashdocumentsservice takes part.
+     */
+    public void prepare(HttpClient client, Map<Service, URI> targets) throws IOException, InterruptedException {
+        if (steps.stream().noneMatch(step -> step.service() == Service.CASHDOCUMENTSSERVICE)) {
+            return;
+        }
+        URI baseUri = targets.get(Service.CASHDOCUMENTSSERVICE);
+        for (int group = 0; group < FILE_GROUPS; group++) {
+            HttpResponse<Void> response = client.send(upload(baseUri, group).timeout(TIMEOUT).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Upload of file group " + group + " answered " + response.statusCode());
+            }
+        }
+    }
+
+    private List<Step> allSteps() {
+        return List.of(
+                new Step("deposit", Service.CASHOPERATIONS, 30, (baseUri, random) ->
+                        operation(baseUri, random, "DEPOSIT", 600, "{\"quantity\":10,\"value\":10},{\"quantity\":10,\"value\":50}")),
+                new Step("withdrawal", Service.CASHOPERATIONS, 10, (baseUri, random) ->
+                        operation(baseUri, random, "WITHDRAWAL", 50, "{\"quantity\":1,\"value\":50}")),
+                new Step("balance", Service.CASHOPERATIONS, 20, (baseUri, random) ->
+                        HttpRequest.newBuilder(URI.create(baseUri + "/api/v1/cash-balance?cashier=" + cashier(random)))
+                                .header("FIB-X-AUTH", apiKey)),
+                new Step("daily-summary", Service.CASHREPORTINGSERVICE, 10, (baseUri, random) ->
+                        report(baseUri, "daily-summary?date=" + LocalDate.now())),
+                new Step("currency-summary", Service.CASHREPORTINGSERVICE, 5, (baseUri, random) ->
+                        report(baseUri, "currency-summary?date=" + LocalDate.now())),
+                new Step("cashier-activity", Service.CASHREPORTINGSERVICE, 5, (baseUri, random) ->
+                        report(baseUri, "cashier-activity?startDate=" + LocalDate.now().atStartOfDay()
+                                + "&endDate=" + LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+                                + "&cashier=" + cashier(random))),
+                new Step("range-summary", Service.CASHREPORTINGSERVICE, 5, (baseUri, random) ->
+                        report(baseUri, "range-summary?from=" + LocalDate.now().minusDays(6) + "&to=" + LocalDate.now())),
+                new Step("upload", Service.CASHDOCUMENTSSERVICE, 5, (baseUri, random) ->
+                        upload(baseUri, random.nextInt(FILE_GROUPS))),
+                new Step("download", Service.CASHDOCUMENTSSERVICE, 5, (baseUri, random) ->
+                        HttpRequest.newBuilder(URI.create(baseUri + "/api/v1/documents/downloader?fileGroup=loadtest-"
+                                + random.nextInt(FILE_GROUPS)))));
+    }
+
+    private HttpRequest.Builder operation(URI baseUri, SplittableRandom random, String type, int amount,
+                                          String denominations) {
+        String body = "{\"cashierName\":\"" + cashier(random) + "\",\"currency\":\""
+                + CURRENCIES.get(random.nextInt(CURRENCIES.size())) + "\",\"operationType\":\"" + type
+                + "\",\"amount\":" + amount + ",\"denominations\":[" + denominations + "]}";
+        return HttpRequest.newBuilder(URI.create(baseUri + "/api/v1/cash-operation"))
+                .header("FIB-X-AUTH", apiKey)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static HttpRequest.Builder report(URI baseUri, String report) {
+        return HttpRequest.newBuilder(URI.create(baseUri + "/api/v1/reports/" + report))
+                .header("Accept", "application/json");
+    }
+
+    private HttpRequest.Builder upload(URI baseUri, int group) {
+        String boundary = "loadtest-" + group;
+        ByteArrayOutputStream body = new ByteArrayOutputStream(FILE_BYTES + 512);
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"fileGroup\"\r\n\r\n"
+                + "loadtest-" + group + "\r\n--" + boundary + "\r\nContent-Disposition: form-data; name=\"files\"; "
+                + "filename=\"receipt.bin\"\r\nContent-Type: application/octet-stream\r\n\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(receipt);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return HttpRequest.newBuilder(URI.create(baseUri + "/api/v1/documents/uploader"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+    }
+
+    private static String cashier(SplittableRandom random) {
+        return CASHIERS.get(random.nextInt(CASHIERS.size()));
+    }
+}
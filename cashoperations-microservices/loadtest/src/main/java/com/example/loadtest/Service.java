@@ -0,0 +1,107 @@
+package com.example.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The microservices under test, with their usual port and context path and the property pointing each at its
+ * upstream.
+ */
+public enum Service {
+
+    CASHOPERATIONS("cashoperations", 8080, "", null, null),
+    CASHREPORTINGSERVICE("cashreportingservice", 8081, "/cashreportingservice",
+            CASHOPERATIONS, "cashoperations.service.base-url"),
+    CASHDOCUMENTSSERVICE("cashdocumentsservice", 8082, "/cashdocumentsservice",
+            CASHREPORTINGSERVICE, "cashreportingservice.service.base-url");
+
+    private static final List<String> VERBOSE_LOGGERS = List.of("org.hibernate.SQL",
+            "org.hibernate.type.descriptor.sql", "org.hibernate.orm.jdbc.bind", "org.springframework.data.jpa",
+            "org.springframework.orm.jpa", "org.springframework.transaction", "org.springframework.jdbc.core",
+            "org.springframework.web.reactive.function.client", "com.h2database");
+
+    private final String module;
+    private final int port;
+    private final String contextPath;
+    private final Service upstream;
+    private final String upstreamProperty;
+
+    Service(String module, int port, String contextPath, Service upstream, String upstreamProperty) {
+        this.module = module;
+        this.port = port;
+        this.contextPath = contextPath;
+        this.upstream = upstream;
+        this.upstreamProperty = upstreamProperty;
+    }
+
+    public String module() {
+        return module;
+    }
+
+    public int port() {
+        return port;
+    }
+
+    public String contextPath() {
+        return contextPath;
+    }
+
+    public Optional<Service> upstream() {
+        return Optional.ofNullable(upstream);
+    }
+
+    /**
+     * Base URL of the service on {@code port}, context path included.
+     */
+    public URI baseUri(int port) {
+        return URI.create("http://localhost:" + port + contextPath);
+    }
+
+    /**
+     * The executable jar {@code mvn package} builds in the module, next to this one.
+     */
+    public Path jar(Path modules) {
+        return modules.resolve(module).resolve("target").resolve(module + "-0.0.1-SNAPSHOT.jar");
+    }
+
+    /**
+     * Arguments that boot the service without the config server and RabbitMQ, on an in-memory database of its own,
+     * logging to {@code logConfig} and calling {@code upstream}.
+     */
+    public List<String> arguments(int port, Path logConfig, URI upstream) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=" + port,
+                "--spring.cloud.config.enabled=false",
+                "--spring.config.import=",
+                "--spring.cloud.bus.enabled=false",
+                // Otherwise served by the config server
+                "--build.version=loadtest",
+                "--management.health.rabbit.enabled=false",
+                "--management.endpoint.shutdown.access=unrestricted",
+                "--spring.datasource.url=jdbc:h2:mem:" + module,
+                "--spring.jpa.show-sql=false",
+                "--spring.output.ansi.enabled=NEVER",
+                "--logging.config=" + logConfig.toUri()));
+        // The application.yml files log every statement
+        for (String logger : VERBOSE_LOGGERS) {
+            arguments.add("--logging.level." + logger + "=WARN");
+        }
+        arguments.add("--logging.level.com.example." + module + "=INFO");
+        if (upstreamProperty != null) {
+            arguments.add("--" + upstreamProperty + "=" + upstream);
+        }
+        return arguments;
+    }
+
+    public static Service of(String module) {
+        for (Service service : values()) {
+            if (service.module.equalsIgnoreCase(module)) {
+                return service;
+            }
+        }
+        throw new IllegalArgumentException("Unknown service " + module);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stand-in for a service that is not booted, answering the calls its downstream makes with fixed JSON after
+ * {@code latencyMillis}: the balances, aggregates and (empty) event log of cashoperations for cashreportingservice,
+ * the daily summary of cashreportingservice for cashdocumentsservice.
+ */
+public final class UpstreamStub implements AutoCloseable {
+
+    private static final List<String> CASHIERS = List.of("LINDA", "MARTINA", "PETER");
+    // With the seconds, which LocalDateTime#toString leaves out when zero
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final HttpServer server;
+    private final URI baseUri;
+
+    private UpstreamStub(HttpServer server, URI baseUri) {
+        this.server = server;
+        this.baseUri = baseUri;
+    }
+
+    public static UpstreamStub start(Service service, long latencyMillis) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        // Platform threads: services booted in this JVM may pin every carrier of the virtual threads while they wait
+        server.setExecutor(Executors.newCachedThreadPool());
+        String base = service.contextPath();
+        switch (service) {
+            case CASHOPERATIONS -> {
+                server.createContext(base + "/api/v1/cash-aggregates",
+                        exchange -> respond(exchange, latencyMillis, aggregates(exchange)));
+                server.createContext(base + "/api/v1/cash-balance",
+                        exchange -> respond(exchange, latencyMillis, balances()));
+                server.createContext(base + "/api/v1/balance-events",
+                        exchange -> respond(exchange, 0, "{\"events\":[],\"oldestId\":0,\"latestId\":0}"));
+            }
+            case CASHREPORTINGSERVICE -> server.createContext(base + "/api/v1/reports/daily-summary",
+                    exchange -> respond(exchange, latencyMillis, "{\"cashier\":\"ALL\",\"date\":\""
+                            + LocalDateTime.now().toLocalDate() + "\",\"totalDeposits\":12,\"totalWithdrawals\":4,"
+                            + "\"endOfDayBalance\":9000,\"currencyBreakdown\":{\"BGN\":3000,\"EUR\":6000}}"));
+            default -> throw new IllegalArgumentException(service + " has no downstream to stub it for");
+        }
+        server.start();
+        return new UpstreamStub(server, URI.create("http://localhost:" + server.getAddress().getPort() + base));
+    }
+
+    public URI baseUri() {
+        return baseUri;
+    }
+
+    private static String aggregates(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getQuery();
+        StringBuilder cashiers = new StringBuilder();
+        if (query != null && query.contains("perCashier=true")) {
+            for (String cashier : CASHIERS) {
+                cashiers.append(cashiers.isEmpty() ? ",\"cashiers\":{" : ",").append('"').append(cashier).append("\":")
+                        .append("{\"currencyTotals\":{\"BGN\":1000,\"EUR\":2000},\"deposits\":4,\"withdrawals\":1}");
+            }
+            cashiers.append('}');
+        }
+        return "{\"timestamp\":\"" + now() + "\",\"cashierCount\":3,\"currencyTotals\":{\"BGN\":3000,\"EUR\":6000},"
+                + "\"deposits\":12,\"withdrawals\":4" + cashiers + "}";
+    }
+
+    private static String balances() {
+        String now = now();
+        StringBuilder json = new StringBuilder("[");
+        for (String cashier : CASHIERS) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"timestamp\":\"").append(now).append("\",\"cashier\":\"").append(cashier)
+                    .append("\",\"operations\":{\"DEPOSIT|").append(cashier).append("|BGN\":4},\"balances\":{")
+                    .append("\"BGN\":[{\"quantity\":50,\"value\":10,\"totalAmount\":500,\"timestamp\":\"").append(now)
+                    .append("\"},{\"quantity\":10,\"value\":50,\"totalAmount\":500,\"timestamp\":\"").append(now)
+                    .append("\"}],\"EUR\":[{\"quantity\":20,\"value\":100,\"totalAmount\":2000,\"timestamp\":\"")
+                    .append(now).append("\"}]}}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static String now() {
+        return LocalDateTime.now().format(TIMESTAMP);
+    }
+
+    private static void respond(HttpExchange exchange, long latencyMillis, String json) throws IOException {
+        if (latencyMillis > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaselineTest {
+
+    @Test
+    void shouldPassWithinTheToleranceOrTheSlack() {
+        Baseline baseline = Baseline.of(result("mixed", 50, step("deposit", 10_000, 0), step("balance", 500, 0)), 0.25, 2, 0.01);
+
+        assertEquals(10, baseline.steps().get("deposit").p50Millis(), 0.01);
+        // 12 ms is within 25% of 10 ms, 2.4 ms within 2 ms of 0.5 ms
+        assertEquals(List.of(), baseline.violations(result("mixed", 50, step("deposit", 12_000, 0), step("balance", 2_400, 0))));
+    }
+
+    @Test
+    void shouldReportTheStepsOverTheirLimits() {
+        Baseline baseline = Baseline.of(result("mixed", 50, step("deposit", 10_000, 0), step("balance", 500, 0)), 0.25, 2, 0.01);
+
+        List<String> violations = baseline.violations(result("mixed", 50, step("deposit", 13_000, 0), step("balance", 500, 5)));
+
+        assertEquals(3, violations.size());
+        assertTrue(violations.get(0).startsWith("deposit p50 13.0"), violations.get(0));
+        assertTrue(violations.get(1).startsWith("deposit p99"), violations.get(1));
+        assertTrue(violations.get(2).startsWith("balance error rate"), violations.get(2));
+    }
+
+    @Test
+    void shouldNotCompareRunsOfAnotherScenarioOrRate() {
+        Baseline baseline = Baseline.of(result("mixed", 50, step("deposit", 10_000, 0)), 0.25, 2, 0.01);
+
+        assertEquals(1, baseline.violations(result("mixed", 100, step("deposit", 10_000, 0))).size());
+        assertEquals(1, baseline.violations(result("operations", 50, step("deposit", 10_000, 0))).size());
+    }
+
+    @Test
+    void shouldReadTheBaselineItWrites(@TempDir Path directory) throws IOException {
+        Baseline baseline = Baseline.of(result("mixed", 50, step("deposit", 10_000, 1), step("balance", 500, 0)), 0.25, 2, 0.01);
+        Path file = directory.resolve("baselines/mixed.json");
+
+        baseline.write(file);
+
+        assertEquals(baseline, Baseline.read(file));
+    }
+
+    @Test
+    void shouldParseTheOptions() {
+        assertEquals(Map.of("rate", "100", "record-baseline", "true"),
+                LoadTestHarness.options(new String[]{"--rate=100", "--record-baseline"}));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestHarness.options(new String[]{"rate=100"}));
+    }
+
+    private static OpenModelLoad.Result result(String scenario, double rate, OpenModelLoad.StepResult... steps) {
+        return new OpenModelLoad.Result(scenario, rate, Duration.ofSeconds(60), List.of(steps));
+    }
+
+    /**
+     * 100 requests of {@code micros}, {@code errors} of them failed.
+     */
+    private static OpenModelLoad.StepResult step(String name, long micros, long errors) {
+        Histogram latencies = new Histogram(3);
+        latencies.recordValueWithCount(micros, 100);
+        return new OpenModelLoad.StepResult(name, latencies, errors, 0, Map.of(200, 100 - errors));
+    }
+}